@@ -0,0 +1,419 @@
+package nablarch.etl;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+
+/**
+ * バイト列の項目を、文字列を介さずにBeanのプロパティに設定するクラス。
+ * <p/>
+ * 数値型のプロパティはASCII文字のバイト列から直接変換し、文字列に変換するのは文字列型のプロパティのみとする。
+ * デコーダと変換後の文字を保持するバッファは、インスタンスごとに再利用する。
+ * 文字セットがShift_JISまたはwindows-31jの場合は、{@link ShiftJisDecoder}の変換表を用いて文字列に変換する。
+ * プロパティの型は、{@link String}、{@link Integer}、{@link Long}、{@link BigDecimal}に対応する。
+ * {@link LineNumber}が設定されたプロパティには、行数を設定する。
+ *
+ * @param <T> Beanの型
+ * @author TIS
+ */
+final class ByteFieldBinder<T> {
+
+    /** ASCII文字をバイト列のまま判定できる文字セット */
+    private static final String[] ASCII_COMPATIBLE_CHARSETS = {"UTF-8", "US-ASCII", "ISO-8859-1", "EUC-JP"};
+
+    /** 0x40未満のASCII文字のみバイト列のまま判定できる文字セット(2バイト目に0x40以上のASCII文字が現れる) */
+    private static final String[] SHIFT_JIS_CHARSETS = {"Shift_JIS", "windows-31j"};
+
+    /** 文字列型 */
+    private static final int STRING = 0;
+
+    /** {@link Integer}型 */
+    private static final int INTEGER = 1;
+
+    /** {@link Long}型 */
+    private static final int LONG = 2;
+
+    /** {@link BigDecimal}型 */
+    private static final int BIG_DECIMAL = 3;
+
+    /** プロパティの型と変換の種類 */
+    private static final Map<Class<?>, Integer> TYPES = new HashMap<Class<?>, Integer>();
+
+    static {
+        TYPES.put(String.class, STRING);
+        TYPES.put(Integer.class, INTEGER);
+        TYPES.put(Long.class, LONG);
+        TYPES.put(BigDecimal.class, BIG_DECIMAL);
+    }
+
+    /** Beanクラス */
+    private final Class<T> bean;
+
+    /** 項目のプロパティ名 */
+    private final String[] properties;
+
+    /** 項目ごとのプロパティのsetter */
+    private final Method[] setters;
+
+    /** 項目ごとの変換の種類 */
+    private final int[] types;
+
+    /** 行数を保持するプロパティのsetter(行数を保持しない場合は{@code null}) */
+    private final Method lineNumberSetter;
+
+    /** 空の文字列を{@code null}とするか否か */
+    private final boolean emptyToNull;
+
+    /** 文字列型の項目の変換に使用するデコーダ */
+    private final CharsetDecoder decoder;
+
+    /** 変換表を用いたデコーダ(文字セットが対応していない場合は{@code null}) */
+    private final ShiftJisDecoder shiftJisDecoder;
+
+    /** 変換後の文字を保持するバッファ */
+    private CharBuffer chars = CharBuffer.allocate(256);
+
+    /**
+     * コンストラクタ。
+     *
+     * @param bean Beanクラス({@link #isSupported(Class, String[])}が{@code true}であること)
+     * @param properties 項目のプロパティ名
+     * @param charset 文字セット
+     * @param emptyToNull 空の文字列を{@code null}とするか否か
+     */
+    ByteFieldBinder(final Class<T> bean, final String[] properties, final Charset charset,
+            final boolean emptyToNull) {
+        this.bean = bean;
+        this.properties = properties;
+        this.emptyToNull = emptyToNull;
+        final Map<String, PropertyDescriptor> descriptors = findPropertyDescriptors(bean);
+        setters = new Method[properties.length];
+        types = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            final PropertyDescriptor descriptor = descriptors.get(properties[i]);
+            setters[i] = descriptor.getWriteMethod();
+            types[i] = TYPES.get(descriptor.getPropertyType());
+        }
+        lineNumberSetter = findLineNumberSetter(descriptors);
+        decoder = charset.newDecoder()
+                         .onMalformedInput(CodingErrorAction.REPLACE)
+                         .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        shiftJisDecoder = ShiftJisDecoder.of(charset);
+    }
+
+    /**
+     * Beanの項目のプロパティに値を設定できるか否か。
+     *
+     * @param bean Beanクラス
+     * @param properties 項目のプロパティ名
+     * @return publicな引数なしのコンストラクタを持ち、全てのプロパティが対応する型のsetterを持つ場合は{@code true}
+     */
+    static boolean isSupported(final Class<?> bean, final String[] properties) {
+        try {
+            if (!Modifier.isPublic(bean.getConstructor().getModifiers())) {
+                return false;
+            }
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        final Map<String, PropertyDescriptor> descriptors = findPropertyDescriptors(bean);
+        for (String property : properties) {
+            final PropertyDescriptor descriptor = descriptors.get(property);
+            if (descriptor == null || descriptor.getWriteMethod() == null
+                    || !TYPES.containsKey(descriptor.getPropertyType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 文字セットで、ASCII文字がマルチバイト文字の一部として現れず、バイト列のまま判定できるか否か。
+     *
+     * @param charset 文字セット
+     * @param c ASCII文字
+     * @return 判定できる場合は{@code true}
+     */
+    static boolean isSingleByteCharacter(final Charset charset, final char c) {
+        if (isOneOf(charset, ASCII_COMPATIBLE_CHARSETS)) {
+            return c < 0x80;
+        }
+        if (isOneOf(charset, SHIFT_JIS_CHARSETS)) {
+            return c < 0x40;
+        }
+        return false;
+    }
+
+    /**
+     * Beanのインスタンスを生成し、行数を設定する。
+     *
+     * @param lineNumber 行数
+     * @return Beanのインスタンス
+     */
+    T newBean(final long lineNumber) {
+        final T item;
+        try {
+            item = bean.newInstance();
+        } catch (InstantiationException e) {
+            throw new RuntimeException("failed to instantiate the bean. bean = [" + bean.getName() + ']', e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("failed to instantiate the bean. bean = [" + bean.getName() + ']', e);
+        }
+        if (lineNumberSetter != null) {
+            invoke(lineNumberSetter, item, lineNumber);
+        }
+        return item;
+    }
+
+    /**
+     * 項目のバイト列をプロパティの型に変換し、Beanに設定する。
+     * <p/>
+     * 数値型の項目が空の場合は{@code null}を設定する。
+     *
+     * @param item Beanのインスタンス
+     * @param field 項目の番号
+     * @param buffer バッファ
+     * @param start 項目の開始位置
+     * @param length 項目のバイト数
+     * @param lineNumber 行数
+     */
+    void bind(final T item, final int field, final byte[] buffer, final int start, final int length,
+            final long lineNumber) {
+        invoke(setters[field], item, convert(field, buffer, start, length, lineNumber));
+    }
+
+    /**
+     * 項目のプロパティが数値型か否か。
+     *
+     * @param field 項目の番号
+     * @return 数値型の場合は{@code true}
+     */
+    boolean isNumeric(final int field) {
+        return types[field] != STRING;
+    }
+
+    /**
+     * 項目のバイト列を文字列に変換する。
+     * <p/>
+     * {@link ShiftJisDecoder}の変換表にないバイト列を含む場合は、文字セットのデコーダで変換する。
+     *
+     * @param buffer バッファ
+     * @param start 開始位置
+     * @param length バイト数
+     * @return 文字列
+     */
+    String decode(final byte[] buffer, final int start, final int length) {
+        if (shiftJisDecoder != null) {
+            if (chars.capacity() < length) {
+                chars = CharBuffer.allocate(length);
+            }
+            final int count = shiftJisDecoder.decode(buffer, start, length, chars.array());
+            if (count >= 0) {
+                return new String(chars.array(), 0, count);
+            }
+        }
+        final int required = (int) (length * (double) decoder.maxCharsPerByte()) + 1;
+        if (chars.capacity() < required) {
+            chars = CharBuffer.allocate(required);
+        }
+        chars.clear();
+        decoder.reset();
+        final CoderResult result = decoder.decode(ByteBuffer.wrap(buffer, start, length), chars, true);
+        if (!result.isUnderflow()) {
+            throw new IllegalStateException("unexpected decode result. result = [" + result + ']');
+        }
+        decoder.flush(chars);
+        return new String(chars.array(), 0, chars.position());
+    }
+
+    /**
+     * 項目のバイト列をプロパティの型に変換する。
+     *
+     * @param field 項目の番号
+     * @param buffer バッファ
+     * @param start 開始位置
+     * @param length バイト数
+     * @param lineNumber 行数
+     * @return 変換後の値
+     */
+    private Object convert(final int field, final byte[] buffer, final int start, final int length,
+            final long lineNumber) {
+        if (types[field] == STRING) {
+            if (length == 0) {
+                return emptyToNull ? null : "";
+            }
+            return decode(buffer, start, length);
+        }
+        if (length == 0) {
+            return null;
+        }
+        try {
+            switch (types[field]) {
+                case INTEGER:
+                    final long value = parseLong(buffer, start, length);
+                    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                        throw new NumberFormatException();
+                    }
+                    return (int) value;
+                case LONG:
+                    return parseLong(buffer, start, length);
+                default:
+                    return parseBigDecimal(buffer, start, length);
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidDataFormatException(String.format(
+                    "invalid number. property name = [%s], value = [%s].",
+                    properties[field], decode(buffer, start, length)), lineNumber);
+        }
+    }
+
+    /**
+     * ASCII文字のバイト列を{@code long}に変換する。
+     *
+     * @param buffer バッファ
+     * @param start 開始位置
+     * @param length バイト数
+     * @return 変換後の値
+     * @throws NumberFormatException 数値に変換できない場合
+     */
+    private static long parseLong(final byte[] buffer, final int start, final int length) {
+        final int end = start + length;
+        int p = start;
+        final boolean negative = buffer[p] == '-';
+        if (negative || buffer[p] == '+') {
+            p++;
+            if (p == end) {
+                throw new NumberFormatException();
+            }
+        }
+        // 桁あふれを判定するため、負の値として累積する
+        long result = 0L;
+        for (; p < end; p++) {
+            final int digit = buffer[p] - '0';
+            if (digit < 0 || digit > 9 || result < Long.MIN_VALUE / 10) {
+                throw new NumberFormatException();
+            }
+            result *= 10;
+            if (result < Long.MIN_VALUE + digit) {
+                throw new NumberFormatException();
+            }
+            result -= digit;
+        }
+        if (negative) {
+            return result;
+        }
+        if (result == Long.MIN_VALUE) {
+            throw new NumberFormatException();
+        }
+        return -result;
+    }
+
+    /**
+     * ASCII文字のバイト列を{@link BigDecimal}に変換する。
+     *
+     * @param buffer バッファ
+     * @param start 開始位置
+     * @param length バイト数
+     * @return 変換後の値
+     * @throws NumberFormatException 数値に変換できない場合
+     */
+    private BigDecimal parseBigDecimal(final byte[] buffer, final int start, final int length) {
+        if (chars.capacity() < length) {
+            chars = CharBuffer.allocate(length);
+        }
+        final char[] digits = chars.array();
+        for (int i = 0; i < length; i++) {
+            final byte b = buffer[start + i];
+            if (b < 0) {
+                throw new NumberFormatException();
+            }
+            digits[i] = (char) b;
+        }
+        return new BigDecimal(digits, 0, length);
+    }
+
+    /**
+     * setterを呼び出す。
+     *
+     * @param setter setter
+     * @param item Beanのインスタンス
+     * @param value 値
+     */
+    private static void invoke(final Method setter, final Object item, final Object value) {
+        try {
+            setter.invoke(item, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("failed to set the property. method = [" + setter + ']', e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException("failed to set the property. method = [" + setter + ']', e.getCause());
+        }
+    }
+
+    /**
+     * 文字セットが、指定された文字セットのいずれかであるか否か。
+     *
+     * @param charset 文字セット
+     * @param names 文字セットの名前
+     * @return いずれかである場合は{@code true}
+     */
+    private static boolean isOneOf(final Charset charset, final String[] names) {
+        for (String name : names) {
+            if (Charset.isSupported(name) && charset.equals(Charset.forName(name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@link LineNumber}が設定されたプロパティのsetterを取得する。
+     *
+     * @param descriptors プロパティ名をキーとしたプロパティ
+     * @return setter。{@link LineNumber}が設定されたプロパティがない場合は{@code null}
+     */
+    private static Method findLineNumberSetter(final Map<String, PropertyDescriptor> descriptors) {
+        for (PropertyDescriptor descriptor : descriptors.values()) {
+            final Method getter = descriptor.getReadMethod();
+            if (getter != null && getter.isAnnotationPresent(LineNumber.class)) {
+                return descriptor.getWriteMethod();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Beanのプロパティを取得する。
+     *
+     * @param bean Beanクラス
+     * @return プロパティ名をキーとしたプロパティ
+     */
+    private static Map<String, PropertyDescriptor> findPropertyDescriptors(final Class<?> bean) {
+        final BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(bean);
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("failed to introspect the bean. bean = [" + bean.getName() + ']', e);
+        }
+        final Map<String, PropertyDescriptor> descriptors = new HashMap<String, PropertyDescriptor>();
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            descriptors.put(descriptor.getName(), descriptor);
+        }
+        return descriptors;
+    }
+}
@@ -0,0 +1,228 @@
+package nablarch.etl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 複数のメンバーで構成されたgzip形式のデータを、ストリーミングで展開する{@link InputStream}実装クラス。
+ * <p/>
+ * {@code cat a.gz b.gz}やpigzなどで作成された、メンバーを連結したgzipファイルを1つのデータとして読み込む。
+ * メンバーごとにCRC32とサイズを検証する。最後のメンバーの後にgzipのヘッダ以外のデータがある場合は、読み捨てる。
+ *
+ * @author TIS
+ */
+final class ConcatenatedGzipInputStream extends InputStream {
+
+    /** gzipのマジックナンバー */
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    /** deflateの圧縮方式 */
+    private static final int DEFLATED = 8;
+
+    /** ヘッダCRCのフラグ */
+    private static final int FHCRC = 2;
+
+    /** 拡張フィールドのフラグ */
+    private static final int FEXTRA = 4;
+
+    /** ファイル名のフラグ */
+    private static final int FNAME = 8;
+
+    /** コメントのフラグ */
+    private static final int FCOMMENT = 16;
+
+    /** 読み込み元のストリーム */
+    private final PushbackInputStream in;
+
+    /** 展開を行う{@link Inflater} */
+    private final Inflater inflater = new Inflater(true);
+
+    /** 展開したデータのCRC32 */
+    private final CRC32 crc = new CRC32();
+
+    /** 読み込みバッファ */
+    private final byte[] buffer;
+
+    /** 読み込みバッファに最後に読み込んだバイト数 */
+    private int bufferLength;
+
+    /** 1バイトの読み込みに使用するバッファ */
+    private final byte[] single = new byte[1];
+
+    /** 全てのメンバーを読み込んだか否か */
+    private boolean eof;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 読み込み元のストリーム
+     * @param bufferSize 読み込みバッファのサイズ
+     * @throws IOException gzip形式でない場合や、入出力例外が発生した場合
+     */
+    ConcatenatedGzipInputStream(final InputStream in, final int bufferSize) throws IOException {
+        this.in = new PushbackInputStream(in, bufferSize);
+        buffer = new byte[bufferSize];
+        if (!readHeader(true)) {
+            throw new EOFException("gzip header was not found.");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (!eof) {
+            final int inflated;
+            try {
+                inflated = inflater.inflate(b, off, len);
+            } catch (DataFormatException e) {
+                throw new ZipException(e.getMessage());
+            }
+            if (inflated > 0) {
+                crc.update(b, off, inflated);
+                return inflated;
+            }
+            if (inflater.finished()) {
+                final int remaining = inflater.getRemaining();
+                if (remaining > 0) {
+                    in.unread(buffer, bufferLength - remaining, remaining);
+                }
+                readTrailer();
+                eof = !readHeader(false);
+            } else if (inflater.needsDictionary()) {
+                throw new ZipException("gzip member requires a preset dictionary.");
+            } else if (inflater.needsInput()) {
+                bufferLength = in.read(buffer, 0, buffer.length);
+                if (bufferLength == -1) {
+                    throw new EOFException("unexpected end of gzip input.");
+                }
+                inflater.setInput(buffer, 0, bufferLength);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    /**
+     * メンバーのヘッダを読み込み、展開の状態を初期化する。
+     *
+     * @param first 最初のメンバーか否か
+     * @return ヘッダを読み込んだ場合は{@code true}。データの終わりに達した場合は{@code false}
+     * @throws IOException 最初のメンバーがgzip形式でない場合や、入出力例外が発生した場合
+     */
+    private boolean readHeader(final boolean first) throws IOException {
+        final int b1 = in.read();
+        if (b1 == -1) {
+            return false;
+        }
+        final int b2 = in.read();
+        if (b2 == -1 || (b2 << 8 | b1) != GZIP_MAGIC) {
+            if (first) {
+                throw new ZipException("not in gzip format.");
+            }
+            // 最後のメンバーの後のパディングなどは読み捨てる
+            return false;
+        }
+        if (readUnsignedByte() != DEFLATED) {
+            throw new ZipException("unsupported gzip compression method.");
+        }
+        final int flags = readUnsignedByte();
+        skipBytes(6);
+        if ((flags & FEXTRA) != 0) {
+            skipBytes(readUnsignedByte() | readUnsignedByte() << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FHCRC) != 0) {
+            skipBytes(2);
+        }
+        inflater.reset();
+        crc.reset();
+        return true;
+    }
+
+    /**
+     * メンバーのトレーラを読み込み、CRC32と展開後のサイズを検証する。
+     *
+     * @throws IOException 検証に失敗した場合や、入出力例外が発生した場合
+     */
+    private void readTrailer() throws IOException {
+        final long expectedCrc = readUnsignedInt();
+        final long expectedSize = readUnsignedInt();
+        if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+            throw new ZipException("corrupt gzip trailer.");
+        }
+    }
+
+    /**
+     * 符号なしの1バイトを読み込む。
+     *
+     * @return 読み込んだ値
+     * @throws IOException データの終わりに達した場合や、入出力例外が発生した場合
+     */
+    private int readUnsignedByte() throws IOException {
+        final int b = in.read();
+        if (b == -1) {
+            throw new EOFException("unexpected end of gzip input.");
+        }
+        return b;
+    }
+
+    /**
+     * リトルエンディアンの符号なしの4バイトを読み込む。
+     *
+     * @return 読み込んだ値
+     * @throws IOException データの終わりに達した場合や、入出力例外が発生した場合
+     */
+    private long readUnsignedInt() throws IOException {
+        long value = 0L;
+        for (int i = 0; i < 4; i++) {
+            value |= (long) readUnsignedByte() << (i * 8);
+        }
+        return value;
+    }
+
+    /**
+     * 指定されたバイト数を読み飛ばす。
+     *
+     * @param n バイト数
+     * @throws IOException データの終わりに達した場合や、入出力例外が発生した場合
+     */
+    private void skipBytes(final int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            readUnsignedByte();
+        }
+    }
+
+    /**
+     * 0で終わる文字列を読み飛ばす。
+     *
+     * @throws IOException データの終わりに達した場合や、入出力例外が発生した場合
+     */
+    private void skipZeroTerminated() throws IOException {
+        while (readUnsignedByte() != 0) {
+            // nop
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package nablarch.etl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.validation.ee.Domain;
+import nablarch.core.validation.ee.DomainManager;
+import nablarch.core.validation.ee.Length;
+import nablarch.core.validation.ee.Required;
+
+/**
+ * プロパティに設定された制約のメタデータをたどり、扱える制約ごとに{@link Visitor}を呼び出すクラス。
+ * <p/>
+ * 扱える制約は以下の通り。
+ * <ul>
+ * <li>{@link NotNull}</li>
+ * <li>{@link Required}(文字列のプロパティのみ)</li>
+ * <li>{@link Size}、{@link Length}(文字列のプロパティのみ)</li>
+ * <li>{@link Max}、{@link Min}(整数型と{@link BigDecimal}のプロパティのみ)</li>
+ * <li>{@link Domain}(ドメインに設定された制約をたどる)</li>
+ * </ul>
+ * デフォルトグループ以外のグループを指定した制約や、上記以外の制約は扱えない。
+ * ドメインは、"domainManager"という名前でリポジトリに登録された{@link DomainManager}のドメインBeanから解決する。
+ *
+ * @author TIS
+ */
+final class ConstraintMetaDataWalker {
+
+    /** {@link DomainManager}のコンポーネント名 */
+    private static final String DOMAIN_MANAGER_NAME = "domainManager";
+
+    /** {@link Max}、{@link Min}を扱えるプロパティの型 */
+    private static final Set<Class<?>> INTEGRAL_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            Byte.class, Short.class, Integer.class, Long.class, BigInteger.class, BigDecimal.class,
+            byte.class, short.class, int.class, long.class));
+
+    /** バリデータ */
+    private final Validator validator;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param validator バリデータ
+     */
+    ConstraintMetaDataWalker(final Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * 制約をたどり、制約ごとに{@link Visitor}を呼び出す。
+     *
+     * @param type プロパティの型
+     * @param constraints 制約
+     * @param visitor {@link Visitor}
+     * @return 全ての制約を扱えた場合は{@code true}
+     */
+    boolean walk(final Class<?> type, final Set<ConstraintDescriptor<?>> constraints, final Visitor visitor) {
+        for (ConstraintDescriptor<?> constraint : constraints) {
+            if (!isDefaultGroup(constraint)) {
+                return false;
+            }
+            final Class<?> annotationType = constraint.getAnnotation().annotationType();
+            final Map<String, Object> attributes = constraint.getAttributes();
+            final boolean accepted;
+            if (annotationType == Domain.class) {
+                accepted = walkDomain(type, (String) attributes.get("value"), visitor);
+            } else if (annotationType == NotNull.class) {
+                accepted = visitor.notNull();
+            } else if (annotationType == Required.class && type == String.class) {
+                accepted = visitor.required();
+            } else if (annotationType == Size.class && type == String.class) {
+                accepted = visitor.length((Integer) attributes.get("min"), (Integer) attributes.get("max"), false);
+            } else if (annotationType == Length.class && type == String.class) {
+                accepted = visitor.length((Integer) attributes.get("min"), (Integer) attributes.get("max"), true);
+            } else if (annotationType == Max.class && INTEGRAL_TYPES.contains(type)) {
+                accepted = visitor.max((Long) attributes.get("value"));
+            } else if (annotationType == Min.class && INTEGRAL_TYPES.contains(type)) {
+                accepted = visitor.min((Long) attributes.get("value"));
+            } else {
+                accepted = false;
+            }
+            if (!accepted) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * ドメインに設定された制約をたどる。
+     *
+     * @param type プロパティの型
+     * @param domainName ドメイン名
+     * @param visitor {@link Visitor}
+     * @return ドメインを解決でき、全ての制約を扱えた場合は{@code true}
+     */
+    private boolean walkDomain(final Class<?> type, final String domainName, final Visitor visitor) {
+        final DomainManager<?> domainManager = SystemRepository.get(DOMAIN_MANAGER_NAME);
+        if (domainManager == null) {
+            return false;
+        }
+        final PropertyDescriptor domain = validator.getConstraintsForClass(domainManager.getDomainBean())
+                                                   .getConstraintsForProperty(domainName);
+        return domain != null && walk(type, domain.getConstraintDescriptors(), visitor);
+    }
+
+    /**
+     * 制約がデフォルトグループのみに属するか否か。
+     *
+     * @param constraint 制約
+     * @return デフォルトグループのみに属する場合は{@code true}
+     */
+    private static boolean isDefaultGroup(final ConstraintDescriptor<?> constraint) {
+        final Set<Class<?>> groups = constraint.getGroups();
+        return groups.size() == 1 && groups.contains(Default.class);
+    }
+
+    /**
+     * 制約ごとに呼び出されるインタフェース。
+     * <p/>
+     * 各メソッドは、制約を扱えない場合に{@code false}を返す。
+     */
+    interface Visitor {
+
+        /**
+         * {@link NotNull}を扱う。
+         *
+         * @return 扱えた場合は{@code true}
+         */
+        boolean notNull();
+
+        /**
+         * {@link Required}を扱う。
+         *
+         * @return 扱えた場合は{@code true}
+         */
+        boolean required();
+
+        /**
+         * {@link Size}または{@link Length}を扱う。
+         *
+         * @param min 最小の長さ
+         * @param max 最大の長さ
+         * @param allowEmpty 空文字列を許容する場合({@link Length}の場合)は{@code true}
+         * @return 扱えた場合は{@code true}
+         */
+        boolean length(int min, int max, boolean allowEmpty);
+
+        /**
+         * {@link Max}を扱う。
+         *
+         * @param value 最大値
+         * @return 扱えた場合は{@code true}
+         */
+        boolean max(long value);
+
+        /**
+         * {@link Min}を扱う。
+         *
+         * @param value 最小値
+         * @return 扱えた場合は{@code true}
+         */
+        boolean min(long value);
+    }
+}
@@ -0,0 +1,180 @@
+package nablarch.etl;
+
+import java.nio.charset.Charset;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
+import nablarch.common.databind.csv.CsvFormat;
+
+/**
+ * Beanの{@link Csv}(フォーマットが{@link Csv.CsvType#CUSTOM}の場合は{@link CsvFormat})の定義から取得したCSVの形式。
+ * <p/>
+ * {@link nablarch.common.databind.ObjectMapper}を介さずにCSVを読み書きする場合に、Beanの定義を1度だけ解釈するために使用する。
+ *
+ * @author TIS
+ */
+final class CsvLayout {
+
+    /** 項目のプロパティ名 */
+    private final String[] properties;
+
+    /** 列区切り */
+    private final char fieldSeparator;
+
+    /** 行区切り */
+    private final String lineSeparator;
+
+    /** 囲み文字 */
+    private final char quote;
+
+    /** 空行を無視するか否か */
+    private final boolean ignoreEmptyLine;
+
+    /** ヘッダ行があるか否か */
+    private final boolean requiredHeader;
+
+    /** 文字セット */
+    private final Charset charset;
+
+    /** 空の値を{@code null}とするか否か */
+    private final boolean emptyToNull;
+
+    /** クォートモード */
+    private final QuoteMode quoteMode;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param properties 項目のプロパティ名
+     * @param fieldSeparator 列区切り
+     * @param lineSeparator 行区切り
+     * @param quote 囲み文字
+     * @param ignoreEmptyLine 空行を無視するか否か
+     * @param requiredHeader ヘッダ行があるか否か
+     * @param charset 文字セット
+     * @param emptyToNull 空の値を{@code null}とするか否か
+     * @param quoteMode クォートモード
+     */
+    private CsvLayout(final String[] properties, final char fieldSeparator, final String lineSeparator,
+            final char quote, final boolean ignoreEmptyLine, final boolean requiredHeader, final Charset charset,
+            final boolean emptyToNull, final QuoteMode quoteMode) {
+        this.properties = properties;
+        this.fieldSeparator = fieldSeparator;
+        this.lineSeparator = lineSeparator;
+        this.quote = quote;
+        this.ignoreEmptyLine = ignoreEmptyLine;
+        this.requiredHeader = requiredHeader;
+        this.charset = charset;
+        this.emptyToNull = emptyToNull;
+        this.quoteMode = quoteMode;
+    }
+
+    /**
+     * Beanの定義からCSVの形式を生成する。
+     *
+     * @param bean Beanクラス
+     * @return CSVの形式。{@link Csv}が定義されていない場合や、
+     *         フォーマットが{@link Csv.CsvType#CUSTOM}で{@link CsvFormat}が定義されていない場合は{@code null}
+     */
+    static CsvLayout of(final Class<?> bean) {
+        final Csv csv = bean.getAnnotation(Csv.class);
+        if (csv == null) {
+            return null;
+        }
+        if (csv.type() == Csv.CsvType.CUSTOM) {
+            final CsvFormat custom = bean.getAnnotation(CsvFormat.class);
+            if (custom == null) {
+                return null;
+            }
+            return new CsvLayout(csv.properties(), custom.fieldSeparator(), custom.lineSeparator(), custom.quote(),
+                    custom.ignoreEmptyLine(), custom.requiredHeader(), Charset.forName(custom.charset()),
+                    custom.emptyToNull(), custom.quoteMode());
+        }
+        final CsvDataBindConfig config = csv.type().getConfig();
+        return new CsvLayout(csv.properties(), config.getFieldSeparator(), config.getLineSeparator(),
+                config.getQuote(), config.isIgnoreEmptyLine(), config.isRequiredHeader(), config.getCharset(),
+                config.isEmptyToNull(), config.getQuoteMode());
+    }
+
+    /**
+     * 項目のプロパティ名を取得する。
+     *
+     * @return 項目のプロパティ名
+     */
+    String[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * 列区切りを取得する。
+     *
+     * @return 列区切り
+     */
+    char getFieldSeparator() {
+        return fieldSeparator;
+    }
+
+    /**
+     * 行区切りを取得する。
+     *
+     * @return 行区切り
+     */
+    String getLineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * 囲み文字を取得する。
+     *
+     * @return 囲み文字
+     */
+    char getQuote() {
+        return quote;
+    }
+
+    /**
+     * 空行を無視するか否か。
+     *
+     * @return 空行を無視する場合は{@code true}
+     */
+    boolean isIgnoreEmptyLine() {
+        return ignoreEmptyLine;
+    }
+
+    /**
+     * ヘッダ行があるか否か。
+     *
+     * @return ヘッダ行がある場合は{@code true}
+     */
+    boolean isRequiredHeader() {
+        return requiredHeader;
+    }
+
+    /**
+     * 文字セットを取得する。
+     *
+     * @return 文字セット
+     */
+    Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 空の値を{@code null}とするか否か。
+     *
+     * @return 空の値を{@code null}とする場合は{@code true}
+     */
+    boolean isEmptyToNull() {
+        return emptyToNull;
+    }
+
+    /**
+     * クォートモードを取得する。
+     *
+     * @return クォートモード
+     */
+    QuoteMode getQuoteMode() {
+        return quoteMode;
+    }
+}
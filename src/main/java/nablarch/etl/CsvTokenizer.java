@@ -0,0 +1,305 @@
+package nablarch.etl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import nablarch.common.databind.InvalidDataFormatException;
+
+/**
+ * CSVのデータを、文字に変換せずにバイト列のまま項目に分割するクラス。
+ * <p/>
+ * 列区切りと囲み文字は1バイトの文字とし、行区切りはCRLF、LF、CRのいずれも受け付ける。
+ * 項目は読み込みバッファ内の位置として保持するため、レコードごとのオブジェクトを生成しない。
+ * 項目の位置は、次のレコードを読み込むまで有効となる。
+ * <p/>
+ * 列区切りや囲み文字のバイトが、マルチバイト文字の一部として現れない文字セットでのみ使用できる。
+ *
+ * @author TIS
+ */
+final class CsvTokenizer {
+
+    /** CR */
+    private static final byte CR = '\r';
+
+    /** LF */
+    private static final byte LF = '\n';
+
+    /** 項目が囲み文字で囲まれていることを示すフラグ */
+    private static final int QUOTED = 1;
+
+    /** 項目がエスケープされた囲み文字を含むことを示すフラグ */
+    private static final int ESCAPED = 2;
+
+    /** 読み込み元のストリーム */
+    private final InputStream in;
+
+    /** 列区切り */
+    private final byte separator;
+
+    /** 囲み文字 */
+    private final byte quote;
+
+    /** 読み込みバッファ */
+    private byte[] buffer;
+
+    /** 次のレコードの開始位置 */
+    private int position;
+
+    /** 読み込みバッファの有効なデータの終わり */
+    private int limit;
+
+    /** ストリームの終わりに達したか否か */
+    private boolean eof;
+
+    /** 項目の開始位置 */
+    private int[] starts = new int[16];
+
+    /** 項目の終了位置 */
+    private int[] ends = new int[16];
+
+    /** 項目のフラグ */
+    private int[] flags = new int[16];
+
+    /** 現在のレコードの項目数 */
+    private int fieldCount;
+
+    /** 読み込んだレコード数 */
+    private long recordNumber;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 読み込み元のストリーム
+     * @param bufferSize 読み込みバッファの初期サイズ(レコードが収まらない場合は拡張する)
+     * @param separator 列区切り
+     * @param quote 囲み文字
+     */
+    CsvTokenizer(final InputStream in, final int bufferSize, final char separator, final char quote) {
+        this.in = in;
+        this.separator = (byte) separator;
+        this.quote = (byte) quote;
+        buffer = new byte[bufferSize];
+    }
+
+    /**
+     * 次のレコードを読み込み、項目に分割する。
+     *
+     * @return レコードを読み込んだ場合は{@code true}。データの終わりに達した場合は{@code false}
+     * @throws IOException 入出力例外
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (position < limit || eof) {
+                if (position == limit) {
+                    return false;
+                }
+                final int end = tokenize(position);
+                if (end >= 0) {
+                    position = end;
+                    recordNumber++;
+                    return true;
+                }
+            }
+            fill();
+        }
+    }
+
+    /**
+     * 現在のレコードの項目数を取得する。
+     *
+     * @return 項目数
+     */
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 読み込んだレコード数を取得する。
+     *
+     * @return レコード数
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * 現在のレコードが空行か否か。
+     *
+     * @return 空行の場合は{@code true}
+     */
+    boolean isEmptyLine() {
+        return fieldCount == 1 && flags[0] == 0 && starts[0] == ends[0];
+    }
+
+    /**
+     * 項目のバイト列を保持するバッファを取得する。
+     *
+     * @return バッファ
+     */
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * 項目のバッファ内の開始位置を取得する。
+     *
+     * @param field 項目の番号(0から始まる)
+     * @return 開始位置
+     */
+    int getStart(final int field) {
+        return starts[field];
+    }
+
+    /**
+     * 項目のバイト数を取得する。
+     * <p/>
+     * 囲み文字のエスケープを含む項目は、バッファ内でエスケープを解除してからバイト数を返す。
+     *
+     * @param field 項目の番号(0から始まる)
+     * @return バイト数
+     */
+    int getLength(final int field) {
+        if ((flags[field] & ESCAPED) != 0) {
+            unescape(field);
+        }
+        return ends[field] - starts[field];
+    }
+
+    /**
+     * レコードを項目に分割する。
+     *
+     * @param start レコードの開始位置
+     * @return 次のレコードの開始位置。レコードの途中で読み込みバッファのデータが尽きた場合は-1
+     */
+    private int tokenize(final int start) {
+        fieldCount = 0;
+        int p = start;
+        while (true) {
+            if (p < limit && buffer[p] == quote) {
+                final int fieldStart = p + 1;
+                int flag = QUOTED;
+                p = fieldStart;
+                while (true) {
+                    if (p >= limit) {
+                        if (eof) {
+                            throw invalidFormat("quoted field was not closed.");
+                        }
+                        return -1;
+                    }
+                    if (buffer[p] == quote) {
+                        if (p + 1 >= limit && !eof) {
+                            return -1;
+                        }
+                        if (p + 1 < limit && buffer[p + 1] == quote) {
+                            flag |= ESCAPED;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                addField(fieldStart, p, flag);
+                p++;
+                if (p < limit && buffer[p] != separator && buffer[p] != CR && buffer[p] != LF) {
+                    throw invalidFormat("invalid character after the closing quote.");
+                }
+            } else {
+                final int fieldStart = p;
+                while (p < limit && buffer[p] != separator && buffer[p] != CR && buffer[p] != LF) {
+                    p++;
+                }
+                if (p >= limit && !eof) {
+                    return -1;
+                }
+                addField(fieldStart, p, 0);
+            }
+
+            if (p >= limit) {
+                return p;
+            }
+            final byte b = buffer[p];
+            if (b == separator) {
+                p++;
+                continue;
+            }
+            if (b == CR) {
+                if (p + 1 >= limit && !eof) {
+                    return -1;
+                }
+                return p + 1 < limit && buffer[p + 1] == LF ? p + 2 : p + 1;
+            }
+            return p + 1;
+        }
+    }
+
+    /**
+     * 項目を追加する。
+     *
+     * @param start 開始位置
+     * @param end 終了位置
+     * @param flag フラグ
+     */
+    private void addField(final int start, final int end, final int flag) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            flags = Arrays.copyOf(flags, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        flags[fieldCount] = flag;
+        fieldCount++;
+    }
+
+    /**
+     * 項目のエスケープされた囲み文字を、バッファ内で1文字に置き換える。
+     *
+     * @param field 項目の番号
+     */
+    private void unescape(final int field) {
+        int to = starts[field];
+        for (int from = starts[field]; from < ends[field]; from++) {
+            buffer[to++] = buffer[from];
+            if (buffer[from] == quote) {
+                from++;
+            }
+        }
+        ends[field] = to;
+        flags[field] &= ~ESCAPED;
+    }
+
+    /**
+     * 読み込みバッファにデータを読み込む。
+     * <p/>
+     * 読み込み済みのレコードのデータは破棄し、レコードが読み込みバッファに収まらない場合はバッファを拡張する。
+     *
+     * @throws IOException 入出力例外
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        final int read = in.read(buffer, limit, buffer.length - limit);
+        if (read == -1) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * フォーマット不正の例外を生成する。
+     *
+     * @param message メッセージ
+     * @return 例外
+     */
+    private InvalidDataFormatException invalidFormat(final String message) {
+        return new InvalidDataFormatException(message, recordNumber + 1);
+    }
+}
@@ -1,11 +1,15 @@
 package nablarch.etl;
 
+import nablarch.common.dao.EntityUtil;
 import nablarch.common.dao.UniversalDao;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
 import nablarch.etl.config.DbInputStepConfig;
 import nablarch.etl.config.EtlConfig;
 import nablarch.etl.config.StepConfig;
 import nablarch.fw.batch.ee.progress.ProgressManager;
 
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemReader;
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
@@ -14,7 +18,9 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * 指定されたSELECT文を使ってテーブルから取得したレコードの読み込みを行う{@link AbstractItemReader}の実装クラス。
@@ -25,6 +31,9 @@ import java.util.Iterator;
 @Dependent
 public class DatabaseItemReader extends AbstractItemReader {
 
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
     /** {@link JobContext} */
     private final JobContext jobContext;
 
@@ -40,6 +49,25 @@ public class DatabaseItemReader extends AbstractItemReader {
     /** テーブルのデータを格納する変数 */
     private Iterator<?> reader;
 
+    /** 読み飛ばすバリデーションエラーの行番号 */
+    private LineNumberBitmap errorLines;
+
+    /** SELECT文の結果から取り出したレコード数(読み飛ばしたレコードを含む) */
+    private long readCount;
+
+    /** パーティションのスレッドで開始したデータベース接続とトランザクション */
+    private PartitionTransaction partitionTransaction;
+
+    /** パーティションで読み込むLINE_NUMBERの範囲の開始 */
+    @Inject
+    @BatchProperty
+    String lineNumberFrom;
+
+    /** パーティションで読み込むLINE_NUMBERの範囲の終了 */
+    @Inject
+    @BatchProperty
+    String lineNumberTo;
+
     /**
      * コンストラクタ。
      *
@@ -62,6 +90,16 @@ public class DatabaseItemReader extends AbstractItemReader {
 
     /**
      * テーブルにアクセスして指定されたSELECT文を使ってレコードを取得する。
+     * <p/>
+     * {@link LineNumberPartitionMapper}で分割したパーティションの場合は、
+     * LINE_NUMBERの範囲を{@value LineNumberPartitionMapper#LINE_NUMBER_FROM}と
+     * {@value LineNumberPartitionMapper#LINE_NUMBER_TO}という名前のパラメータでSELECT文に渡す。
+     * SELECT文には、この範囲の条件とLINE_NUMBERの昇順のソートを記述すること。
+     * パーティションのスレッドでは、{@link PartitionTransaction}でデータベース接続とトランザクションを開始する。
+     * <p/>
+     * チェックポイントがある場合(再実行の場合)は、チェックポイントまでに取り出したレコードを読み飛ばし、
+     * その次のレコードから読み込みを再開する。
+     * 再実行時に同じ順序でレコードを取得できるよう、SELECT文には一意な順序となるソートを記述すること。
      */
     @Override
     public void open(final Serializable checkpoint) throws SQLException {
@@ -72,17 +110,85 @@ public class DatabaseItemReader extends AbstractItemReader {
         EtlUtil.verifyRequired(jobId, stepId, "bean", stepConfig.getBean());
         EtlUtil.verifyRequired(jobId, stepId, "sqlId", stepConfig.getSqlId());
 
-        progressManager.setInputCount(UniversalDao.countBySqlFile(stepConfig.getBean(), stepConfig.getSqlId()));
+        if (lineNumberFrom == null) {
+            progressManager.setInputCount(UniversalDao.countBySqlFile(stepConfig.getBean(), stepConfig.getSqlId()));
+            reader = UniversalDao.defer().findAllBySqlFile(
+                            stepConfig.getBean(), stepConfig.getSqlId()).iterator();
+        } else {
+            EtlUtil.verifyRequired(jobId, stepId, LineNumberPartitionMapper.LINE_NUMBER_TO, lineNumberTo);
+            partitionTransaction = PartitionTransaction.begin();
+            final Map<String, Object> range = new HashMap<String, Object>();
+            range.put(LineNumberPartitionMapper.LINE_NUMBER_FROM, Long.valueOf(lineNumberFrom));
+            range.put(LineNumberPartitionMapper.LINE_NUMBER_TO, Long.valueOf(lineNumberTo));
+            progressManager.setInputCount(
+                    UniversalDao.countBySqlFile(stepConfig.getBean(), stepConfig.getSqlId(), range));
+            reader = UniversalDao.defer().findAllBySqlFile(
+                            stepConfig.getBean(), stepConfig.getSqlId(), range).iterator();
+        }
+
+        if (WorkItem.class.isAssignableFrom(stepConfig.getBean())) {
+            errorLines = LineNumberBitmapRegistry.find(
+                    jobContext, EntityUtil.getTableNameWithSchema(stepConfig.getBean()));
+        }
 
-        reader = UniversalDao.defer().findAllBySqlFile(
-                        stepConfig.getBean(), stepConfig.getSqlId()).iterator();
+        readCount = 0L;
+        if (checkpoint != null) {
+            final long restartCount = (Long) checkpoint;
+            while (readCount < restartCount && reader.hasNext()) {
+                reader.next();
+                readCount++;
+            }
+            LOGGER.logInfo("database read was restarted from the checkpoint. sqlId=[" + stepConfig.getSqlId() + "],"
+                    + " skipped record count=[" + readCount + ']');
+        }
     }
 
+    /**
+     * レコードを読み込む。
+     * <p/>
+     * {@link ValidationBatchlet}からバリデーションエラーの行番号が引き継がれている場合は、その行を読み飛ばす。
+     */
     @Override
     public Object readItem() {
-        if (reader.hasNext()) {
-            return reader.next();
+        while (reader.hasNext()) {
+            final Object item = reader.next();
+            readCount++;
+            if (errorLines == null || !isErrorLine((WorkItem) item)) {
+                return item;
+            }
         }
         return null;
     }
+
+    /**
+     * チェックポイントの処理を行う。
+     *
+     * @return SELECT文の結果から取り出したレコード数
+     */
+    @Override
+    public Serializable checkpointInfo() {
+        return readCount;
+    }
+
+    /**
+     * パーティションのスレッドで開始したデータベース接続とトランザクションを終了する。
+     */
+    @Override
+    public void close() {
+        if (partitionTransaction != null) {
+            partitionTransaction.end();
+            partitionTransaction = null;
+        }
+    }
+
+    /**
+     * バリデーションエラーの行か否か。
+     *
+     * @param item レコード
+     * @return エラーの行の場合は{@code true}
+     */
+    private boolean isErrorLine(final WorkItem item) {
+        final Long lineNumber = item.getLineNumber();
+        return lineNumber != null && errorLines.contains(lineNumber);
+    }
 }
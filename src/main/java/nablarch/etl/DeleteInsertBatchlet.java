@@ -1,6 +1,15 @@
 package nablarch.etl;
 
 import java.text.MessageFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.batch.api.AbstractBatchlet;
 import javax.batch.runtime.context.JobContext;
@@ -12,14 +21,20 @@ import javax.inject.Named;
 import nablarch.common.dao.EntityUtil;
 import nablarch.common.dao.UniversalDao;
 import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.ConnectionFactory;
 import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.ResultSetIterator;
 import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.repository.SystemRepository;
 import nablarch.core.transaction.TransactionContext;
 import nablarch.etl.config.DbToDbStepConfig;
 import nablarch.etl.config.DbToDbStepConfig.InsertMode;
 import nablarch.etl.config.DbToDbStepConfig.UpdateSize;
 import nablarch.etl.config.EtlConfig;
 import nablarch.etl.config.StepConfig;
+import nablarch.etl.dialect.EtlDialectResolver;
+import nablarch.etl.generator.BatchInsertSqlGenerator;
 import nablarch.etl.generator.InsertSqlGenerator;
 import nablarch.fw.batch.ee.progress.ProgressManager;
 import nablarch.fw.batch.progress.ProgressLogger;
@@ -28,6 +43,14 @@ import nablarch.fw.batch.progress.ProgressLogger;
  * テーブル間のデータ転送を行う{@link javax.batch.api.Batchlet}実装クラス。
  * <p/>
  * 移送先テーブルのデータをクリーニング後に、移送元のデータを一括で移送先のテーブルに転送（登録）する。
+ * <p/>
+ * {@link DbToDbStepConfig#getSourceConnectionFactory()}が設定されている場合は、
+ * 移送元のデータを別のデータベースから取得する。
+ * この場合、移送元のデータを読み込むスレッドと移送先に登録するスレッドをキューでつなぎ、
+ * 移送先にはバッチ更新で登録する。
+ * 移送先のクリーニングと登録は、{@link DbToDbStepConfig#getCommitInterval()}件ごとにコミットするため、
+ * 登録中に例外が発生した場合でも、コミット済みのデータは取り消されない。
+ * 登録中に例外が発生した場合は、読み込みスレッドを停止し、終了を待ってから移送元のデータベース接続を解放する。
  *
  * @author Hisaaki Shioiri
  */
@@ -35,6 +58,15 @@ import nablarch.fw.batch.progress.ProgressLogger;
 @Dependent
 public class DeleteInsertBatchlet extends AbstractBatchlet {
 
+    /** 移送元のデータの終端を表す要素 */
+    private static final Object[] END_OF_DATA = new Object[0];
+
+    /** 移送元のデータを読み込むスレッドの名前 */
+    private static final String READER_THREAD_NAME = "etl-source-reader";
+
+    /** 読み込みスレッドがキューの空きや停止を確認する間隔(ミリ秒) */
+    private static final long POLL_INTERVAL_MILLIS = 100L;
+
     /** {@link JobContext} */
     private final JobContext jobContext;
 
@@ -86,11 +118,24 @@ public class DeleteInsertBatchlet extends AbstractBatchlet {
 
         verify(config);
 
+        // 接続先のデータベースがINSERTモードをサポートしていない場合は、クリーニングの前にエラーとする
+        final InsertSqlGenerator sqlGenerator = EtlDialectResolver.resolve(
+                DbConnectionContext.getTransactionManagerConnection()).createInsertSqlGenerator(config.getInsertMode());
+
         final AppDbConnection connection = DbConnectionContext.getConnection();
 
+        if (config.getInsertMode() == InsertMode.ORACLE_PARALLEL_DIRECT) {
+            parallelInsert(connection, config, sqlGenerator);
+            return "SUCCESS";
+        }
+
         cleaning(connection, config);
 
-        insert(connection, config);
+        if (config.getSourceConnectionFactory() == null) {
+            insert(connection, config, sqlGenerator);
+        } else {
+            copyFromSource(connection, config);
+        }
 
         return "SUCCESS";
     }
@@ -113,12 +158,65 @@ public class DeleteInsertBatchlet extends AbstractBatchlet {
             throw new InvalidEtlConfigException("Oracle Direct Path mode does not support UpdateSize.");
         }
 
+        if (insertMode == InsertMode.ORACLE_PARALLEL_DIRECT) {
+            verifyParallelDirectSetting(config);
+        }
+
+        if (config.getSourceConnectionFactory() != null) {
+            verifySourceConnectionSetting(config);
+        }
+
         if (updateSize != null) {
             EtlUtil.verifySqlRangeParameter(config);
             rangeUpdateHelper.verifyUpdateSize(updateSize);
         }
     }
 
+    /**
+     * 別のデータベースからデータを移送する場合の設定値の検証を行う。
+     *
+     * @param config 設定
+     */
+    private void verifySourceConnectionSetting(final DbToDbStepConfig config) {
+        if (config.getUpdateSize() != null) {
+            throw new InvalidEtlConfigException("sourceConnectionFactory does not support UpdateSize.");
+        }
+        if (config.getInsertMode() != InsertMode.NORMAL) {
+            throw new InvalidEtlConfigException(
+                    "sourceConnectionFactory does not support insert mode. insert mode = [" + config.getInsertMode() + ']');
+        }
+        verifyGreaterThanZero("commitInterval", config.getCommitInterval());
+        verifyGreaterThanZero("queueSize", config.getQueueSize());
+    }
+
+    /**
+     * パラレルダイレクトパスインサートの設定値の検証を行う。
+     *
+     * @param config 設定
+     */
+    private void verifyParallelDirectSetting(final DbToDbStepConfig config) {
+        if (config.getUpdateSize() != null) {
+            throw new InvalidEtlConfigException("Oracle Parallel Direct Path mode does not support UpdateSize.");
+        }
+        if (config.getParallelDegree() != null) {
+            verifyGreaterThanZero("parallelDegree", config.getParallelDegree());
+        }
+    }
+
+    /**
+     * 設定値が0より大きいことを検証する。
+     *
+     * @param key キー
+     * @param value 値
+     */
+    private void verifyGreaterThanZero(final String key, final int value) {
+        if (value <= 0) {
+            throw new InvalidEtlConfigException(
+                    String.format("%s must be greater than 0. jobId = [%s], stepId = [%s], %s = [%s]",
+                            key, jobContext.getJobName(), stepContext.getStepName(), key, value));
+        }
+    }
+
     /**
      * テーブルのクリーニング処理を行う。
      *
@@ -133,20 +231,73 @@ public class DeleteInsertBatchlet extends AbstractBatchlet {
         loggingCleaning(tableName, statement.getUpdateCount());
     }
 
+    /**
+     * パラレルダイレクトパスインサートでテーブルへの登録処理を行う。
+     * <p/>
+     * 以下の順に処理を行う。
+     * <ol>
+     * <li>NOLOGGINGが指定されている場合は、登録先のテーブルをNOLOGGINGに変更する。</li>
+     * <li>登録先のテーブルをクリーニングし、コミットする。
+     * (同一トランザクション内でシリアルに更新したテーブルは、パラレルDMLで更新できないため)</li>
+     * <li>セッションのパラレルDMLを有効にする。</li>
+     * <li>登録処理を行い、コミットする。</li>
+     * <li>セッションのパラレルDMLを無効にする。</li>
+     * <li>NOLOGGINGが指定されている場合は、登録先のテーブルをLOGGINGに戻す。</li>
+     * </ol>
+     * 登録処理に失敗した場合は、ロールバック後にパラレルDMLを無効にする。
+     * 登録先のテーブルは、処理の成否に関わらずLOGGINGに戻す。
+     *
+     * @param connection データベース接続
+     * @param config 設定
+     * @param sqlGenerator INSERT文のジェネレータ
+     */
+    private void parallelInsert(final AppDbConnection connection, final DbToDbStepConfig config,
+            final InsertSqlGenerator sqlGenerator) {
+        final String tableName = EntityUtil.getTableName(config.getBean());
+        final boolean noLogging = config.isNoLogging();
+        if (noLogging) {
+            connection.prepareStatement("alter table " + tableName + " nologging")
+                      .execute();
+        }
+        try {
+            cleaning(connection, config);
+            commit();
+
+            connection.prepareStatement("alter session enable parallel dml")
+                      .execute();
+            try {
+                insert(connection, config, sqlGenerator);
+                commit();
+            } catch (RuntimeException e) {
+                TransactionContext.getTransaction().rollback();
+                throw e;
+            } finally {
+                connection.prepareStatement("alter session disable parallel dml")
+                          .execute();
+            }
+        } finally {
+            if (noLogging) {
+                connection.prepareStatement("alter table " + tableName + " logging")
+                          .execute();
+            }
+        }
+    }
+
     /**
      * テーブルへの登録処理を行う。
      *
      * @param connection データベース接続
      * @param config 設定
+     * @param sqlGenerator INSERT文のジェネレータ
      */
-    private void insert(final AppDbConnection connection, final DbToDbStepConfig config) {
+    private void insert(final AppDbConnection connection, final DbToDbStepConfig config,
+            final InsertSqlGenerator sqlGenerator) {
         final InsertMode mode = config.getInsertMode();
         final UpdateSize updateSize = config.getUpdateSize();
-        final InsertSqlGenerator sqlGenerator = mode.getInsertSqlGenerator();
 
         final SqlPStatement statement = connection.prepareStatement(sqlGenerator.generateSql(config));
         
-        if (mode == InsertMode.ORACLE_DIRECT_PATH || updateSize == null) {
+        if (mode != InsertMode.NORMAL || updateSize == null) {
             progressManager.setInputCount(UniversalDao.countBySqlFile(config.getBean(), config.getSqlId()));
             progressManager.outputProgressInfo(statement.executeUpdate());
         } else {
@@ -154,6 +305,10 @@ public class DeleteInsertBatchlet extends AbstractBatchlet {
             progressManager.setInputCount(maxLineNum);
             final Range range = new Range(updateSize.getSize(), maxLineNum);
             while (range.next()) {
+                if (rangeUpdateHelper.isInvalidRange(config, range)) {
+                    progressManager.outputProgressInfo(range.to);
+                    continue;
+                }
                 statement.setLong(1, range.from);
                 statement.setLong(2, range.to);
                 statement.executeUpdate();
@@ -163,6 +318,160 @@ public class DeleteInsertBatchlet extends AbstractBatchlet {
         }
     }
 
+    /**
+     * 別のデータベースから取得したデータを、テーブルに登録する。
+     * <p/>
+     * 移送元のデータは別スレッドで読み込み、キューを介して本スレッドでバッチ更新を行う。
+     *
+     * @param connection データベース接続
+     * @param config 設定
+     * @throws Exception 移送元の読み込み、または登録中に例外が発生した場合
+     */
+    private void copyFromSource(final AppDbConnection connection, final DbToDbStepConfig config) throws Exception {
+        final TransactionManagerConnection sourceConnection = getSourceConnection(config.getSourceConnectionFactory());
+        final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(runnable, READER_THREAD_NAME);
+            }
+        });
+        final BlockingQueue<Object[]> queue = new ArrayBlockingQueue<Object[]>(config.getQueueSize());
+        final SourceReader sourceReader = new SourceReader(
+                sourceConnection, config.getSql(), config.getCommitInterval(), queue);
+        try {
+            final boolean countSource = config.isCountSource();
+            if (countSource) {
+                progressManager.setInputCount(countSource(sourceConnection, config.getSql()));
+            }
+
+            final Future<Void> reader = executor.submit(sourceReader);
+
+            final SqlPStatement statement = connection.prepareStatement(
+                    new BatchInsertSqlGenerator().generateSql(config));
+            final int commitInterval = config.getCommitInterval();
+            long insertCount = 0;
+            int batchCount = 0;
+            Object[] row;
+            while ((row = queue.take()) != END_OF_DATA) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+                insertCount++;
+                if (++batchCount == commitInterval) {
+                    statement.executeBatch();
+                    commit();
+                    outputProgress(countSource, insertCount);
+                    batchCount = 0;
+                }
+            }
+            waitFor(reader);
+            if (batchCount != 0) {
+                statement.executeBatch();
+            }
+            commit();
+            outputProgress(countSource, insertCount);
+        } finally {
+            sourceReader.cancel();
+            executor.shutdownNow();
+            awaitTermination(executor);
+            sourceConnection.terminate();
+        }
+    }
+
+    /**
+     * 移送の進捗ログを出力する。
+     *
+     * @param countSource 移送元の件数を数えている場合は{@code true}
+     * @param insertCount 登録件数
+     */
+    private void outputProgress(final boolean countSource, final long insertCount) {
+        if (countSource) {
+            progressManager.outputProgressInfo(insertCount);
+        } else {
+            ProgressLogger.write(MessageFormat.format("job name: [{0}] step name: [{1}] insert count: [{2}]",
+                    jobContext.getJobName(), stepContext.getStepName(), String.valueOf(insertCount)));
+        }
+    }
+
+    /**
+     * 移送元の読み込みスレッドの終了を待つ。
+     * <p/>
+     * 待機中に割り込まれた場合でも、読み込みスレッドが移送元のデータベース接続を使用しなくなるまで待ち、
+     * 割り込み状態を復元する。
+     *
+     * @param executor 読み込みスレッドの{@link ExecutorService}
+     */
+    private static void awaitTermination(final ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException ignored) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 移送元のデータベース接続を取得する。
+     *
+     * @param connectionFactoryName {@link ConnectionFactory}のコンポーネント名
+     * @return 移送元のデータベース接続
+     */
+    private static TransactionManagerConnection getSourceConnection(final String connectionFactoryName) {
+        final ConnectionFactory connectionFactory = SystemRepository.get(connectionFactoryName);
+        if (connectionFactory == null) {
+            throw new IllegalStateException(
+                    String.format("ConnectionFactory was not found. Using the name \"%s\", "
+                                    + "please set ConnectionFactory to component configuration.",
+                            connectionFactoryName));
+        }
+        return connectionFactory.getConnection(connectionFactoryName);
+    }
+
+    /**
+     * 移送元のデータの件数を取得する。
+     *
+     * @param sourceConnection 移送元のデータベース接続
+     * @param sql 移送元のデータを取得するSQL文
+     * @return 件数
+     */
+    private static long countSource(final TransactionManagerConnection sourceConnection, final String sql) {
+        final SqlPStatement statement = sourceConnection.prepareStatement(
+                "select count(*) from (" + sql + ") source_data");
+        final ResultSetIterator rs = statement.executeQuery();
+        try {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * 移送元の読み込みの完了を待ち、読み込み中に発生した例外を送出する。
+     *
+     * @param reader 移送元の読み込み処理
+     * @throws Exception 読み込み中に発生した例外
+     */
+    private static void waitFor(final Future<Void> reader) throws Exception {
+        try {
+            reader.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
     /**
      * コミットを行う。
      */
@@ -180,4 +489,107 @@ public class DeleteInsertBatchlet extends AbstractBatchlet {
                         + "job name: [{0}] step name: [{1}] table name: [{2}] delete count: [{3}]",
                 jobContext.getJobName(), stepContext.getStepName(), tableName, deleteCount));
     }
+
+    /**
+     * 移送元のデータを読み込み、キューに追加する処理。
+     * <p/>
+     * 読み込みが終了した場合(例外が発生した場合を含む)は、終端を表す要素をキューに追加する。
+     * キューへの追加は空きを待つ間も停止の要求を確認するため、登録側が停止した後にブロックし続けることはない。
+     */
+    private static final class SourceReader implements Callable<Void> {
+
+        /** 移送元のデータベース接続 */
+        private final TransactionManagerConnection connection;
+
+        /** 移送元のデータを取得するSQL文 */
+        private final String sql;
+
+        /** フェッチサイズ */
+        private final int fetchSize;
+
+        /** 読み込んだデータを追加するキュー */
+        private final BlockingQueue<Object[]> queue;
+
+        /** 停止が要求されたか否か */
+        private volatile boolean cancelled;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param connection 移送元のデータベース接続
+         * @param sql 移送元のデータを取得するSQL文
+         * @param fetchSize フェッチサイズ
+         * @param queue 読み込んだデータを追加するキュー
+         */
+        private SourceReader(final TransactionManagerConnection connection, final String sql,
+                final int fetchSize, final BlockingQueue<Object[]> queue) {
+            this.connection = connection;
+            this.sql = sql;
+            this.fetchSize = fetchSize;
+            this.queue = queue;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                read();
+            } finally {
+                offer(END_OF_DATA);
+            }
+            return null;
+        }
+
+        /**
+         * 読み込みの停止を要求する。
+         */
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * キューに空きができるまで待ち、要素を追加する。
+         * <p/>
+         * 停止が要求された場合や割り込まれた場合は、追加せずに終了する。
+         *
+         * @param element 追加する要素
+         * @return 追加した場合は{@code true}
+         */
+        private boolean offer(final Object[] element) {
+            try {
+                while (!cancelled) {
+                    if (queue.offer(element, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException ignored) {
+                cancelled = true;
+            }
+            return false;
+        }
+
+        /**
+         * 移送元のデータを読み込み、1レコードずつキューに追加する。
+         *
+         * @throws Exception 読み込み中に例外が発生した場合
+         */
+        private void read() throws Exception {
+            final SqlPStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            final ResultSetIterator rs = statement.executeQuery();
+            try {
+                final int columnCount = rs.getMetaData().getColumnCount();
+                while (!cancelled && rs.next()) {
+                    final Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    if (!offer(row)) {
+                        break;
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package nablarch.etl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.common.dao.UniversalDao;
+
+/**
+ * バリデーションエラーとなったレコードをエラーテーブルに登録するクラス。
+ * <p/>
+ * レコードはエラーテーブルのEntityに変換してバッファに保持し、
+ * バッファのサイズに達した場合と{@link #flush()}が呼び出された場合に、
+ * {@link UniversalDao#batchInsert(List)}で一括登録する。
+ *
+ * @author TIS
+ */
+final class ErrorRecordWriter {
+
+    /** 一括登録するレコード数 */
+    private final int batchSize;
+
+    /** ワークテーブルのEntityをエラーテーブルのEntityに変換する{@link PropertyCopier} */
+    private final PropertyCopier copier;
+
+    /** 登録待ちのエラーテーブルのEntity */
+    private final List<Object> buffer;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param workTable ワークテーブルのEntityクラス
+     * @param errorTable エラーテーブルのEntityクラス
+     * @param batchSize 一括登録するレコード数
+     */
+    ErrorRecordWriter(final Class<?> workTable, final Class<?> errorTable, final int batchSize) {
+        this.batchSize = batchSize;
+        copier = PropertyCopier.get(workTable, errorTable);
+        buffer = new ArrayList<Object>(batchSize);
+    }
+
+    /**
+     * エラーとなったレコードを書き込む。
+     *
+     * @param item エラーとなったレコード
+     */
+    void write(final Object item) {
+        buffer.add(copier.createAndCopy(item));
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 登録待ちのレコードをエラーテーブルに登録する。
+     */
+    void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        UniversalDao.batchInsert(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * 登録待ちのレコードを登録せずに破棄する。
+     */
+    void discard() {
+        buffer.clear();
+    }
+}
@@ -1,14 +1,9 @@
 package nablarch.etl;
 
 import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
-import nablarch.common.dao.DatabaseUtil;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.util.StringUtil;
@@ -29,44 +24,23 @@ public final class EtlUtil {
 
     /**
      * テーブルが持つカラムの名前リストを取得する。
+     * <p/>
+     * {@link SchemaMetaDataCache}が有効な場合は、キャッシュしたカラム名リストを返す。
      *
      * @param tableName テーブル名
      * @return カラム名リスト
      * @throws RuntimeException データベース関連の例外が発生した場合
      */
     public static List<String> getAllColumns(final String tableName) {
-        final String convertedTableName = DatabaseUtil.convertIdentifiers(tableName);
-
         final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
 
         try {
-            final DatabaseMetaData metaData = getMetaData(connection);
-            final ResultSet columns = metaData.getColumns(null, null, convertedTableName, null);
-            try {
-                return toColumnNameList(columns);
-            } finally {
-                columns.close();
-            }
+            return SchemaMetaDataCache.getColumns(getMetaData(connection), tableName);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    /**
-     * {@link ResultSet}をカラム名リストに変換する。
-     *
-     * @param rs {@link ResultSet}
-     * @return カラム名のリスト
-     * @throws SQLException データベース関連の例外
-     */
-    private static List<String> toColumnNameList(final ResultSet rs) throws SQLException {
-        final Map<Integer, String> columnNames = new TreeMap<Integer, String>();
-        while (rs.next()) {
-            columnNames.put(rs.getInt("ORDINAL_POSITION"), rs.getString("COLUMN_NAME"));
-        }
-        return new ArrayList<String>(columnNames.values());
-    }
-
     /**
      * {@link DatabaseMetaData}を取得する。
      *
@@ -0,0 +1,158 @@
+package nablarch.etl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.util.FileUtil;
+
+/**
+ * {@link CsvTokenizer}でバイト列のまま項目に分割し、Beanに変換する{@link ObjectMapper}実装クラス。
+ * <p/>
+ * Beanの{@link nablarch.common.databind.csv.Csv}の定義に従って読み込む。
+ * 項目の変換は{@link ByteFieldBinder}で行い、文字列に変換するのは文字列型のプロパティのみとする。
+ * {@link LineNumber}が設定されたプロパティには、ヘッダ行と空行を含めたレコードの行数を設定する。
+ * 以下の条件を満たすBeanのみ使用できる。条件を満たすか否かは{@link #isSupported(Class)}で判定する。
+ * <ul>
+ * <li>publicな引数なしのコンストラクタを持つ</li>
+ * <li>項目のプロパティの型が{@link String}、{@link Integer}、{@link Long}、{@link BigDecimal}のいずれか</li>
+ * <li>列区切りと囲み文字が、文字セットでマルチバイト文字の一部として現れないASCII文字</li>
+ * </ul>
+ * 書き込みには対応しない。
+ *
+ * @param <T> Beanの型
+ * @author TIS
+ */
+final class FastCsvObjectMapper<T> implements ObjectMapper<T> {
+
+    /** CSVの形式 */
+    private final CsvLayout layout;
+
+    /** 読み込み元のストリーム */
+    private final InputStream in;
+
+    /** 項目に分割するトークナイザ */
+    private final CsvTokenizer tokenizer;
+
+    /** 項目をBeanに設定するバインダ */
+    private final ByteFieldBinder<T> binder;
+
+    /** 項目数 */
+    private final int fieldCount;
+
+    /** ヘッダ行を読み飛ばしたか否か */
+    private boolean headerSkipped;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param bean Beanクラス
+     * @param in 読み込み元のストリーム
+     * @param bufferSize 読み込みバッファのサイズ
+     */
+    private FastCsvObjectMapper(final Class<T> bean, final InputStream in, final int bufferSize) {
+        this.in = in;
+        layout = CsvLayout.of(bean);
+        tokenizer = new CsvTokenizer(in, bufferSize, layout.getFieldSeparator(), layout.getQuote());
+        binder = new ByteFieldBinder<T>(bean, layout.getProperties(), layout.getCharset(), layout.isEmptyToNull());
+        fieldCount = layout.getProperties().length;
+    }
+
+    /**
+     * {@link FastCsvObjectMapper}を生成する。
+     *
+     * @param bean Beanクラス({@link #isSupported(Class)}が{@code true}であること)
+     * @param in 読み込み元のストリーム
+     * @param bufferSize 読み込みバッファのサイズ
+     * @param <T> Beanの型
+     * @return {@link FastCsvObjectMapper}
+     */
+    static <T> FastCsvObjectMapper<T> create(final Class<T> bean, final InputStream in, final int bufferSize) {
+        return new FastCsvObjectMapper<T>(bean, in, bufferSize);
+    }
+
+    /**
+     * Beanが{@link FastCsvObjectMapper}で読み込めるか否か。
+     *
+     * @param bean Beanクラス
+     * @return 読み込める場合は{@code true}
+     */
+    static boolean isSupported(final Class<?> bean) {
+        final CsvLayout layout = CsvLayout.of(bean);
+        return layout != null
+                && ByteFieldBinder.isSingleByteCharacter(layout.getCharset(), layout.getFieldSeparator())
+                && ByteFieldBinder.isSingleByteCharacter(layout.getCharset(), layout.getQuote())
+                && ByteFieldBinder.isSupported(bean, layout.getProperties());
+    }
+
+    @Override
+    public void write(final T object) {
+        throw new UnsupportedOperationException("unsupported write method.");
+    }
+
+    @Override
+    public T read() {
+        try {
+            if (!nextRecord()) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        final long lineNumber = tokenizer.getRecordNumber();
+        final T item = binder.newBean(lineNumber);
+        for (int i = 0; i < fieldCount; i++) {
+            binder.bind(item, i, tokenizer.getBuffer(), tokenizer.getStart(i), tokenizer.getLength(i), lineNumber);
+        }
+        return item;
+    }
+
+    /**
+     * 残りのレコードを、Beanに変換せずに数える。
+     *
+     * @return レコード数
+     * @throws IOException 入出力例外
+     */
+    long count() throws IOException {
+        long count = 0L;
+        while (nextRecord()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        FileUtil.closeQuietly(in);
+    }
+
+    /**
+     * ヘッダ行と無視する空行を読み飛ばし、次のレコードを読み込む。
+     *
+     * @return レコードを読み込んだ場合は{@code true}
+     * @throws IOException 入出力例外
+     */
+    private boolean nextRecord() throws IOException {
+        if (!headerSkipped) {
+            headerSkipped = true;
+            if (layout.isRequiredHeader() && !tokenizer.next()) {
+                return false;
+            }
+        }
+        while (tokenizer.next()) {
+            if (layout.isIgnoreEmptyLine() && tokenizer.isEmptyLine()) {
+                continue;
+            }
+            if (tokenizer.getFieldCount() != fieldCount) {
+                throw new InvalidDataFormatException(String.format(
+                        "property size does not match. expected field count = [%d], actual field count = [%d].",
+                        fieldCount, tokenizer.getFieldCount()), tokenizer.getRecordNumber());
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,144 @@
+package nablarch.etl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link FileChannel}にダイレクトバッファを介して書き込む{@link OutputStream}実装クラス。
+ * <p/>
+ * 書き込んだデータはバッファに保持し、バッファが一杯になった場合と{@link #drain()}が呼び出された場合のみ
+ * {@link FileChannel}に書き込む。
+ * {@link #flush()}ではファイルへの書き込みは行わないため、レコードごとのflushによる小さな書き込みは発生しない。
+ *
+ * @author TIS
+ */
+final class FileChannelOutputStream extends OutputStream {
+
+    /** 書き込み先のチャネル */
+    private final FileChannel channel;
+
+    /** バッファ */
+    private final ByteBuffer buffer;
+
+    /** チャネルに書き込んだバイト数 */
+    private long writtenBytes;
+
+    /** クローズ済みか否か */
+    private boolean closed;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param channel 書き込み先のチャネル
+     * @param bufferSize バッファのサイズ
+     */
+    FileChannelOutputStream(final FileChannel channel, final int bufferSize) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            final int length = Math.min(remaining, buffer.remaining());
+            buffer.put(b, offset, length);
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * 何もしない。
+     * <p/>
+     * ファイルへの書き込みは、{@link #drain()}で行う。
+     */
+    @Override
+    public void flush() {
+        // nop
+    }
+
+    /**
+     * バッファのデータをチャネルに書き込む。
+     *
+     * @throws IOException 入出力例外
+     */
+    void drain() throws IOException {
+        ensureOpen();
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            writtenBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * バッファのデータをチャネルに書き込み、ストレージに同期する。
+     *
+     * @throws IOException 入出力例外
+     */
+    void sync() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    /**
+     * バッファのデータをチャネルに書き込み、チャネルの位置を取得する。
+     *
+     * @return チャネルの位置
+     * @throws IOException 入出力例外
+     */
+    long position() throws IOException {
+        drain();
+        return channel.position();
+    }
+
+    /**
+     * チャネルに書き込んだバイト数を取得する。
+     *
+     * @return チャネルに書き込んだバイト数
+     */
+    long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * クローズされていないことを確認する。
+     *
+     * @throws IOException クローズされている場合
+     */
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed.");
+        }
+    }
+}
@@ -3,8 +3,11 @@ package nablarch.etl;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemReader;
 import javax.batch.operations.BatchRuntimeException;
 import javax.batch.runtime.context.JobContext;
@@ -15,6 +18,8 @@ import javax.inject.Named;
 
 import nablarch.common.databind.ObjectMapper;
 import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
 import nablarch.core.log.basic.LogLevel;
 import nablarch.core.log.operation.OperationLogger;
 import nablarch.core.message.MessageLevel;
@@ -29,6 +34,18 @@ import nablarch.fw.batch.ee.progress.ProgressManager;
  * 入力ファイルからJavaオブジェクトへ変換を行う{@link javax.batch.api.chunk.ItemReader}実装クラス。
  * <p/>
  * 本実装ではチェックポイントはサポートしない。このため、restart時にはファイルの先頭から処理を再開する。
+ * ただし、固定長ファイルの場合は、チェックポイントのレコードの位置から処理を再開する。
+ * <p/>
+ * {@link FileToDbStepConfig#isGzipped()}が{@code true}の場合は、入力ファイルをgzip形式として展開しながら読み込む。
+ * 複数のメンバーを連結したgzipファイルにも対応する。
+ * <p/>
+ * {@link FileToDbStepConfig#isFastParsing()}が{@code true}で、Beanが{@link FastCsvObjectMapper}に対応している場合は、
+ * バイト列のまま項目に分割する{@link FastCsvObjectMapper}で読み込む。入力ファイルのレコード数もBeanに変換せずに数える。
+ * <p/>
+ * Beanに{@link FixedLengthRecord}が設定されている場合は、固定長ファイルとして{@link MappedFixedLengthReader}で読み込む。
+ * レコード数はファイルサイズから算出し、{@link FixedLengthPartitionMapper}で分割したパーティションの場合は、
+ * {@value FixedLengthPartitionMapper#RECORD_FROM}から{@value FixedLengthPartitionMapper#RECORD_TO}までの
+ * レコードのみを読み込む。固定長ファイルはgzip形式に対応しない。
  *
  * @author Hisaaki Shioiri
  */
@@ -36,6 +53,18 @@ import nablarch.fw.batch.ee.progress.ProgressManager;
 @Dependent
 public class FileItemReader extends AbstractItemReader {
 
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** gzip形式の入力ファイルを読み込む際のバッファのサイズ */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /** 高速な読み込みを行う際の読み込みバッファのサイズ */
+    private static final int PARSE_BUFFER_SIZE = 256 * 1024;
+
+    /** 固定長ファイルをマップする際のウィンドウのサイズ */
+    private static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
     /** {@link JobContext} */
     private final JobContext jobContext;
 
@@ -54,6 +83,22 @@ public class FileItemReader extends AbstractItemReader {
     /** データからJavaオブジェクトに変換を行うマッパー */
     private ObjectMapper<?> reader;
 
+    /** 高速な読み込みを行うか否か */
+    private boolean fastParsing;
+
+    /** 固定長ファイルを読み込むリーダ(固定長ファイルでない場合は{@code null}) */
+    private MappedFixedLengthReader<?> fixedLengthReader;
+
+    /** 読み込みを開始するレコードの番号(1から始まる) */
+    @Inject
+    @BatchProperty
+    String recordFrom;
+
+    /** 読み込みを終了するレコードの番号(この番号を含む) */
+    @Inject
+    @BatchProperty
+    String recordTo;
+
     /**
      * コンストラクタ。
      * @param jobContext {@link JobContext}
@@ -89,20 +134,75 @@ public class FileItemReader extends AbstractItemReader {
 
         final File inputFilePath = new File(inputFileBasePath, stepConfig.getFileName());
 
+        final FixedLengthLayout fixedLength = FixedLengthLayout.of(stepConfig.getBean());
+        if (fixedLength != null) {
+            openFixedLengthFile(jobId, stepId, fixedLength, inputFilePath, (Long) checkpoint);
+            return;
+        }
+        if (recordFrom != null || recordTo != null) {
+            throw new InvalidEtlConfigException(String.format(
+                    "recordFrom and recordTo can be used only with fixed-length files. jobId = [%s], stepId = [%s]",
+                    jobId, stepId));
+        }
+
+        fastParsing = stepConfig.isFastParsing() && FastCsvObjectMapper.isSupported(stepConfig.getBean());
+        if (stepConfig.isFastParsing() && !fastParsing) {
+            LOGGER.logInfo("fast parsing is not supported for the bean. ObjectMapper is used instead."
+                    + " bean=[" + stepConfig.getBean().getName() + ']');
+        }
+
         progressManager.setInputCount(getNumberOfRecordInInputFile(inputFilePath));
 
-        reader = ObjectMapperFactory.create(
-                stepConfig.getBean(), new FileInputStream(inputFilePath));
+        reader = createMapper(openInputFile(inputFilePath));
+    }
+
+    /**
+     * 固定長ファイルを開き、読み込みを開始するレコードの位置に移動する。
+     *
+     * @param jobId ジョブID
+     * @param stepId ステップID
+     * @param layout 固定長ファイルの形式
+     * @param inputFilePath 入力ファイルパス
+     * @param checkpoint 次に読み込むレコードの番号(0から始まる)。チェックポイントがない場合は{@code null}
+     * @throws IOException 入出力例外
+     */
+    private void openFixedLengthFile(final String jobId, final String stepId, final FixedLengthLayout layout,
+            final File inputFilePath, final Long checkpoint) throws IOException {
+        if (stepConfig.isGzipped()) {
+            throw new InvalidEtlConfigException(String.format(
+                    "fixed-length file can not be read in gzip format. jobId = [%s], stepId = [%s]", jobId, stepId));
+        }
+        try {
+            fixedLengthReader = MappedFixedLengthReader.create(
+                    stepConfig.getBean(), layout, inputFilePath, MAPPED_WINDOW_SIZE);
+        } catch (FileNotFoundException e) {
+            throw inputFileNotFound(inputFilePath, e);
+        }
+        reader = fixedLengthReader;
+
+        final long first = recordFrom == null ? 0L : Long.parseLong(recordFrom) - 1;
+        final long end = recordTo == null ? fixedLengthReader.getRecordCount() : Long.parseLong(recordTo);
+        fixedLengthReader.setLimit(end);
+        progressManager.setInputCount(Math.max(Math.min(end, fixedLengthReader.getRecordCount()) - first, 0L));
+        fixedLengthReader.seek(checkpoint == null ? first : checkpoint);
+        if (checkpoint != null) {
+            LOGGER.logInfo("fixed-length file read was restarted from the checkpoint. file=["
+                    + inputFilePath.getAbsolutePath() + "], record=[" + (checkpoint + 1) + ']');
+        }
     }
 
     /**
      * 入力ファイルのレコード数を返す。
      * @param inputFilePath 入力ファイルパス
      * @return レコード数
+     * @throws IOException 入出力例外
      */
-    private long getNumberOfRecordInInputFile(final File inputFilePath) {
+    private long getNumberOfRecordInInputFile(final File inputFilePath) throws IOException {
         final ObjectMapper<?> inputCountReader = createReader(inputFilePath);
         try {
+            if (inputCountReader instanceof FastCsvObjectMapper) {
+                return ((FastCsvObjectMapper<?>) inputCountReader).count();
+            }
             long inputCount = 0;
             while (true) {
                 if (inputCountReader.read() == null) {
@@ -121,17 +221,63 @@ public class FileItemReader extends AbstractItemReader {
      *
      * @param inputFilePath 入力ファイルパス
      * @return リーダ
+     * @throws IOException 入出力例外
      */
-    private ObjectMapper<?> createReader(final File inputFilePath) {
+    private ObjectMapper<?> createReader(final File inputFilePath) throws IOException {
         try {
-            return ObjectMapperFactory.create(
-                    stepConfig.getBean(), new FileInputStream(inputFilePath));
+            return createMapper(openInputFile(inputFilePath));
         } catch (FileNotFoundException e) {
-            final String message = MessageUtil.createMessage(MessageLevel.ERROR, "nablarch.etl.input-file-not-found",
-                    inputFilePath.getAbsolutePath())
-                                              .formatMessage();
-            OperationLogger.write(LogLevel.ERROR, message, e);
-            throw new BatchRuntimeException(message, e);
+            throw inputFileNotFound(inputFilePath, e);
+        }
+    }
+
+    /**
+     * 入力ファイルが存在しないことをオペレータに通知し、例外を生成する。
+     *
+     * @param inputFilePath 入力ファイルパス
+     * @param cause 原因となった例外。存在しない場合は{@code null}
+     * @return 例外
+     */
+    static BatchRuntimeException inputFileNotFound(final File inputFilePath, final Exception cause) {
+        final String message = MessageUtil.createMessage(MessageLevel.ERROR, "nablarch.etl.input-file-not-found",
+                inputFilePath.getAbsolutePath())
+                                          .formatMessage();
+        OperationLogger.write(LogLevel.ERROR, message, cause);
+        return new BatchRuntimeException(message, cause);
+    }
+
+    /**
+     * 入力ファイルのストリームからJavaオブジェクトに変換を行うマッパーを生成する。
+     *
+     * @param in 入力ファイルのストリーム
+     * @return マッパー
+     */
+    private ObjectMapper<?> createMapper(final InputStream in) {
+        if (fastParsing) {
+            return FastCsvObjectMapper.create(stepConfig.getBean(), in, PARSE_BUFFER_SIZE);
+        }
+        return ObjectMapperFactory.create(stepConfig.getBean(), in);
+    }
+
+    /**
+     * 入力ファイルを開く。
+     * <p/>
+     * gzip形式の場合は、展開を行うストリームを返す。
+     *
+     * @param inputFilePath 入力ファイルパス
+     * @return 入力ファイルのストリーム
+     * @throws IOException 入出力例外
+     */
+    private InputStream openInputFile(final File inputFilePath) throws IOException {
+        final InputStream in = new FileInputStream(inputFilePath);
+        if (!stepConfig.isGzipped()) {
+            return in;
+        }
+        try {
+            return new ConcatenatedGzipInputStream(in, GZIP_BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
         }
     }
 
@@ -140,6 +286,16 @@ public class FileItemReader extends AbstractItemReader {
         return reader.read();
     }
 
+    /**
+     * チェックポイントの処理を行う。
+     *
+     * @return 固定長ファイルの場合は次に読み込むレコードの番号。それ以外の場合は{@code null}
+     */
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return fixedLengthReader == null ? null : fixedLengthReader.getPosition();
+    }
+
     @Override
     public void close() throws Exception {
         reader.close();
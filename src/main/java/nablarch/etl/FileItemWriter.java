@@ -1,14 +1,29 @@
 package nablarch.etl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IllegalFormatException;
 import java.util.List;
 
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemWriter;
 import javax.batch.operations.BatchRuntimeException;
+import javax.batch.runtime.BatchStatus;
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
 import javax.enterprise.context.Dependent;
@@ -17,6 +32,8 @@ import javax.inject.Named;
 
 import nablarch.common.databind.ObjectMapper;
 import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
 import nablarch.core.log.basic.LogLevel;
 import nablarch.core.log.operation.OperationLogger;
 import nablarch.core.message.MessageLevel;
@@ -28,6 +45,26 @@ import nablarch.etl.config.StepConfig;
 
 /**
  * ファイルにデータを書き込む{@link javax.batch.api.chunk.ItemWriter}の実装クラス。
+ * <p/>
+ * ファイルへの書き込みは{@link FileChannel}に対して、{@link DbToFileStepConfig#getBufferSize()}のサイズの
+ * ダイレクトバッファを介して行い、チャンクごとにまとめて書き込む。
+ * {@link DbToFileStepConfig#isSyncOnCheckpoint()}が{@code true}の場合は、チェックポイントごとにストレージに同期する。
+ * クローズ時には、書き込んだバイト数とスループットをログに出力する。
+ * <p/>
+ * データは出力ファイル名に{@value #TEMPORARY_FILE_SUFFIX}を付加した一時ファイルに書き込み、
+ * ステップが正常に終了した場合のみ出力ファイルにリネームする。
+ * チェックポイントには書き込み済みのバイト数を保持し、再実行時は一時ファイルをその位置まで切り詰めて書き込みを再開する。
+ * 読み込み側は、チェックポイントの次のレコードから読み込みを再開すること。({@link DatabaseItemReader}を参照)
+ * <p/>
+ * {@link DbToFileStepConfig#isRolling()}が{@code true}の場合は、レコード数またはバイト数の上限に達する前に
+ * 連番を付加した次のファイルに切り替える。それぞれのファイルにはヘッダを出力する。
+ * {@link DbToFileStepConfig#getManifestFileName()}が設定されている場合は、
+ * 全てのファイルをリネームした後に、ファイルごとのレコード数とチェックサムをマニフェストファイルに出力する。
+ * <p/>
+ * {@link LineNumberPartitionMapper}で分割したパーティションの場合は、パーティションごとのファイルに出力する。
+ * <p/>
+ * {@link DbToFileStepConfig#isGzipped()}が{@code true}の場合は、{@link ParallelGzipOutputStream}で並列に圧縮して出力する。
+ * チャンクの終わりでgzipのメンバーを区切るため、チェックポイントの位置は常にメンバーの境界となる。
  *
  * @author Kumiko Omi
  */
@@ -35,6 +72,15 @@ import nablarch.etl.config.StepConfig;
 @Named
 public class FileItemWriter extends AbstractItemWriter {
 
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** 一時ファイルのサフィックス */
+    static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    /** チェックサムのアルゴリズム */
+    private static final String CHECKSUM_ALGORITHM = "MD5";
+
     /** {@link JobContext} */
     private final JobContext jobContext;
 
@@ -47,8 +93,43 @@ public class FileItemWriter extends AbstractItemWriter {
     /** 出力ファイルのベースパス */
     private final File outputFileBasePath;
 
-    /** Javaオブジェクトからデータに変換を行うマッパー */
-    private ObjectMapper<Object> mapper;
+    /** 出力中のファイルへの書き込みを行うストリーム */
+    private FileChannelOutputStream outputStream;
+
+    /** 出力中のファイルにデータを書き込むストリーム(gzip形式の場合は圧縮を行うストリーム) */
+    private OutputStream partStream;
+
+    /** ヘッダのバイト列 */
+    private byte[] header;
+
+    /** 出力中のファイルの連番 */
+    private int sequence;
+
+    /** 出力中のファイルに書き込んだレコード数 */
+    private long partRecords;
+
+    /** 出力中のファイルに書き込んだバイト数(gzip形式の場合は圧縮前のバイト数) */
+    private long partBytes;
+
+    /** 出力中のファイルのチェックサム(マニフェストファイルを出力しない場合は{@code null}) */
+    private MessageDigest digest;
+
+    /** 出力が完了したファイルの一覧 */
+    private List<PartSummary> completedParts;
+
+    /** 書き込んだバイト数の合計 */
+    private long writtenBytes;
+
+    /** 書き込みを開始した時刻 */
+    private long startTime;
+
+    /** クローズ済みか否か */
+    private boolean closed;
+
+    /** パーティションの番号 */
+    @Inject
+    @BatchProperty
+    String partition;
 
     /**
      * コンストラクタ。
@@ -70,7 +151,6 @@ public class FileItemWriter extends AbstractItemWriter {
     }
 
 
-    @SuppressWarnings("unchecked")
     @Override
     public void open(final Serializable checkpoint) throws Exception {
 
@@ -81,33 +161,649 @@ public class FileItemWriter extends AbstractItemWriter {
 
         EtlUtil.verifyRequired(jobId, stepId, "bean", config.getBean());
         EtlUtil.verifyRequired(jobId, stepId, "fileName", config.getFileName());
+        verifyPositive(jobId, stepId, "bufferSize", (long) config.getBufferSize());
+        verifyPositive(jobId, stepId, "maxRecordsPerFile", config.getMaxRecordsPerFile());
+        verifyPositive(jobId, stepId, "maxBytesPerFile", config.getMaxBytesPerFile());
+        if (config.isGzipped()) {
+            verifyPositive(jobId, stepId, "compressionBlockSize", (long) config.getCompressionBlockSize());
+            if (config.getCompressionThreads() != null) {
+                verifyPositive(jobId, stepId, "compressionThreads", (long) config.getCompressionThreads());
+            }
+        }
+        if (config.isRolling()) {
+            verifyFileNamePattern(jobId, stepId, config.getFileName());
+        }
+        if (partition != null && (config.isRolling() || config.getManifestFileName() != null)) {
+            throw new InvalidEtlConfigException(String.format(
+                    "maxRecordsPerFile, maxBytesPerFile and manifestFileName can not be used with partitions."
+                            + " jobId = [%s], stepId = [%s]", jobId, stepId));
+        }
 
-        final File outputFile = new File(outputFileBasePath, config.getFileName());
-        try {
-            mapper = (ObjectMapper<Object>) ObjectMapperFactory.create(
-                    config.getBean(), new FileOutputStream(outputFile));
-        } catch (FileNotFoundException e) {
-            final String message = MessageUtil.createMessage(
-                    MessageLevel.ERROR, "nablarch.etl.invalid-output-file-path", outputFile.getAbsolutePath())
-                                              .formatMessage();
-            OperationLogger.write(LogLevel.ERROR, message);
-            throw new BatchRuntimeException(message, e);
+        final Checkpoint restored = checkpoint == null ? new Checkpoint() : (Checkpoint) checkpoint;
+        sequence = restored.sequence;
+        completedParts = new ArrayList<PartSummary>(restored.completedParts);
+
+        final File outputFile = new File(outputFileBasePath, partFileName());
+        if (outputFile.exists() && !outputFile.canWrite()) {
+            throw invalidOutputFilePath(outputFile, null);
+        }
+        if (config.isRolling()) {
+            deleteTemporaryFilesAfter(sequence);
+        }
+
+        header = createHeader(config.getBean());
+        openPart(restored.offset, restored.records, restored.bytes);
+        if (restored.offset > 0L) {
+            LOGGER.logInfo("file write was restarted from the checkpoint. file=["
+                    + temporaryFileOf(partFileName()).getAbsolutePath() + "], offset=[" + restored.offset + ']');
         }
+        startTime = System.currentTimeMillis();
 
         super.open(checkpoint);
     }
 
+    /**
+     * チャンクのデータをファイルに書き込む。
+     * <p/>
+     * チェックポイントの位置とファイルの内容を一致させるため、チャンクごとにマッパーを生成し、
+     * チャンクのデータをバイト列に変換してから書き込む。
+     * 出力ファイルを分割する場合で、チャンクのデータが出力中のファイルに収まらない場合は、
+     * レコードごとにバイト列に変換し、上限に達する前に次のファイルに切り替える。
+     *
+     * @param items チャンクのデータ
+     * @throws IOException 入出力例外
+     */
     @Override
     public void writeItems(final List<Object> items) throws IOException {
-        for (Object item : items) {
-            mapper.write(item);
+        if (closed) {
+            throw new IllegalStateException("FileItemWriter was already closed.");
         }
+        final byte[] chunk = toBytes(items);
+        if (fits(items.size(), chunk.length)) {
+            writePart(chunk, items.size());
+        } else {
+            for (Object item : items) {
+                final byte[] record = toBytes(Collections.singletonList(item));
+                if (partRecords > 0L && !fits(1, record.length)) {
+                    rotate();
+                }
+                writePart(record, 1);
+            }
+        }
+        partStream.flush();
+        outputStream.drain();
     }
 
+    /**
+     * チェックポイントの処理を行う。
+     * <p/>
+     * {@link DbToFileStepConfig#isSyncOnCheckpoint()}が{@code true}の場合は、
+     * 書き込んだデータをストレージに同期する。
+     *
+     * @return 出力中のファイルの連番と書き込み済みのバイト数を保持するチェックポイント
+     */
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        if (((DbToFileStepConfig) stepConfig).isSyncOnCheckpoint()) {
+            outputStream.sync();
+        }
+        return new Checkpoint(sequence, outputStream.position(), partRecords, partBytes, completedParts);
+    }
+
+    /**
+     * 一時ファイルをクローズする。
+     * <p/>
+     * ステップが正常に終了した場合は、一時ファイルを出力ファイルにリネームし、マニフェストファイルを出力する。
+     * 例外が発生した場合やステップが停止された場合は、再実行に備えて一時ファイルを残す。
+     */
     @Override
     public void close() throws Exception {
-        if (mapper != null) {
+        if (outputStream == null || closed) {
+            return;
+        }
+        closed = true;
+        final PartSummary current = closePart();
+        loggingThroughput(current);
+        if (!isStepCompleted()) {
+            return;
+        }
+        completedParts.add(current);
+        for (PartSummary part : completedParts) {
+            rename(temporaryFileOf(part.fileName), new File(outputFileBasePath, part.fileName));
+        }
+        final String manifestFileName = ((DbToFileStepConfig) stepConfig).getManifestFileName();
+        if (manifestFileName != null) {
+            writeManifest(manifestFileName);
+        }
+    }
+
+    /**
+     * 出力中のファイルに、指定されたレコード数とバイト数を書き込めるか否か。
+     *
+     * @param records レコード数
+     * @param bytes バイト数
+     * @return 書き込める場合は{@code true}
+     */
+    private boolean fits(final long records, final long bytes) {
+        final DbToFileStepConfig config = (DbToFileStepConfig) stepConfig;
+        final Long maxRecords = config.getMaxRecordsPerFile();
+        final Long maxBytes = config.getMaxBytesPerFile();
+        return (maxRecords == null || partRecords + records <= maxRecords)
+                && (maxBytes == null || partBytes + bytes <= maxBytes);
+    }
+
+    /**
+     * 出力中のファイルにバイト列を書き込む。
+     *
+     * @param bytes バイト列
+     * @param records バイト列に含まれるレコード数
+     * @throws IOException 入出力例外
+     */
+    private void writePart(final byte[] bytes, final long records) throws IOException {
+        partStream.write(bytes);
+        partBytes += bytes.length;
+        partRecords += records;
+    }
+
+    /**
+     * 出力中のファイルをクローズし、次の連番のファイルに切り替える。
+     *
+     * @throws IOException 入出力例外
+     */
+    private void rotate() throws IOException {
+        final PartSummary completed = closePart();
+        completedParts.add(completed);
+        LOGGER.logInfo("output file was rotated. file=[" + completed.fileName + "],"
+                + " record count=[" + completed.records + ']');
+        sequence++;
+        openPart(0L, 0L, 0L);
+    }
+
+    /**
+     * 出力中のファイルの一時ファイルを開く。
+     *
+     * @param offset 書き込みを開始する位置
+     * @param records 書き込み済みのレコード数
+     * @param bytes 書き込み済みのバイト数(gzip形式の場合は圧縮前のバイト数)
+     * @throws IOException 入出力例外
+     */
+    private void openPart(final long offset, final long records, final long bytes) throws IOException {
+        final DbToFileStepConfig config = (DbToFileStepConfig) stepConfig;
+        final File temporaryFile = temporaryFileOf(partFileName());
+        final FileChannel channel;
+        try {
+            channel = new RandomAccessFile(temporaryFile, "rw").getChannel();
+        } catch (FileNotFoundException e) {
+            throw invalidOutputFilePath(new File(outputFileBasePath, partFileName()), e);
+        }
+        if (channel.size() < offset) {
+            channel.close();
+            throw new IllegalStateException(String.format(
+                    "temporary file is shorter than the checkpoint. temporary file=[%s], size=[%d], checkpoint=[%d]",
+                    temporaryFile.getAbsolutePath(), channel.size(), offset));
+        }
+        channel.truncate(offset);
+        digest = config.getManifestFileName() == null ? null : restoreDigest(channel, offset);
+        channel.position(offset);
+
+        outputStream = new FileChannelOutputStream(channel, config.getBufferSize());
+        final OutputStream fileStream = digest == null ? outputStream : new DigestOutputStream(outputStream, digest);
+        if (config.isGzipped()) {
+            final Integer threads = config.getCompressionThreads();
+            partStream = new ParallelGzipOutputStream(fileStream, config.getCompressionBlockSize(),
+                    threads != null ? threads : Runtime.getRuntime().availableProcessors());
+        } else {
+            partStream = fileStream;
+        }
+        partBytes = bytes;
+        partRecords = records;
+        if (offset == 0L && writesHeader()) {
+            writePart(header, 0L);
+        }
+    }
+
+    /**
+     * ヘッダを出力するか否か。
+     * <p/>
+     * パーティションごとのファイルを結合する場合は、最初のパーティションのみヘッダを出力する。
+     *
+     * @return ヘッダを出力する場合は{@code true}
+     */
+    private boolean writesHeader() {
+        return partition == null
+                || ((DbToFileStepConfig) stepConfig).isKeepPartitionFiles()
+                || Integer.parseInt(partition) == 1;
+    }
+
+    /**
+     * 出力中のファイルの一時ファイルをクローズする。
+     *
+     * @return 出力中のファイルの情報
+     * @throws IOException 入出力例外
+     */
+    private PartSummary closePart() throws IOException {
+        partStream.close();
+        outputStream.close();
+        writtenBytes += outputStream.getWrittenBytes();
+        return new PartSummary(partFileName(), partRecords, digest == null ? null : toHex(digest.digest()));
+    }
+
+    /**
+     * 一時ファイルの先頭から指定された位置までのチェックサムを計算する。
+     *
+     * @param channel 一時ファイルのチャネル
+     * @param offset 位置
+     * @return チェックサムの計算途中の{@link MessageDigest}
+     * @throws IOException 入出力例外
+     */
+    private static MessageDigest restoreDigest(final FileChannel channel, final long offset) throws IOException {
+        final MessageDigest restored = createDigest();
+        final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = 0L;
+        while (position < offset) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), offset - position));
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            restored.update(buffer);
+            position += read;
+        }
+        return restored;
+    }
+
+    /**
+     * チェックサムを計算する{@link MessageDigest}を生成する。
+     *
+     * @return {@link MessageDigest}
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * バイト列を16進数の文字列に変換する。
+     *
+     * @param bytes バイト列
+     * @return 16進数の文字列
+     */
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+               .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * データをマッパーでバイト列に変換する。
+     * <p/>
+     * マッパーが出力するヘッダは含まない。
+     *
+     * @param items データ
+     * @return バイト列
+     * @throws IOException 入出力例外
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] toBytes(final List<?> items) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectMapper<Object> mapper = (ObjectMapper<Object>) ObjectMapperFactory.create(
+                stepConfig.getBean(), new HeaderSkippingOutputStream(bytes, header.length));
+        try {
+            for (Object item : items) {
+                mapper.write(item);
+            }
+        } finally {
             mapper.close();
         }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 出力中のファイルのファイル名を取得する。
+     *
+     * @return ファイル名
+     */
+    private String partFileName() {
+        final DbToFileStepConfig config = (DbToFileStepConfig) stepConfig;
+        if (partition != null) {
+            return partitionFileName(config.getFileName(), Integer.parseInt(partition));
+        }
+        return config.isRolling() ? String.format(config.getFileName(), sequence) : config.getFileName();
+    }
+
+    /**
+     * パーティションごとのファイル名を取得する。
+     *
+     * @param fileName 出力ファイル名
+     * @param partition パーティションの番号
+     * @return パーティションごとのファイル名
+     */
+    static String partitionFileName(final String fileName, final int partition) {
+        return String.format("%s.part%03d", fileName, partition);
+    }
+
+    /**
+     * 出力ファイルに対応する一時ファイルを取得する。
+     *
+     * @param fileName 出力ファイル名
+     * @return 一時ファイル
+     */
+    private File temporaryFileOf(final String fileName) {
+        return new File(outputFileBasePath, fileName + TEMPORARY_FILE_SUFFIX);
+    }
+
+    /**
+     * 指定された連番より後のファイルの一時ファイルを削除する。
+     * <p/>
+     * チェックポイントの後に切り替えたファイルは、再実行時に出力し直す。
+     *
+     * @param from 連番
+     */
+    private void deleteTemporaryFilesAfter(final int from) {
+        final String pattern = ((DbToFileStepConfig) stepConfig).getFileName();
+        int next = from + 1;
+        File temporaryFile = temporaryFileOf(String.format(pattern, next));
+        while (temporaryFile.exists()) {
+            if (!temporaryFile.delete()) {
+                throw new IllegalStateException(
+                        "failed to delete the temporary file. temporary file=[" + temporaryFile.getAbsolutePath() + ']');
+            }
+            next++;
+            temporaryFile = temporaryFileOf(String.format(pattern, next));
+        }
+    }
+
+    /**
+     * マニフェストファイルを出力する。
+     *
+     * @param manifestFileName マニフェストファイル名
+     * @throws IOException 入出力例外
+     */
+    private void writeManifest(final String manifestFileName) throws IOException {
+        final File temporaryFile = temporaryFileOf(manifestFileName);
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(temporaryFile), "UTF-8");
+        try {
+            for (PartSummary part : completedParts) {
+                writer.write(part.fileName + ',' + part.records + ',' + part.checksum + "\r\n");
+            }
+        } finally {
+            writer.close();
+        }
+        rename(temporaryFile, new File(outputFileBasePath, manifestFileName));
+    }
+
+    /**
+     * 設定値が正の数であることを検証する。
+     *
+     * @param jobId ジョブID
+     * @param stepId ステップID
+     * @param name 設定名
+     * @param value 設定値
+     */
+    private static void verifyPositive(final String jobId, final String stepId, final String name, final Long value) {
+        if (value != null && value <= 0L) {
+            throw new InvalidEtlConfigException(String.format(
+                    "%s must be greater than 0. jobId = [%s], stepId = [%s], %s = [%s]",
+                    name, jobId, stepId, name, value));
+        }
+    }
+
+    /**
+     * 出力ファイルを分割する場合に、ファイル名が連番を埋め込むパターンであることを検証する。
+     *
+     * @param jobId ジョブID
+     * @param stepId ステップID
+     * @param fileName ファイル名
+     */
+    private static void verifyFileNamePattern(final String jobId, final String stepId, final String fileName) {
+        boolean valid;
+        try {
+            valid = !String.format(fileName, 1).equals(String.format(fileName, 2));
+        } catch (IllegalFormatException ignored) {
+            valid = false;
+        }
+        if (!valid) {
+            throw new InvalidEtlConfigException(String.format(
+                    "fileName must contain a sequence number pattern when splitting the output file."
+                            + " jobId = [%s], stepId = [%s], fileName = [%s]",
+                    jobId, stepId, fileName));
+        }
+    }
+
+    /**
+     * ステップが正常に終了したか否か。
+     *
+     * @return 正常に終了した場合は{@code true}
+     */
+    private boolean isStepCompleted() {
+        if (stepContext.getException() != null) {
+            return false;
+        }
+        final BatchStatus status = stepContext.getBatchStatus();
+        return status != BatchStatus.STOPPING
+                && status != BatchStatus.STOPPED
+                && status != BatchStatus.FAILED;
+    }
+
+    /**
+     * 一時ファイルを出力ファイルにリネームする。
+     *
+     * @param temporaryFile 一時ファイル
+     * @param outputFile 出力ファイル
+     */
+    static void rename(final File temporaryFile, final File outputFile) {
+        if (temporaryFile.renameTo(outputFile)) {
+            return;
+        }
+        // 出力ファイルが存在する場合にリネームできない環境では、出力ファイルを削除してからリネームする
+        if (outputFile.delete() && temporaryFile.renameTo(outputFile)) {
+            return;
+        }
+        throw new IllegalStateException(String.format(
+                "failed to rename the temporary file. temporary file=[%s], output file=[%s]",
+                temporaryFile.getAbsolutePath(), outputFile.getAbsolutePath()));
+    }
+
+    /**
+     * 出力ファイルのパスが不正であることをオペレータに通知し、例外を生成する。
+     *
+     * @param outputFile 出力ファイル
+     * @param cause 原因となった例外
+     * @return 例外
+     */
+    static BatchRuntimeException invalidOutputFilePath(final File outputFile, final Exception cause) {
+        final String message = MessageUtil.createMessage(
+                MessageLevel.ERROR, "nablarch.etl.invalid-output-file-path", outputFile.getAbsolutePath())
+                                          .formatMessage();
+        OperationLogger.write(LogLevel.ERROR, message);
+        return new BatchRuntimeException(message, cause);
+    }
+
+    /**
+     * マッパーが出力するヘッダのバイト列を生成する。
+     *
+     * @param bean Beanクラス
+     * @return ヘッダのバイト列(ヘッダを出力しない場合は空)
+     * @throws IOException 入出力例外
+     */
+    static byte[] createHeader(final Class<?> bean) throws IOException {
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        ObjectMapperFactory.create(bean, header).close();
+        return header.toByteArray();
+    }
+
+    /**
+     * 書き込んだバイト数とスループットをログに出力する。
+     * <p/>
+     * ファイル名は、分割やパーティションで実際に出力したファイル名を出力する。
+     *
+     * @param current 出力中だったファイルの情報
+     */
+    private void loggingThroughput(final PartSummary current) {
+        final long elapsedMillis = Math.max(System.currentTimeMillis() - startTime, 1L);
+        final StringBuilder files = new StringBuilder();
+        for (PartSummary part : completedParts) {
+            files.append(part.fileName)
+                 .append(", ");
+        }
+        files.append(current.fileName);
+        LOGGER.logInfo("file write throughput. output directory=[" + outputFileBasePath.getAbsolutePath() + "],"
+                + " files=[" + files + "], file count=[" + (completedParts.size() + 1) + "],"
+                + " written bytes=[" + writtenBytes + "], elapsed time(ms)=[" + elapsedMillis + "],"
+                + " throughput(bytes/sec)=[" + (writtenBytes * 1000L / elapsedMillis) + ']');
+    }
+
+    /**
+     * {@link FileItemWriter}のチェックポイント。
+     */
+    static final class Checkpoint implements Serializable {
+
+        /** シリアルバージョンUID */
+        private static final long serialVersionUID = 1L;
+
+        /** 出力中のファイルの連番 */
+        private final int sequence;
+
+        /** 出力中のファイルに書き込み済みのバイト数 */
+        private final long offset;
+
+        /** 出力中のファイルに書き込み済みのレコード数 */
+        private final long records;
+
+        /** 出力中のファイルに書き込み済みのバイト数(gzip形式の場合は圧縮前のバイト数) */
+        private final long bytes;
+
+        /** 出力が完了したファイルの一覧 */
+        private final ArrayList<PartSummary> completedParts;
+
+        /**
+         * 書き込みを開始していない状態のチェックポイントを生成する。
+         */
+        Checkpoint() {
+            this(1, 0L, 0L, 0L, Collections.<PartSummary>emptyList());
+        }
+
+        /**
+         * コンストラクタ。
+         *
+         * @param sequence 出力中のファイルの連番
+         * @param offset 出力中のファイルに書き込み済みのバイト数
+         * @param records 出力中のファイルに書き込み済みのレコード数
+         * @param bytes 出力中のファイルに書き込み済みのバイト数(gzip形式の場合は圧縮前のバイト数)
+         * @param completedParts 出力が完了したファイルの一覧
+         */
+        Checkpoint(final int sequence, final long offset, final long records, final long bytes,
+                final List<PartSummary> completedParts) {
+            this.sequence = sequence;
+            this.offset = offset;
+            this.records = records;
+            this.bytes = bytes;
+            this.completedParts = new ArrayList<PartSummary>(completedParts);
+        }
+
+        /**
+         * 出力中のファイルの連番を取得する。
+         *
+         * @return 連番
+         */
+        int getSequence() {
+            return sequence;
+        }
+
+        /**
+         * 出力中のファイルに書き込み済みのバイト数を取得する。
+         *
+         * @return バイト数
+         */
+        long getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * 出力が完了したファイルの情報。
+     */
+    static final class PartSummary implements Serializable {
+
+        /** シリアルバージョンUID */
+        private static final long serialVersionUID = 1L;
+
+        /** ファイル名 */
+        private final String fileName;
+
+        /** レコード数 */
+        private final long records;
+
+        /** チェックサム(マニフェストファイルを出力しない場合は{@code null}) */
+        private final String checksum;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param fileName ファイル名
+         * @param records レコード数
+         * @param checksum チェックサム
+         */
+        private PartSummary(final String fileName, final long records, final String checksum) {
+            this.fileName = fileName;
+            this.records = records;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * チャンクごとのマッパーが出力するヘッダを読み飛ばす{@link OutputStream}。
+     * <p/>
+     * クローズしても、書き込み先のストリームはクローズしない。
+     */
+    private static final class HeaderSkippingOutputStream extends OutputStream {
+
+        /** 書き込み先のストリーム */
+        private final OutputStream out;
+
+        /** 読み飛ばす残りのバイト数 */
+        private int skip;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param out 書き込み先のストリーム
+         * @param skip 読み飛ばすバイト数
+         */
+        private HeaderSkippingOutputStream(final OutputStream out, final int skip) {
+            this.out = out;
+            this.skip = skip;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            out.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            final int skipped = Math.min(skip, len);
+            skip -= skipped;
+            if (len > skipped) {
+                out.write(b, off + skipped, len - skipped);
+            }
+        }
+
+        @Override
+        public void close() {
+            // nop
+        }
     }
 }
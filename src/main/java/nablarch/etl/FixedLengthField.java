@@ -0,0 +1,36 @@
+package nablarch.etl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 固定長ファイルの項目を定義するアノテーション。
+ * <p/>
+ * {@link FixedLengthRecord}が設定されたBeanのプロパティのgetterに設定する。
+ * 文字列型の項目は末尾の半角スペースを、数値型の項目は前後の半角スペースを除去して設定する。
+ *
+ * @author TIS
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Published
+public @interface FixedLengthField {
+
+    /**
+     * レコード内の項目の開始位置(1から始まるバイト位置)。
+     *
+     * @return 項目の開始位置
+     */
+    int offset();
+
+    /**
+     * 項目のバイト数。
+     *
+     * @return 項目のバイト数
+     */
+    int length();
+}
@@ -0,0 +1,225 @@
+package nablarch.etl;
+
+import java.beans.Introspector;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import nablarch.common.databind.InvalidDataFormatException;
+
+/**
+ * Beanの{@link FixedLengthRecord}と{@link FixedLengthField}の定義から取得した固定長ファイルの形式。
+ *
+ * @author TIS
+ */
+final class FixedLengthLayout {
+
+    /** 行区切りを含まないレコードのバイト数 */
+    private final int recordLength;
+
+    /** 行区切りのバイト列 */
+    private final byte[] lineSeparator;
+
+    /** 文字セット */
+    private final Charset charset;
+
+    /** 項目のプロパティ名(開始位置の順) */
+    private final String[] properties;
+
+    /** 項目のレコード内の開始位置(0から始まる) */
+    private final int[] offsets;
+
+    /** 項目のバイト数 */
+    private final int[] lengths;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param record レコードの定義
+     * @param fields 項目の定義
+     */
+    private FixedLengthLayout(final FixedLengthRecord record, final List<FieldDefinition> fields) {
+        recordLength = record.length();
+        charset = Charset.forName(record.charset());
+        lineSeparator = record.lineSeparator().getBytes(charset);
+        properties = new String[fields.size()];
+        offsets = new int[fields.size()];
+        lengths = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            properties[i] = fields.get(i).property;
+            offsets[i] = fields.get(i).field.offset() - 1;
+            lengths[i] = fields.get(i).field.length();
+        }
+    }
+
+    /**
+     * Beanの定義から固定長ファイルの形式を生成する。
+     *
+     * @param bean Beanクラス
+     * @return 固定長ファイルの形式。{@link FixedLengthRecord}が設定されていない場合は{@code null}
+     * @throws InvalidEtlConfigException 項目がレコードに収まらない場合や、Beanが読み込みに対応していない場合
+     */
+    static FixedLengthLayout of(final Class<?> bean) {
+        final FixedLengthRecord record = bean.getAnnotation(FixedLengthRecord.class);
+        if (record == null) {
+            return null;
+        }
+        final List<FieldDefinition> fields = new ArrayList<FieldDefinition>();
+        for (Method method : bean.getMethods()) {
+            final FixedLengthField field = method.getAnnotation(FixedLengthField.class);
+            if (field == null) {
+                continue;
+            }
+            if (record.length() <= 0 || field.offset() < 1 || field.length() < 1
+                    || field.offset() - 1 + field.length() > record.length()) {
+                throw new InvalidEtlConfigException(String.format(
+                        "fixed-length field must be within the record. bean = [%s], method = [%s],"
+                                + " record length = [%s], offset = [%s], length = [%s]",
+                        bean.getName(), method.getName(), record.length(), field.offset(), field.length()));
+            }
+            fields.add(new FieldDefinition(toPropertyName(method.getName()), field));
+        }
+        Collections.sort(fields, new Comparator<FieldDefinition>() {
+            @Override
+            public int compare(final FieldDefinition o1, final FieldDefinition o2) {
+                return o1.field.offset() - o2.field.offset();
+            }
+        });
+
+        final FixedLengthLayout layout = new FixedLengthLayout(record, fields);
+        if (!ByteFieldBinder.isSingleByteCharacter(layout.charset, ' ')
+                || !ByteFieldBinder.isSupported(bean, layout.properties)) {
+            throw new InvalidEtlConfigException(String.format(
+                    "fixed-length bean must have a public no-arg constructor and String, Integer, Long or BigDecimal"
+                            + " properties, and the charset must be ASCII compatible. bean = [%s], charset = [%s]",
+                    bean.getName(), record.charset()));
+        }
+        return layout;
+    }
+
+    /**
+     * ファイルサイズからレコード数を算出する。
+     * <p/>
+     * 最後のレコードには行区切りがなくてもよい。
+     *
+     * @param fileSize ファイルサイズ
+     * @return レコード数
+     * @throws InvalidDataFormatException ファイルサイズがレコードの長さと一致しない場合
+     */
+    long countRecords(final long fileSize) {
+        final long stride = getStride();
+        final long count = fileSize / stride;
+        final long remainder = fileSize % stride;
+        if (remainder == 0L) {
+            return count;
+        }
+        if (remainder == recordLength) {
+            return count + 1;
+        }
+        throw new InvalidDataFormatException(String.format(
+                "file size does not match the record length. file size = [%d], record length = [%d].",
+                fileSize, stride), count + 1);
+    }
+
+    /**
+     * 行区切りを含まないレコードのバイト数を取得する。
+     *
+     * @return レコードのバイト数
+     */
+    int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * 行区切りを含むレコードのバイト数を取得する。
+     *
+     * @return レコードのバイト数
+     */
+    int getStride() {
+        return recordLength + lineSeparator.length;
+    }
+
+    /**
+     * 行区切りのバイト列を取得する。
+     *
+     * @return 行区切りのバイト列
+     */
+    byte[] getLineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * 文字セットを取得する。
+     *
+     * @return 文字セット
+     */
+    Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 項目のプロパティ名を取得する。
+     *
+     * @return 項目のプロパティ名(開始位置の順)
+     */
+    String[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * 項目のレコード内の開始位置を取得する。
+     *
+     * @param field 項目の番号
+     * @return 開始位置(0から始まる)
+     */
+    int getOffset(final int field) {
+        return offsets[field];
+    }
+
+    /**
+     * 項目のバイト数を取得する。
+     *
+     * @param field 項目の番号
+     * @return バイト数
+     */
+    int getLength(final int field) {
+        return lengths[field];
+    }
+
+    /**
+     * getterのメソッド名からプロパティ名を取得する。
+     *
+     * @param methodName メソッド名
+     * @return プロパティ名
+     */
+    private static String toPropertyName(final String methodName) {
+        return Introspector.decapitalize(
+                methodName.startsWith("is") ? methodName.substring(2) : methodName.substring(3));
+    }
+
+    /**
+     * 項目の定義。
+     */
+    private static final class FieldDefinition {
+
+        /** プロパティ名 */
+        private final String property;
+
+        /** 項目の定義 */
+        private final FixedLengthField field;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param property プロパティ名
+         * @param field 項目の定義
+         */
+        private FieldDefinition(final String property, final FixedLengthField field) {
+            this.property = property;
+            this.field = field;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package nablarch.etl;
+
+import java.io.File;
+
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.etl.config.EtlConfig;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.etl.config.PathConfig;
+import nablarch.etl.config.StepConfig;
+
+/**
+ * FILEtoDBステップを、固定長ファイルのレコードの範囲ごとのパーティションに分割する{@link PartitionMapper}の実装クラス。
+ * <p/>
+ * 固定長ファイルのレコード数をファイルサイズから算出し、{@link FileToDbStepConfig#getPartitions()}の数の
+ * 連続した範囲に分割する。パーティションごとに以下のプロパティを設定する。
+ * <ul>
+ * <li>{@value #PARTITION}: パーティションの番号(1から始まる)</li>
+ * <li>{@value #RECORD_FROM}: レコードの範囲の開始(1から始まり、この値を含む)</li>
+ * <li>{@value #RECORD_TO}: レコードの範囲の終了(この値を含む)</li>
+ * </ul>
+ * ジョブXMLでは、レコードの範囲を{@link FileItemReader}のプロパティに設定する。
+ * <pre>
+ * &lt;reader ref="fileItemReader"&gt;
+ *   &lt;properties&gt;
+ *     &lt;property name="recordFrom" value="#{partitionPlan['recordFrom']}" /&gt;
+ *     &lt;property name="recordTo" value="#{partitionPlan['recordTo']}" /&gt;
+ *   &lt;/properties&gt;
+ * &lt;/reader&gt;
+ * </pre>
+ * Beanには{@link FixedLengthRecord}が設定されている必要がある。
+ * 入力ファイルが存在しない場合は、パーティションを開始せずに{@link FileItemReader}と同じメッセージで失敗する。
+ *
+ * @author TIS
+ */
+@Named
+@Dependent
+public class FixedLengthPartitionMapper implements PartitionMapper {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** パーティションの番号のプロパティ名 */
+    public static final String PARTITION = RangePartitionPlan.PARTITION;
+
+    /** レコードの範囲の開始のプロパティ名 */
+    public static final String RECORD_FROM = "recordFrom";
+
+    /** レコードの範囲の終了のプロパティ名 */
+    public static final String RECORD_TO = "recordTo";
+
+    /** {@link JobContext} */
+    private final JobContext jobContext;
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
+    /** ETLの設定 */
+    private final FileToDbStepConfig stepConfig;
+
+    /** 入力ファイルのベースパス */
+    private final File inputFileBasePath;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param jobContext {@link JobContext}
+     * @param stepContext {@link StepContext}
+     * @param stepConfig ステップの設定
+     * @param inputFileBasePath 入力ファイルの配置ディレクトリ
+     */
+    @Inject
+    public FixedLengthPartitionMapper(
+            final JobContext jobContext,
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig,
+            @PathConfig(BasePath.INPUT) final File inputFileBasePath) {
+        this.jobContext = jobContext;
+        this.stepContext = stepContext;
+        this.stepConfig = (FileToDbStepConfig) stepConfig;
+        this.inputFileBasePath = inputFileBasePath;
+    }
+
+    @Override
+    public PartitionPlan mapPartitions() throws Exception {
+
+        final String jobId = jobContext.getJobName();
+        final String stepId = stepContext.getStepName();
+
+        EtlUtil.verifyRequired(jobId, stepId, "bean", stepConfig.getBean());
+        EtlUtil.verifyRequired(jobId, stepId, "fileName", stepConfig.getFileName());
+        final int partitions = RangePartitionPlan.verifyPartitions(jobId, stepId, stepConfig.getPartitions());
+
+        final FixedLengthLayout layout = FixedLengthLayout.of(stepConfig.getBean());
+        if (layout == null) {
+            throw new InvalidEtlConfigException(String.format(
+                    "bean must be annotated with FixedLengthRecord. jobId = [%s], stepId = [%s], bean = [%s]",
+                    jobId, stepId, stepConfig.getBean().getName()));
+        }
+
+        final File inputFile = new File(inputFileBasePath, stepConfig.getFileName());
+        if (!inputFile.isFile()) {
+            throw FileItemReader.inputFileNotFound(inputFile, null);
+        }
+        final long count = layout.countRecords(inputFile.length());
+        LOGGER.logInfo("step was partitioned by record. file=[" + inputFile.getAbsolutePath() + "],"
+                + " partitions=[" + partitions + "], records=[" + count + ']');
+        return RangePartitionPlan.create(partitions, 1L, count, RECORD_FROM, RECORD_TO);
+    }
+}
@@ -0,0 +1,58 @@
+package nablarch.etl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 固定長ファイルのレコードの形式を定義するアノテーション。
+ * <p/>
+ * {@link FileItemReader}は、このアノテーションが設定されたBeanの入力ファイルを固定長ファイルとして、
+ * メモリマップドファイルで読み込む。項目は{@link FixedLengthField}でプロパティのgetterに定義する。
+ * <p/>
+ * <b>使用例</b>
+ * <pre>
+ * {@code @FixedLengthRecord(length = 30, charset = "windows-31j", lineSeparator = "\r\n")}
+ * public class UserFile extends WorkItem {
+ *
+ *     {@code @FixedLengthField(offset = 1, length = 10)}
+ *     public String getUserId() {
+ *         return userId;
+ *     }
+ *     ・・・
+ * }
+ * </pre>
+ *
+ * @author TIS
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Published
+public @interface FixedLengthRecord {
+
+    /**
+     * 行区切りを含まないレコードのバイト数。
+     *
+     * @return レコードのバイト数
+     */
+    int length();
+
+    /**
+     * 文字セット。
+     *
+     * @return 文字セット
+     */
+    String charset();
+
+    /**
+     * 行区切り。
+     * <p/>
+     * デフォルトは行区切りなし。
+     *
+     * @return 行区切り
+     */
+    String lineSeparator() default "";
+}
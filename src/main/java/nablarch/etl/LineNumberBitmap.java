@@ -0,0 +1,197 @@
+package nablarch.etl;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 行番号の集合をランレングスで保持するクラス。
+ * <p/>
+ * 連続する行番号を開始と終了の組(ラン)として保持するため、
+ * エラーの行番号が連続する場合でも行数に比例したメモリを必要としない。
+ * 行番号の判定は二分探索で行う。
+ * <p/>
+ * 本クラスのインスタンスは{@link Builder}で生成し、生成後は変更できない。
+ *
+ * @author TIS
+ */
+final class LineNumberBitmap implements Serializable {
+
+    /** シリアルバージョンUID */
+    private static final long serialVersionUID = 1L;
+
+    /** ランの開始行番号 */
+    private final long[] starts;
+
+    /** ランの終了行番号 */
+    private final long[] ends;
+
+    /** 行番号の数 */
+    private final long cardinality;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param starts ランの開始行番号(昇順)
+     * @param ends ランの終了行番号
+     * @param cardinality 行番号の数
+     */
+    private LineNumberBitmap(final long[] starts, final long[] ends, final long cardinality) {
+        this.starts = starts;
+        this.ends = ends;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * 行番号が含まれるか否か。
+     *
+     * @param lineNumber 行番号
+     * @return 含まれる場合は{@code true}
+     */
+    boolean contains(final long lineNumber) {
+        final int index = findRun(lineNumber);
+        return index >= 0 && lineNumber <= ends[index];
+    }
+
+    /**
+     * 範囲内の全ての行番号が含まれるか否か。
+     *
+     * @param from 範囲の開始行番号
+     * @param to 範囲の終了行番号
+     * @return 全て含まれる場合は{@code true}
+     */
+    boolean containsAll(final long from, final long to) {
+        final int index = findRun(from);
+        return index >= 0 && to <= ends[index];
+    }
+
+    /**
+     * 行番号の数を取得する。
+     *
+     * @return 行番号の数
+     */
+    long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * ランの数を取得する。
+     *
+     * @return ランの数
+     */
+    int runCount() {
+        return starts.length;
+    }
+
+    /**
+     * 行番号を含む可能性があるランを探す。
+     *
+     * @param lineNumber 行番号
+     * @return 開始行番号が行番号以下の最後のランのインデックス。存在しない場合は-1
+     */
+    private int findRun(final long lineNumber) {
+        final int index = Arrays.binarySearch(starts, lineNumber);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * {@link LineNumberBitmap}を生成するクラス。
+     * <p/>
+     * 行番号を昇順に追加した場合は、追加時にランを組み立てる。
+     * 昇順でない場合は、{@link #build()}でランを並べ替えて結合する。
+     */
+    static final class Builder {
+
+        /** ランの開始行番号 */
+        private long[] starts = new long[16];
+
+        /** ランの終了行番号 */
+        private long[] ends = new long[16];
+
+        /** ランの数 */
+        private int size;
+
+        /** ランが昇順に並んでいるか否か */
+        private boolean sorted = true;
+
+        /**
+         * 行番号を追加する。
+         *
+         * @param lineNumber 行番号
+         * @return 本オブジェクト
+         */
+        Builder add(final long lineNumber) {
+            if (size != 0) {
+                final long last = ends[size - 1];
+                if (lineNumber >= starts[size - 1] && lineNumber <= last) {
+                    return this;
+                }
+                if (lineNumber == last + 1) {
+                    ends[size - 1] = lineNumber;
+                    return this;
+                }
+                if (lineNumber < last) {
+                    sorted = false;
+                }
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = lineNumber;
+            ends[size] = lineNumber;
+            size++;
+            return this;
+        }
+
+        /**
+         * {@link LineNumberBitmap}を生成する。
+         *
+         * @return {@link LineNumberBitmap}
+         */
+        LineNumberBitmap build() {
+            if (!sorted) {
+                sortRuns();
+            }
+            final long[] mergedStarts = new long[size];
+            final long[] mergedEnds = new long[size];
+            int count = 0;
+            long cardinality = 0;
+            for (int i = 0; i < size; i++) {
+                if (count != 0 && starts[i] <= mergedEnds[count - 1] + 1) {
+                    if (ends[i] > mergedEnds[count - 1]) {
+                        cardinality += ends[i] - mergedEnds[count - 1];
+                        mergedEnds[count - 1] = ends[i];
+                    }
+                    continue;
+                }
+                mergedStarts[count] = starts[i];
+                mergedEnds[count] = ends[i];
+                cardinality += ends[i] - starts[i] + 1;
+                count++;
+            }
+            return new LineNumberBitmap(
+                    Arrays.copyOf(mergedStarts, count), Arrays.copyOf(mergedEnds, count), cardinality);
+        }
+
+        /**
+         * ランを開始行番号の昇順に並べ替える。
+         */
+        private void sortRuns() {
+            final long[][] runs = new long[size][];
+            for (int i = 0; i < size; i++) {
+                runs[i] = new long[] {starts[i], ends[i]};
+            }
+            Arrays.sort(runs, new Comparator<long[]>() {
+                @Override
+                public int compare(final long[] o1, final long[] o2) {
+                    return o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1);
+                }
+            });
+            for (int i = 0; i < size; i++) {
+                starts[i] = runs[i][0];
+                ends[i] = runs[i][1];
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package nablarch.etl;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.batch.runtime.context.JobContext;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * ワークテーブルごとのエラーの行番号({@link LineNumberBitmap})を後続のステップに引き継ぐクラス。
+ * <p/>
+ * エラーの行番号は、{@link JobContext#setTransientUserData(Object)}に本クラスのインスタンスとして保持する。
+ * このため、ジョブの一時データを他の用途で使用している場合は、エラーの行番号は引き継がれない。
+ *
+ * @author TIS
+ */
+final class LineNumberBitmapRegistry {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** ワークテーブル名ごとのエラーの行番号 */
+    private final Map<String, LineNumberBitmap> bitmaps = new ConcurrentHashMap<String, LineNumberBitmap>();
+
+    /** 隠蔽コンストラクタ */
+    private LineNumberBitmapRegistry() {
+    }
+
+    /**
+     * ワークテーブルのエラーの行番号を登録する。
+     *
+     * @param jobContext {@link JobContext}
+     * @param tableName ワークテーブル名
+     * @param bitmap エラーの行番号
+     */
+    static void publish(final JobContext jobContext, final String tableName, final LineNumberBitmap bitmap) {
+        final Object transientUserData = jobContext.getTransientUserData();
+        final LineNumberBitmapRegistry registry;
+        if (transientUserData instanceof LineNumberBitmapRegistry) {
+            registry = (LineNumberBitmapRegistry) transientUserData;
+        } else if (transientUserData == null) {
+            registry = new LineNumberBitmapRegistry();
+            jobContext.setTransientUserData(registry);
+        } else {
+            LOGGER.logWarn("error line numbers can not be published because the transient user data of the job"
+                    + " is already used. table name=[" + tableName + ']');
+            return;
+        }
+        registry.bitmaps.put(tableName.toUpperCase(Locale.ENGLISH), bitmap);
+    }
+
+    /**
+     * ワークテーブルのエラーの行番号を取得する。
+     *
+     * @param jobContext {@link JobContext}
+     * @param tableName ワークテーブル名
+     * @return エラーの行番号。登録されていない場合は{@code null}
+     */
+    static LineNumberBitmap find(final JobContext jobContext, final String tableName) {
+        final Object transientUserData = jobContext.getTransientUserData();
+        if (!(transientUserData instanceof LineNumberBitmapRegistry)) {
+            return null;
+        }
+        return ((LineNumberBitmapRegistry) transientUserData).bitmaps.get(tableName.toUpperCase(Locale.ENGLISH));
+    }
+}
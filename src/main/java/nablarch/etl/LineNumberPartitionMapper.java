@@ -0,0 +1,161 @@
+package nablarch.etl;
+
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.common.dao.EntityUtil;
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.etl.config.DbToFileStepConfig;
+import nablarch.etl.config.EtlConfig;
+import nablarch.etl.config.StepConfig;
+
+/**
+ * DBtoFILEステップを、LINE_NUMBERの範囲ごとのパーティションに分割する{@link PartitionMapper}の実装クラス。
+ * <p/>
+ * {@link DbToFileStepConfig#getPartitionEntity()}に対応するテーブルのLINE_NUMBERの最小値から最大値までを、
+ * {@link DbToFileStepConfig#getPartitions()}の数の連続した範囲に分割し、パーティションごとに以下のプロパティを設定する。
+ * <ul>
+ * <li>{@value #PARTITION}: パーティションの番号(1から始まる)</li>
+ * <li>{@value #LINE_NUMBER_FROM}: LINE_NUMBERの範囲の開始(この値を含む)</li>
+ * <li>{@value #LINE_NUMBER_TO}: LINE_NUMBERの範囲の終了(この値を含む)</li>
+ * </ul>
+ * ジョブXMLでは、これらのプロパティを{@link DatabaseItemReader}と{@link FileItemWriter}のプロパティに設定する。
+ * <pre>
+ * &lt;reader ref="databaseItemReader"&gt;
+ *   &lt;properties&gt;
+ *     &lt;property name="lineNumberFrom" value="#{partitionPlan['lineNumberFrom']}" /&gt;
+ *     &lt;property name="lineNumberTo" value="#{partitionPlan['lineNumberTo']}" /&gt;
+ *   &lt;/properties&gt;
+ * &lt;/reader&gt;
+ * &lt;writer ref="fileItemWriter"&gt;
+ *   &lt;properties&gt;
+ *     &lt;property name="partition" value="#{partitionPlan['partition']}" /&gt;
+ *   &lt;/properties&gt;
+ * &lt;/writer&gt;
+ * </pre>
+ * パーティションごとのファイルは、{@link PartitionedFileReducer}で結合する。
+ * <p/>
+ * パーティションのスレッドではステップレベルのリスナーが実行されないため、
+ * {@link DatabaseItemReader}がパーティションごとにデータベース接続とトランザクションを開始する。
+ * ({@link PartitionTransaction}を参照)
+ *
+ * @author TIS
+ */
+@Named
+@Dependent
+public class LineNumberPartitionMapper implements PartitionMapper {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** パーティションの番号のプロパティ名 */
+    public static final String PARTITION = RangePartitionPlan.PARTITION;
+
+    /** LINE_NUMBERの範囲の開始のプロパティ名 */
+    public static final String LINE_NUMBER_FROM = "lineNumberFrom";
+
+    /** LINE_NUMBERの範囲の終了のプロパティ名 */
+    public static final String LINE_NUMBER_TO = "lineNumberTo";
+
+    /** {@link JobContext} */
+    private final JobContext jobContext;
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
+    /** ETLの設定 */
+    private final DbToFileStepConfig stepConfig;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param jobContext {@link JobContext}
+     * @param stepContext {@link StepContext}
+     * @param stepConfig ステップの設定
+     */
+    @Inject
+    public LineNumberPartitionMapper(
+            final JobContext jobContext,
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig) {
+        this.jobContext = jobContext;
+        this.stepContext = stepContext;
+        this.stepConfig = (DbToFileStepConfig) stepConfig;
+    }
+
+    @Override
+    public PartitionPlan mapPartitions() throws Exception {
+
+        final String jobId = jobContext.getJobName();
+        final String stepId = stepContext.getStepName();
+
+        EtlUtil.verifyRequired(jobId, stepId, "bean", stepConfig.getBean());
+        final int partitions = RangePartitionPlan.verifyPartitions(jobId, stepId, stepConfig.getPartitions());
+        EtlUtil.verifyRequired(jobId, stepId, "partitionEntity", stepConfig.getPartitionEntity());
+
+        final Class<?> partitionEntity = stepConfig.getPartitionEntity();
+        if (!hasLineNumber(EntityUtil.getTableName(partitionEntity))) {
+            throw new InvalidEtlConfigException(String.format(
+                    "partitionEntity must be an entity of the table that has the LINE_NUMBER column."
+                            + " jobId = [%s], stepId = [%s], partitionEntity = [%s]",
+                    jobId, stepId, partitionEntity.getName()));
+        }
+
+        final String tableName = EntityUtil.getTableNameWithSchema(partitionEntity);
+        final long[] minMax = findLineNumberRange(tableName);
+        final long min = minMax[0];
+        final long max = minMax[1];
+        LOGGER.logInfo("step was partitioned by line number. table name=[" + tableName + "],"
+                + " partitions=[" + partitions + "], line number=[" + min + '-' + max + ']');
+        return RangePartitionPlan.create(partitions, min, max, LINE_NUMBER_FROM, LINE_NUMBER_TO);
+    }
+
+    /**
+     * テーブルにLINE_NUMBERカラムが存在するか否か。
+     *
+     * @param tableName テーブル名
+     * @return LINE_NUMBERカラムが存在する場合は{@code true}。テーブルが存在しない場合は{@code false}
+     */
+    private static boolean hasLineNumber(final String tableName) {
+        for (String column : EtlUtil.getAllColumns(tableName)) {
+            if (column.equalsIgnoreCase("LINE_NUMBER")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * テーブルのLINE_NUMBERの最小値と最大値を取得する。
+     *
+     * @param tableName テーブル名
+     * @return 最小値と最大値。レコードが存在しない場合は、空の範囲(1と0)
+     */
+    private static long[] findLineNumberRange(final String tableName) {
+        final AppDbConnection connection = DbConnectionContext.getConnection();
+        final SqlPStatement statement = connection.prepareStatement(
+                "select min(LINE_NUMBER), max(LINE_NUMBER) from " + tableName);
+        try {
+            final ResultSetIterator rows = statement.executeQuery();
+            rows.next();
+            final Long min = rows.getLong(1);
+            final Long max = rows.getLong(2);
+            if (min == null || max == null) {
+                return new long[] {1L, 0L};
+            }
+            return new long[] {min, max};
+        } finally {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package nablarch.etl;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.util.FileUtil;
+
+/**
+ * 固定長ファイルをメモリマップドファイルとして読み込み、Beanに変換する{@link ObjectMapper}実装クラス。
+ * <p/>
+ * レコードの長さが一定であるため、レコード数はファイルサイズから算出し、
+ * 任意のレコードの位置へはファイルを走査せずに移動できる。
+ * ファイルは指定されたサイズのウィンドウごとにマップし、レコードを再利用するバッファにコピーしてから、
+ * {@link ByteFieldBinder}で項目ごとに変換する。
+ * 文字列型の項目は末尾の半角スペースを、数値型の項目は前後の半角スペースを除去して変換する。
+ * {@link LineNumber}が設定されたプロパティには、1から始まるレコードの番号を設定する。
+ * 書き込みには対応しない。
+ * <p/>
+ * Javaにはマップを明示的に解除するAPIがないため、読み終えたウィンドウや{@link #close()}後のウィンドウは、
+ * ガベージコレクションで回収されるまでマップされたままとなる。このため、以下の点に注意すること。
+ * <ul>
+ * <li>仮想アドレス空間を、回収されていないウィンドウの数とウィンドウのサイズの積だけ使用する。
+ * パーティションに分割した場合は、パーティションごとにウィンドウをマップする。
+ * 32ビットのJVMなど仮想アドレス空間が小さい環境では、パーティションの数を抑えること。</li>
+ * <li>Windowsでは、マップされている間はファイルがロックされ、削除や上書きができない。
+ * ステップの終了後すぐにファイルを削除や置換する場合は、マップが回収されていない可能性を考慮すること。</li>
+ * </ul>
+ * ヒープには1レコード分のバッファのみを保持するため、マップしたウィンドウはヒープを消費しない。
+ *
+ * @param <T> Beanの型
+ * @author TIS
+ */
+final class MappedFixedLengthReader<T> implements ObjectMapper<T> {
+
+    /** 固定長ファイルの形式 */
+    private final FixedLengthLayout layout;
+
+    /** 読み込み元のファイル */
+    private final RandomAccessFile file;
+
+    /** 読み込み元のファイルのチャネル */
+    private final FileChannel channel;
+
+    /** 項目をBeanに設定するバインダ */
+    private final ByteFieldBinder<T> binder;
+
+    /** レコード数 */
+    private final long recordCount;
+
+    /** 1つのウィンドウに含めるレコード数 */
+    private final long windowRecords;
+
+    /** レコードをコピーするバッファ */
+    private final byte[] record;
+
+    /** マップしたウィンドウ */
+    private MappedByteBuffer window;
+
+    /** ウィンドウの最初のレコードの番号(0から始まる) */
+    private long windowFirst;
+
+    /** ウィンドウの終わりのレコードの番号(この番号を含まない) */
+    private long windowEnd;
+
+    /** 次に読み込むレコードの番号(0から始まる) */
+    private long position;
+
+    /** 読み込みを終了するレコードの番号(この番号を含まない) */
+    private long limit;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param bean Beanクラス
+     * @param layout 固定長ファイルの形式
+     * @param file 読み込み元のファイル
+     * @param windowSize マップするウィンドウのサイズ
+     * @throws IOException 入出力例外
+     */
+    private MappedFixedLengthReader(final Class<T> bean, final FixedLengthLayout layout, final RandomAccessFile file,
+            final int windowSize) throws IOException {
+        this.layout = layout;
+        this.file = file;
+        channel = file.getChannel();
+        binder = new ByteFieldBinder<T>(bean, layout.getProperties(), layout.getCharset(), false);
+        recordCount = layout.countRecords(channel.size());
+        windowRecords = Math.max(windowSize / layout.getStride(), 1);
+        record = new byte[layout.getRecordLength()];
+        limit = recordCount;
+    }
+
+    /**
+     * {@link MappedFixedLengthReader}を生成する。
+     *
+     * @param bean Beanクラス
+     * @param layout 固定長ファイルの形式
+     * @param inputFile 読み込み元のファイル
+     * @param windowSize マップするウィンドウのサイズ
+     * @param <T> Beanの型
+     * @return {@link MappedFixedLengthReader}
+     * @throws FileNotFoundException ファイルが存在しない場合
+     * @throws IOException 入出力例外
+     */
+    static <T> MappedFixedLengthReader<T> create(final Class<T> bean, final FixedLengthLayout layout,
+            final File inputFile, final int windowSize) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(inputFile, "r");
+        try {
+            return new MappedFixedLengthReader<T>(bean, layout, file, windowSize);
+        } catch (IOException e) {
+            FileUtil.closeQuietly(file);
+            throw e;
+        } catch (RuntimeException e) {
+            FileUtil.closeQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * ファイルのレコード数を取得する。
+     *
+     * @return レコード数
+     */
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 次に読み込むレコードの番号を取得する。
+     *
+     * @return レコードの番号(0から始まる)
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * 次に読み込むレコードの位置に移動する。
+     *
+     * @param position レコードの番号(0から始まる)
+     */
+    void seek(final long position) {
+        this.position = position;
+    }
+
+    /**
+     * 読み込みを終了するレコードの番号を設定する。
+     *
+     * @param limit レコードの番号(この番号を含まない)
+     */
+    void setLimit(final long limit) {
+        this.limit = Math.min(limit, recordCount);
+    }
+
+    @Override
+    public void write(final T object) {
+        throw new UnsupportedOperationException("unsupported write method.");
+    }
+
+    @Override
+    public T read() {
+        if (position >= limit) {
+            return null;
+        }
+        if (window == null || position < windowFirst || position >= windowEnd) {
+            map(position);
+        }
+        final int recordOffset = (int) ((position - windowFirst) * layout.getStride());
+        window.position(recordOffset);
+        window.get(record);
+        final long lineNumber = position + 1;
+        verifyLineSeparator(recordOffset + record.length, lineNumber);
+
+        final T item = binder.newBean(lineNumber);
+        final String[] properties = layout.getProperties();
+        for (int i = 0; i < properties.length; i++) {
+            int start = layout.getOffset(i);
+            int end = start + layout.getLength(i);
+            while (end > start && record[end - 1] == ' ') {
+                end--;
+            }
+            while (binder.isNumeric(i) && start < end && record[start] == ' ') {
+                start++;
+            }
+            binder.bind(item, i, record, start, end - start, lineNumber);
+        }
+        position++;
+        return item;
+    }
+
+    @Override
+    public void close() {
+        window = null;
+        FileUtil.closeQuietly(channel, file);
+    }
+
+    /**
+     * 指定されたレコードから始まるウィンドウをマップする。
+     *
+     * @param first ウィンドウの最初のレコードの番号
+     */
+    private void map(final long first) {
+        final long stride = layout.getStride();
+        final long start = first * stride;
+        windowFirst = first;
+        windowEnd = Math.min(first + windowRecords, recordCount);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(windowRecords * stride, channel.size() - start));
+        } catch (IOException e) {
+            throw new RuntimeException("failed to map file.", e);
+        }
+    }
+
+    /**
+     * レコードの後に行区切りがあることを検証する。
+     * <p/>
+     * 最後のレコードに行区切りがない場合は検証しない。
+     *
+     * @param separatorOffset 行区切りのウィンドウ内の位置
+     * @param lineNumber レコードの番号
+     */
+    private void verifyLineSeparator(final int separatorOffset, final long lineNumber) {
+        final byte[] separator = layout.getLineSeparator();
+        if (separator.length == 0 || separatorOffset + separator.length > window.limit()) {
+            return;
+        }
+        for (int i = 0; i < separator.length; i++) {
+            if (window.get(separatorOffset + i) != separator[i]) {
+                throw new InvalidDataFormatException(
+                        "line separator was not found at the end of the fixed-length record.", lineNumber);
+            }
+        }
+    }
+}
@@ -81,6 +81,9 @@ public class MergeBatchlet extends AbstractBatchlet {
         EtlUtil.verifyRequired(jobId, stepId, "bean", stepConfig.getBean());
         EtlUtil.verifyRequired(jobId, stepId, "sqlId", stepConfig.getSqlId());
         EtlUtil.verifyRequired(jobId, stepId, "mergeOnColumns", stepConfig.getMergeOnColumns());
+        if (stepConfig.getSourceConnectionFactory() != null) {
+            throw new InvalidEtlConfigException("MERGE does not support sourceConnectionFactory.");
+        }
 
         final AppDbConnection connection = DbConnectionContext.getConnection();
         final String mergeSql = MergeSqlGeneratorFactory.create(DbConnectionContext.getTransactionManagerConnection())
@@ -101,6 +104,10 @@ public class MergeBatchlet extends AbstractBatchlet {
             
             final Range range = new Range(updateSize.getSize(), maxSize);
             while (range.next()) {
+                if (rangeUpdateHelper.isInvalidRange(stepConfig, range)) {
+                    progressManager.outputProgressInfo(range.to);
+                    continue;
+                }
                 statement.setLong(1, range.from);
                 statement.setLong(2, range.to);
                 statement.executeUpdate();
@@ -0,0 +1,181 @@
+package nablarch.etl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * データをブロックごとに並列に圧縮し、gzipのメンバーを連結して出力する{@link OutputStream}実装クラス。
+ * <p/>
+ * ブロックごとに独立したgzipのメンバーとして圧縮するため、出力したデータは標準のgzip形式として展開できる。
+ * メンバーは書き込んだ順に出力する。
+ * {@link #flush()}では、書きかけのブロックを含めて全てのメンバーを出力するため、
+ * flush後の出力先の位置はメンバーの境界となる。
+ *
+ * @author TIS
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+
+    /** 出力先のストリーム */
+    private final OutputStream out;
+
+    /** 圧縮を行うスレッド */
+    private final ExecutorService executor;
+
+    /** 並列に圧縮するスレッド数 */
+    private final int threads;
+
+    /** 圧縮前のブロック */
+    private final byte[] block;
+
+    /** ブロックに書き込んだバイト数 */
+    private int count;
+
+    /** 圧縮中のメンバー(書き込んだ順) */
+    private final LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+
+    /** メンバーを出力したか否か */
+    private boolean written;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param out 出力先のストリーム
+     * @param blockSize ブロックのサイズ
+     * @param threads 並列に圧縮するスレッド数
+     */
+    ParallelGzipOutputStream(final OutputStream out, final int blockSize, final int threads) {
+        this.out = out;
+        this.threads = threads;
+        block = new byte[blockSize];
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        block[count++] = (byte) b;
+        if (count == block.length) {
+            submit();
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int length = Math.min(remaining, block.length - count);
+            System.arraycopy(b, offset, block, count, length);
+            count += length;
+            offset += length;
+            remaining -= length;
+            if (count == block.length) {
+                submit();
+            }
+        }
+    }
+
+    /**
+     * 書きかけのブロックを含めて、全てのメンバーを出力先に書き込む。
+     *
+     * @throws IOException 入出力例外
+     */
+    @Override
+    public void flush() throws IOException {
+        submit();
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        out.flush();
+    }
+
+    /**
+     * 全てのメンバーを出力し、出力先のストリームをクローズする。
+     * <p/>
+     * 1度もメンバーを出力していない場合は、空のメンバーを出力する。
+     *
+     * @throws IOException 入出力例外
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            if (!written) {
+                out.write(compress(new byte[0]));
+            }
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    /**
+     * 書きかけのブロックを圧縮する。
+     * <p/>
+     * 圧縮中のメンバーがスレッド数の2倍を超える場合は、先頭のメンバーから出力先に書き込む。
+     *
+     * @throws IOException 入出力例外
+     */
+    private void submit() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final byte[] data = Arrays.copyOf(block, count);
+        count = 0;
+        pending.add(executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                return compress(data);
+            }
+        }));
+        while (pending.size() > threads * 2) {
+            writeNext();
+        }
+    }
+
+    /**
+     * 先頭のメンバーの圧縮を待ち合わせ、出力先に書き込む。
+     *
+     * @throws IOException 入出力例外
+     */
+    private void writeNext() throws IOException {
+        final byte[] member;
+        try {
+            member = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("compression was interrupted.");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        out.write(member);
+        written = true;
+    }
+
+    /**
+     * データを1つのgzipのメンバーに圧縮する。
+     *
+     * @param data データ
+     * @return gzipのメンバー
+     * @throws IOException 入出力例外
+     */
+    private static byte[] compress(final byte[] data) throws IOException {
+        final ByteArrayOutputStream member = new ByteArrayOutputStream(data.length / 2 + 64);
+        final GZIPOutputStream gzip = new GZIPOutputStream(member);
+        gzip.write(data);
+        gzip.close();
+        return member.toByteArray();
+    }
+}
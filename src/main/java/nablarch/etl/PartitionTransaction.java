@@ -0,0 +1,91 @@
+package nablarch.etl;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.transaction.TransactionFactory;
+
+/**
+ * パーティションのスレッドで使用するデータベース接続とトランザクションを管理するクラス。
+ * <p/>
+ * パーティションに分割したステップでは、ステップレベルのリスナーは親のスレッドでのみ実行されるため、
+ * ステップレベルのリスナーで開始したデータベース接続とトランザクションをパーティションのスレッドでは使用できない。
+ * このクラスは、パーティションのスレッドにデフォルトの名前でデータベース接続とトランザクションを設定する。
+ * これにより、パーティションのスレッドでも{@link nablarch.common.dao.UniversalDao}を使用でき、
+ * アイテムライタのリスナーによるトランザクション制御が行われる。
+ * <p/>
+ * データベース接続とトランザクションは、以下の名前でリポジトリに登録されたコンポーネントから取得する。
+ * <ul>
+ * <li>{@value #CONNECTION_FACTORY_NAME}: {@link ConnectionFactory}</li>
+ * <li>{@value #TRANSACTION_FACTORY_NAME}: {@link TransactionFactory}</li>
+ * </ul>
+ *
+ * @author TIS
+ */
+final class PartitionTransaction {
+
+    /** {@link ConnectionFactory}のコンポーネント名 */
+    static final String CONNECTION_FACTORY_NAME = "connectionFactory";
+
+    /** {@link TransactionFactory}のコンポーネント名 */
+    static final String TRANSACTION_FACTORY_NAME = "jdbcTransactionFactory";
+
+    /** トランザクションマネージャ */
+    private final SimpleDbTransactionManager transactionManager;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param transactionManager トランザクションマネージャ
+     */
+    private PartitionTransaction(final SimpleDbTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * パーティションのスレッドでデータベース接続とトランザクションを開始する。
+     *
+     * @return 開始した{@link PartitionTransaction}
+     * @throws IllegalStateException コンポーネントがリポジトリに登録されていない場合
+     */
+    static PartitionTransaction begin() {
+        final SimpleDbTransactionManager transactionManager = new SimpleDbTransactionManager();
+        transactionManager.setConnectionFactory(PartitionTransaction.<ConnectionFactory>getComponent(
+                CONNECTION_FACTORY_NAME));
+        transactionManager.setTransactionFactory(PartitionTransaction.<TransactionFactory>getComponent(
+                TRANSACTION_FACTORY_NAME));
+        transactionManager.setDbTransactionName(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        transactionManager.beginTransaction();
+        return new PartitionTransaction(transactionManager);
+    }
+
+    /**
+     * 未確定のトランザクションをロールバックし、データベース接続を解放する。
+     */
+    void end() {
+        try {
+            transactionManager.rollbackTransaction();
+        } finally {
+            transactionManager.endTransaction();
+        }
+    }
+
+    /**
+     * リポジトリからコンポーネントを取得する。
+     *
+     * @param name コンポーネント名
+     * @param <T> コンポーネントの型
+     * @return コンポーネント
+     * @throws IllegalStateException コンポーネントがリポジトリに登録されていない場合
+     */
+    private static <T> T getComponent(final String name) {
+        final T component = SystemRepository.get(name);
+        if (component == null) {
+            throw new IllegalStateException(String.format(
+                    "component was not found. Using the name \"%s\", "
+                            + "please set the component to component configuration for partitioned steps.", name));
+        }
+        return component;
+    }
+}
@@ -0,0 +1,144 @@
+package nablarch.etl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import javax.batch.api.partition.AbstractPartitionReducer;
+import javax.batch.api.partition.PartitionReducer;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.etl.config.DbToFileStepConfig;
+import nablarch.etl.config.EtlConfig;
+import nablarch.etl.config.PathConfig;
+import nablarch.etl.config.StepConfig;
+
+/**
+ * {@link FileItemWriter}がパーティションごとに出力したファイルを結合する{@link PartitionReducer}の実装クラス。
+ * <p/>
+ * 全てのパーティションが正常に終了した場合に、パーティションの番号順にファイルを結合して出力ファイルを作成し、
+ * パーティションごとのファイルを削除する。
+ * ファイルを結合する場合、{@link FileItemWriter}は最初のパーティションのファイルにのみヘッダを出力するため、
+ * gzip形式のファイルもそのまま結合できる。
+ * ファイルの結合は{@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}で行うため、
+ * データをヒープにコピーしない。
+ * <p/>
+ * {@link DbToFileStepConfig#isKeepPartitionFiles()}が{@code true}の場合は、結合せずにパーティションごとのファイルを残す。
+ *
+ * @author TIS
+ */
+@Named
+@Dependent
+public class PartitionedFileReducer extends AbstractPartitionReducer {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** {@link JobContext} */
+    private final JobContext jobContext;
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
+    /** ETLの設定 */
+    private final DbToFileStepConfig stepConfig;
+
+    /** 出力ファイルのベースパス */
+    private final File outputFileBasePath;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param jobContext {@link JobContext}
+     * @param stepContext {@link StepContext}
+     * @param stepConfig ステップの設定
+     * @param outputFileBasePath 出力先ディレクトリ
+     */
+    @Inject
+    public PartitionedFileReducer(
+            final JobContext jobContext,
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig,
+            @PathConfig(BasePath.OUTPUT) final File outputFileBasePath) {
+        this.jobContext = jobContext;
+        this.stepContext = stepContext;
+        this.stepConfig = (DbToFileStepConfig) stepConfig;
+        this.outputFileBasePath = outputFileBasePath;
+    }
+
+    @Override
+    public void afterPartitionedStepCompletion(final PartitionStatus status) throws Exception {
+        if (status != PartitionStatus.COMMIT || stepConfig.isKeepPartitionFiles()) {
+            return;
+        }
+
+        final String jobId = jobContext.getJobName();
+        final String stepId = stepContext.getStepName();
+        EtlUtil.verifyRequired(jobId, stepId, "fileName", stepConfig.getFileName());
+        EtlUtil.verifyRequired(jobId, stepId, "partitions", stepConfig.getPartitions());
+
+        final File outputFile = new File(outputFileBasePath, stepConfig.getFileName());
+        final File temporaryFile = new File(
+                outputFileBasePath, stepConfig.getFileName() + FileItemWriter.TEMPORARY_FILE_SUFFIX);
+
+        final FileChannel out = new FileOutputStream(temporaryFile).getChannel();
+        long bytes = 0L;
+        try {
+            for (int partition = 1; partition <= stepConfig.getPartitions(); partition++) {
+                bytes += transfer(partitionFile(partition), out);
+            }
+        } finally {
+            out.close();
+        }
+        FileItemWriter.rename(temporaryFile, outputFile);
+
+        for (int partition = 1; partition <= stepConfig.getPartitions(); partition++) {
+            final File partitionFile = partitionFile(partition);
+            if (!partitionFile.delete()) {
+                LOGGER.logWarn("failed to delete the partition file. file=[" + partitionFile.getAbsolutePath() + ']');
+            }
+        }
+        LOGGER.logInfo("partition files were concatenated. file=[" + outputFile.getAbsolutePath() + "],"
+                + " partitions=[" + stepConfig.getPartitions() + "], bytes=[" + bytes + ']');
+    }
+
+    /**
+     * パーティションごとのファイルを取得する。
+     *
+     * @param partition パーティションの番号
+     * @return パーティションごとのファイル
+     */
+    private File partitionFile(final int partition) {
+        return new File(outputFileBasePath, FileItemWriter.partitionFileName(stepConfig.getFileName(), partition));
+    }
+
+    /**
+     * ファイルを出力先のチャネルに転送する。
+     *
+     * @param file ファイル
+     * @param out 出力先のチャネル
+     * @return 転送したバイト数
+     * @throws IOException 入出力例外
+     */
+    private static long transfer(final File file, final FileChannel out) throws IOException {
+        final FileChannel in = new FileInputStream(file).getChannel();
+        try {
+            final long size = in.size();
+            long position = 0L;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            return size;
+        } finally {
+            in.close();
+        }
+    }
+}
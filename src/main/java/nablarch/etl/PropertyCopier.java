@@ -0,0 +1,143 @@
+package nablarch.etl;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+
+/**
+ * Beanのプロパティを別のクラスのBeanにコピーするクラス。
+ * <p/>
+ * コピー元とコピー先のクラスの組み合わせごとに、同名のプロパティのアクセサをキャッシュし、
+ * レコードごとのプロパティの探索を行わずにコピーする。
+ * 型が代入可能でないプロパティは、{@link BeanUtil#setProperty(Object, String, Object)}により型を変換して設定する。
+ *
+ * @author TIS
+ */
+final class PropertyCopier {
+
+    /** クラスの組み合わせごとの{@link PropertyCopier} */
+    private static final ConcurrentMap<List<Class<?>>, PropertyCopier> COPIERS =
+            new ConcurrentHashMap<List<Class<?>>, PropertyCopier>();
+
+    /** コピー先のクラス */
+    private final Class<?> destClass;
+
+    /** 型が代入可能なプロパティのgetter */
+    private final Method[] getters;
+
+    /** 型が代入可能なプロパティのsetter */
+    private final Method[] setters;
+
+    /** 型の変換が必要なプロパティのgetter */
+    private final Method[] convertGetters;
+
+    /** 型の変換が必要なプロパティ名 */
+    private final String[] convertNames;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param srcClass コピー元のクラス
+     * @param destClass コピー先のクラス
+     */
+    private PropertyCopier(final Class<?> srcClass, final Class<?> destClass) {
+        this.destClass = destClass;
+
+        final Map<String, Method> destSetters = new HashMap<String, Method>();
+        for (PropertyDescriptor descriptor : getPropertyDescriptors(destClass)) {
+            if (descriptor.getWriteMethod() != null) {
+                destSetters.put(descriptor.getName(), descriptor.getWriteMethod());
+            }
+        }
+
+        final List<Method> getterList = new ArrayList<Method>();
+        final List<Method> setterList = new ArrayList<Method>();
+        final List<Method> convertGetterList = new ArrayList<Method>();
+        final List<String> convertNameList = new ArrayList<String>();
+        for (PropertyDescriptor descriptor : getPropertyDescriptors(srcClass)) {
+            final Method getter = descriptor.getReadMethod();
+            final Method setter = destSetters.get(descriptor.getName());
+            if (getter == null || setter == null) {
+                continue;
+            }
+            getter.setAccessible(true);
+            if (setter.getParameterTypes()[0].isAssignableFrom(getter.getReturnType())) {
+                setter.setAccessible(true);
+                getterList.add(getter);
+                setterList.add(setter);
+            } else {
+                convertGetterList.add(getter);
+                convertNameList.add(descriptor.getName());
+            }
+        }
+        getters = getterList.toArray(new Method[getterList.size()]);
+        setters = setterList.toArray(new Method[setterList.size()]);
+        convertGetters = convertGetterList.toArray(new Method[convertGetterList.size()]);
+        convertNames = convertNameList.toArray(new String[convertNameList.size()]);
+    }
+
+    /**
+     * コピー元とコピー先のクラスに対応する{@link PropertyCopier}を取得する。
+     *
+     * @param srcClass コピー元のクラス
+     * @param destClass コピー先のクラス
+     * @return {@link PropertyCopier}
+     */
+    static PropertyCopier get(final Class<?> srcClass, final Class<?> destClass) {
+        final List<Class<?>> key = Arrays.<Class<?>>asList(srcClass, destClass);
+        PropertyCopier copier = COPIERS.get(key);
+        if (copier == null) {
+            copier = new PropertyCopier(srcClass, destClass);
+            COPIERS.putIfAbsent(key, copier);
+        }
+        return copier;
+    }
+
+    /**
+     * コピー先のクラスのインスタンスを生成し、プロパティをコピーする。
+     *
+     * @param src コピー元のBean
+     * @return コピー先のBean
+     */
+    Object createAndCopy(final Object src) {
+        try {
+            final Object dest = destClass.newInstance();
+            for (int i = 0; i < getters.length; i++) {
+                setters[i].invoke(dest, getters[i].invoke(src));
+            }
+            for (int i = 0; i < convertGetters.length; i++) {
+                BeanUtil.setProperty(dest, convertNames[i], convertGetters[i].invoke(src));
+            }
+            return dest;
+        } catch (Exception e) {
+            throw new BeansException(e);
+        }
+    }
+
+    /**
+     * クラスのプロパティ情報を取得する。
+     *
+     * @param clazz クラス
+     * @return プロパティ情報
+     */
+    private static PropertyDescriptor[] getPropertyDescriptors(final Class<?> clazz) {
+        try {
+            final BeanInfo beanInfo = Introspector.getBeanInfo(clazz, Object.class);
+            return beanInfo.getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new BeansException(e);
+        }
+    }
+}
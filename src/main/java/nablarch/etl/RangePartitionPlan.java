@@ -0,0 +1,79 @@
+package nablarch.etl;
+
+import java.util.Properties;
+
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.api.partition.PartitionPlanImpl;
+
+/**
+ * 連続した番号の範囲を、パーティションごとの連続した範囲に分割した{@link PartitionPlan}を作成するクラス。
+ * <p/>
+ * 範囲はパーティションの数で切り上げて等分し、最後のパーティションが残りの範囲を受け持つ。
+ * パーティションごとに、パーティションの番号(1から始まる)と範囲の開始と終了(いずれもその値を含む)を
+ * プロパティに設定し、パーティションと同じ数のスレッドで実行する。
+ *
+ * @author TIS
+ */
+final class RangePartitionPlan {
+
+    /** パーティションの番号のプロパティ名 */
+    static final String PARTITION = "partition";
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private RangePartitionPlan() {
+    }
+
+    /**
+     * パーティションの数を検証する。
+     *
+     * @param jobId ジョブID
+     * @param stepId ステップID
+     * @param partitions パーティションの数
+     * @return パーティションの数
+     * @throws InvalidEtlConfigException パーティションの数が設定されていないか、0以下の場合
+     */
+    static int verifyPartitions(final String jobId, final String stepId, final Integer partitions) {
+        EtlUtil.verifyRequired(jobId, stepId, "partitions", partitions);
+        if (partitions <= 0) {
+            throw new InvalidEtlConfigException(String.format(
+                    "partitions must be greater than 0. jobId = [%s], stepId = [%s], partitions = [%s]",
+                    jobId, stepId, partitions));
+        }
+        return partitions;
+    }
+
+    /**
+     * 範囲を分割した{@link PartitionPlan}を作成する。
+     * <p/>
+     * 範囲が空(最小値が最大値より大きい)の場合は、全てのパーティションが空の範囲となる。
+     *
+     * @param partitions パーティションの数
+     * @param min 範囲の最小値
+     * @param max 範囲の最大値
+     * @param fromName 範囲の開始のプロパティ名
+     * @param toName 範囲の終了のプロパティ名
+     * @return {@link PartitionPlan}
+     */
+    static PartitionPlan create(final int partitions, final long min, final long max,
+            final String fromName, final String toName) {
+        final long size = Math.max((max - min + partitions) / partitions, 1L);
+
+        final Properties[] properties = new Properties[partitions];
+        for (int i = 0; i < partitions; i++) {
+            final long from = min + size * i;
+            final long to = i == partitions - 1 ? max : Math.min(from + size - 1, max);
+            properties[i] = new Properties();
+            properties[i].setProperty(PARTITION, String.valueOf(i + 1));
+            properties[i].setProperty(fromName, String.valueOf(from));
+            properties[i].setProperty(toName, String.valueOf(to));
+        }
+
+        final PartitionPlanImpl plan = new PartitionPlanImpl();
+        plan.setPartitions(partitions);
+        plan.setThreads(partitions);
+        plan.setPartitionProperties(properties);
+        return plan;
+    }
+}
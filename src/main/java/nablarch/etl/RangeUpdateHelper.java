@@ -5,6 +5,7 @@ import javax.batch.runtime.context.StepContext;
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
 
+import nablarch.common.dao.EntityUtil;
 import nablarch.core.db.connection.AppDbConnection;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.statement.ResultSetIterator;
@@ -12,6 +13,7 @@ import nablarch.core.db.statement.SqlPStatement;
 import nablarch.core.util.annotation.Published;
 import nablarch.etl.config.DbToDbStepConfig;
 import nablarch.etl.config.DbToDbStepConfig.UpdateSize;
+import nablarch.etl.dialect.EtlDialectResolver;
 import nablarch.etl.generator.MaxLineNumberSqlGenerator;
 
 /**
@@ -82,6 +84,22 @@ public class RangeUpdateHelper {
         }
     }
 
+    /**
+     * 範囲内の全ての行がバリデーションエラーの行か否か。
+     * <p/>
+     * {@link ValidationBatchlet}で引き継がれたエラーの行番号を使用して判定する。
+     * エラーの行番号が引き継がれていない場合は、常に{@code false}を返す。
+     *
+     * @param config {@link DbToDbStepConfig}
+     * @param range 範囲
+     * @return 全ての行がエラーの行の場合は{@code true}
+     */
+    public boolean isInvalidRange(final DbToDbStepConfig config, final Range range) {
+        final LineNumberBitmap errorLines = LineNumberBitmapRegistry.find(
+                jobContext, EntityUtil.getTableNameWithSchema(config.getUpdateSize().getBean()));
+        return errorLines != null && errorLines.containsAll(range.from, range.to);
+    }
+
     /**
      * 入力元テーブルのLINE_NUMBERカラムの最大値を取得する。
      *
@@ -89,7 +107,8 @@ public class RangeUpdateHelper {
      * @return 入力元テーブルのLINE_NUMBERカラムの最大値
      */
     public Long getMaxLineNumber(final DbToDbStepConfig config) {
-        final MaxLineNumberSqlGenerator sqlGenerator = new MaxLineNumberSqlGenerator();
+        final MaxLineNumberSqlGenerator sqlGenerator = EtlDialectResolver.resolve(
+                DbConnectionContext.getTransactionManagerConnection()).createMaxLineNumberSqlGenerator();
         final AppDbConnection connection = DbConnectionContext.getConnection();
         final SqlPStatement statement = connection.prepareStatement(sqlGenerator.generateSql(config));
         ResultSetIterator rs = null;
@@ -0,0 +1,492 @@
+package nablarch.etl;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.batch.api.AbstractBatchlet;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.common.dao.ColumnMeta;
+import nablarch.common.dao.EntityUtil;
+import nablarch.common.dao.UniversalDao;
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
+import nablarch.core.db.DbAccessException;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.etl.config.DbToFileStepConfig;
+import nablarch.etl.config.EtlConfig;
+import nablarch.etl.config.PathConfig;
+import nablarch.etl.config.StepConfig;
+import nablarch.fw.batch.ee.progress.ProgressManager;
+
+/**
+ * SELECT文の結果をBeanに変換せずに、CSVファイルに出力する{@link javax.batch.api.Batchlet}実装クラス。
+ * <p/>
+ * {@link DbToFileStepConfig#getBean()}の{@link Csv}の定義から、項目の順序とCSVの形式を1度だけ取得し、
+ * {@link ResultSetIterator}の値をレコードごとのオブジェクトを生成せずに、再利用するバッファを介してファイルに書き込む。
+ * 値は{@link ResultSetIterator#getString(int)}で取得した文字列を出力する。
+ * {@link Csv}の全ての項目について、プロパティに対応するカラム名の列がSELECT文の結果に存在すること。
+ * <p/>
+ * Beanに変換しないため、{@link FileItemWriter}とは以下の値の出力が異なる場合がある。
+ * 同じファイルを出力する必要がある場合は、SELECT文で文字列に変換した値を取得すること。
+ * <ul>
+ * <li>日付型、時刻型: JDBCドライバの文字列表現(例: タイムスタンプの小数秒)で出力する。</li>
+ * <li>小数: JDBCドライバの文字列表現(例: {@link java.math.BigDecimal}の末尾の0や指数表記)で出力する。</li>
+ * </ul>
+ * <p/>
+ * データは出力ファイル名に{@value FileItemWriter#TEMPORARY_FILE_SUFFIX}を付加した一時ファイルに書き込み、
+ * 正常に終了した場合のみ出力ファイルにリネームする。
+ * ファイルの分割、マニフェストファイルの出力及びパーティションには対応しない。
+ *
+ * @author TIS
+ */
+@Named
+@Dependent
+public class RawFileExportBatchlet extends AbstractBatchlet {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** 進捗ログを出力するレコード数の間隔 */
+    private static final long PROGRESS_INTERVAL = 10000L;
+
+    /** {@link JobContext} */
+    private final JobContext jobContext;
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
+    /** ETLの設定 */
+    private final DbToFileStepConfig stepConfig;
+
+    /** 出力ファイルのベースパス */
+    private final File outputFileBasePath;
+
+    /** 進捗状況を管理するBean */
+    private final ProgressManager progressManager;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param jobContext {@link JobContext}
+     * @param stepContext {@link StepContext}
+     * @param stepConfig ステップの設定
+     * @param outputFileBasePath 出力先ディレクトリ
+     * @param progressManager 進捗状況を管理するBean
+     */
+    @Inject
+    public RawFileExportBatchlet(
+            final JobContext jobContext,
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig,
+            @PathConfig(BasePath.OUTPUT) final File outputFileBasePath,
+            final ProgressManager progressManager) {
+        this.jobContext = jobContext;
+        this.stepContext = stepContext;
+        this.stepConfig = (DbToFileStepConfig) stepConfig;
+        this.outputFileBasePath = outputFileBasePath;
+        this.progressManager = progressManager;
+    }
+
+    /**
+     * SELECT文の結果をファイルに出力する。
+     *
+     * @return 結果(SUCCESS固定)
+     * @throws Exception 例外
+     */
+    @Override
+    public String process() throws Exception {
+
+        final String jobId = jobContext.getJobName();
+        final String stepId = stepContext.getStepName();
+
+        EtlUtil.verifyRequired(jobId, stepId, "bean", stepConfig.getBean());
+        EtlUtil.verifyRequired(jobId, stepId, "sqlId", stepConfig.getSqlId());
+        EtlUtil.verifyRequired(jobId, stepId, "fileName", stepConfig.getFileName());
+        if (stepConfig.getBufferSize() <= 0) {
+            throw new InvalidEtlConfigException(String.format(
+                    "bufferSize must be greater than 0. jobId = [%s], stepId = [%s], bufferSize = [%s]",
+                    jobId, stepId, stepConfig.getBufferSize()));
+        }
+        if (stepConfig.isRolling() || stepConfig.getManifestFileName() != null || stepConfig.getPartitions() != null) {
+            throw new InvalidEtlConfigException(String.format(
+                    "raw export does not support maxRecordsPerFile, maxBytesPerFile, manifestFileName and partitions."
+                            + " jobId = [%s], stepId = [%s]", jobId, stepId));
+        }
+
+        final Class<?> bean = stepConfig.getBean();
+        final RawCsvFormat format = RawCsvFormat.of(jobId, stepId, bean);
+        progressManager.setInputCount(UniversalDao.countBySqlFile(bean, stepConfig.getSqlId()));
+
+        final File outputFile = new File(outputFileBasePath, stepConfig.getFileName());
+        final File temporaryFile = new File(
+                outputFileBasePath, stepConfig.getFileName() + FileItemWriter.TEMPORARY_FILE_SUFFIX);
+        if (outputFile.exists() && !outputFile.canWrite()) {
+            throw FileItemWriter.invalidOutputFilePath(outputFile, null);
+        }
+        final FileChannelOutputStream fileStream;
+        try {
+            fileStream = new FileChannelOutputStream(
+                    new FileOutputStream(temporaryFile).getChannel(), stepConfig.getBufferSize());
+        } catch (FileNotFoundException e) {
+            throw FileItemWriter.invalidOutputFilePath(outputFile, e);
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final long count;
+        final OutputStream out = stepConfig.isGzipped()
+                ? new ParallelGzipOutputStream(fileStream, stepConfig.getCompressionBlockSize(), compressionThreads())
+                : fileStream;
+        try {
+            out.write(FileItemWriter.createHeader(bean));
+            count = export(jobId, stepId, bean, format, out);
+        } finally {
+            out.close();
+        }
+        FileItemWriter.rename(temporaryFile, outputFile);
+
+        progressManager.outputProgressInfo(count);
+        LOGGER.logInfo("raw export was completed. file=[" + outputFile.getAbsolutePath() + "],"
+                + " record count=[" + count + "], written bytes=[" + fileStream.getWrittenBytes() + "],"
+                + " elapsed time(ms)=[" + (System.currentTimeMillis() - startTime) + ']');
+        return "SUCCESS";
+    }
+
+    /**
+     * SELECT文を実行し、結果をストリームに書き込む。
+     *
+     * @param jobId ジョブID
+     * @param stepId ステップID
+     * @param bean Beanクラス
+     * @param format CSVの形式
+     * @param out 出力先のストリーム
+     * @return 書き込んだレコード数
+     * @throws IOException 入出力例外
+     */
+    private long export(final String jobId, final String stepId, final Class<?> bean,
+            final RawCsvFormat format, final OutputStream out) throws IOException {
+        final SqlPStatement statement = DbConnectionContext.getConnection()
+                                                           .prepareStatementBySqlId(bean.getName() + '#' + stepConfig.getSqlId());
+        try {
+            final ResultSetIterator rows = statement.executeQuery();
+            final int[] columns = format.columnIndexes(jobId, stepId, bean, rows.getMetaData());
+            final boolean[] numerics = format.numerics(columns, rows.getMetaData());
+            final RowEncoder encoder = new RowEncoder(format.charset, stepConfig.getBufferSize());
+            final StringBuilder row = new StringBuilder(256);
+
+            long count = 0L;
+            while (rows.next()) {
+                row.setLength(0);
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        row.append(format.fieldSeparator);
+                    }
+                    format.appendValue(row, rows.getString(columns[i]), numerics[i]);
+                }
+                row.append(format.lineSeparator);
+                encoder.write(row, out);
+                count++;
+                if (count % PROGRESS_INTERVAL == 0) {
+                    progressManager.outputProgressInfo(count);
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            throw new DbAccessException("failed to read the result set metadata.", e);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * 圧縮を行うスレッド数を取得する。
+     *
+     * @return 圧縮を行うスレッド数
+     */
+    private int compressionThreads() {
+        final Integer threads = stepConfig.getCompressionThreads();
+        return threads == null ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    /**
+     * 出力する値の囲み文字の要否を判定し、行を組み立てるCSVの形式。
+     */
+    static final class RawCsvFormat {
+
+        /** 出力する項目のプロパティ名 */
+        private final String[] properties;
+
+        /** 列区切り */
+        private final char fieldSeparator;
+
+        /** 行区切り */
+        private final String lineSeparator;
+
+        /** 囲み文字 */
+        private final char quote;
+
+        /** 文字セット */
+        private final Charset charset;
+
+        /** クォートモード */
+        private final QuoteMode quoteMode;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param layout Beanの定義から取得したCSVの形式
+         */
+        private RawCsvFormat(final CsvLayout layout) {
+            properties = layout.getProperties();
+            fieldSeparator = layout.getFieldSeparator();
+            lineSeparator = layout.getLineSeparator();
+            quote = layout.getQuote();
+            charset = layout.getCharset();
+            quoteMode = layout.getQuoteMode();
+        }
+
+        /**
+         * Beanの{@link Csv}の定義からCSVの形式を生成する。
+         *
+         * @param jobId ジョブID
+         * @param stepId ステップID
+         * @param bean Beanクラス
+         * @return CSVの形式
+         */
+        static RawCsvFormat of(final String jobId, final String stepId, final Class<?> bean) {
+            final CsvLayout layout = CsvLayout.of(bean);
+            if (layout == null) {
+                throw new InvalidEtlConfigException(String.format(
+                        "raw export requires @Csv (and @CsvFormat for CUSTOM type) on the bean."
+                                + " jobId = [%s], stepId = [%s], bean = [%s]",
+                        jobId, stepId, bean.getName()));
+            }
+            if (layout.getQuoteMode() == QuoteMode.CUSTOM) {
+                throw new InvalidEtlConfigException(String.format(
+                        "raw export does not support CUSTOM quote mode. jobId = [%s], stepId = [%s], bean = [%s]",
+                        jobId, stepId, bean.getName()));
+            }
+            return new RawCsvFormat(layout);
+        }
+
+        /**
+         * 出力する項目に対応するSELECT文の結果の列番号を取得する。
+         * <p/>
+         * プロパティに対応するカラム名と、SELECT文の結果の列名を大文字小文字を区別せずに比較する。
+         *
+         * @param jobId ジョブID
+         * @param stepId ステップID
+         * @param bean Beanクラス
+         * @param metaData SELECT文の結果のメタデータ
+         * @return 出力する項目ごとの列番号
+         * @throws SQLException メタデータの取得に失敗した場合
+         * @throws InvalidEtlConfigException 対応する列がない項目が存在する場合
+         */
+        int[] columnIndexes(final String jobId, final String stepId, final Class<?> bean,
+                final ResultSetMetaData metaData) throws SQLException {
+            final Map<String, Integer> labels = new HashMap<String, Integer>();
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                labels.put(metaData.getColumnLabel(i).toUpperCase(Locale.ROOT), i);
+            }
+            final Map<String, String> columnNames = new HashMap<String, String>();
+            for (ColumnMeta column : EntityUtil.findAllColumns(bean)) {
+                columnNames.put(column.getPropertyName(), column.getName());
+            }
+            final int[] indexes = new int[properties.length];
+            final List<String> unmatched = new ArrayList<String>();
+            for (int i = 0; i < properties.length; i++) {
+                final String columnName = columnNames.containsKey(properties[i])
+                        ? columnNames.get(properties[i]) : properties[i];
+                final Integer index = labels.get(columnName.toUpperCase(Locale.ROOT));
+                if (index == null) {
+                    unmatched.add(properties[i]);
+                } else {
+                    indexes[i] = index;
+                }
+            }
+            if (!unmatched.isEmpty()) {
+                throw new InvalidEtlConfigException(String.format(
+                        "raw export requires a column of the SELECT result for each property of @Csv."
+                                + " jobId = [%s], stepId = [%s], bean = [%s], unmatched properties = %s",
+                        jobId, stepId, bean.getName(), unmatched));
+            }
+            return indexes;
+        }
+
+        /**
+         * 出力する項目が数値型の列か否かを取得する。
+         *
+         * @param columns 出力する項目ごとの列番号
+         * @param metaData SELECT文の結果のメタデータ
+         * @return 出力する項目ごとの数値型の列か否か
+         * @throws SQLException メタデータの取得に失敗した場合
+         */
+        boolean[] numerics(final int[] columns, final ResultSetMetaData metaData) throws SQLException {
+            final boolean[] numerics = new boolean[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                numerics[i] = isNumeric(metaData.getColumnType(columns[i]));
+            }
+            return numerics;
+        }
+
+        /**
+         * 値をクォートモードに従って行に追加する。
+         * <p/>
+         * {@code null}の場合は何も追加しない。
+         *
+         * @param row 行
+         * @param value 値
+         * @param numeric 数値型の列か否か
+         */
+        void appendValue(final StringBuilder row, final String value, final boolean numeric) {
+            if (value == null) {
+                return;
+            }
+            if (!needsQuote(value, numeric)) {
+                row.append(value);
+                return;
+            }
+            row.append(quote);
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == quote) {
+                    row.append(quote);
+                }
+                row.append(c);
+            }
+            row.append(quote);
+        }
+
+        /**
+         * 値を囲み文字で囲む必要があるか否か。
+         *
+         * @param value 値
+         * @param numeric 数値型の列か否か
+         * @return 囲む必要がある場合は{@code true}
+         */
+        private boolean needsQuote(final String value, final boolean numeric) {
+            switch (quoteMode) {
+                case ALL:
+                    return true;
+                case NOT_NUMERIC:
+                    return !numeric;
+                default:
+                    for (int i = 0; i < value.length(); i++) {
+                        final char c = value.charAt(i);
+                        if (c == fieldSeparator || c == quote || c == '\r' || c == '\n') {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+
+        /**
+         * JDBCの型が数値型か否か。
+         *
+         * @param type JDBCの型
+         * @return 数値型の場合は{@code true}
+         */
+        private static boolean isNumeric(final int type) {
+            switch (type) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * 行を再利用するバッファを介してバイト列に変換し、ストリームに書き込むクラス。
+     */
+    private static final class RowEncoder {
+
+        /** 文字セットのエンコーダ */
+        private final CharsetEncoder encoder;
+
+        /** 変換後のバイト列を保持するバッファ */
+        private final ByteBuffer buffer;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param charset 文字セット
+         * @param bufferSize バッファのサイズ
+         */
+        private RowEncoder(final Charset charset, final int bufferSize) {
+            encoder = charset.newEncoder()
+                             .onMalformedInput(CodingErrorAction.REPLACE)
+                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            buffer = ByteBuffer.allocate(Math.max(Math.min(bufferSize, 64 * 1024), 16));
+        }
+
+        /**
+         * 行をバイト列に変換してストリームに書き込む。
+         *
+         * @param row 行
+         * @param out 出力先のストリーム
+         * @throws IOException 入出力例外
+         */
+        private void write(final CharSequence row, final OutputStream out) throws IOException {
+            final CharBuffer in = CharBuffer.wrap(row);
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(in, buffer, true);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                drain(out);
+            } while (result.isOverflow());
+            do {
+                result = encoder.flush(buffer);
+                drain(out);
+            } while (result.isOverflow());
+        }
+
+        /**
+         * バッファのバイト列をストリームに書き込み、バッファを空にする。
+         *
+         * @param out 出力先のストリーム
+         * @throws IOException 入出力例外
+         */
+        private void drain(final OutputStream out) throws IOException {
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
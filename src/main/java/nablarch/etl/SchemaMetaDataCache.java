@@ -0,0 +1,264 @@
+package nablarch.etl;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.Entity;
+
+import nablarch.common.dao.DatabaseUtil;
+import nablarch.common.dao.EntityUtil;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.util.annotation.Published;
+import nablarch.etl.config.DbInputStepConfig;
+import nablarch.etl.config.DbToDbStepConfig;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.etl.config.JobConfig;
+import nablarch.etl.config.StepConfig;
+import nablarch.etl.config.TruncateStepConfig;
+import nablarch.etl.config.ValidationStepConfig;
+
+/**
+ * データベースから取得したテーブルのカラム情報をキャッシュするクラス。
+ * <p/>
+ * データソース(接続URLと接続ユーザ)とテーブル名の組み合わせをキーとして、
+ * {@link DatabaseMetaData#getColumns(String, String, String, String)}の結果をキャッシュする。
+ * <p/>
+ * キャッシュは、"nablarch.etl.schemaMetaDataCache.enabled"という名前で
+ * リポジトリに"true"が設定されている場合のみ有効となる。
+ * 有効な場合は、ETLの設定のロード時に{@link #register(JobConfig)}で設定に含まれるEntityを登録し、
+ * データソースごとに最初にカラム情報を取得する際に、登録された全てのEntityのカラム情報をまとめて取得する。
+ * このため、設定のロード時にはデータベース接続を必要としない。
+ * <p/>
+ * ジョブの実行中にテーブル定義を変更した場合は、{@link #invalidate(String)}または{@link #invalidateAll()}で
+ * キャッシュを破棄すること。キャッシュを破棄すると、ステップの設定が保持する生成済みのSQL文も破棄される。
+ *
+ * @author TIS
+ */
+@Published(tag = "architect")
+public final class SchemaMetaDataCache {
+
+    /** キャッシュの有効化を設定するリポジトリのキー */
+    private static final String ENABLED_KEY = "nablarch.etl.schemaMetaDataCache.enabled";
+
+    /** キーのデータソースとテーブル名の区切り文字 */
+    private static final char KEY_SEPARATOR = '\t';
+
+    /** カラム名リストのキャッシュ。キーはデータソースとテーブル名 */
+    private static final ConcurrentMap<String, List<String>> COLUMNS = new ConcurrentHashMap<String, List<String>>();
+
+    /** キャッシュを破棄した回数(生成済みのSQL文が古いか否かの判定に使用する) */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    /** まとめて取得するテーブル名 */
+    private static final Set<String> PREFETCH_TABLES =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** 登録されたテーブルのカラム情報を取得済みのデータソース */
+    private static final Set<String> PREFETCHED_DATA_SOURCES =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** 隠蔽コンストラクタ */
+    private SchemaMetaDataCache() {
+    }
+
+    /**
+     * キャッシュが有効か否か。
+     *
+     * @return 有効な場合は{@code true}
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SystemRepository.getString(ENABLED_KEY));
+    }
+
+    /**
+     * テーブルが持つカラムの名前リストを取得する。
+     * <p/>
+     * キャッシュが有効な場合は、キャッシュに存在しない場合のみデータベースのメタデータから取得する。
+     * データソースごとの最初の取得時には、{@link #register(JobConfig)}で登録されたテーブルのカラム情報もまとめて取得する。
+     *
+     * @param metaData データベースのメタデータ
+     * @param tableName テーブル名
+     * @return カラム名リスト
+     * @throws SQLException データベース関連の例外
+     */
+    static List<String> getColumns(final DatabaseMetaData metaData, final String tableName) throws SQLException {
+        final String convertedTableName = DatabaseUtil.convertIdentifiers(tableName);
+        if (!isEnabled()) {
+            return loadColumns(metaData, convertedTableName);
+        }
+
+        final String dataSource = buildDataSourceKey(metaData);
+        if (PREFETCHED_DATA_SOURCES.add(dataSource)) {
+            for (String prefetchTable : PREFETCH_TABLES) {
+                loadIfAbsent(metaData, dataSource, prefetchTable);
+            }
+        }
+        return loadIfAbsent(metaData, dataSource, convertedTableName);
+    }
+
+    /**
+     * キャッシュを破棄した回数を取得する。
+     * <p/>
+     * {@link StepConfig}は、SQL文を生成した時点からこの値が変わった場合に、生成済みのSQL文を破棄する。
+     *
+     * @return キャッシュを破棄した回数
+     */
+    public static long getGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * ジョブの設定に含まれる全てのEntityを、カラム情報をまとめて取得するテーブルとして登録する。
+     * <p/>
+     * キャッシュが有効でない場合は何もしない。
+     * データベースにはアクセスせず、カラム情報は各データソースで最初に{@link #getColumns(DatabaseMetaData, String)}が
+     * 呼び出された際に取得する。
+     *
+     * @param jobConfig ジョブの設定
+     */
+    public static void register(final JobConfig jobConfig) {
+        if (!isEnabled()) {
+            return;
+        }
+        boolean added = false;
+        for (Class<?> entity : collectEntities(jobConfig)) {
+            added |= PREFETCH_TABLES.add(DatabaseUtil.convertIdentifiers(EntityUtil.getTableName(entity)));
+        }
+        if (added) {
+            PREFETCHED_DATA_SOURCES.clear();
+        }
+    }
+
+    /**
+     * 指定されたテーブルのキャッシュを全てのデータソースから破棄する。
+     *
+     * @param tableName テーブル名
+     */
+    public static void invalidate(final String tableName) {
+        final String convertedTableName = DatabaseUtil.convertIdentifiers(tableName);
+        for (String key : COLUMNS.keySet()) {
+            if (key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1).equalsIgnoreCase(convertedTableName)) {
+                COLUMNS.remove(key);
+            }
+        }
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * 全てのキャッシュを破棄する。
+     */
+    public static void invalidateAll() {
+        COLUMNS.clear();
+        PREFETCHED_DATA_SOURCES.clear();
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * ジョブの設定に含まれるEntityクラスを収集する。
+     *
+     * @param jobConfig ジョブの設定
+     * @return Entityクラス
+     */
+    private static Set<Class<?>> collectEntities(final JobConfig jobConfig) {
+        final Set<Class<?>> entities = new LinkedHashSet<Class<?>>();
+        for (StepConfig stepConfig : jobConfig.getSteps().values()) {
+            if (stepConfig instanceof DbInputStepConfig) {
+                addIfEntity(entities, ((DbInputStepConfig) stepConfig).getBean());
+            }
+            if (stepConfig instanceof DbToDbStepConfig) {
+                final DbToDbStepConfig.UpdateSize updateSize = ((DbToDbStepConfig) stepConfig).getUpdateSize();
+                if (updateSize != null) {
+                    addIfEntity(entities, updateSize.getBean());
+                }
+            } else if (stepConfig instanceof ValidationStepConfig) {
+                addIfEntity(entities, ((ValidationStepConfig) stepConfig).getErrorEntity());
+            } else if (stepConfig instanceof FileToDbStepConfig) {
+                addIfEntity(entities, ((FileToDbStepConfig) stepConfig).getBean());
+            } else if (stepConfig instanceof TruncateStepConfig) {
+                final List<Class<?>> truncateEntities = ((TruncateStepConfig) stepConfig).getEntities();
+                if (truncateEntities != null) {
+                    for (Class<?> entity : truncateEntities) {
+                        addIfEntity(entities, entity);
+                    }
+                }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * {@link Entity}アノテーションが設定されたクラスの場合のみ追加する。
+     *
+     * @param entities 追加先
+     * @param clazz クラス
+     */
+    private static void addIfEntity(final Set<Class<?>> entities, final Class<?> clazz) {
+        if (clazz != null && clazz.getAnnotation(Entity.class) != null) {
+            entities.add(clazz);
+        }
+    }
+
+    /**
+     * キャッシュに存在しない場合のみ、データベースのメタデータからカラム名リストを取得してキャッシュする。
+     *
+     * @param metaData データベースのメタデータ
+     * @param dataSource データソースのキー
+     * @param tableName テーブル名
+     * @return カラム名リスト
+     * @throws SQLException データベース関連の例外
+     */
+    private static List<String> loadIfAbsent(final DatabaseMetaData metaData, final String dataSource,
+            final String tableName) throws SQLException {
+        final String key = dataSource + KEY_SEPARATOR + tableName;
+        List<String> columns = COLUMNS.get(key);
+        if (columns == null) {
+            columns = Collections.unmodifiableList(loadColumns(metaData, tableName));
+            COLUMNS.putIfAbsent(key, columns);
+        }
+        return columns;
+    }
+
+    /**
+     * データソースのキーを構築する。
+     *
+     * @param metaData データベースのメタデータ
+     * @return データソースのキー
+     * @throws SQLException データベース関連の例外
+     */
+    private static String buildDataSourceKey(final DatabaseMetaData metaData) throws SQLException {
+        return String.valueOf(metaData.getURL()) + '|' + metaData.getUserName();
+    }
+
+    /**
+     * データベースのメタデータからカラム名リストを取得する。
+     *
+     * @param metaData データベースのメタデータ
+     * @param tableName テーブル名
+     * @return カラム名リスト
+     * @throws SQLException データベース関連の例外
+     */
+    private static List<String> loadColumns(
+            final DatabaseMetaData metaData, final String tableName) throws SQLException {
+        final ResultSet rs = metaData.getColumns(null, null, tableName, null);
+        try {
+            final Map<Integer, String> columnNames = new TreeMap<Integer, String>();
+            while (rs.next()) {
+                columnNames.put(rs.getInt("ORDINAL_POSITION"), rs.getString("COLUMN_NAME"));
+            }
+            return new ArrayList<String>(columnNames.values());
+        } finally {
+            rs.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package nablarch.etl;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shift_JIS(windows-31jを含む)のバイト列を、変換表を用いて文字に変換するクラス。
+ * <p/>
+ * 変換表は、文字セットごとに1度だけJDKのデコーダで全ての1バイト文字と2バイト文字を変換して作成し、共有する。
+ * ASCII文字がそのまま対応する文字セットの場合は、ASCII文字を変換表を参照せずに変換する。
+ * <p/>
+ * 変換表にないバイト列(不正なバイト列や外字など)を含む場合は変換せず、
+ * 呼び出し元でJDKのデコーダを使用して変換する。
+ * このため、変換結果はJDKのデコーダで置換文字を使用して変換した結果と一致する。
+ *
+ * @author TIS
+ */
+final class ShiftJisDecoder {
+
+    /** 変換表を作成する文字セット */
+    private static final String[] SUPPORTED_CHARSETS = {"Shift_JIS", "windows-31j"};
+
+    /** 変換表にないことを示す文字 */
+    private static final char UNMAPPED = '\uFFFF';
+
+    /** 作成済みの変換表(文字セットをキーとする) */
+    private static final Map<Charset, ShiftJisDecoder> DECODERS = new HashMap<Charset, ShiftJisDecoder>();
+
+    /** 1バイト文字の変換表(バイトの値をインデックスとする) */
+    private final char[] singleBytes = new char[0x100];
+
+    /** 2バイト文字の変換表(1バイト目と2バイト目を連結した値をインデックスとする) */
+    private final char[] doubleBytes = new char[0x10000];
+
+    /** ASCII文字がそのまま対応するか否か */
+    private final boolean asciiCompatible;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param charset 文字セット
+     */
+    private ShiftJisDecoder(final Charset charset) {
+        Arrays.fill(singleBytes, UNMAPPED);
+        Arrays.fill(doubleBytes, UNMAPPED);
+        final CharsetDecoder decoder = charset.newDecoder()
+                                              .onMalformedInput(CodingErrorAction.REPORT)
+                                              .onUnmappableCharacter(CodingErrorAction.REPORT);
+        final ByteBuffer in = ByteBuffer.allocate(2);
+        final CharBuffer out = CharBuffer.allocate(4);
+
+        boolean ascii = true;
+        for (int b = 0; b < 0x100; b++) {
+            in.clear();
+            in.put((byte) b).flip();
+            singleBytes[b] = decodeOne(decoder, in, out);
+            if (b < 0x80 && singleBytes[b] != b) {
+                ascii = false;
+            }
+        }
+        asciiCompatible = ascii;
+
+        for (int lead = 0x80; lead < 0x100; lead++) {
+            if (singleBytes[lead] != UNMAPPED) {
+                continue;
+            }
+            for (int trail = 0x40; trail < 0x100; trail++) {
+                in.clear();
+                in.put((byte) lead).put((byte) trail).flip();
+                doubleBytes[lead << 8 | trail] = decodeOne(decoder, in, out);
+            }
+        }
+    }
+
+    /**
+     * 文字セットに対応する{@link ShiftJisDecoder}を取得する。
+     *
+     * @param charset 文字セット
+     * @return {@link ShiftJisDecoder}。Shift_JISとwindows-31j以外の文字セットの場合は{@code null}
+     */
+    static ShiftJisDecoder of(final Charset charset) {
+        if (!isSupported(charset)) {
+            return null;
+        }
+        synchronized (DECODERS) {
+            ShiftJisDecoder decoder = DECODERS.get(charset);
+            if (decoder == null) {
+                decoder = new ShiftJisDecoder(charset);
+                DECODERS.put(charset, decoder);
+            }
+            return decoder;
+        }
+    }
+
+    /**
+     * バイト列を文字に変換する。
+     *
+     * @param buffer バッファ
+     * @param start 開始位置
+     * @param length バイト数
+     * @param chars 変換後の文字を格納する配列(バイト数以上の長さであること)
+     * @return 変換後の文字数。変換表にないバイト列を含む場合は-1
+     */
+    int decode(final byte[] buffer, final int start, final int length, final char[] chars) {
+        final int end = start + length;
+        int p = start;
+        int count = 0;
+        while (p < end) {
+            final byte b = buffer[p];
+            if (b >= 0 && asciiCompatible) {
+                chars[count++] = (char) b;
+                p++;
+                continue;
+            }
+            final int lead = b & 0xFF;
+            char c = singleBytes[lead];
+            if (c != UNMAPPED) {
+                chars[count++] = c;
+                p++;
+                continue;
+            }
+            if (p + 1 == end) {
+                return -1;
+            }
+            c = doubleBytes[lead << 8 | buffer[p + 1] & 0xFF];
+            if (c == UNMAPPED) {
+                return -1;
+            }
+            chars[count++] = c;
+            p += 2;
+        }
+        return count;
+    }
+
+    /**
+     * 変換表を作成する文字セットか否か。
+     *
+     * @param charset 文字セット
+     * @return 変換表を作成する文字セットの場合は{@code true}
+     */
+    private static boolean isSupported(final Charset charset) {
+        for (String name : SUPPORTED_CHARSETS) {
+            if (Charset.isSupported(name) && charset.equals(Charset.forName(name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * バイト列の全体を1文字に変換する。
+     *
+     * @param decoder デコーダ
+     * @param in 変換元のバイト列
+     * @param out 変換後の文字を格納するバッファ
+     * @return 変換後の文字。全体が1文字に変換されない場合は{@link #UNMAPPED}
+     */
+    private static char decodeOne(final CharsetDecoder decoder, final ByteBuffer in, final CharBuffer out) {
+        out.clear();
+        decoder.reset();
+        final CoderResult result = decoder.decode(in, out, true);
+        if (result.isError() || in.hasRemaining() || decoder.flush(out).isError() || out.position() != 1) {
+            return UNMAPPED;
+        }
+        final char c = out.get(0);
+        return c == '\uFFFD' ? UNMAPPED : c;
+    }
+}
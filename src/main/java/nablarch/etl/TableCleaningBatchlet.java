@@ -1,17 +1,31 @@
 package nablarch.etl;
 
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import nablarch.common.dao.EntityUtil;
+import nablarch.core.db.connection.ConnectionFactory;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.ResultSetIterator;
 import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.repository.SystemRepository;
 import nablarch.etl.config.EtlConfig;
 import nablarch.etl.config.StepConfig;
 import nablarch.etl.config.TruncateStepConfig;
 import nablarch.etl.generator.TruncateSqlGenerator;
 import nablarch.etl.generator.TruncateSqlGeneratorFactory;
+import nablarch.fw.batch.progress.ProgressLogger;
 
 import javax.batch.api.AbstractBatchlet;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -20,6 +34,17 @@ import javax.inject.Named;
  * テーブルのデータをクリーニング(truncate)する{@link javax.batch.api.Batchlet}実装クラス。
  * <p/>
  * {@link TruncateStepConfig}で指定されたEntityクラスに対応するテーブルのデータをクリーニング(truncate)する。
+ * <p/>
+ * {@link TruncateStepConfig#getParallelism()}に2以上が設定された場合は、
+ * テーブルごとに個別のデータベース接続を使用し、複数のテーブルを並列にtruncateする。
+ * 並列実行時のデータベース接続は、"connectionFactory"という名前でリポジトリに登録された
+ * {@link ConnectionFactory}から取得する。
+ * <p/>
+ * {@link TruncateStepConfig#isSkipEmptyTable()}が{@code true}の場合は、
+ * データが存在しないテーブルのtruncateをスキップする。
+ * <p/>
+ * {@link TruncateStepConfig#getIncrementalControlTable()}が設定されている場合は、
+ * truncateの前に、truncate対象のテーブルの差分バリデーションのバリデーション済みの行番号を削除する。
  *
  * @author Hisaaki Shioiri
  */
@@ -27,16 +52,32 @@ import javax.inject.Named;
 @Dependent
 public class TableCleaningBatchlet extends AbstractBatchlet {
 
+    /** 並列実行時のデータベース接続の取得に使用する{@link ConnectionFactory}の名前 */
+    private static final String CONNECTION_FACTORY_NAME = "connectionFactory";
+
+    /** {@link JobContext} */
+    private final JobContext jobContext;
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
     /** ETLの設定 */
     private final TruncateStepConfig stepConfig;
 
     /**
      * コンストラクタ。
      *
+     * @param jobContext {@link JobContext}
+     * @param stepContext {@link StepContext}
      * @param stepConfig ステップの設定
      */
     @Inject
-    public TableCleaningBatchlet(@EtlConfig final StepConfig stepConfig) {
+    public TableCleaningBatchlet(
+            final JobContext jobContext,
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig) {
+        this.jobContext = jobContext;
+        this.stepContext = stepContext;
         this.stepConfig = (TruncateStepConfig) stepConfig;
     }
 
@@ -54,16 +95,161 @@ public class TableCleaningBatchlet extends AbstractBatchlet {
     public String process() throws Exception {
         final List<Class<?>> entities = stepConfig.getEntities();
         final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+        if (stepConfig.getIncrementalControlTable() != null) {
+            resetHighWaterMarks(entities);
+            connection.commit();
+        }
         final TruncateSqlGenerator sqlGenerator = TruncateSqlGeneratorFactory.create(connection);
 
+        final Integer parallelism = stepConfig.getParallelism();
+        if (parallelism == null || parallelism <= 1 || entities.size() <= 1) {
+            for (final Class<?> entity : entities) {
+                final String sql = sqlGenerator.generateSql(entity);
+                connection.rollback();
+                truncate(connection, entity, sql);
+            }
+        } else {
+            final List<String> sqlList = new ArrayList<String>(entities.size());
+            for (final Class<?> entity : entities) {
+                sqlList.add(sqlGenerator.generateSql(entity));
+            }
+            connection.rollback();
+            truncateInParallel(entities, sqlList, Math.min(parallelism, entities.size()));
+        }
+        return "SUCCESS";
+    }
+
+    /**
+     * truncate対象のテーブルの差分バリデーションのバリデーション済みの行番号を削除する。
+     * <p/>
+     * truncateに失敗した場合でも、次回のバリデーションで全ての行がバリデーションされるように、
+     * truncateより前に削除する。
+     *
+     * @param entities truncate対象のEntityリスト
+     */
+    private void resetHighWaterMarks(final List<Class<?>> entities) {
         for (final Class<?> entity : entities) {
-            final String sql = sqlGenerator.generateSql(entity);
+            new ValidationHighWaterMark(stepConfig.getIncrementalControlTable(), EntityUtil.getTableNameWithSchema(entity))
+                    .reset();
+        }
+    }
+
+    /**
+     * テーブルごとに個別のデータベース接続を使用し、並列でtruncateを行う。
+     *
+     * @param entities truncate対象のEntityリスト
+     * @param sqlList Entityリストの順に並んだTRUNCATE文
+     * @param threadCount スレッド数
+     * @throws Exception truncate中に例外が発生した場合
+     */
+    private void truncateInParallel(
+            final List<Class<?>> entities, final List<String> sqlList, final int threadCount) throws Exception {
+
+        final ConnectionFactory connectionFactory = SystemRepository.get(CONNECTION_FACTORY_NAME);
+        if (connectionFactory == null) {
+            throw new IllegalStateException(
+                    String.format("ConnectionFactory was not found. Using the name \"%s\", "
+                                    + "please set ConnectionFactory to component configuration.",
+                            CONNECTION_FACTORY_NAME));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>(entities.size());
+            for (int i = 0; i < entities.size(); i++) {
+                final Class<?> entity = entities.get(i);
+                final String sql = sqlList.get(i);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        final TransactionManagerConnection connection =
+                                connectionFactory.getConnection(entity.getName());
+                        try {
+                            truncate(connection, entity, sql);
+                        } finally {
+                            connection.terminate();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw (Error) cause;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * テーブルのtruncateを行い、要した時間をログに出力する。
+     * <p/>
+     * データが存在しないテーブルのスキップが指定されている場合で、
+     * テーブルにデータが存在しない場合はtruncateを行わない。
+     * データの有無の確認後は、データの有無にかかわらずトランザクションをロールバックする。
+     *
+     * @param connection データベース接続
+     * @param entity truncate対象のEntity
+     * @param sql TRUNCATE文
+     */
+    private void truncate(final TransactionManagerConnection connection, final Class<?> entity, final String sql) {
+        final String tableName = EntityUtil.getTableNameWithSchema(entity);
+        final long start = System.currentTimeMillis();
+
+        if (stepConfig.isSkipEmptyTable()) {
+            final boolean empty = isEmpty(connection, tableName);
+            // TRUNCATE文をトランザクション内の最初のステートメントとするため、データの有無の確認後にロールバックする
             connection.rollback();
+            if (empty) {
+                loggingTruncate(tableName, "skipped", System.currentTimeMillis() - start);
+                return;
+            }
+        }
 
-            final SqlPStatement statement = connection.prepareStatement(sql);
-            statement.execute();
-            connection.commit();
+        final SqlPStatement statement = connection.prepareStatement(sql);
+        statement.execute();
+        connection.commit();
+        loggingTruncate(tableName, "truncated", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * テーブルにデータが存在しないか否か。
+     * <p/>
+     * 件数を数えずに、1レコード目の有無のみを確認する。
+     *
+     * @param connection データベース接続
+     * @param tableName テーブル名
+     * @return データが存在しない場合は{@code true}
+     */
+    private static boolean isEmpty(final TransactionManagerConnection connection, final String tableName) {
+        final SqlPStatement statement = connection.prepareStatement("select 1 from " + tableName);
+        try {
+            statement.setMaxRows(1);
+            final ResultSetIterator rows = statement.executeQuery();
+            return !rows.next();
+        } finally {
+            statement.close();
         }
-        return "SUCCESS";
+    }
+
+    /**
+     * truncateのログを出力する。
+     *
+     * @param tableName テーブル名
+     * @param result truncateの結果
+     * @param elapsedTime 要した時間(ミリ秒)
+     */
+    private void loggingTruncate(final String tableName, final String result, final long elapsedTime) {
+        ProgressLogger.write(MessageFormat.format(
+                "job name: [{0}] step name: [{1}] table name: [{2}] result: [{3}] elapsed time(ms): [{4}]",
+                jobContext.getJobName(), stepContext.getStepName(), tableName, result, String.valueOf(elapsedTime)));
     }
 }
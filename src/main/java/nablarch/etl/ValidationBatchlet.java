@@ -2,8 +2,18 @@ package nablarch.etl;
 
 import static nablarch.etl.EtlUtil.verifyRequired;
 
+import java.io.Closeable;
+import java.io.Serializable;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.batch.api.AbstractBatchlet;
 import javax.batch.api.BatchProperty;
@@ -18,12 +28,12 @@ import javax.validation.Validator;
 import nablarch.common.dao.DeferredEntityList;
 import nablarch.common.dao.EntityUtil;
 import nablarch.common.dao.UniversalDao;
-import nablarch.core.beans.BeanUtil;
 import nablarch.core.db.connection.AppDbConnection;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.db.statement.ResultSetIterator;
 import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlRow;
 import nablarch.core.log.Logger;
 import nablarch.core.log.LoggerManager;
 import nablarch.core.log.basic.LogLevel;
@@ -36,6 +46,8 @@ import nablarch.etl.config.EtlConfig;
 import nablarch.etl.config.StepConfig;
 import nablarch.etl.config.ValidationStepConfig;
 import nablarch.etl.config.ValidationStepConfig.Mode;
+import nablarch.etl.dialect.EtlDialect;
+import nablarch.etl.dialect.EtlDialectResolver;
 import nablarch.etl.generator.TruncateSqlGenerator;
 import nablarch.etl.generator.TruncateSqlGeneratorFactory;
 import nablarch.fw.batch.ee.progress.ProgressManager;
@@ -45,7 +57,12 @@ import nablarch.fw.batch.ee.progress.ProgressManager;
  * <p/>
  * 一時テーブルのデータを全レコード取得し、{@link ValidationStepConfig#getBean()}のバリデーションルールに従いバリデーションを実施する。
  * エラーが発生した場合には、そのレコードを退避テーブル(エラーテーブル)({@link ValidationStepConfig#getErrorEntity}に対応するテーブル)に移動する。
+ * エラーテーブルへの登録は、{@link ValidationStepConfig#getErrorInsertBatchSize()}件ごとにまとめて行う。
+ * {@link ValidationStepConfig#getInvalidFlagColumn()}が設定されている場合は、
+ * 一時テーブルからレコードを削除せずに、エラーを示すフラグを設定する。
  * また、エラーの詳細はワーニングレベルでログ出力を行う。
+ * {@link ValidationStepConfig#getViolationLogLimit()}が設定されている場合は、プロパティごとにその件数までのみ詳細を出力し、
+ * 以降のエラーはプロパティとエラーメッセージごとの件数をバリデーションの終了時にまとめて出力する。
  * <p/>
  * エラー発生時にジョブを継続するか否かのモード指定によって切り替えることができる。
  * {@link ValidationStepConfig#getMode()}が{@link Mode#CONTINUE}の場合には処理を継続し、
@@ -54,6 +71,25 @@ import nablarch.fw.batch.ee.progress.ProgressManager;
  * 許容するエラー数が設定でき、その数を超えた場合には即ジョブをアボートする。
  * 許容するエラー数の設定は、{@link ValidationStepConfig#getErrorLimit()}より取得する。
  * この値が設定されていない場合やマイナス値の場合は、この機能は無効化される。
+ * <p/>
+ * {@link ValidationStepConfig#getParallelism()}に2以上が設定された場合は、バリデーションのみを複数のスレッドで並列に行う。
+ * 一時テーブルの読み込みとバリデーション結果の処理(ログ出力、エラーテーブルへの登録、許容するエラー数の判定)は、
+ * ステップのスレッドで一時テーブルの取得順に行うため、並列数に関わらず処理結果は変わらない。
+ * <p/>
+ * {@link ValidationStepConfig#isSqlPushdown()}が{@code true}の場合で、Beanの全ての制約がSQLの条件に変換できる場合は、
+ * 一時テーブルのデータを取得せずに、制約に違反するレコードをSQLで一括してエラーテーブルに登録する。
+ * この場合、エラーの詳細はログ出力されず、エラー数はエラーとなったレコード数となる。
+ * <p/>
+ * {@link ValidationStepConfig#getSliceSize()}が設定されている場合は、行番号の範囲を分割してバリデーションを行い、
+ * 範囲ごとにコミットする。ジョブを再実行した場合は、前回の実行で完了した範囲の次から再開する。
+ * 再実行時のエラー数には、前回までの実行でエラーテーブルに登録したエラー数を含めるため、
+ * 前回までの実行でエラーとなったレコードも一時テーブルから削除され、ステップの終了ステータスに反映される。
+ * <p/>
+ * {@link ValidationStepConfig#isPublishErrorLines()}が{@code true}の場合は、エラーの行番号を後続のステップに引き継ぐ。
+ * 引き継いだ行番号は、{@link RangeUpdateHelper}による範囲の更新と{@link DatabaseItemReader}で使用する。
+ * <p/>
+ * {@link ValidationStepConfig#getIncrementalControlTable()}が設定されている場合は、
+ * 前回までにバリデーションを行った行番号より後の行のみをバリデーションし、エラーテーブルのレコードは保持する。
  *
  * @author Hisaaki Shioiri
  */
@@ -64,6 +100,12 @@ public class ValidationBatchlet extends AbstractBatchlet {
     /** ロガー */
     private static final Logger LOGGER = LoggerManager.get("etl");
 
+    /** 一時テーブルとエラーテーブルを結合するカラム */
+    private static final String LINE_NUMBER_COLUMN = "line_number";
+
+    /** 並列でバリデーションを行う場合に、1スレッドあたりに先行してバリデーションを行うレコード数 */
+    private static final int PREFETCH_PER_THREAD = 100;
+
     /** {@link JobContext} */
     private final JobContext jobContext;
 
@@ -75,6 +117,9 @@ public class ValidationBatchlet extends AbstractBatchlet {
 
     /** 進捗状況を管理するBean */
     private final ProgressManager progressManager;
+
+    /** エラー内容をログに出力する{@link ViolationLogger} */
+    private final ViolationLogger violationLogger;
     
     /** 進捗ログを出す間隔 */
     @Inject
@@ -98,6 +143,7 @@ public class ValidationBatchlet extends AbstractBatchlet {
         this.stepContext = stepContext;
         this.stepConfig = (ValidationStepConfig) stepConfig;
         this.progressManager = progressManager;
+        violationLogger = new ViolationLogger(this.stepConfig.getViolationLogLimit());
     }
 
     @Override
@@ -108,45 +154,61 @@ public class ValidationBatchlet extends AbstractBatchlet {
         final Class<?> inputTable = stepConfig.getBean();
         final Class<?> errorTable = stepConfig.getErrorEntity();
 
-        truncateErrorTable(errorTable);
+        final RestartPoint restart = stepConfig.getSliceSize() == null ? null : getRestartPoint();
+        final Long restartPoint = restart == null ? null : restart.lineNumber;
+        if (restart != null) {
+            LOGGER.logInfo("validation was restarted. bean class=[" + inputTable.getName() + "],"
+                    + " restart line number=[" + restart.lineNumber + "],"
+                    + " previous error count=[" + restart.errorCount + ']');
+        }
+
+        final ValidationHighWaterMark highWaterMark;
+        LineNumberRange range;
+        if (stepConfig.getIncrementalControlTable() == null) {
+            highWaterMark = null;
+            range = null;
+            if (restartPoint == null) {
+                truncateErrorTable(errorTable);
+            }
+        } else {
+            highWaterMark = new ValidationHighWaterMark(
+                    stepConfig.getIncrementalControlTable(), EntityUtil.getTableNameWithSchema(inputTable));
+            range = prepareIncrementalRange(highWaterMark, inputTable, errorTable, restartPoint == null);
+        }
+        if (stepConfig.getSliceSize() != null) {
+            range = prepareSlicedRange(range, inputTable, restartPoint);
+        }
 
         final ValidationResult validationResult = new ValidationResult();
+        if (restart != null) {
+            // 前回までの実行でエラーテーブルに登録したレコードも、一時テーブルからの削除と終了ステータスの対象とする
+            validationResult.addErrorCount(restart.errorCount);
+        }
         final Validator validator = ValidatorUtil.getValidator();
 
-        final long logInterval = getLogInterval();
-
-        // 一時テーブルのデータを全て取得しValidationを行う。
-        progressManager.setInputCount(getRecordCountInInputTable());
-        final DeferredEntityList<?> workItems = (DeferredEntityList<?>) UniversalDao.defer().findAll(inputTable);
+        final long inputCount = getRecordCountInInputTable(range);
+        progressManager.setInputCount(inputCount);
 
-        for (Object item : workItems) {
-            validationResult.incrementCount();
-
-            final WorkItem workItem = (WorkItem) item;
-            final Set<ConstraintViolation<WorkItem>> constraintViolations = validator.validate(workItem);
-
-            if (validationResult.getLineCount() % logInterval == 0L) {
-                progressManager.outputProgressInfo(validationResult.getLineCount());
-            }
-
-            if (constraintViolations.isEmpty()) {
-                continue;
-            }
+        final String pushdownSql = stepConfig.isSqlPushdown() ? planSqlValidation(validator) : null;
+        if (pushdownSql == null) {
+            validateInJava(validator, validationResult, range);
+        } else {
+            validateInSql(pushdownSql, inputCount, validationResult, range);
+        }
 
-            validationResult.addErrorCount(constraintViolations.size());
-            onError(workItem, constraintViolations, errorTable);
-            if (isOverLimit(stepConfig, validationResult)) {
-                throw new EtlJobAbortedException("number of validation errors has exceeded the maximum number of errors."
-                        + " bean class=[" + inputTable.getName() + ']');
-            }
+        if (validationResult.hasError()) {
+            removeErrorRecord(inputTable, errorTable);
         }
-        
-        if (validationResult.getLineCount() % logInterval != 0L) {
-            progressManager.outputProgressInfo(validationResult.getLineCount());
+        if (highWaterMark != null) {
+            highWaterMark.save(range.to);
+        }
+        if (stepConfig.isPublishErrorLines()) {
+            publishErrorLines(inputTable, errorTable);
+        }
+        // 全ての範囲のバリデーションが完了したため、再実行時は最初からバリデーションを行う
+        if (stepConfig.getSliceSize() != null) {
+            stepContext.setPersistentUserData(null);
         }
-        workItems.close();
-
-        deleteErrorRecord(inputTable, errorTable);
 
         LOGGER.logInfo(MessageFormat.format(
                 "validation result. bean class=[{0}], line count=[{1}], error count=[{2}]",
@@ -160,6 +222,351 @@ public class ValidationBatchlet extends AbstractBatchlet {
         return buildResult(validationResult);
     }
 
+    /**
+     * 差分バリデーションの対象とする行番号の範囲を決定する。
+     * <p/>
+     * バリデーション済みの行番号より後の行を対象とする。
+     * バリデーション済みの行番号がない場合(truncateステップで削除された場合を含む)は、全ての行を対象とし、
+     * エラーテーブルをクリーニングする。
+     * <p/>
+     * 一時テーブルの最大の行番号がバリデーション済みの行番号を下回る場合は、
+     * バリデーション済みの行番号を削除せずに一時テーブルを作り直したと判断し、例外を送出する。
+     *
+     * @param highWaterMark バリデーション済みの行番号
+     * @param inputTable 一時テーブル
+     * @param errorTable エラーテーブル
+     * @param cleanable エラーテーブルをクリーニングできる場合は{@code true}
+     * @return バリデーションの対象とする行番号の範囲
+     */
+    private LineNumberRange prepareIncrementalRange(
+            final ValidationHighWaterMark highWaterMark, final Class<?> inputTable, final Class<?> errorTable,
+            final boolean cleanable) {
+        final long maxLineNumber = ValidationHighWaterMark.findMaxLineNumber(
+                EntityUtil.getTableNameWithSchema(inputTable));
+        final long validatedLineNumber = highWaterMark.find();
+        if (maxLineNumber < validatedLineNumber) {
+            throw new IllegalStateException("max line number of the work table is less than the validated line number."
+                    + " please reset the validated line number with the truncate step."
+                    + " bean class=[" + inputTable.getName() + "], validated line number=[" + validatedLineNumber + "],"
+                    + " max line number=[" + maxLineNumber + ']');
+        }
+        if (validatedLineNumber == 0L && cleanable) {
+            truncateErrorTable(errorTable);
+        }
+        return new LineNumberRange(validatedLineNumber, Math.max(validatedLineNumber, maxLineNumber));
+    }
+
+    /**
+     * 分割してバリデーションを行う行番号の範囲を決定する。
+     * <p/>
+     * 再実行の場合は、前回の実行で完了した行番号より後の行を対象とする。
+     *
+     * @param range 行番号の範囲(全てのデータの場合は{@code null})
+     * @param inputTable 一時テーブル
+     * @param restartPoint 前回の実行で完了した行番号(再実行でない場合は{@code null})
+     * @return 分割してバリデーションを行う行番号の範囲
+     */
+    private static LineNumberRange prepareSlicedRange(
+            final LineNumberRange range, final Class<?> inputTable, final Long restartPoint) {
+        final long to = range == null
+                ? ValidationHighWaterMark.findMaxLineNumber(EntityUtil.getTableNameWithSchema(inputTable))
+                : range.to;
+        long from = range == null ? 0L : range.from;
+        if (restartPoint != null && restartPoint > from) {
+            from = restartPoint;
+        }
+        return new LineNumberRange(from, Math.max(from, to));
+    }
+
+    /**
+     * 前回の実行で完了した範囲の情報を取得する。
+     *
+     * @return 前回の実行で完了した範囲の情報(再実行でない場合は{@code null})
+     */
+    private RestartPoint getRestartPoint() {
+        final Serializable persistentUserData = stepContext.getPersistentUserData();
+        return persistentUserData instanceof RestartPoint ? (RestartPoint) persistentUserData : null;
+    }
+
+    /**
+     * 一時テーブルのデータを取得し、Javaでバリデーションを行う。
+     * <p/>
+     * {@link ValidationStepConfig#getSliceSize()}が設定されている場合は、行番号の範囲を分割してバリデーションを行う。
+     *
+     * @param beanValidator バリデータ
+     * @param validationResult バリデーション結果
+     * @param range 行番号の範囲(全てのデータの場合は{@code null})
+     * @throws Exception バリデーション中に例外が発生した場合
+     */
+    private void validateInJava(
+            final Validator beanValidator, final ValidationResult validationResult, final LineNumberRange range)
+            throws Exception {
+        final WorkItemValidator validator = stepConfig.isCompiledValidation()
+                ? WorkItemValidator.compile(beanValidator, stepConfig.getBean())
+                : WorkItemValidator.standard(beanValidator);
+        final long logInterval = getLogInterval();
+        final ErrorRecordWriter errorWriter = new ErrorRecordWriter(
+                stepConfig.getBean(), stepConfig.getErrorEntity(), stepConfig.getErrorInsertBatchSize());
+
+        try {
+            if (stepConfig.getSliceSize() == null) {
+                validateRange(validator, validationResult, range, logInterval, errorWriter);
+                if (validationResult.getLineCount() % logInterval != 0L) {
+                    progressManager.outputProgressInfo(validationResult.getLineCount());
+                }
+            } else {
+                validateInSlices(validator, validationResult, range, logInterval, errorWriter);
+            }
+        } finally {
+            // 許容するエラー数を超えてアボートする場合も集計結果を出力する
+            violationLogger.logSummary(stepConfig.getBean());
+        }
+    }
+
+    /**
+     * 行番号の範囲を{@link ValidationStepConfig#getSliceSize()}ごとに分割してバリデーションを行う。
+     * <p/>
+     * 分割した範囲ごとにトランザクションをコミットし、完了した行番号とそれまでのエラー数を再実行のために
+     * {@link StepContext#setPersistentUserData(Serializable)}に保存する。
+     *
+     * @param validator バリデータ
+     * @param validationResult バリデーション結果
+     * @param range 行番号の範囲
+     * @param logInterval 進捗ログの出力間隔
+     * @param errorWriter エラーテーブルへの書き込み
+     * @throws Exception バリデーション中に例外が発生した場合
+     */
+    private void validateInSlices(
+            final WorkItemValidator validator,
+            final ValidationResult validationResult,
+            final LineNumberRange range,
+            final long logInterval,
+            final ErrorRecordWriter errorWriter) throws Exception {
+        final int sliceSize = stepConfig.getSliceSize();
+        long from = range.from;
+        while (from < range.to) {
+            final long to = Math.min(from + sliceSize, range.to);
+            validateRange(validator, validationResult, new LineNumberRange(from, to), logInterval, errorWriter);
+            commit();
+            stepContext.setPersistentUserData(new RestartPoint(to, validationResult.getErrorCount()));
+            progressManager.outputProgressInfo(validationResult.getLineCount());
+            from = to;
+        }
+    }
+
+    /**
+     * 行番号の範囲のデータを取得し、バリデーションを行う。
+     *
+     * @param validator バリデータ
+     * @param validationResult バリデーション結果
+     * @param range 行番号の範囲(全てのデータの場合は{@code null})
+     * @param logInterval 進捗ログの出力間隔
+     * @param errorWriter エラーテーブルへの書き込み
+     * @throws Exception バリデーション中に例外が発生した場合
+     */
+    private void validateRange(
+            final WorkItemValidator validator,
+            final ValidationResult validationResult,
+            final LineNumberRange range,
+            final long logInterval,
+            final ErrorRecordWriter errorWriter) throws Exception {
+
+        final Iterable<?> workItems;
+        final Closeable resource;
+        if (range == null) {
+            final DeferredEntityList<?> entities =
+                    (DeferredEntityList<?>) UniversalDao.defer().findAll(stepConfig.getBean());
+            workItems = entities;
+            resource = entities;
+        } else {
+            final WorkItemRows rows = new WorkItemRows(stepConfig.getBean(), range);
+            workItems = rows;
+            resource = rows;
+        }
+
+        final Integer parallelism = stepConfig.getParallelism();
+        try {
+            if (parallelism == null || parallelism <= 1) {
+                for (Object item : workItems) {
+                    final WorkItem workItem = (WorkItem) item;
+                    handleResult(workItem, validator.validate(workItem), validationResult, logInterval, errorWriter);
+                }
+            } else {
+                validateInParallel(workItems, validator, validationResult, logInterval, errorWriter, parallelism);
+            }
+        } finally {
+            resource.close();
+        }
+        errorWriter.flush();
+    }
+
+    /**
+     * バリデーションをSQLで行うためのINSERT文を生成する。
+     * <p/>
+     * SQLの条件に変換できない制約がある場合は、その旨をログに出力し{@code null}を返す。
+     *
+     * @param validator バリデータ
+     * @return INSERT文。SQLでバリデーションを行えない場合は{@code null}
+     */
+    private String planSqlValidation(final Validator validator) {
+        final ValidationSqlPlanner planner = new ValidationSqlPlanner(
+                validator, EtlDialectResolver.resolve(DbConnectionContext.getTransactionManagerConnection()));
+        final String sql = planner.plan(stepConfig.getBean(), stepConfig.getErrorEntity());
+        if (sql == null) {
+            LOGGER.logInfo("validation can not be performed by SQL because the bean has constraints"
+                    + " that can not be converted. validate in Java. bean class=[" + stepConfig.getBean().getName() + ']');
+        }
+        return sql;
+    }
+
+    /**
+     * 制約に違反するレコードをSQLで一括してエラーテーブルに登録する。
+     * <p/>
+     * 制約ごとのエラー内容はログに出力せず、エラーとなったレコード数のみを出力する。
+     * このため、エラー数はエラーとなったレコード数となる。
+     *
+     * @param sql 制約に違反するレコードをエラーテーブルに登録するINSERT文
+     * @param inputCount 一時テーブルのレコード数
+     * @param validationResult バリデーション結果
+     * @param range 行番号の範囲(全てのデータの場合は{@code null})
+     */
+    private void validateInSql(
+            final String sql, final long inputCount, final ValidationResult validationResult,
+            final LineNumberRange range) {
+        final SqlPStatement statement;
+        if (range == null) {
+            statement = DbConnectionContext.getConnection().prepareStatement(sql);
+        } else {
+            statement = DbConnectionContext.getConnection().prepareStatement(sql + " and " + range.condition());
+            range.setParameters(statement, 1);
+        }
+        final int errorLineCount = statement.executeUpdate();
+
+        validationResult.addLineCount(inputCount);
+        validationResult.addErrorCount(errorLineCount);
+        progressManager.outputProgressInfo(inputCount);
+
+        LOGGER.logInfo(MessageFormat.format(
+                "validation was performed by SQL. bean class=[{0}], error line count=[{1}]",
+                stepConfig.getBean().getName(), String.valueOf(errorLineCount)));
+
+        if (validationResult.isOverLimit(stepConfig.getErrorLimit())) {
+            throw new EtlJobAbortedException("number of validation errors has exceeded the maximum number of errors."
+                    + " bean class=[" + stepConfig.getBean().getName() + ']');
+        }
+    }
+
+    /**
+     * 複数のスレッドで並列にバリデーションを行う。
+     * <p/>
+     * 先行してバリデーションを行うレコード数を並列数に応じて制限し、
+     * バリデーションの結果は一時テーブルの取得順に本スレッドで処理する。
+     *
+     * @param workItems 一時テーブルのレコード
+     * @param validator バリデータ
+     * @param validationResult バリデーション結果
+     * @param logInterval 進捗ログの出力間隔
+     * @param errorWriter エラーテーブルへの書き込み
+     * @param parallelism 並列数
+     * @throws Exception バリデーション中に例外が発生した場合
+     */
+    private void validateInParallel(
+            final Iterable<?> workItems,
+            final WorkItemValidator validator,
+            final ValidationResult validationResult,
+            final long logInterval,
+            final ErrorRecordWriter errorWriter,
+            final int parallelism) throws Exception {
+
+        final int maxPending = parallelism * PREFETCH_PER_THREAD;
+        final Deque<PendingValidation> pendings = new ArrayDeque<PendingValidation>(maxPending);
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Object item : workItems) {
+                final WorkItem workItem = (WorkItem) item;
+                pendings.addLast(new PendingValidation(workItem, executor.submit(
+                        new Callable<Set<ConstraintViolation<WorkItem>>>() {
+                            @Override
+                            public Set<ConstraintViolation<WorkItem>> call() {
+                                return validator.validate(workItem);
+                            }
+                        })));
+                if (pendings.size() >= maxPending) {
+                    handleResult(pendings.removeFirst(), validationResult, logInterval, errorWriter);
+                }
+            }
+            while (!pendings.isEmpty()) {
+                handleResult(pendings.removeFirst(), validationResult, logInterval, errorWriter);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 並列で行ったバリデーションの完了を待ち、結果を処理する。
+     *
+     * @param pending バリデーション中のレコード
+     * @param validationResult バリデーション結果
+     * @param logInterval 進捗ログの出力間隔
+     * @param errorWriter エラーテーブルへの書き込み
+     * @throws Exception バリデーション中に例外が発生した場合
+     */
+    private void handleResult(
+            final PendingValidation pending,
+            final ValidationResult validationResult,
+            final long logInterval,
+            final ErrorRecordWriter errorWriter) throws Exception {
+        final Set<ConstraintViolation<WorkItem>> constraintViolations;
+        try {
+            constraintViolations = pending.violations.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+        handleResult(pending.item, constraintViolations, validationResult, logInterval, errorWriter);
+    }
+
+    /**
+     * 1レコードのバリデーション結果を処理する。
+     * <p/>
+     * エラーがある場合は、エラー内容のログ出力とエラーテーブルへの登録を行い、
+     * 許容するエラー数を超えた場合は{@link EtlJobAbortedException}を送出する。
+     *
+     * @param workItem バリデーションを行ったレコード
+     * @param constraintViolations バリデーションのエラー内容
+     * @param validationResult バリデーション結果
+     * @param logInterval 進捗ログの出力間隔
+     * @param errorWriter エラーテーブルへの書き込み
+     */
+    private void handleResult(
+            final WorkItem workItem,
+            final Set<ConstraintViolation<WorkItem>> constraintViolations,
+            final ValidationResult validationResult,
+            final long logInterval,
+            final ErrorRecordWriter errorWriter) {
+
+        validationResult.incrementCount();
+
+        if (validationResult.getLineCount() % logInterval == 0L) {
+            progressManager.outputProgressInfo(validationResult.getLineCount());
+        }
+
+        if (constraintViolations.isEmpty()) {
+            return;
+        }
+
+        validationResult.addErrorCount(constraintViolations.size());
+        onError(workItem, constraintViolations, errorWriter);
+        if (validationResult.isOverLimit(stepConfig.getErrorLimit())) {
+            throw new EtlJobAbortedException("number of validation errors has exceeded the maximum number of errors."
+                    + " bean class=[" + stepConfig.getBean().getName() + ']');
+        }
+    }
+
     /**
      * エラーテーブルの内容をクリーニングする。
      * <p/>
@@ -185,12 +592,19 @@ public class ValidationBatchlet extends AbstractBatchlet {
 
     /**
      * 入力テーブルのレコード数を取得する。
+     * @param range 行番号の範囲(全てのデータの場合は{@code null})
      * @return レコード数
      */
-    private long getRecordCountInInputTable() {
+    private long getRecordCountInInputTable(final LineNumberRange range) {
         final AppDbConnection connection = DbConnectionContext.getConnection();
-        final SqlPStatement statement = connection.prepareStatement(
-                "select count(*) from " + EntityUtil.getTableNameWithSchema(stepConfig.getBean()));
+        final String sql = "select count(*) from " + EntityUtil.getTableNameWithSchema(stepConfig.getBean());
+        final SqlPStatement statement;
+        if (range == null) {
+            statement = connection.prepareStatement(sql);
+        } else {
+            statement = connection.prepareStatement(sql + " where " + range.condition());
+            range.setParameters(statement, 1);
+        }
         try {
             final ResultSetIterator rows = statement.executeQuery();
             rows.next();
@@ -201,27 +615,57 @@ public class ValidationBatchlet extends AbstractBatchlet {
     }
 
     /**
-     * 一時テーブルからエラーのレコード情報を削除する。
+     * 一時テーブルからエラーのレコードを取り除く。
+     * <p/>
+     * {@link ValidationStepConfig#getInvalidFlagColumn()}が設定されている場合は、
+     * レコードを削除せずに、そのカラムに{@code '1'}を設定する。
      *
      * @param inputTable 一時テーブル
      * @param errorTable エラーテーブル
      */
-    private static void deleteErrorRecord(final Class<?> inputTable, final Class<?> errorTable) {
+    private void removeErrorRecord(final Class<?> inputTable, final Class<?> errorTable) {
+        final String inputTableName = EntityUtil.getTableNameWithSchema(inputTable);
+        final String errorTableName = EntityUtil.getTableNameWithSchema(errorTable);
+        final String invalidFlagColumn = stepConfig.getInvalidFlagColumn();
+
+        final EtlDialect dialect = EtlDialectResolver.resolve(DbConnectionContext.getTransactionManagerConnection());
+        final String sql;
+        if (invalidFlagColumn == null) {
+            sql = dialect.buildJoinDeleteSql(inputTableName, errorTableName, LINE_NUMBER_COLUMN);
+        } else {
+            sql = dialect.buildJoinUpdateSql(inputTableName, errorTableName, LINE_NUMBER_COLUMN,
+                    invalidFlagColumn + " = '1'");
+        }
         final AppDbConnection connection = DbConnectionContext.getConnection();
-        final SqlPStatement statement = connection.prepareStatement(buildDeleteSql(inputTable, errorTable));
+        final SqlPStatement statement = connection.prepareStatement(sql);
         statement.executeUpdate();
     }
 
     /**
-     * エラーレコードをクリーニングするためのSQL文を構築する。
+     * エラーテーブルの行番号から{@link LineNumberBitmap}を生成し、後続のステップに引き継ぐ。
      *
      * @param inputTable 一時テーブル
      * @param errorTable エラーテーブル
-     * @return SQL文
      */
-    private static String buildDeleteSql(final Class<?> inputTable, final Class<?> errorTable) {
-        return "delete from " + EntityUtil.getTableNameWithSchema(inputTable)
-                + " where line_number in (select line_number from " + EntityUtil.getTableNameWithSchema(errorTable) + ')';
+    private void publishErrorLines(final Class<?> inputTable, final Class<?> errorTable) {
+        final LineNumberBitmap.Builder builder = new LineNumberBitmap.Builder();
+        final SqlPStatement statement = DbConnectionContext.getConnection().prepareStatement(
+                "select " + LINE_NUMBER_COLUMN + " from " + EntityUtil.getTableNameWithSchema(errorTable)
+                        + " order by " + LINE_NUMBER_COLUMN);
+        try {
+            final ResultSetIterator rows = statement.executeQuery();
+            while (rows.next()) {
+                builder.add(rows.getLong(1));
+            }
+        } finally {
+            statement.close();
+        }
+        final LineNumberBitmap bitmap = builder.build();
+        LineNumberBitmapRegistry.publish(jobContext, EntityUtil.getTableNameWithSchema(inputTable), bitmap);
+
+        LOGGER.logInfo(MessageFormat.format(
+                "error line numbers were published. bean class=[{0}], error line count=[{1}], run count=[{2}]",
+                inputTable.getName(), String.valueOf(bitmap.cardinality()), String.valueOf(bitmap.runCount())));
     }
 
     /**
@@ -235,6 +679,19 @@ public class ValidationBatchlet extends AbstractBatchlet {
         verifyRequired(jobName, stepName, "bean", stepConfig.getBean());
         verifyRequired(jobName, stepName, "errorEntity", stepConfig.getErrorEntity());
         verifyRequired(jobName, stepName, "mode", stepConfig.getMode());
+
+        final Integer sliceSize = stepConfig.getSliceSize();
+        if (sliceSize != null && sliceSize <= 0) {
+            throw new InvalidEtlConfigException(String.format(
+                    "sliceSize must be greater than 0. jobId = [%s], stepId = [%s], sliceSize = [%s]",
+                    jobName, stepName, sliceSize));
+        }
+
+        if (stepConfig.getErrorInsertBatchSize() <= 0) {
+            throw new InvalidEtlConfigException(String.format(
+                    "errorInsertBatchSize must be greater than 0. jobId = [%s], stepId = [%s], errorInsertBatchSize = [%s]",
+                    jobName, stepName, stepConfig.getErrorInsertBatchSize()));
+        }
     }
 
     /**
@@ -268,43 +725,15 @@ public class ValidationBatchlet extends AbstractBatchlet {
      *
      * @param item Validationエラーが発生したアイテム
      * @param constraintViolations Validationのエラー内容
-     * @param errorTable エラーテーブルのエンティティクラス
+     * @param errorWriter エラーテーブルへの書き込み
      */
-    private static void onError(
+    private void onError(
             final WorkItem item,
             final Set<ConstraintViolation<WorkItem>> constraintViolations,
-            final Class<?> errorTable) {
-
-        for (ConstraintViolation<WorkItem> violation : constraintViolations) {
-            LOGGER.logWarn(MessageFormat.format(
-                            "validation error has occurred. bean class=[{0}], property name=[{1}], error message=[{2}], line number=[{3}]",
-                            item.getClass()
-                                    .getName(),
-                            violation.getPropertyPath()
-                                    .toString(),
-                            violation.getMessage(),
-                            item.getLineNumber()
-                    )
-            );
+            final ErrorRecordWriter errorWriter) {
 
-        }
-
-        UniversalDao.insert(BeanUtil.createAndCopy(errorTable, item));
-    }
-
-    /**
-     * エラーの許容数を超えたか否か。
-     *
-     * @param stepConfig 設定値
-     * @param validationResult バリデーション結果情報
-     * @return 超えている場合は{@code true}
-     */
-    private static boolean isOverLimit(final ValidationStepConfig stepConfig, final ValidationResult validationResult) {
-        final Integer errorLimitCount = stepConfig.getErrorLimit();
-        if (errorLimitCount == null || errorLimitCount.compareTo(0) < 0) {
-            return false;
-        }
-        return validationResult.getErrorCount() > errorLimitCount;
+        violationLogger.log(item, constraintViolations);
+        errorWriter.write(item);
     }
 
     /**
@@ -326,5 +755,153 @@ public class ValidationBatchlet extends AbstractBatchlet {
             return 1000L;
         }
     }
-}
 
+    /**
+     * 並列でバリデーション中のレコード。
+     */
+    private static final class PendingValidation {
+
+        /** バリデーション対象のレコード */
+        private final WorkItem item;
+
+        /** バリデーションのエラー内容 */
+        private final Future<Set<ConstraintViolation<WorkItem>>> violations;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param item バリデーション対象のレコード
+         * @param violations バリデーションのエラー内容
+         */
+        private PendingValidation(final WorkItem item, final Future<Set<ConstraintViolation<WorkItem>>> violations) {
+            this.item = item;
+            this.violations = violations;
+        }
+    }
+
+    /**
+     * 分割してバリデーションを行う場合に、再実行のために保存する完了した範囲の情報。
+     */
+    static final class RestartPoint implements Serializable {
+
+        /** シリアルバージョンUID */
+        private static final long serialVersionUID = 1L;
+
+        /** 完了した行番号 */
+        private final long lineNumber;
+
+        /** 完了した範囲までにエラーテーブルに登録したエラー数 */
+        private final long errorCount;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param lineNumber 完了した行番号
+         * @param errorCount 完了した範囲までにエラーテーブルに登録したエラー数
+         */
+        RestartPoint(final long lineNumber, final long errorCount) {
+            this.lineNumber = lineNumber;
+            this.errorCount = errorCount;
+        }
+    }
+
+    /**
+     * バリデーションの対象とする行番号の範囲。
+     */
+    private static final class LineNumberRange {
+
+        /** バリデーション済みの行番号(この行番号は範囲に含まない) */
+        private final long from;
+
+        /** 範囲の最大の行番号 */
+        private final long to;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param from バリデーション済みの行番号
+         * @param to 範囲の最大の行番号
+         */
+        private LineNumberRange(final long from, final long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * 範囲の条件を取得する。
+         *
+         * @return 範囲の条件
+         */
+        private String condition() {
+            return LINE_NUMBER_COLUMN + " > ? and " + LINE_NUMBER_COLUMN + " <= ?";
+        }
+
+        /**
+         * 範囲の条件にパラメータを設定する。
+         *
+         * @param statement ステートメント
+         * @param index 最初のパラメータのインデックス
+         */
+        private void setParameters(final SqlPStatement statement, final int index) {
+            statement.setLong(index, from);
+            statement.setLong(index + 1, to);
+        }
+    }
+
+    /**
+     * 行番号の範囲を指定して取得した一時テーブルのレコード。
+     */
+    private static final class WorkItemRows implements Iterable<Object>, Closeable {
+
+        /** 一時テーブルのEntityクラス */
+        private final Class<?> entityClass;
+
+        /** ステートメント */
+        private final SqlPStatement statement;
+
+        /** 検索結果 */
+        private final ResultSetIterator rows;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param entityClass 一時テーブルのEntityクラス
+         * @param range 行番号の範囲
+         */
+        private WorkItemRows(final Class<?> entityClass, final LineNumberRange range) {
+            this.entityClass = entityClass;
+            statement = DbConnectionContext.getConnection().prepareStatement(
+                    "select * from " + EntityUtil.getTableNameWithSchema(entityClass)
+                            + " where " + range.condition());
+            range.setParameters(statement, 1);
+            rows = statement.executeQuery();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            final Iterator<SqlRow> delegate = rows.iterator();
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return EntityUtil.createEntity(entityClass, delegate.next());
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            rows.close();
+            statement.close();
+        }
+    }
+}
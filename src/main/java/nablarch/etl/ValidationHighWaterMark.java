@@ -0,0 +1,126 @@
+package nablarch.etl;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlPStatement;
+
+/**
+ * ワークテーブルごとのバリデーション済みの行番号(ハイウォーターマーク)を管理するクラス。
+ * <p/>
+ * ハイウォーターマークは、以下のカラムを持つ管理テーブルに保持する。
+ * <ul>
+ * <li>TABLE_NAME: ワークテーブル名(主キー)</li>
+ * <li>VALIDATED_LINE_NUMBER: バリデーション済みの最大の行番号</li>
+ * </ul>
+ * ワークテーブルを作り直す場合は、{@link TableCleaningBatchlet}でハイウォーターマークを明示的に削除する。
+ *
+ * @author TIS
+ */
+final class ValidationHighWaterMark {
+
+    /** 管理テーブル名 */
+    private final String controlTable;
+
+    /** ワークテーブル名 */
+    private final String workTable;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param controlTable 管理テーブル名
+     * @param workTable ワークテーブル名
+     */
+    ValidationHighWaterMark(final String controlTable, final String workTable) {
+        this.controlTable = controlTable;
+        this.workTable = workTable;
+    }
+
+    /**
+     * バリデーション済みの行番号を取得する。
+     *
+     * @return バリデーション済みの行番号。管理テーブルに登録されていない場合は0
+     */
+    long find() {
+        final AppDbConnection connection = DbConnectionContext.getConnection();
+        final SqlPStatement statement = connection.prepareStatement(
+                "select VALIDATED_LINE_NUMBER from " + controlTable + " where TABLE_NAME = ?");
+        try {
+            statement.setString(1, workTable);
+            final ResultSetIterator rows = statement.executeQuery();
+            if (!rows.next()) {
+                return 0L;
+            }
+            return rows.getLong(1);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * バリデーション済みの行番号を保存する。
+     *
+     * @param lineNumber バリデーション済みの行番号
+     */
+    void save(final long lineNumber) {
+        final AppDbConnection connection = DbConnectionContext.getConnection();
+        final SqlPStatement update = connection.prepareStatement(
+                "update " + controlTable + " set VALIDATED_LINE_NUMBER = ? where TABLE_NAME = ?");
+        try {
+            update.setLong(1, lineNumber);
+            update.setString(2, workTable);
+            if (update.executeUpdate() != 0) {
+                return;
+            }
+        } finally {
+            update.close();
+        }
+
+        final SqlPStatement insert = connection.prepareStatement(
+                "insert into " + controlTable + " (TABLE_NAME, VALIDATED_LINE_NUMBER) values (?, ?)");
+        try {
+            insert.setString(1, workTable);
+            insert.setLong(2, lineNumber);
+            insert.executeUpdate();
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * バリデーション済みの行番号を削除する。
+     * <p/>
+     * 削除後は、ワークテーブルの全ての行がバリデーションの対象となる。
+     */
+    void reset() {
+        final AppDbConnection connection = DbConnectionContext.getConnection();
+        final SqlPStatement delete = connection.prepareStatement(
+                "delete from " + controlTable + " where TABLE_NAME = ?");
+        try {
+            delete.setString(1, workTable);
+            delete.executeUpdate();
+        } finally {
+            delete.close();
+        }
+    }
+
+    /**
+     * テーブルの最大の行番号を取得する。
+     *
+     * @param tableName テーブル名
+     * @return 最大の行番号。レコードが存在しない場合は0
+     */
+    static long findMaxLineNumber(final String tableName) {
+        final AppDbConnection connection = DbConnectionContext.getConnection();
+        final SqlPStatement statement = connection.prepareStatement(
+                "select max(LINE_NUMBER) from " + tableName);
+        try {
+            final ResultSetIterator rows = statement.executeQuery();
+            rows.next();
+            final Long maxLineNumber = rows.getLong(1);
+            return maxLineNumber != null ? maxLineNumber : 0L;
+        } finally {
+            statement.close();
+        }
+    }
+}
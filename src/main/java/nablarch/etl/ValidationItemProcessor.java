@@ -0,0 +1,114 @@
+package nablarch.etl;
+
+import java.util.Set;
+
+import javax.batch.api.chunk.ItemProcessor;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import nablarch.core.validation.ee.ValidatorUtil;
+import nablarch.etl.config.EtlConfig;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.etl.config.StepConfig;
+
+/**
+ * FILEtoDBステップで、入力ファイルから読み込んだデータをバリデーションする{@link ItemProcessor}実装クラス。
+ * <p/>
+ * {@link FileToDbStepConfig#getBean()}のバリデーションルールに従いバリデーションを実施し、
+ * エラーがないデータのみを後続の{@link javax.batch.api.chunk.ItemWriter}に渡す。
+ * エラーが発生したデータは、{@link FileToDbStepConfig#getErrorEntity()}に対応するエラーテーブルに登録し、
+ * エラーの詳細はワーニングレベルでログ出力を行う。
+ * エラーテーブルへの登録は、{@link ValidationStepListener}がチャンクごとにまとめて、チャンクのトランザクションで行う。
+ * <p/>
+ * 本クラスを使用することで、ワークテーブルへの登録時にバリデーションを行うため、
+ * {@link ValidationBatchlet}によるワークテーブルの再読み込みとエラーのレコードの削除が不要となる。
+ * <p/>
+ * 本クラスを使用するステップには、{@link ValidationStepListener}をステップリスナとして設定すること。
+ * バリデーション結果に応じたステップの終了処理は{@link ValidationStepListener}で行う。
+ * また、エラーテーブルのクリーニングは行わないため、事前のtruncateステップでクリーニングすること。
+ * <p/>
+ * 許容するエラー数({@link FileToDbStepConfig#getErrorLimit()})を超えた場合には、
+ * {@link EtlJobAbortedException}を送出し即ジョブをアボートする。
+ *
+ * @author TIS
+ */
+@Named
+@Dependent
+public class ValidationItemProcessor implements ItemProcessor {
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
+    /** ETLの設定 */
+    private final FileToDbStepConfig stepConfig;
+
+    /** バリデータ */
+    private Validator validator;
+
+    /** エラー内容をログに出力する{@link ViolationLogger} */
+    private final ViolationLogger violationLogger = new ViolationLogger(null);
+
+    /**
+     * コンストラクタ。
+     *
+     * @param stepContext {@link StepContext}
+     * @param stepConfig ステップの設定
+     */
+    @Inject
+    public ValidationItemProcessor(
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig) {
+        this.stepContext = stepContext;
+        this.stepConfig = (FileToDbStepConfig) stepConfig;
+    }
+
+    /**
+     * データのバリデーションを行う。
+     *
+     * @param item 入力ファイルから読み込んだデータ
+     * @return エラーがない場合は入力データ、エラーがある場合は{@code null}
+     */
+    @Override
+    public Object processItem(final Object item) throws Exception {
+        final ValidationResult validationResult = getValidationResult();
+        if (validator == null) {
+            validator = ValidatorUtil.getValidator();
+        }
+
+        final WorkItem workItem = (WorkItem) item;
+        final Set<ConstraintViolation<WorkItem>> constraintViolations = validator.validate(workItem);
+        validationResult.incrementCount();
+        if (constraintViolations.isEmpty()) {
+            return item;
+        }
+
+        validationResult.addErrorCount(constraintViolations.size());
+        violationLogger.log(workItem, constraintViolations);
+        validationResult.getErrorRecordWriter().write(workItem);
+
+        if (validationResult.isOverLimit(stepConfig.getErrorLimit())) {
+            throw new EtlJobAbortedException("number of validation errors has exceeded the maximum number of errors."
+                    + " bean class=[" + stepConfig.getBean().getName() + ']');
+        }
+        return null;
+    }
+
+    /**
+     * {@link ValidationStepListener}が保持するバリデーション結果を取得する。
+     *
+     * @return バリデーション結果
+     */
+    private ValidationResult getValidationResult() {
+        final Object transientUserData = stepContext.getTransientUserData();
+        if (!(transientUserData instanceof ValidationResult)
+                || ((ValidationResult) transientUserData).getErrorRecordWriter() == null) {
+            throw new IllegalStateException(
+                    "validation result was not found. please set ValidationStepListener to the step listener.");
+        }
+        return (ValidationResult) transientUserData;
+    }
+}
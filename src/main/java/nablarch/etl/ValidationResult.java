@@ -13,6 +13,9 @@ class ValidationResult {
     /** エラー数 */
     private long errorCount;
 
+    /** エラーとなったレコードをエラーテーブルに登録する{@link ErrorRecordWriter} */
+    private ErrorRecordWriter errorRecordWriter;
+
     /**
      * 行数をインクリメントする。
      */
@@ -20,12 +23,21 @@ class ValidationResult {
         lineCount++;
     }
 
+    /**
+     * 行数を加算する。
+     *
+     * @param count 加算する行数
+     */
+    void addLineCount(final long count) {
+        lineCount += count;
+    }
+
     /**
      * エラー数をインクリメントする。
      *
      * @param count 加算するエラー数
      */
-    void addErrorCount(final int count) {
+    void addErrorCount(final long count) {
         errorCount += count;
     }
 
@@ -47,6 +59,39 @@ class ValidationResult {
         return lineCount;
     }
 
+    /**
+     * エラー数が許容するエラー数を超えたか否か。
+     * <p/>
+     * 許容するエラー数が設定されていない場合やマイナス値の場合は、常に{@code false}を返す。
+     *
+     * @param errorLimit 許容するエラー数
+     * @return 超えている場合は{@code true}
+     */
+    boolean isOverLimit(final Integer errorLimit) {
+        if (errorLimit == null || errorLimit.compareTo(0) < 0) {
+            return false;
+        }
+        return errorCount > errorLimit;
+    }
+
+    /**
+     * エラーとなったレコードをエラーテーブルに登録する{@link ErrorRecordWriter}を取得する。
+     *
+     * @return {@link ErrorRecordWriter}。設定されていない場合は{@code null}
+     */
+    ErrorRecordWriter getErrorRecordWriter() {
+        return errorRecordWriter;
+    }
+
+    /**
+     * エラーとなったレコードをエラーテーブルに登録する{@link ErrorRecordWriter}を設定する。
+     *
+     * @param errorRecordWriter {@link ErrorRecordWriter}
+     */
+    void setErrorRecordWriter(final ErrorRecordWriter errorRecordWriter) {
+        this.errorRecordWriter = errorRecordWriter;
+    }
+
     /**
      * エラーの有無を取得する。
      *
@@ -0,0 +1,193 @@
+package nablarch.etl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import nablarch.common.dao.ColumnMeta;
+import nablarch.common.dao.EntityUtil;
+import nablarch.core.util.StringUtil;
+import nablarch.core.validation.ee.Domain;
+import nablarch.core.validation.ee.Length;
+import nablarch.core.validation.ee.Required;
+import nablarch.etl.dialect.EtlDialect;
+
+/**
+ * バリデーションをSQLで行うための計画を立てるクラス。
+ * <p/>
+ * Beanに設定された制約をBean Validationのメタデータから取得し、
+ * 全ての制約がSQLの条件に変換できる場合のみ、
+ * 制約に違反するレコードをエラーテーブルに登録するINSERT文を生成する。
+ * <p/>
+ * SQLの条件に変換できる制約は以下の通り。
+ * <ul>
+ * <li>{@link NotNull}</li>
+ * <li>{@link Required}(文字列のプロパティのみ)</li>
+ * <li>{@link Size}、{@link Length}(文字列のプロパティで、ダイアレクトが文字列の長さを取得する関数を提供する場合のみ)</li>
+ * <li>{@link Max}、{@link Min}(整数型と{@link BigDecimal}のプロパティのみ)</li>
+ * <li>{@link Domain}(ドメインに設定された制約が全て変換できる場合のみ)</li>
+ * </ul>
+ * クラスに設定された制約やネストしたBeanのバリデーション、グループを指定した制約がある場合は変換できない。
+ * 制約のメタデータは{@link ConstraintMetaDataWalker}でたどる。
+ * <p/>
+ * 各制約はnullに対して真偽が確定する条件に変換するため、
+ * 生成したINSERT文は、いずれかの制約に違反するレコードのみを登録する。
+ *
+ * @author TIS
+ */
+final class ValidationSqlPlanner {
+
+    /** バリデータ */
+    private final Validator validator;
+
+    /** 制約のメタデータをたどる{@link ConstraintMetaDataWalker} */
+    private final ConstraintMetaDataWalker walker;
+
+    /** ダイアレクト */
+    private final EtlDialect dialect;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param validator バリデータ
+     * @param dialect ダイアレクト
+     */
+    ValidationSqlPlanner(final Validator validator, final EtlDialect dialect) {
+        this.validator = validator;
+        this.dialect = dialect;
+        walker = new ConstraintMetaDataWalker(validator);
+    }
+
+    /**
+     * 制約に違反するレコードをエラーテーブルに登録するINSERT文を生成する。
+     *
+     * @param bean ワークテーブルのEntityクラス
+     * @param errorEntity エラーテーブルのEntityクラス
+     * @return INSERT文。SQLの条件に変換できない制約がある場合は{@code null}
+     */
+    String plan(final Class<?> bean, final Class<?> errorEntity) {
+        final BeanDescriptor beanDescriptor = validator.getConstraintsForClass(bean);
+        if (!beanDescriptor.getConstraintDescriptors().isEmpty()) {
+            return null;
+        }
+
+        final Map<String, String> columnNames = new HashMap<String, String>();
+        for (ColumnMeta column : EntityUtil.findAllColumns(bean)) {
+            columnNames.put(column.getPropertyName(), column.getName());
+        }
+
+        final List<String> predicates = new ArrayList<String>();
+        for (PropertyDescriptor property : beanDescriptor.getConstrainedProperties()) {
+            final String columnName = columnNames.get(property.getPropertyName());
+            if (columnName == null || property.isCascaded()) {
+                return null;
+            }
+            if (!walker.walk(property.getElementClass(), property.getConstraintDescriptors(),
+                    new PredicateBuilder(predicates, columnName))) {
+                return null;
+            }
+        }
+        if (predicates.isEmpty()) {
+            predicates.add("1 = 1");
+        }
+
+        final String columns = StringUtil.join(",", EtlUtil.getAllColumns(EntityUtil.getTableName(errorEntity)));
+        return "insert into " + EntityUtil.getTableNameWithSchema(errorEntity) + " (" + columns + ")"
+                + " select " + columns + " from " + EntityUtil.getTableNameWithSchema(bean)
+                + " where not (" + StringUtil.join(" and ", predicates) + ')';
+    }
+
+    /**
+     * 文字列の長さの制約を条件に変換する。
+     *
+     * @param column カラム名
+     * @param min 最小の長さ
+     * @param max 最大の長さ
+     * @param allowEmpty 空文字列を許容する場合は{@code true}
+     * @return 条件。ダイアレクトが文字列の長さを取得する関数を提供しない場合は{@code null}
+     */
+    private String lengthPredicate(final String column, final int min, final int max, final boolean allowEmpty) {
+        final String lengthFunction = dialect.getLengthFunction();
+        if (lengthFunction == null) {
+            return null;
+        }
+        final StringBuilder predicate = new StringBuilder();
+        predicate.append('(')
+                 .append(column)
+                 .append(" is null or ");
+        if (allowEmpty && !dialect.supports(EtlDialect.Feature.EMPTY_STRING_IS_NULL)) {
+            predicate.append(column)
+                     .append(" = '' or ");
+        }
+        predicate.append(lengthFunction)
+                 .append('(')
+                 .append(column)
+                 .append(") between ")
+                 .append(min)
+                 .append(" and ")
+                 .append(max)
+                 .append(')');
+        return predicate.toString();
+    }
+
+    /**
+     * 制約をSQLの条件に変換して追加する{@link ConstraintMetaDataWalker.Visitor}。
+     */
+    private final class PredicateBuilder implements ConstraintMetaDataWalker.Visitor {
+
+        /** 条件の追加先 */
+        private final List<String> predicates;
+
+        /** カラム名 */
+        private final String column;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param predicates 条件の追加先
+         * @param column カラム名
+         */
+        private PredicateBuilder(final List<String> predicates, final String column) {
+            this.predicates = predicates;
+            this.column = column;
+        }
+
+        @Override
+        public boolean notNull() {
+            return predicates.add(column + " is not null");
+        }
+
+        @Override
+        public boolean required() {
+            return predicates.add(dialect.supports(EtlDialect.Feature.EMPTY_STRING_IS_NULL)
+                    ? column + " is not null"
+                    : '(' + column + " is not null and " + column + " <> '')");
+        }
+
+        @Override
+        public boolean length(final int min, final int max, final boolean allowEmpty) {
+            final String predicate = lengthPredicate(column, min, max, allowEmpty);
+            return predicate != null && predicates.add(predicate);
+        }
+
+        @Override
+        public boolean max(final long value) {
+            return predicates.add('(' + column + " is null or " + column + " <= " + value + ')');
+        }
+
+        @Override
+        public boolean min(final long value) {
+            return predicates.add('(' + column + " is null or " + column + " >= " + value + ')');
+        }
+    }
+}
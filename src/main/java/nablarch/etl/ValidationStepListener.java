@@ -0,0 +1,192 @@
+package nablarch.etl;
+
+import static nablarch.etl.EtlUtil.verifyRequired;
+
+import java.text.MessageFormat;
+import java.util.List;
+
+import javax.batch.api.chunk.listener.ChunkListener;
+import javax.batch.api.chunk.listener.ItemWriteListener;
+import javax.batch.api.listener.AbstractStepListener;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.log.basic.LogLevel;
+import nablarch.core.log.operation.OperationLogger;
+import nablarch.core.message.MessageLevel;
+import nablarch.core.message.MessageUtil;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.etl.config.EtlConfig;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.etl.config.StepConfig;
+import nablarch.etl.config.ValidationStepConfig.Mode;
+
+/**
+ * {@link ValidationItemProcessor}によるバリデーション結果を管理する{@link javax.batch.api.listener.StepListener}実装クラス。
+ * <p/>
+ * ステップの開始時に設定値の検証を行い、バリデーション結果を{@link StepContext#setTransientUserData(Object)}に設定する。
+ * <p/>
+ * {@link ValidationItemProcessor}がバッファに保持したエラーのレコードは、
+ * チャンクの書き込み前({@link ItemWriteListener#beforeWrite(List)})にエラーテーブルに一括登録する。
+ * 書き込むデータがないチャンク(全てのデータがエラーのチャンク)の場合は、アイテムライタのリスナによるコミットが行われないため、
+ * チャンクの終了時({@link ChunkListener#afterChunk()})に登録し、トランザクションをコミットする。
+ * チャンクでエラーが発生した場合は、登録待ちのレコードを破棄する。
+ * このため、本クラスはステップリスナとして設定するだけで、チャンクリスナとアイテムライトリスナとしても動作する。
+ * <p/>
+ * ステップの終了時にバリデーション結果をログに出力し、エラーがある場合は{@link FileToDbStepConfig#getMode()}に応じて、
+ * {@link Mode#CONTINUE}の場合は終了ステータスを"WARNING"に設定し、
+ * {@link Mode#ABORT}の場合は{@link EtlJobAbortedException}を送出する。
+ *
+ * @author TIS
+ */
+@Named
+@Dependent
+public class ValidationStepListener extends AbstractStepListener implements ChunkListener, ItemWriteListener {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** {@link JobContext} */
+    private final JobContext jobContext;
+
+    /** {@link StepContext} */
+    private final StepContext stepContext;
+
+    /** ETLの設定 */
+    private final FileToDbStepConfig stepConfig;
+
+    /** チャンクでデータを書き込んだか否か */
+    private boolean chunkWritten;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param jobContext {@link JobContext}
+     * @param stepContext {@link StepContext}
+     * @param stepConfig ステップの設定
+     */
+    @Inject
+    public ValidationStepListener(
+            final JobContext jobContext,
+            final StepContext stepContext,
+            @EtlConfig final StepConfig stepConfig) {
+        this.jobContext = jobContext;
+        this.stepContext = stepContext;
+        this.stepConfig = (FileToDbStepConfig) stepConfig;
+    }
+
+    @Override
+    public void beforeStep() throws Exception {
+        final String jobName = jobContext.getJobName();
+        final String stepName = stepContext.getStepName();
+
+        verifyRequired(jobName, stepName, "bean", stepConfig.getBean());
+        verifyRequired(jobName, stepName, "errorEntity", stepConfig.getErrorEntity());
+        verifyRequired(jobName, stepName, "mode", stepConfig.getMode());
+        if (stepConfig.getErrorInsertBatchSize() <= 0) {
+            throw new InvalidEtlConfigException(String.format(
+                    "errorInsertBatchSize must be greater than 0. jobId = [%s], stepId = [%s], errorInsertBatchSize = [%s]",
+                    jobName, stepName, stepConfig.getErrorInsertBatchSize()));
+        }
+
+        final ValidationResult validationResult = new ValidationResult();
+        validationResult.setErrorRecordWriter(new ErrorRecordWriter(
+                stepConfig.getBean(), stepConfig.getErrorEntity(), stepConfig.getErrorInsertBatchSize()));
+        stepContext.setTransientUserData(validationResult);
+    }
+
+    @Override
+    public void beforeChunk() throws Exception {
+        chunkWritten = false;
+    }
+
+    @Override
+    public void beforeWrite(final List<Object> items) throws Exception {
+        chunkWritten = true;
+        flushErrorRecords();
+    }
+
+    @Override
+    public void afterWrite(final List<Object> items) throws Exception {
+        // nop
+    }
+
+    @Override
+    public void onWriteError(final List<Object> items, final Exception ex) throws Exception {
+        discardErrorRecords();
+    }
+
+    @Override
+    public void afterChunk() throws Exception {
+        flushErrorRecords();
+        if (!chunkWritten) {
+            TransactionContext.getTransaction().commit();
+        }
+    }
+
+    @Override
+    public void onError(final Exception ex) throws Exception {
+        discardErrorRecords();
+    }
+
+    /**
+     * 登録待ちのエラーのレコードをエラーテーブルに登録する。
+     */
+    private void flushErrorRecords() {
+        final ErrorRecordWriter errorRecordWriter = getErrorRecordWriter();
+        if (errorRecordWriter != null) {
+            errorRecordWriter.flush();
+        }
+    }
+
+    /**
+     * 登録待ちのエラーのレコードを破棄する。
+     */
+    private void discardErrorRecords() {
+        final ErrorRecordWriter errorRecordWriter = getErrorRecordWriter();
+        if (errorRecordWriter != null) {
+            errorRecordWriter.discard();
+        }
+    }
+
+    /**
+     * バリデーション結果が保持する{@link ErrorRecordWriter}を取得する。
+     *
+     * @return {@link ErrorRecordWriter}。バリデーション結果が設定されていない場合は{@code null}
+     */
+    private ErrorRecordWriter getErrorRecordWriter() {
+        final Object transientUserData = stepContext.getTransientUserData();
+        if (!(transientUserData instanceof ValidationResult)) {
+            return null;
+        }
+        return ((ValidationResult) transientUserData).getErrorRecordWriter();
+    }
+
+    @Override
+    public void afterStep() throws Exception {
+        final ValidationResult validationResult = (ValidationResult) stepContext.getTransientUserData();
+
+        LOGGER.logInfo(MessageFormat.format(
+                "validation result. bean class=[{0}], line count=[{1}], error count=[{2}]",
+                stepConfig.getBean().getName(), validationResult.getLineCount(), validationResult.getErrorCount()));
+
+        if (!validationResult.hasError()) {
+            return;
+        }
+        OperationLogger.write(LogLevel.ERROR,
+                MessageUtil.createMessage(MessageLevel.ERROR, "nablarch.etl.validation-error").formatMessage());
+        if (stepConfig.getMode() == Mode.CONTINUE) {
+            jobContext.setExitStatus("WARNING");
+        } else {
+            throw new EtlJobAbortedException(
+                    "abort the JOB because there was a validation error."
+                            + " bean class=[" + stepConfig.getBean().getName() + "],"
+                            + " error count=[" + validationResult.getErrorCount() + ']');
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package nablarch.etl;
+
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.validation.ConstraintViolation;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * バリデーションのエラー内容をログに出力するクラス。
+ * <p/>
+ * プロパティごとのログ出力数の上限が設定されている場合は、上限までのエラーのみ詳細をログに出力し、
+ * 以降のエラーはプロパティとエラーメッセージごとに件数を集計する。
+ * 集計結果は{@link #logSummary(Class)}でまとめてログに出力する。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author TIS
+ */
+final class ViolationLogger {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get("etl");
+
+    /** ログ出力数に上限がないことを表す値 */
+    private static final int UNLIMITED = -1;
+
+    /** プロパティごとのログ出力数の上限 */
+    private final int limitPerProperty;
+
+    /** プロパティごとのログ出力数 */
+    private final Map<String, Integer> loggedCounts = new HashMap<String, Integer>();
+
+    /** プロパティとエラーメッセージごとのエラー数 */
+    private final Map<String, Map<String, Long>> histogram = new TreeMap<String, Map<String, Long>>();
+
+    /** ログ出力を抑止したエラー数 */
+    private long suppressedCount;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param limitPerProperty プロパティごとのログ出力数の上限({@code null}やマイナス値の場合は上限なし)
+     */
+    ViolationLogger(final Integer limitPerProperty) {
+        this.limitPerProperty = limitPerProperty == null || limitPerProperty < 0 ? UNLIMITED : limitPerProperty;
+    }
+
+    /**
+     * 1レコードのバリデーションのエラー内容をワーニングレベルでログに出力する。
+     *
+     * @param item バリデーションエラーが発生したアイテム
+     * @param constraintViolations バリデーションのエラー内容
+     */
+    void log(final WorkItem item, final Set<? extends ConstraintViolation<?>> constraintViolations) {
+        for (ConstraintViolation<?> violation : constraintViolations) {
+            final String propertyName = violation.getPropertyPath()
+                                                 .toString();
+            if (limitPerProperty == UNLIMITED) {
+                write(item, propertyName, violation.getMessage());
+                continue;
+            }
+
+            countUp(propertyName, violation.getMessage());
+            final Integer loggedCount = loggedCounts.get(propertyName);
+            final int count = loggedCount == null ? 0 : loggedCount;
+            if (count < limitPerProperty) {
+                loggedCounts.put(propertyName, count + 1);
+                write(item, propertyName, violation.getMessage());
+            } else {
+                suppressedCount++;
+            }
+        }
+    }
+
+    /**
+     * プロパティとエラーメッセージごとのエラー数をログに出力する。
+     * <p/>
+     * ログ出力数の上限が設定されていない場合やエラーがない場合は、何も出力しない。
+     *
+     * @param beanClass バリデーションを行ったBeanクラス
+     */
+    void logSummary(final Class<?> beanClass) {
+        if (histogram.isEmpty() || !LOGGER.isWarnEnabled()) {
+            return;
+        }
+        for (Map.Entry<String, Map<String, Long>> property : histogram.entrySet()) {
+            for (Map.Entry<String, Long> message : property.getValue().entrySet()) {
+                LOGGER.logWarn(MessageFormat.format(
+                        "validation error summary. bean class=[{0}], property name=[{1}], error message=[{2}], count=[{3}]",
+                        beanClass.getName(), property.getKey(), message.getKey(), String.valueOf(message.getValue())));
+            }
+        }
+        LOGGER.logWarn("validation error summary. bean class=[" + beanClass.getName() + "],"
+                + " suppressed count=[" + suppressedCount + ']');
+    }
+
+    /**
+     * プロパティとエラーメッセージごとのエラー数を加算する。
+     *
+     * @param propertyName プロパティ名
+     * @param message エラーメッセージ
+     */
+    private void countUp(final String propertyName, final String message) {
+        Map<String, Long> messages = histogram.get(propertyName);
+        if (messages == null) {
+            messages = new TreeMap<String, Long>();
+            histogram.put(propertyName, messages);
+        }
+        final Long count = messages.get(message);
+        messages.put(message, count == null ? 1L : count + 1L);
+    }
+
+    /**
+     * エラーの詳細をログに出力する。
+     * <p/>
+     * ワーニングレベルのログが無効な場合は、メッセージの組み立ても行わない。
+     *
+     * @param item バリデーションエラーが発生したアイテム
+     * @param propertyName プロパティ名
+     * @param message エラーメッセージ
+     */
+    private static void write(final WorkItem item, final String propertyName, final String message) {
+        if (!LOGGER.isWarnEnabled()) {
+            return;
+        }
+        LOGGER.logWarn(MessageFormat.format(
+                        "validation error has occurred. bean class=[{0}], property name=[{1}], error message=[{2}], line number=[{3}]",
+                        item.getClass()
+                                .getName(),
+                        propertyName,
+                        message,
+                        item.getLineNumber()
+                )
+        );
+    }
+}
@@ -0,0 +1,405 @@
+package nablarch.etl;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import nablarch.core.validation.ee.Domain;
+import nablarch.core.validation.ee.Length;
+import nablarch.core.validation.ee.Required;
+
+/**
+ * ワークテーブルのEntityのバリデーションを行うクラス。
+ * <p/>
+ * {@link #compile(Validator, Class)}で生成した場合は、ステップの開始時にBeanの制約のメタデータから
+ * プロパティごとの判定処理を組み立て、レコードごとのバリデーションではBean Validationを経由せずに判定する。
+ * 判定処理を組み立てられる制約は以下の通り。
+ * <ul>
+ * <li>{@link NotNull}</li>
+ * <li>{@link Required}(文字列のプロパティのみ)</li>
+ * <li>{@link Size}、{@link Length}(文字列のプロパティのみ)</li>
+ * <li>{@link Max}、{@link Min}(整数型と{@link BigDecimal}のプロパティのみ)</li>
+ * <li>{@link Domain}(ドメインに設定された制約が全て組み立てられる場合のみ)</li>
+ * </ul>
+ * 制約のメタデータは{@link ConstraintMetaDataWalker}でたどる。
+ * 組み立てられない制約を持つプロパティは{@link Validator#validateProperty(Object, String, Class[])}でバリデーションする。
+ * クラスに設定された制約やネストしたBeanのバリデーションがある場合は、{@link Validator#validate(Object, Class[])}でバリデーションする。
+ * <p/>
+ * 判定処理でエラーとなったプロパティは、{@link Validator#validateProperty(Object, String, Class[])}で再度バリデーションを行い、
+ * その結果をエラー内容とする。このため、エラーメッセージは{@link Validator}でバリデーションした場合と同じとなる。
+ * <p/>
+ * 本クラスのインスタンスはスレッドセーフである。
+ *
+ * @author TIS
+ */
+final class WorkItemValidator {
+
+    /** {@link NotNull}の判定処理 */
+    private static final Check NOT_NULL = new Check() {
+        @Override
+        public boolean isValid(final Object value) {
+            return value != null;
+        }
+    };
+
+    /** {@link Required}の判定処理 */
+    private static final Check REQUIRED = new Check() {
+        @Override
+        public boolean isValid(final Object value) {
+            return value != null && ((String) value).length() != 0;
+        }
+    };
+
+    /** バリデータ */
+    private final Validator validator;
+
+    /** 判定処理を組み立てたプロパティ({@code null}の場合は全て{@link Validator}でバリデーションする) */
+    private final CompiledProperty[] compiledProperties;
+
+    /** {@link Validator}でバリデーションするプロパティ */
+    private final String[] fallbackProperties;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param validator バリデータ
+     * @param compiledProperties 判定処理を組み立てたプロパティ
+     * @param fallbackProperties {@link Validator}でバリデーションするプロパティ
+     */
+    private WorkItemValidator(final Validator validator, final CompiledProperty[] compiledProperties,
+            final String[] fallbackProperties) {
+        this.validator = validator;
+        this.compiledProperties = compiledProperties;
+        this.fallbackProperties = fallbackProperties;
+    }
+
+    /**
+     * {@link Validator}でバリデーションを行う{@link WorkItemValidator}を生成する。
+     *
+     * @param validator バリデータ
+     * @return {@link WorkItemValidator}
+     */
+    static WorkItemValidator standard(final Validator validator) {
+        return new WorkItemValidator(validator, null, null);
+    }
+
+    /**
+     * Beanの制約のメタデータからプロパティごとの判定処理を組み立てた{@link WorkItemValidator}を生成する。
+     *
+     * @param validator バリデータ
+     * @param bean ワークテーブルのEntityクラス
+     * @return {@link WorkItemValidator}
+     */
+    static WorkItemValidator compile(final Validator validator, final Class<?> bean) {
+        final BeanDescriptor beanDescriptor = validator.getConstraintsForClass(bean);
+        if (!beanDescriptor.getConstraintDescriptors().isEmpty()) {
+            return standard(validator);
+        }
+
+        final ConstraintMetaDataWalker walker = new ConstraintMetaDataWalker(validator);
+        final Map<String, Method> getters = findGetters(bean);
+        final List<CompiledProperty> compiled = new ArrayList<CompiledProperty>();
+        final List<String> fallback = new ArrayList<String>();
+        for (PropertyDescriptor property : beanDescriptor.getConstrainedProperties()) {
+            if (property.isCascaded()) {
+                return standard(validator);
+            }
+            final String propertyName = property.getPropertyName();
+            final Method getter = getters.get(propertyName);
+            final List<Check> checks = new ArrayList<Check>();
+            if (getter != null && walker.walk(property.getElementClass(),
+                    property.getConstraintDescriptors(), new CheckBuilder(checks))) {
+                compiled.add(new CompiledProperty(propertyName, getter, checks.toArray(new Check[checks.size()])));
+            } else {
+                fallback.add(propertyName);
+            }
+        }
+        return new WorkItemValidator(validator,
+                compiled.toArray(new CompiledProperty[compiled.size()]),
+                fallback.toArray(new String[fallback.size()]));
+    }
+
+    /**
+     * バリデーションを行う。
+     *
+     * @param item ワークテーブルのEntity
+     * @return バリデーションのエラー内容
+     */
+    Set<ConstraintViolation<WorkItem>> validate(final WorkItem item) {
+        if (compiledProperties == null) {
+            return validator.validate(item);
+        }
+
+        Set<ConstraintViolation<WorkItem>> violations = null;
+        for (CompiledProperty property : compiledProperties) {
+            if (!property.isValid(item)) {
+                violations = addViolations(violations, validator.validateProperty(item, property.name));
+            }
+        }
+        for (String propertyName : fallbackProperties) {
+            final Set<ConstraintViolation<WorkItem>> result = validator.validateProperty(item, propertyName);
+            if (!result.isEmpty()) {
+                violations = addViolations(violations, result);
+            }
+        }
+        return violations == null ? Collections.<ConstraintViolation<WorkItem>>emptySet() : violations;
+    }
+
+    /**
+     * バリデーションのエラー内容を追加する。
+     *
+     * @param violations 追加先のエラー内容({@code null}の場合は生成する)
+     * @param result 追加するエラー内容
+     * @return 追加後のエラー内容
+     */
+    private static Set<ConstraintViolation<WorkItem>> addViolations(
+            final Set<ConstraintViolation<WorkItem>> violations, final Set<ConstraintViolation<WorkItem>> result) {
+        final Set<ConstraintViolation<WorkItem>> set =
+                violations == null ? new HashSet<ConstraintViolation<WorkItem>>() : violations;
+        set.addAll(result);
+        return set;
+    }
+
+    /**
+     * Beanのプロパティ名とgetterの対応を取得する。
+     *
+     * @param bean Beanクラス
+     * @return プロパティ名とgetterの対応
+     */
+    private static Map<String, Method> findGetters(final Class<?> bean) {
+        final BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(bean);
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("failed to introspect the bean. bean class=[" + bean.getName() + ']', e);
+        }
+        final Map<String, Method> getters = new HashMap<String, Method>();
+        for (java.beans.PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            final Method getter = descriptor.getReadMethod();
+            if (getter != null) {
+                getter.setAccessible(true);
+                getters.put(descriptor.getName(), getter);
+            }
+        }
+        return getters;
+    }
+
+    /**
+     * 制約を判定処理に変換して追加する{@link ConstraintMetaDataWalker.Visitor}。
+     */
+    private static final class CheckBuilder implements ConstraintMetaDataWalker.Visitor {
+
+        /** 判定処理の追加先 */
+        private final List<Check> checks;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param checks 判定処理の追加先
+         */
+        private CheckBuilder(final List<Check> checks) {
+            this.checks = checks;
+        }
+
+        @Override
+        public boolean notNull() {
+            return checks.add(NOT_NULL);
+        }
+
+        @Override
+        public boolean required() {
+            return checks.add(REQUIRED);
+        }
+
+        @Override
+        public boolean length(final int min, final int max, final boolean allowEmpty) {
+            return checks.add(new LengthCheck(min, max, allowEmpty));
+        }
+
+        @Override
+        public boolean max(final long value) {
+            return checks.add(new RangeCheck(BigDecimal.valueOf(value), true));
+        }
+
+        @Override
+        public boolean min(final long value) {
+            return checks.add(new RangeCheck(BigDecimal.valueOf(value), false));
+        }
+    }
+
+    /**
+     * 判定処理を組み立てたプロパティ。
+     */
+    private static final class CompiledProperty {
+
+        /** プロパティ名 */
+        private final String name;
+
+        /** getter */
+        private final Method getter;
+
+        /** 判定処理 */
+        private final Check[] checks;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param name プロパティ名
+         * @param getter getter
+         * @param checks 判定処理
+         */
+        private CompiledProperty(final String name, final Method getter, final Check[] checks) {
+            this.name = name;
+            this.getter = getter;
+            this.checks = checks;
+        }
+
+        /**
+         * プロパティの値が全ての判定処理を満たすか否か。
+         *
+         * @param item ワークテーブルのEntity
+         * @return 満たす場合は{@code true}
+         */
+        private boolean isValid(final WorkItem item) {
+            final Object value;
+            try {
+                value = getter.invoke(item);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            for (Check check : checks) {
+                if (!check.isValid(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * プロパティの値の判定処理。
+     * <p/>
+     * 判定処理でエラーとなった場合は{@link Validator}で再度バリデーションを行うため、
+     * 判定処理は{@link Validator}でエラーとなる値を必ずエラーとすること。
+     */
+    private interface Check {
+
+        /**
+         * 値が制約を満たすか否か。
+         *
+         * @param value 値
+         * @return 満たす場合は{@code true}
+         */
+        boolean isValid(Object value);
+    }
+
+    /**
+     * 文字列の長さの判定処理。
+     * <p/>
+     * 長さの数え方に関わらず{@link Validator}と同じ判定となるように、
+     * UTF-16の文字数とコードポイント数の両方が範囲内の場合のみ制約を満たすとする。
+     */
+    private static final class LengthCheck implements Check {
+
+        /** 最小の長さ */
+        private final int min;
+
+        /** 最大の長さ */
+        private final int max;
+
+        /** 空文字列を許容するか否か */
+        private final boolean allowEmpty;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param min 最小の長さ
+         * @param max 最大の長さ
+         * @param allowEmpty 空文字列を許容する場合は{@code true}
+         */
+        private LengthCheck(final int min, final int max, final boolean allowEmpty) {
+            this.min = min;
+            this.max = max;
+            this.allowEmpty = allowEmpty;
+        }
+
+        @Override
+        public boolean isValid(final Object value) {
+            if (value == null) {
+                return true;
+            }
+            final String str = (String) value;
+            final int length = str.length();
+            if (allowEmpty && length == 0) {
+                return true;
+            }
+            if (length < min || length > max) {
+                return false;
+            }
+            final int codePointCount = str.codePointCount(0, length);
+            return codePointCount >= min && codePointCount <= max;
+        }
+    }
+
+    /**
+     * 数値の範囲の判定処理。
+     */
+    private static final class RangeCheck implements Check {
+
+        /** 境界値 */
+        private final BigDecimal limit;
+
+        /** 境界値が最大値か否か */
+        private final boolean isMax;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param limit 境界値
+         * @param isMax 境界値が最大値の場合は{@code true}
+         */
+        private RangeCheck(final BigDecimal limit, final boolean isMax) {
+            this.limit = limit;
+            this.isMax = isMax;
+        }
+
+        @Override
+        public boolean isValid(final Object value) {
+            if (value == null) {
+                return true;
+            }
+            final BigDecimal number;
+            if (value instanceof BigDecimal) {
+                number = (BigDecimal) value;
+            } else if (value instanceof BigInteger) {
+                number = new BigDecimal((BigInteger) value);
+            } else {
+                number = BigDecimal.valueOf(((Number) value).longValue());
+            }
+            final int compared = number.compareTo(limit);
+            return isMax ? compared <= 0 : compared >= 0;
+        }
+    }
+}
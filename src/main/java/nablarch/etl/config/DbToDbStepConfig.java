@@ -7,6 +7,7 @@ import nablarch.core.repository.SystemRepository;
 import nablarch.core.util.annotation.Published;
 import nablarch.etl.generator.InsertSqlGenerator;
 import nablarch.etl.generator.OracleDirectPathInsertSqlGenerator;
+import nablarch.etl.generator.OracleParallelDirectPathInsertSqlGenerator;
 
 /**
  * DBtoDBステップの設定を保持するクラス。
@@ -33,6 +34,24 @@ public class DbToDbStepConfig extends DbInputStepConfig {
     /** INSERTモード */
     private InsertMode insertMode = InsertMode.NORMAL;
 
+    /** パラレルDMLの並列度 */
+    private Integer parallelDegree;
+
+    /** 登録先のテーブルをNOLOGGINGに変更するか否か */
+    private boolean noLogging;
+
+    /** 入力元のデータベース接続を取得する{@link nablarch.core.db.connection.ConnectionFactory}のコンポーネント名 */
+    private String sourceConnectionFactory;
+
+    /** 入力元のデータベースからデータを移送する際のコミット間隔 */
+    private int commitInterval = 1000;
+
+    /** 入力元のデータベースから読み込んだデータを保持するキューのサイズ */
+    private int queueSize = 1000;
+
+    /** 入力元のデータベースのデータ件数を事前に数えるか否か */
+    private boolean countSource;
+
     /**
      * MERGEのON句に指定するカラム名を取得する。
      *
@@ -87,6 +106,134 @@ public class DbToDbStepConfig extends DbInputStepConfig {
         this.insertMode = insertMode;
     }
 
+    /**
+     * パラレルDMLの並列度を取得する。
+     * <p/>
+     * {@link InsertMode#ORACLE_PARALLEL_DIRECT}の場合のみ使用する。
+     * 設定されていない場合は、データベースのデフォルトの並列度となる。
+     *
+     * @return パラレルDMLの並列度
+     */
+    public Integer getParallelDegree() {
+        return parallelDegree;
+    }
+
+    /**
+     * パラレルDMLの並列度を設定する。
+     *
+     * @param parallelDegree パラレルDMLの並列度
+     */
+    public void setParallelDegree(final Integer parallelDegree) {
+        this.parallelDegree = parallelDegree;
+    }
+
+    /**
+     * 登録先のテーブルをNOLOGGINGに変更するか否か。
+     * <p/>
+     * {@link InsertMode#ORACLE_PARALLEL_DIRECT}の場合のみ使用する。
+     * NOLOGGINGで登録したデータはREDOログから復旧できないため、
+     * 再作成が可能なワークテーブルに対してのみ指定すること。
+     * 登録処理の終了後は、処理の成否に関わらずLOGGINGに戻す。
+     *
+     * @return NOLOGGINGに変更する場合は{@code true}
+     */
+    public boolean isNoLogging() {
+        return noLogging;
+    }
+
+    /**
+     * 登録先のテーブルをNOLOGGINGに変更するか否かを設定する。
+     *
+     * @param noLogging NOLOGGINGに変更する場合は{@code true}
+     */
+    public void setNoLogging(final boolean noLogging) {
+        this.noLogging = noLogging;
+    }
+
+    /**
+     * 入力元のデータベース接続を取得する{@link nablarch.core.db.connection.ConnectionFactory}のコンポーネント名を取得する。
+     * <p/>
+     * 設定されている場合は、SQL_IDに対応するSQL文を入力元のデータベースで実行し、
+     * その結果を本ステップのデータベースに移送する。
+     *
+     * @return コンポーネント名
+     */
+    public String getSourceConnectionFactory() {
+        return sourceConnectionFactory;
+    }
+
+    /**
+     * 入力元のデータベース接続を取得する{@link nablarch.core.db.connection.ConnectionFactory}のコンポーネント名を設定する。
+     *
+     * @param sourceConnectionFactory コンポーネント名
+     */
+    public void setSourceConnectionFactory(final String sourceConnectionFactory) {
+        this.sourceConnectionFactory = sourceConnectionFactory;
+    }
+
+    /**
+     * 入力元のデータベースからデータを移送する際のコミット間隔を取得する。
+     *
+     * @return コミット間隔
+     */
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+
+    /**
+     * 入力元のデータベースからデータを移送する際のコミット間隔を設定する。
+     * <p/>
+     * デフォルトは1000。
+     *
+     * @param commitInterval コミット間隔
+     */
+    public void setCommitInterval(final int commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * 入力元のデータベースから読み込んだデータを保持するキューのサイズを取得する。
+     *
+     * @return キューのサイズ
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * 入力元のデータベースから読み込んだデータを保持するキューのサイズを設定する。
+     * <p/>
+     * デフォルトは1000。
+     *
+     * @param queueSize キューのサイズ
+     */
+    public void setQueueSize(final int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * 入力元のデータベースのデータ件数を事前に数えるか否か。
+     *
+     * @return 事前に数える場合は{@code true}
+     */
+    public boolean isCountSource() {
+        return countSource;
+    }
+
+    /**
+     * 入力元のデータベースのデータ件数を事前に数えるか否かを設定する。
+     * <p/>
+     * 数える場合は、移送の前に入力元のSQL文を件数の取得のためにもう一度実行し、
+     * 進捗ログに残り件数と終了予測時間を出力する。
+     * 数えない場合は、進捗ログに登録件数のみを出力する。
+     * デフォルトは{@code false}。
+     *
+     * @param countSource 事前に数える場合は{@code true}
+     */
+    public void setCountSource(final boolean countSource) {
+        this.countSource = countSource;
+    }
+
     /**
      * 初期化を行う。
      */
@@ -193,13 +340,25 @@ public class DbToDbStepConfig extends DbInputStepConfig {
             public InsertSqlGenerator getInsertSqlGenerator() {
                 return new OracleDirectPathInsertSqlGenerator();
             }
+        },
+        /** Oracleのパラレルダイレクトパスインサートモード */
+        ORACLE_PARALLEL_DIRECT {
+            @Override
+            public InsertSqlGenerator getInsertSqlGenerator() {
+                return new OracleParallelDirectPathInsertSqlGenerator();
+            }
         };
 
         /**
          * INSERT文を生成する{@link InsertSqlGenerator}を取得する。
+         * <p/>
+         * 接続先のデータベースがINSERTモードをサポートしているか否かを検証しないため、
+         * {@link nablarch.etl.dialect.EtlDialect#createInsertSqlGenerator(InsertMode)}を使用すること。
          *
          * @return INSERT文のGenerator
+         * @deprecated {@link nablarch.etl.dialect.EtlDialect#createInsertSqlGenerator(InsertMode)}を使用すること。
          */
+        @Deprecated
         public abstract InsertSqlGenerator getInsertSqlGenerator();
     }
 }
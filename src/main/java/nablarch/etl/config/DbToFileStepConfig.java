@@ -13,6 +13,39 @@ public class DbToFileStepConfig extends DbInputStepConfig {
     /** ファイル名 */
     private String fileName;
 
+    /** ファイルに書き込む際のバッファのサイズ */
+    private int bufferSize = 1024 * 1024;
+
+    /** チェックポイントごとにストレージに同期するか否か */
+    private boolean syncOnCheckpoint;
+
+    /** 1ファイルに出力する最大のレコード数 */
+    private Long maxRecordsPerFile;
+
+    /** 1ファイルに出力する最大のバイト数 */
+    private Long maxBytesPerFile;
+
+    /** 出力したファイルの一覧を出力するマニフェストファイル名 */
+    private String manifestFileName;
+
+    /** ファイルがgzip形式か否か */
+    private Boolean gzip;
+
+    /** gzip形式で出力する際に並列に圧縮するスレッド数 */
+    private Integer compressionThreads;
+
+    /** gzip形式で出力する際に1つのメンバーとして圧縮するブロックのサイズ */
+    private int compressionBlockSize = 128 * 1024;
+
+    /** パーティションの数 */
+    private Integer partitions;
+
+    /** パーティションに分割するLINE_NUMBERの範囲を取得するEntity */
+    private Class<?> partitionEntity;
+
+    /** パーティションごとのファイルを結合せずに残すか否か */
+    private boolean keepPartitionFiles;
+
     /**
      * ファイル名を取得する。
      * @return ファイル名
@@ -23,12 +56,244 @@ public class DbToFileStepConfig extends DbInputStepConfig {
 
     /**
      * ファイル名を設定する。
+     * <p/>
+     * 出力ファイルを分割する場合は、{@link String#format(String, Object...)}の書式で
+     * 連番(1から始まる)を埋め込むパターンを指定する。(例: {@code output_%03d.csv})
      * @param fileName ファイル名
      */
     public void setFileName(String fileName) {
         this.fileName = fileName;
     }
 
+    /**
+     * ファイルに書き込む際のバッファのサイズを取得する。
+     * @return バッファのサイズ(バイト)
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * ファイルに書き込む際のバッファのサイズを設定する。
+     * <p/>
+     * デフォルトは1MB。
+     * @param bufferSize バッファのサイズ(バイト)
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * チェックポイントごとにストレージに同期するか否か。
+     * @return 同期する場合は{@code true}
+     */
+    public boolean isSyncOnCheckpoint() {
+        return syncOnCheckpoint;
+    }
+
+    /**
+     * チェックポイントごとにストレージに同期するか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合は、チェックポイントごとに{@link java.nio.channels.FileChannel#force(boolean)}を呼び出す。
+     * デフォルトは{@code false}。
+     * @param syncOnCheckpoint 同期する場合は{@code true}
+     */
+    public void setSyncOnCheckpoint(boolean syncOnCheckpoint) {
+        this.syncOnCheckpoint = syncOnCheckpoint;
+    }
+
+    /**
+     * 1ファイルに出力する最大のレコード数を取得する。
+     * @return 最大のレコード数
+     */
+    public Long getMaxRecordsPerFile() {
+        return maxRecordsPerFile;
+    }
+
+    /**
+     * 1ファイルに出力する最大のレコード数を設定する。
+     * <p/>
+     * 設定した場合は、レコード数がこの値を超える前に次のファイルに切り替える。
+     * @param maxRecordsPerFile 最大のレコード数
+     * @see #setFileName(String)
+     */
+    public void setMaxRecordsPerFile(Long maxRecordsPerFile) {
+        this.maxRecordsPerFile = maxRecordsPerFile;
+    }
+
+    /**
+     * 1ファイルに出力する最大のバイト数を取得する。
+     * @return 最大のバイト数
+     */
+    public Long getMaxBytesPerFile() {
+        return maxBytesPerFile;
+    }
+
+    /**
+     * 1ファイルに出力する最大のバイト数を設定する。
+     * <p/>
+     * 設定した場合は、ファイルのサイズがこの値を超える前に次のファイルに切り替える。
+     * ただし、1レコードでこの値を超える場合は、そのレコードのみを1つのファイルに出力する。
+     * gzip形式で出力する場合は、圧縮前のバイト数で判定する。
+     * @param maxBytesPerFile 最大のバイト数
+     * @see #setFileName(String)
+     */
+    public void setMaxBytesPerFile(Long maxBytesPerFile) {
+        this.maxBytesPerFile = maxBytesPerFile;
+    }
+
+    /**
+     * 出力ファイルを分割するか否か。
+     * @return 最大のレコード数または最大のバイト数が設定されている場合は{@code true}
+     */
+    public boolean isRolling() {
+        return maxRecordsPerFile != null || maxBytesPerFile != null;
+    }
+
+    /**
+     * 出力したファイルの一覧を出力するマニフェストファイル名を取得する。
+     * @return マニフェストファイル名
+     */
+    public String getManifestFileName() {
+        return manifestFileName;
+    }
+
+    /**
+     * 出力したファイルの一覧を出力するマニフェストファイル名を設定する。
+     * <p/>
+     * 設定した場合は、全てのファイルの出力が完了した後に、
+     * 出力したファイルごとに「ファイル名,レコード数,MD5のチェックサム」の行をこのファイルに出力する。
+     * @param manifestFileName マニフェストファイル名
+     */
+    public void setManifestFileName(String manifestFileName) {
+        this.manifestFileName = manifestFileName;
+    }
+
+    /**
+     * 出力ファイルがgzip形式か否かの設定を取得する。
+     * @return gzip形式か否かの設定
+     */
+    public Boolean getGzip() {
+        return gzip;
+    }
+
+    /**
+     * 出力ファイルがgzip形式か否かを設定する。
+     * <p/>
+     * 設定されていない場合は、ファイル名の拡張子が{@code .gz}の場合にgzip形式とする。
+     * @param gzip gzip形式の場合は{@code true}
+     */
+    public void setGzip(Boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * 出力ファイルがgzip形式か否か。
+     * @return gzip形式の場合は{@code true}
+     */
+    public boolean isGzipped() {
+        if (gzip != null) {
+            return gzip;
+        }
+        return fileName != null && fileName.endsWith(".gz");
+    }
+
+    /**
+     * gzip形式で出力する際に並列に圧縮するスレッド数を取得する。
+     * @return スレッド数
+     */
+    public Integer getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    /**
+     * gzip形式で出力する際に並列に圧縮するスレッド数を設定する。
+     * <p/>
+     * 設定されていない場合は、利用可能なプロセッサ数とする。
+     * @param compressionThreads スレッド数
+     */
+    public void setCompressionThreads(Integer compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
+
+    /**
+     * gzip形式で出力する際に1つのメンバーとして圧縮するブロックのサイズを取得する。
+     * @return ブロックのサイズ(バイト)
+     */
+    public int getCompressionBlockSize() {
+        return compressionBlockSize;
+    }
+
+    /**
+     * gzip形式で出力する際に1つのメンバーとして圧縮するブロックのサイズを設定する。
+     * <p/>
+     * デフォルトは128KB。ブロックごとに独立したgzipのメンバーとして並列に圧縮する。
+     * チェックポイントの位置を確定するためチャンクの終わりでもブロックを区切るため、
+     * 並列に圧縮するには、チャンクのデータのサイズをブロックのサイズより十分に大きくすること。
+     * @param compressionBlockSize ブロックのサイズ(バイト)
+     */
+    public void setCompressionBlockSize(int compressionBlockSize) {
+        this.compressionBlockSize = compressionBlockSize;
+    }
+
+    /**
+     * パーティションの数を取得する。
+     * @return パーティションの数
+     */
+    public Integer getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * パーティションの数を設定する。
+     * <p/>
+     * {@link nablarch.etl.LineNumberPartitionMapper}は、LINE_NUMBERの範囲をこの数に分割して並列に出力する。
+     * パーティションを使用する場合は、ファイルの分割とマニフェストファイルは使用できない。
+     * @param partitions パーティションの数
+     */
+    public void setPartitions(Integer partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * パーティションに分割するLINE_NUMBERの範囲を取得するEntityを取得する。
+     * @return パーティションに分割するLINE_NUMBERの範囲を取得するEntity
+     */
+    public Class<?> getPartitionEntity() {
+        return partitionEntity;
+    }
+
+    /**
+     * パーティションに分割するLINE_NUMBERの範囲を取得するEntityを設定する。
+     * <p/>
+     * パーティションを使用する場合は必須。
+     * {@link nablarch.etl.LineNumberPartitionMapper}は、このEntityに対応するテーブル(SELECT文の読み込み元のワークテーブル)の
+     * LINE_NUMBERの最小値と最大値を取得する。テーブルにはLINE_NUMBERカラムが存在すること。
+     * @param partitionEntity パーティションに分割するLINE_NUMBERの範囲を取得するEntity
+     */
+    public void setPartitionEntity(Class<?> partitionEntity) {
+        this.partitionEntity = partitionEntity;
+    }
+
+    /**
+     * パーティションごとのファイルを結合せずに残すか否か。
+     * @return 結合せずに残す場合は{@code true}
+     */
+    public boolean isKeepPartitionFiles() {
+        return keepPartitionFiles;
+    }
+
+    /**
+     * パーティションごとのファイルを結合せずに残すか否かを設定する。
+     * <p/>
+     * デフォルトは{@code false}で、{@link nablarch.etl.PartitionedFileReducer}が
+     * パーティションの順にファイルを結合して出力ファイルを作成する。
+     * @param keepPartitionFiles 結合せずに残す場合は{@code true}
+     */
+    public void setKeepPartitionFiles(boolean keepPartitionFiles) {
+        this.keepPartitionFiles = keepPartitionFiles;
+    }
+
     /**
      * 初期化を行う。
      */
@@ -1,6 +1,7 @@
 package nablarch.etl.config;
 
 import nablarch.core.repository.SystemRepository;
+import nablarch.etl.SchemaMetaDataCache;
 
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
@@ -15,6 +16,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * デフォルトのロード処理を変更したい場合は、{@link EtlConfigLoader}の実装クラスを
  * "etlConfigLoader"という名前でコンポーネント定義に設定して行う。
  * 設定のロードは、JVMごとに1度しか行わない。
+ * <p/>
+ * {@link SchemaMetaDataCache}が有効な場合は、ロードした設定に含まれるEntityを、カラム情報をまとめて取得する対象として登録する。
+ * 設定のロード時にはデータベースにアクセスしない。
  *
  * @author Kiyohito Itoh
  */
@@ -43,6 +47,7 @@ public final class EtlConfigProvider {
             if (jobConfig == null) {
                 jobConfig = getLoader().load(jobContext);
                 jobConfig.initialize();
+                SchemaMetaDataCache.register(jobConfig);
                 LOADED_ETL_CONFIG.put(jobContext.getJobName(), jobConfig);
             }
         }
@@ -1,10 +1,14 @@
 package nablarch.etl.config;
 
 import nablarch.core.util.annotation.Published;
+import nablarch.etl.config.ValidationStepConfig.Mode;
 
 /**
  * FILEtoDBステップの設定を保持するクラス。
- * 
+ * <p/>
+ * エラーテーブルのEntity、モード、許容するエラー数は、
+ * {@link nablarch.etl.ValidationItemProcessor}でバリデーションを行う場合のみ使用する。
+ *
  * @author Kiyohito Itoh
  */
 @Published(tag = "architect")
@@ -16,6 +20,27 @@ public class FileToDbStepConfig extends StepConfig {
     /** ファイル名 */
     private String fileName;
 
+    /** ファイルがgzip形式か否か */
+    private Boolean gzip;
+
+    /** バイト列のまま項目に分割する高速な読み込みを行うか否か */
+    private boolean fastParsing;
+
+    /** パーティションの数 */
+    private Integer partitions;
+
+    /** エラーテーブルのEntityクラス */
+    private Class<?> errorEntity;
+
+    /** モード */
+    private Mode mode = Mode.ABORT;
+
+    /** 許容するエラー数 */
+    private Integer errorLimit;
+
+    /** エラーテーブルに一括登録するレコード数 */
+    private int errorInsertBatchSize = 1000;
+
     /**
      * Beanクラスを取得する。
      * @return Beanクラス
@@ -48,6 +73,142 @@ public class FileToDbStepConfig extends StepConfig {
         this.fileName = fileName;
     }
 
+    /**
+     * 入力ファイルがgzip形式か否かの設定を取得する。
+     * @return gzip形式か否かの設定
+     */
+    public Boolean getGzip() {
+        return gzip;
+    }
+
+    /**
+     * 入力ファイルがgzip形式か否かを設定する。
+     * <p/>
+     * 設定されていない場合は、ファイル名の拡張子が{@code .gz}の場合にgzip形式とする。
+     * @param gzip gzip形式の場合は{@code true}
+     */
+    public void setGzip(Boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * 入力ファイルがgzip形式か否か。
+     * @return gzip形式の場合は{@code true}
+     */
+    public boolean isGzipped() {
+        if (gzip != null) {
+            return gzip;
+        }
+        return fileName != null && fileName.endsWith(".gz");
+    }
+
+    /**
+     * バイト列のまま項目に分割する高速な読み込みを行うか否か。
+     * @return 高速な読み込みを行う場合は{@code true}
+     */
+    public boolean isFastParsing() {
+        return fastParsing;
+    }
+
+    /**
+     * バイト列のまま項目に分割する高速な読み込みを行うか否かを設定する。
+     * <p/>
+     * 高速な読み込みに対応していないBeanの場合は、この設定に関わらず通常の読み込みを行う。
+     * デフォルト値は{@code false}。
+     * @param fastParsing 高速な読み込みを行う場合は{@code true}
+     */
+    public void setFastParsing(boolean fastParsing) {
+        this.fastParsing = fastParsing;
+    }
+
+    /**
+     * パーティションの数を取得する。
+     * @return パーティションの数
+     */
+    public Integer getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * パーティションの数を設定する。
+     * <p/>
+     * {@link nablarch.etl.FixedLengthPartitionMapper}は、固定長ファイルのレコードをこの数に分割して並列に読み込む。
+     * @param partitions パーティションの数
+     */
+    public void setPartitions(Integer partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * エラーテーブルのEntityクラスを取得する。
+     * @return エラーテーブルのEntityクラス
+     */
+    public Class<?> getErrorEntity() {
+        return errorEntity;
+    }
+
+    /**
+     * エラーテーブルのEntityクラスを設定する。
+     * @param errorEntity エラーテーブルのEntityクラス
+     */
+    public void setErrorEntity(Class<?> errorEntity) {
+        this.errorEntity = errorEntity;
+    }
+
+    /**
+     * Validationエラー発生時の処理継続モードを取得する。
+     * @return 処理継続モード
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Validationエラー発生時の処理継続モードを設定する。
+     * <p/>
+     * デフォルト値は、アボート。
+     * @param mode 処理継続モード
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * 許容するエラー数を取得する。
+     * @return 許容するエラー数
+     */
+    public Integer getErrorLimit() {
+        return errorLimit;
+    }
+
+    /**
+     * 許容するエラー数を設定する。
+     * @param errorLimit 許容するエラー数
+     */
+    public void setErrorLimit(Integer errorLimit) {
+        this.errorLimit = errorLimit;
+    }
+
+    /**
+     * エラーテーブルに一括登録するレコード数を取得する。
+     * @return エラーテーブルに一括登録するレコード数
+     */
+    public int getErrorInsertBatchSize() {
+        return errorInsertBatchSize;
+    }
+
+    /**
+     * エラーテーブルに一括登録するレコード数を設定する。
+     * <p/>
+     * チャンク内のエラーのレコードがこの件数に達した場合は、チャンクの途中でも登録する。
+     * デフォルトは1000。
+     *
+     * @param errorInsertBatchSize エラーテーブルに一括登録するレコード数
+     */
+    public void setErrorInsertBatchSize(int errorInsertBatchSize) {
+        this.errorInsertBatchSize = errorInsertBatchSize;
+    }
+
     /**
      * 初期化を行う。
      */
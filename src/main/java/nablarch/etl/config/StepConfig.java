@@ -1,6 +1,10 @@
 package nablarch.etl.config;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import nablarch.core.util.annotation.Published;
+import nablarch.etl.SchemaMetaDataCache;
 
 /**
  * ステップの設定をサポートするクラス。
@@ -13,6 +17,12 @@ public abstract class StepConfig {
     /** ステップID */
     private String stepId;
 
+    /** 生成済みのSQL文。キーはSQL文を生成したジェネレータのクラス名 */
+    private final Map<String, String> generatedSql = new ConcurrentHashMap<String, String>();
+
+    /** SQL文を生成した時点の{@link SchemaMetaDataCache#getGeneration()} */
+    private volatile long schemaGeneration = SchemaMetaDataCache.getGeneration();
+
     /**
      * ステップIDを取得する。
      * @return ステップID
@@ -31,11 +41,52 @@ public abstract class StepConfig {
 
     /**
      * 設定値から初期化を行う。
+     * <p/>
+     * 生成済みのSQL文は破棄する。
      */
     public final void initialize() {
+        generatedSql.clear();
         onInitialize();
     }
 
+    /**
+     * 本ステップ向けに生成済みのSQL文を取得する。
+     * <p/>
+     * SQL文の生成後に{@link SchemaMetaDataCache}のキャッシュが破棄された場合は、生成済みのSQL文を破棄して{@code null}を返す。
+     *
+     * @param generatorName SQL文を生成したジェネレータの名前
+     * @return 生成済みのSQL文。生成されていない場合は{@code null}
+     */
+    public String getGeneratedSql(final String generatorName) {
+        discardIfSchemaChanged();
+        return generatedSql.get(generatorName);
+    }
+
+    /**
+     * 本ステップ向けに生成したSQL文を保持する。
+     * <p/>
+     * 保持したSQL文は、次に{@link #initialize()}が呼び出されるか、
+     * {@link SchemaMetaDataCache}のキャッシュが破棄されるまで再利用される。
+     *
+     * @param generatorName SQL文を生成したジェネレータの名前
+     * @param sql 生成したSQL文
+     */
+    public void putGeneratedSql(final String generatorName, final String sql) {
+        discardIfSchemaChanged();
+        generatedSql.put(generatorName, sql);
+    }
+
+    /**
+     * SQL文の生成後に{@link SchemaMetaDataCache}のキャッシュが破棄された場合は、生成済みのSQL文を破棄する。
+     */
+    private void discardIfSchemaChanged() {
+        final long current = SchemaMetaDataCache.getGeneration();
+        if (schemaGeneration != current) {
+            generatedSql.clear();
+            schemaGeneration = current;
+        }
+    }
+
     /**
      * 設定値から初期化を行う。
      */
@@ -15,6 +15,15 @@ public class TruncateStepConfig extends StepConfig {
     /** truncate対象のEntityのリスト */
     private List<Class<?>> entities;
 
+    /** 並列でtruncateを行う際の多重度 */
+    private Integer parallelism;
+
+    /** データが存在しないテーブルのtruncateをスキップするか否か */
+    private boolean skipEmptyTable;
+
+    /** 差分バリデーションでバリデーション済みの行番号を管理するテーブル名 */
+    private String incrementalControlTable;
+
     /**
      * 初期処理では特に何も行わない。
      */
@@ -40,4 +49,64 @@ public class TruncateStepConfig extends StepConfig {
     public void setEntities(final List<Class<?>> entities) {
         this.entities = entities;
     }
+
+    /**
+     * 並列でtruncateを行う際の多重度を取得する。
+     *
+     * @return 多重度
+     */
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 並列でtruncateを行う際の多重度を設定する。
+     * <p/>
+     * 未設定または1以下の場合は、Entityリストの順に1つずつtruncateを行う。
+     *
+     * @param parallelism 多重度
+     */
+    public void setParallelism(final Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * データが存在しないテーブルのtruncateをスキップするか否かを取得する。
+     *
+     * @return スキップする場合は{@code true}
+     */
+    public boolean isSkipEmptyTable() {
+        return skipEmptyTable;
+    }
+
+    /**
+     * データが存在しないテーブルのtruncateをスキップするか否かを設定する。
+     *
+     * @param skipEmptyTable スキップする場合は{@code true}
+     */
+    public void setSkipEmptyTable(final boolean skipEmptyTable) {
+        this.skipEmptyTable = skipEmptyTable;
+    }
+
+    /**
+     * 差分バリデーションでバリデーション済みの行番号を管理するテーブル名を取得する。
+     *
+     * @return テーブル名
+     */
+    public String getIncrementalControlTable() {
+        return incrementalControlTable;
+    }
+
+    /**
+     * 差分バリデーションでバリデーション済みの行番号を管理するテーブル名を設定する。
+     * <p/>
+     * 設定した場合は、truncate対象のテーブルのバリデーション済みの行番号をこのテーブルから削除し、
+     * 次回のバリデーションで全ての行をバリデーションさせる。
+     * {@link ValidationStepConfig#getIncrementalControlTable()}と同じテーブルを指定すること。
+     *
+     * @param incrementalControlTable テーブル名
+     */
+    public void setIncrementalControlTable(final String incrementalControlTable) {
+        this.incrementalControlTable = incrementalControlTable;
+    }
 }
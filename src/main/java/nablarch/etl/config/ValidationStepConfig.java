@@ -29,6 +29,33 @@ public class ValidationStepConfig extends DbInputStepConfig {
     /** 許容するエラー数 */
     private Integer errorLimit;
 
+    /** バリデーションの並列数 */
+    private Integer parallelism;
+
+    /** エラーテーブルに一括登録するレコード数 */
+    private int errorInsertBatchSize = 1000;
+
+    /** バリデーションをSQLで行うか否か */
+    private boolean sqlPushdown;
+
+    /** エラーを示すフラグを設定するワークテーブルのカラム名 */
+    private String invalidFlagColumn;
+
+    /** エラーの行番号を後続のステップに引き継ぐか否か */
+    private boolean publishErrorLines;
+
+    /** バリデーションを分割して行う行番号の範囲のサイズ */
+    private Integer sliceSize;
+
+    /** 制約のメタデータから組み立てた判定処理でバリデーションを行うか否か */
+    private boolean compiledValidation;
+
+    /** プロパティごとにエラーの詳細をログに出力する件数の上限 */
+    private Integer violationLogLimit;
+
+    /** 差分バリデーションでバリデーション済みの行番号を管理するテーブル名 */
+    private String incrementalControlTable;
+
     /**
      * 初期化処理では特に何もしない
      */
@@ -90,6 +117,206 @@ public class ValidationStepConfig extends DbInputStepConfig {
         this.errorLimit = errorLimit;
     }
 
+    /**
+     * バリデーションの並列数を取得する。
+     *
+     * @return バリデーションの並列数
+     */
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * バリデーションの並列数を設定する。
+     * <p/>
+     * 2以上を設定した場合は、複数のスレッドで並列にバリデーションを行う。
+     * 設定されていない場合や1以下の場合は、ステップのスレッドでバリデーションを行う。
+     *
+     * @param parallelism バリデーションの並列数
+     */
+    public void setParallelism(final Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * エラーテーブルに一括登録するレコード数を取得する。
+     *
+     * @return エラーテーブルに一括登録するレコード数
+     */
+    public int getErrorInsertBatchSize() {
+        return errorInsertBatchSize;
+    }
+
+    /**
+     * エラーテーブルに一括登録するレコード数を設定する。
+     * <p/>
+     * デフォルトは1000。
+     *
+     * @param errorInsertBatchSize エラーテーブルに一括登録するレコード数
+     */
+    public void setErrorInsertBatchSize(final int errorInsertBatchSize) {
+        this.errorInsertBatchSize = errorInsertBatchSize;
+    }
+
+    /**
+     * バリデーションをSQLで行うか否か。
+     *
+     * @return SQLで行う場合は{@code true}
+     */
+    public boolean isSqlPushdown() {
+        return sqlPushdown;
+    }
+
+    /**
+     * バリデーションをSQLで行うか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、Beanの全ての制約がSQLの条件に変換できる場合のみ、
+     * 制約に違反するレコードをSQLで一括してエラーテーブルに登録する。
+     * 変換できない制約がある場合は、Javaでバリデーションを行う。
+     *
+     * @param sqlPushdown SQLで行う場合は{@code true}
+     */
+    public void setSqlPushdown(final boolean sqlPushdown) {
+        this.sqlPushdown = sqlPushdown;
+    }
+
+    /**
+     * エラーを示すフラグを設定するワークテーブルのカラム名を取得する。
+     *
+     * @return カラム名
+     */
+    public String getInvalidFlagColumn() {
+        return invalidFlagColumn;
+    }
+
+    /**
+     * エラーを示すフラグを設定するワークテーブルのカラム名を設定する。
+     * <p/>
+     * 設定した場合は、エラーとなったレコードをワークテーブルから削除せずに、このカラムに{@code '1'}を設定する。
+     * 後続のステップでは、このカラムでエラーとなったレコードを除外するSQLを使用すること。
+     *
+     * @param invalidFlagColumn カラム名
+     */
+    public void setInvalidFlagColumn(final String invalidFlagColumn) {
+        this.invalidFlagColumn = invalidFlagColumn;
+    }
+
+    /**
+     * エラーの行番号を後続のステップに引き継ぐか否か。
+     *
+     * @return 引き継ぐ場合は{@code true}
+     */
+    public boolean isPublishErrorLines() {
+        return publishErrorLines;
+    }
+
+    /**
+     * エラーの行番号を後続のステップに引き継ぐか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、エラーテーブルの行番号をジョブの一時データに保持する。
+     * 後続のステップでは、全ての行がエラーとなる範囲の更新をスキップし、
+     * {@link nablarch.etl.DatabaseItemReader}はエラーの行を読み飛ばす。
+     * エラーのレコードを削除せずにフラグを設定する場合({@link #getInvalidFlagColumn()})に有効である。
+     *
+     * @param publishErrorLines 引き継ぐ場合は{@code true}
+     */
+    public void setPublishErrorLines(final boolean publishErrorLines) {
+        this.publishErrorLines = publishErrorLines;
+    }
+
+    /**
+     * バリデーションを分割して行う行番号の範囲のサイズを取得する。
+     *
+     * @return 範囲のサイズ
+     */
+    public Integer getSliceSize() {
+        return sliceSize;
+    }
+
+    /**
+     * バリデーションを分割して行う行番号の範囲のサイズを設定する。
+     * <p/>
+     * 設定した場合は、行番号の範囲をこのサイズごとに分割してバリデーションを行い、範囲ごとにコミットする。
+     * ジョブを再実行した場合は、前回の実行で完了した範囲の次からバリデーションを再開する。
+     * 設定されていない場合は、全てのレコードを1つのトランザクションでバリデーションする。
+     *
+     * @param sliceSize 範囲のサイズ
+     */
+    public void setSliceSize(final Integer sliceSize) {
+        this.sliceSize = sliceSize;
+    }
+
+    /**
+     * 制約のメタデータから組み立てた判定処理でバリデーションを行うか否か。
+     *
+     * @return 判定処理でバリデーションを行う場合は{@code true}
+     */
+    public boolean isCompiledValidation() {
+        return compiledValidation;
+    }
+
+    /**
+     * 制約のメタデータから組み立てた判定処理でバリデーションを行うか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、ステップの開始時にBeanの制約からプロパティごとの判定処理を組み立て、
+     * レコードごとのバリデーションではBean Validationを経由せずに判定する。
+     * 判定処理を組み立てられない制約は、Bean Validationでバリデーションを行う。
+     * エラーとなったプロパティはBean Validationで再度バリデーションを行うため、エラー内容は変わらない。
+     *
+     * @param compiledValidation 判定処理でバリデーションを行う場合は{@code true}
+     */
+    public void setCompiledValidation(final boolean compiledValidation) {
+        this.compiledValidation = compiledValidation;
+    }
+
+    /**
+     * プロパティごとにエラーの詳細をログに出力する件数の上限を取得する。
+     *
+     * @return 件数の上限
+     */
+    public Integer getViolationLogLimit() {
+        return violationLogLimit;
+    }
+
+    /**
+     * プロパティごとにエラーの詳細をログに出力する件数の上限を設定する。
+     * <p/>
+     * 設定した場合は、上限を超えたエラーの詳細はログに出力せずに、
+     * プロパティとエラーメッセージごとの件数をバリデーションの終了時にまとめて出力する。
+     * 設定されていない場合やマイナス値の場合は、全てのエラーの詳細を出力する。
+     *
+     * @param violationLogLimit 件数の上限
+     */
+    public void setViolationLogLimit(final Integer violationLogLimit) {
+        this.violationLogLimit = violationLogLimit;
+    }
+
+    /**
+     * 差分バリデーションでバリデーション済みの行番号を管理するテーブル名を取得する。
+     *
+     * @return テーブル名
+     */
+    public String getIncrementalControlTable() {
+        return incrementalControlTable;
+    }
+
+    /**
+     * 差分バリデーションでバリデーション済みの行番号を管理するテーブル名を設定する。
+     * <p/>
+     * 設定した場合は、ワークテーブルごとにバリデーション済みの最大の行番号をこのテーブルに保持し、
+     * 次回以降はその行番号より後の行のみをバリデーションする。エラーテーブルのレコードはクリーニングせずに保持する。
+     * このテーブルには、TABLE_NAME(ワークテーブル名、主キー)とVALIDATED_LINE_NUMBER(行番号)のカラムが必要となる。
+     * <p/>
+     * ワークテーブルを作り直す場合は、truncateステップの{@link TruncateStepConfig#getIncrementalControlTable()}に
+     * 同じテーブルを指定し、バリデーション済みの行番号を削除すること。削除された場合は全ての行をバリデーションする。
+     * 削除せずにワークテーブルを作り直し、最大の行番号がバリデーション済みの行番号を下回る場合はエラーとなる。
+     *
+     * @param incrementalControlTable テーブル名
+     */
+    public void setIncrementalControlTable(final String incrementalControlTable) {
+        this.incrementalControlTable = incrementalControlTable;
+    }
+
     /**
      * Validationエラー発生時の処理継続モード
      */
@@ -0,0 +1,52 @@
+package nablarch.etl.dialect;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import nablarch.etl.generator.Db2TruncateSqlGenerator;
+import nablarch.etl.generator.MergeSqlGenerator;
+import nablarch.etl.generator.StandardMergeSqlGenerator;
+import nablarch.etl.generator.TruncateSqlGenerator;
+
+/**
+ * DB2用のダイアレクト。
+ *
+ * @author TIS
+ */
+public class Db2EtlDialect extends DefaultEtlDialect {
+
+    /** サポートする機能 */
+    private static final Set<Feature> FEATURES = EnumSet.of(Feature.MERGE);
+
+    @Override
+    public boolean isTarget(final String url) {
+        return url.startsWith("jdbc:db2");
+    }
+
+    @Override
+    public boolean supports(final Feature feature) {
+        return FEATURES.contains(feature);
+    }
+
+    @Override
+    public MergeSqlGenerator createMergeSqlGenerator() {
+        return new StandardMergeSqlGenerator();
+    }
+
+    @Override
+    public TruncateSqlGenerator createTruncateSqlGenerator() {
+        return new Db2TruncateSqlGenerator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * LENGTHはデータベースのコードページによってはバイト数を返すため、Javaと同じ長さを取得できない。
+     *
+     * @return {@code null}
+     */
+    @Override
+    public String getLengthFunction() {
+        return null;
+    }
+}
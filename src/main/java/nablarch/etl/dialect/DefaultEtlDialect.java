@@ -0,0 +1,146 @@
+package nablarch.etl.dialect;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.etl.InvalidEtlConfigException;
+import nablarch.etl.config.DbToDbStepConfig.InsertMode;
+import nablarch.etl.generator.InsertSqlGenerator;
+import nablarch.etl.generator.MaxLineNumberSqlGenerator;
+import nablarch.etl.generator.MergeSqlGenerator;
+import nablarch.etl.generator.TruncateSqlGenerator;
+
+/**
+ * デフォルトのダイアレクト。
+ * <p/>
+ * 全てのデータベースを対象とし、標準的なSQL文のジェネレータを提供する。
+ * いずれの機能もサポートしないため、MERGE文のジェネレータは提供しない。
+ * INSERT文のジェネレータは、{@link InsertMode#NORMAL}のもののみ提供する。
+ * <p/>
+ * データベース製品ごとのダイアレクトは、本クラスを継承し差異のある部分のみをオーバーライドする。
+ *
+ * @author TIS
+ */
+@Published(tag = "architect")
+public class DefaultEtlDialect implements EtlDialect {
+
+    /** 結合によるDELETE文及びUPDATE文で対象のテーブルに付ける別名 */
+    protected static final String TARGET_ALIAS = "t";
+
+    /** 結合によるDELETE文及びUPDATE文で結合先のテーブルに付ける別名 */
+    protected static final String JOIN_ALIAS = "j";
+
+    /** INSERTモードが必要とする機能 */
+    private static final Map<InsertMode, Set<Feature>> REQUIRED_FEATURES =
+            new EnumMap<InsertMode, Set<Feature>>(InsertMode.class);
+
+    static {
+        REQUIRED_FEATURES.put(InsertMode.NORMAL, EnumSet.noneOf(Feature.class));
+        REQUIRED_FEATURES.put(InsertMode.ORACLE_DIRECT_PATH, EnumSet.of(Feature.DIRECT_PATH_INSERT));
+        REQUIRED_FEATURES.put(InsertMode.ORACLE_PARALLEL_DIRECT,
+                EnumSet.of(Feature.DIRECT_PATH_INSERT, Feature.PARALLEL_DML));
+    }
+
+    @Override
+    public boolean isTarget(final String url) {
+        return true;
+    }
+
+    @Override
+    public boolean supports(final Feature feature) {
+        return false;
+    }
+
+    @Override
+    public MergeSqlGenerator createMergeSqlGenerator() {
+        throw new UnsupportedOperationException("merge is not supported. dialect: " + getClass().getName());
+    }
+
+    @Override
+    public TruncateSqlGenerator createTruncateSqlGenerator() {
+        return new TruncateSqlGenerator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 必要な機能をサポートしていることを検証した後、{@link #newInsertSqlGenerator(InsertMode)}でジェネレータを生成する。
+     */
+    @Override
+    public InsertSqlGenerator createInsertSqlGenerator(final InsertMode mode) {
+        for (Feature feature : REQUIRED_FEATURES.get(mode)) {
+            if (!supports(feature)) {
+                throw unsupportedInsertMode(mode);
+            }
+        }
+        return newInsertSqlGenerator(mode);
+    }
+
+    /**
+     * INSERTモードに対応したINSERT文のジェネレータを生成する。
+     * <p/>
+     * 本クラスでは{@link InsertMode#NORMAL}のジェネレータのみ生成する。
+     * その他のINSERTモードに対応するダイアレクトは、本メソッドをオーバーライドする。
+     *
+     * @param mode INSERTモード(必要な機能をサポートしていることは検証済み)
+     * @return INSERT文のジェネレータ
+     */
+    protected InsertSqlGenerator newInsertSqlGenerator(final InsertMode mode) {
+        if (mode == InsertMode.NORMAL) {
+            return new InsertSqlGenerator();
+        }
+        throw unsupportedInsertMode(mode);
+    }
+
+    /**
+     * INSERTモードをサポートしていないことを示す例外を生成する。
+     *
+     * @param mode INSERTモード
+     * @return 例外
+     */
+    protected InvalidEtlConfigException unsupportedInsertMode(final InsertMode mode) {
+        return new InvalidEtlConfigException(String.format(
+                "insert mode is not supported by the database. insert mode = [%s], dialect = [%s]",
+                mode, getClass().getName()));
+    }
+
+    @Override
+    public MaxLineNumberSqlGenerator createMaxLineNumberSqlGenerator() {
+        return new MaxLineNumberSqlGenerator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 結合先のテーブルのキーをexistsで探索するDELETE文を生成する。
+     * テーブル名はスキーマで修飾されている場合があるため、カラムは別名で修飾する。
+     */
+    @Override
+    public String buildJoinDeleteSql(final String targetTable, final String joinTable, final String keyColumn) {
+        return "delete from " + targetTable + ' ' + TARGET_ALIAS
+                + " where exists (select 1 from " + joinTable + ' ' + JOIN_ALIAS
+                + " where " + JOIN_ALIAS + '.' + keyColumn + " = " + TARGET_ALIAS + '.' + keyColumn + ')';
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 結合先のテーブルのキーをexistsで探索するUPDATE文を生成する。
+     * テーブル名はスキーマで修飾されている場合があるため、カラムは別名で修飾する。
+     */
+    @Override
+    public String buildJoinUpdateSql(final String targetTable, final String joinTable, final String keyColumn,
+            final String setClause) {
+        return "update " + targetTable + ' ' + TARGET_ALIAS + " set " + setClause
+                + " where exists (select 1 from " + joinTable + ' ' + JOIN_ALIAS
+                + " where " + JOIN_ALIAS + '.' + keyColumn + " = " + TARGET_ALIAS + '.' + keyColumn + ')';
+    }
+
+    @Override
+    public String getLengthFunction() {
+        return "length";
+    }
+}
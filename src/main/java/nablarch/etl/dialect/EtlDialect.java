@@ -0,0 +1,116 @@
+package nablarch.etl.dialect;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.etl.config.DbToDbStepConfig.InsertMode;
+import nablarch.etl.generator.InsertSqlGenerator;
+import nablarch.etl.generator.MaxLineNumberSqlGenerator;
+import nablarch.etl.generator.MergeSqlGenerator;
+import nablarch.etl.generator.TruncateSqlGenerator;
+
+/**
+ * データベース製品ごとの差異を吸収するダイアレクトのインタフェース。
+ * <p/>
+ * ETLで使用するSQL文のジェネレータを提供し、データベース製品がサポートする機能を宣言する。
+ * 独自のダイアレクトを追加する場合は、本インタフェースの実装クラスのリストを
+ * "etlDialects"という名前でコンポーネント定義に設定する。
+ *
+ * @author TIS
+ * @see EtlDialectResolver
+ */
+@Published(tag = "architect")
+public interface EtlDialect {
+
+    /**
+     * 接続先のデータベースが本ダイアレクトの対象か否か。
+     *
+     * @param url 小文字に変換したデータベース接続のURL
+     * @return 対象の場合は{@code true}
+     */
+    boolean isTarget(String url);
+
+    /**
+     * 指定された機能をサポートしているか否か。
+     *
+     * @param feature 機能
+     * @return サポートしている場合は{@code true}
+     */
+    boolean supports(Feature feature);
+
+    /**
+     * MERGE文のジェネレータを生成する。
+     * <p/>
+     * {@link Feature#MERGE}をサポートしていない場合は、{@link UnsupportedOperationException}を送出する。
+     *
+     * @return MERGE文のジェネレータ
+     */
+    MergeSqlGenerator createMergeSqlGenerator();
+
+    /**
+     * TRUNCATE文のジェネレータを生成する。
+     *
+     * @return TRUNCATE文のジェネレータ
+     */
+    TruncateSqlGenerator createTruncateSqlGenerator();
+
+    /**
+     * INSERTモードに対応した一括登録用のINSERT文のジェネレータを生成する。
+     * <p/>
+     * INSERTモードが必要とする機能をサポートしていない場合は、{@link nablarch.etl.InvalidEtlConfigException}を送出する。
+     *
+     * @param mode INSERTモード
+     * @return INSERT文のジェネレータ
+     */
+    InsertSqlGenerator createInsertSqlGenerator(InsertMode mode);
+
+    /**
+     * 範囲更新に使用するLINE_NUMBERカラムの最大値を取得するSQL文のジェネレータを生成する。
+     *
+     * @return LINE_NUMBERカラムの最大値を取得するSQL文のジェネレータ
+     */
+    MaxLineNumberSqlGenerator createMaxLineNumberSqlGenerator();
+
+    /**
+     * 結合先のテーブルに同じキーのレコードが存在するレコードを削除するDELETE文を生成する。
+     *
+     * @param targetTable 削除対象のテーブル名
+     * @param joinTable 結合先のテーブル名
+     * @param keyColumn 結合に使用するキーのカラム名
+     * @return DELETE文
+     */
+    String buildJoinDeleteSql(String targetTable, String joinTable, String keyColumn);
+
+    /**
+     * 結合先のテーブルに同じキーのレコードが存在するレコードを更新するUPDATE文を生成する。
+     *
+     * @param targetTable 更新対象のテーブル名
+     * @param joinTable 結合先のテーブル名
+     * @param keyColumn 結合に使用するキーのカラム名
+     * @param setClause SET句に指定する更新内容(カラムはテーブルの別名で修飾しないこと)
+     * @return UPDATE文
+     */
+    String buildJoinUpdateSql(String targetTable, String joinTable, String keyColumn, String setClause);
+
+    /**
+     * 文字列の長さ(文字数)を取得する関数名を返す。
+     * <p/>
+     * Javaの{@link String#length()}と同じ結果が得られる関数が存在しない場合は{@code null}を返す。
+     *
+     * @return 文字列の長さを取得する関数名
+     */
+    String getLengthFunction();
+
+    /**
+     * ダイアレクトが宣言する機能。
+     */
+    @Published(tag = "architect")
+    enum Feature {
+        /** MERGE文(またはその代替機能)による一括登録/更新 */
+        MERGE,
+        /** ダイレクトパスインサート */
+        DIRECT_PATH_INSERT,
+        /** パラレルDML */
+        PARALLEL_DML,
+        /** 空文字列をnullとして扱う */
+        EMPTY_STRING_IS_NULL
+    }
+}
@@ -0,0 +1,108 @@
+package nablarch.etl.dialect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.util.annotation.Published;
+import nablarch.etl.EtlUtil;
+
+/**
+ * データベース接続に対応する{@link EtlDialect}を解決するクラス。
+ * <p/>
+ * データベース接続のURLを元に、以下の順でダイアレクトを探索し、最初に対象となったダイアレクトを使用する。
+ * <ol>
+ * <li>"etlDialects"という名前でリポジトリに登録されたダイアレクトのリスト</li>
+ * <li>本モジュールが提供するダイアレクト(Oracle、DB2、H2、SQL Server、PostgreSQL)</li>
+ * <li>{@link DefaultEtlDialect}</li>
+ * </ol>
+ * 解決したダイアレクトはURLごとにキャッシュするため、探索はデータソースごとに一度のみ行われる。
+ *
+ * @author TIS
+ */
+@Published(tag = "architect")
+public final class EtlDialectResolver {
+
+    /** 独自のダイアレクトのリストを取得するリポジトリのキー */
+    private static final String DIALECTS_KEY = "etlDialects";
+
+    /** 本モジュールが提供するダイアレクト */
+    private static final List<EtlDialect> BUILT_IN_DIALECTS = Arrays.asList(
+            new OracleEtlDialect(),
+            new Db2EtlDialect(),
+            new H2EtlDialect(),
+            new SqlServerEtlDialect(),
+            new PostgresEtlDialect());
+
+    /** 該当するダイアレクトが存在しない場合に使用するダイアレクト */
+    private static final EtlDialect DEFAULT_DIALECT = new DefaultEtlDialect();
+
+    /** 解決済みのダイアレクト。キーは小文字に変換したURL */
+    private static final ConcurrentMap<String, EtlDialect> RESOLVED = new ConcurrentHashMap<String, EtlDialect>();
+
+    /** 隠蔽コンストラクタ */
+    private EtlDialectResolver() {
+    }
+
+    /**
+     * データベース接続に対応するダイアレクトを解決する。
+     *
+     * @param connection データベース接続
+     * @return ダイアレクト
+     */
+    public static EtlDialect resolve(final TransactionManagerConnection connection) {
+        return resolve(EtlUtil.getUrl(connection));
+    }
+
+    /**
+     * データベース接続のURLに対応するダイアレクトを解決する。
+     *
+     * @param url データベース接続のURL
+     * @return ダイアレクト
+     */
+    public static EtlDialect resolve(final String url) {
+        if (url == null) {
+            return DEFAULT_DIALECT;
+        }
+        final String key = url.toLowerCase(Locale.ENGLISH);
+        EtlDialect dialect = RESOLVED.get(key);
+        if (dialect == null) {
+            dialect = find(key);
+            RESOLVED.putIfAbsent(key, dialect);
+        }
+        return dialect;
+    }
+
+    /**
+     * 解決済みのダイアレクトを破棄する。
+     */
+    static void clearCache() {
+        RESOLVED.clear();
+    }
+
+    /**
+     * URLが対象となるダイアレクトを探索する。
+     *
+     * @param url 小文字に変換したURL
+     * @return ダイアレクト
+     */
+    private static EtlDialect find(final String url) {
+        final List<EtlDialect> candidates = new ArrayList<EtlDialect>();
+        final List<EtlDialect> customDialects = SystemRepository.get(DIALECTS_KEY);
+        if (customDialects != null) {
+            candidates.addAll(customDialects);
+        }
+        candidates.addAll(BUILT_IN_DIALECTS);
+        for (EtlDialect dialect : candidates) {
+            if (dialect.isTarget(url)) {
+                return dialect;
+            }
+        }
+        return DEFAULT_DIALECT;
+    }
+}
@@ -0,0 +1,33 @@
+package nablarch.etl.dialect;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import nablarch.etl.generator.H2MergeSqlGenerator;
+import nablarch.etl.generator.MergeSqlGenerator;
+
+/**
+ * H2用のダイアレクト。
+ *
+ * @author TIS
+ */
+public class H2EtlDialect extends DefaultEtlDialect {
+
+    /** サポートする機能 */
+    private static final Set<Feature> FEATURES = EnumSet.of(Feature.MERGE);
+
+    @Override
+    public boolean isTarget(final String url) {
+        return url.startsWith("jdbc:h2");
+    }
+
+    @Override
+    public boolean supports(final Feature feature) {
+        return FEATURES.contains(feature);
+    }
+
+    @Override
+    public MergeSqlGenerator createMergeSqlGenerator() {
+        return new H2MergeSqlGenerator();
+    }
+}
@@ -0,0 +1,50 @@
+package nablarch.etl.dialect;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import nablarch.etl.config.DbToDbStepConfig.InsertMode;
+import nablarch.etl.generator.InsertSqlGenerator;
+import nablarch.etl.generator.MergeSqlGenerator;
+import nablarch.etl.generator.OracleDirectPathInsertSqlGenerator;
+import nablarch.etl.generator.OracleParallelDirectPathInsertSqlGenerator;
+import nablarch.etl.generator.StandardMergeSqlGenerator;
+
+/**
+ * Oracle用のダイアレクト。
+ *
+ * @author TIS
+ */
+public class OracleEtlDialect extends DefaultEtlDialect {
+
+    /** サポートする機能 */
+    private static final Set<Feature> FEATURES = EnumSet.of(
+            Feature.MERGE, Feature.DIRECT_PATH_INSERT, Feature.PARALLEL_DML, Feature.EMPTY_STRING_IS_NULL);
+
+    @Override
+    public boolean isTarget(final String url) {
+        return url.startsWith("jdbc:oracle");
+    }
+
+    @Override
+    public boolean supports(final Feature feature) {
+        return FEATURES.contains(feature);
+    }
+
+    @Override
+    public MergeSqlGenerator createMergeSqlGenerator() {
+        return new StandardMergeSqlGenerator();
+    }
+
+    @Override
+    protected InsertSqlGenerator newInsertSqlGenerator(final InsertMode mode) {
+        switch (mode) {
+            case ORACLE_DIRECT_PATH:
+                return new OracleDirectPathInsertSqlGenerator();
+            case ORACLE_PARALLEL_DIRECT:
+                return new OracleParallelDirectPathInsertSqlGenerator();
+            default:
+                return super.newInsertSqlGenerator(mode);
+        }
+    }
+}
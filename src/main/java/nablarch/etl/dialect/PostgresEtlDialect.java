@@ -0,0 +1,44 @@
+package nablarch.etl.dialect;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import nablarch.etl.generator.MergeSqlGenerator;
+import nablarch.etl.generator.PostgresMergeSqlGenerator;
+
+/**
+ * PostgreSQL用のダイアレクト。
+ *
+ * @author TIS
+ */
+public class PostgresEtlDialect extends DefaultEtlDialect {
+
+    /** サポートする機能 */
+    private static final Set<Feature> FEATURES = EnumSet.of(Feature.MERGE);
+
+    @Override
+    public boolean isTarget(final String url) {
+        return url.startsWith("jdbc:postgresql:");
+    }
+
+    @Override
+    public boolean supports(final Feature feature) {
+        return FEATURES.contains(feature);
+    }
+
+    @Override
+    public MergeSqlGenerator createMergeSqlGenerator() {
+        return new PostgresMergeSqlGenerator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * using句で結合するDELETE文を生成する。
+     */
+    @Override
+    public String buildJoinDeleteSql(final String targetTable, final String joinTable, final String keyColumn) {
+        return "delete from " + targetTable + ' ' + TARGET_ALIAS + " using " + joinTable + ' ' + JOIN_ALIAS
+                + " where " + TARGET_ALIAS + '.' + keyColumn + " = " + JOIN_ALIAS + '.' + keyColumn;
+    }
+}
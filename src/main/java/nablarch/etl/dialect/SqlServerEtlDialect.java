@@ -0,0 +1,70 @@
+package nablarch.etl.dialect;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import nablarch.etl.generator.MergeSqlGenerator;
+import nablarch.etl.generator.SqlServerMergeSqlGenerator;
+
+/**
+ * SQL Server用のダイアレクト。
+ *
+ * @author TIS
+ */
+public class SqlServerEtlDialect extends DefaultEtlDialect {
+
+    /** サポートする機能 */
+    private static final Set<Feature> FEATURES = EnumSet.of(Feature.MERGE);
+
+    @Override
+    public boolean isTarget(final String url) {
+        return url.startsWith("jdbc:sqlserver");
+    }
+
+    @Override
+    public boolean supports(final Feature feature) {
+        return FEATURES.contains(feature);
+    }
+
+    @Override
+    public MergeSqlGenerator createMergeSqlGenerator() {
+        return new SqlServerMergeSqlGenerator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * LENは末尾の空白を除いた長さを返すため、Javaと同じ長さを取得できない。
+     *
+     * @return {@code null}
+     */
+    @Override
+    public String getLengthFunction() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 内部結合したテーブルを対象とするDELETE文を生成する。
+     */
+    @Override
+    public String buildJoinDeleteSql(final String targetTable, final String joinTable, final String keyColumn) {
+        return "delete " + TARGET_ALIAS + " from " + targetTable + ' ' + TARGET_ALIAS
+                + " inner join " + joinTable + ' ' + JOIN_ALIAS
+                + " on " + TARGET_ALIAS + '.' + keyColumn + " = " + JOIN_ALIAS + '.' + keyColumn;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * UPDATE句ではテーブルに別名を付けられないため、内部結合したテーブルを別名で対象とするUPDATE文を生成する。
+     */
+    @Override
+    public String buildJoinUpdateSql(final String targetTable, final String joinTable, final String keyColumn,
+            final String setClause) {
+        return "update " + TARGET_ALIAS + " set " + setClause + " from " + targetTable + ' ' + TARGET_ALIAS
+                + " inner join " + joinTable + ' ' + JOIN_ALIAS
+                + " on " + TARGET_ALIAS + '.' + keyColumn + " = " + JOIN_ALIAS + '.' + keyColumn;
+    }
+}
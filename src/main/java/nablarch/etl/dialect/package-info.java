@@ -0,0 +1,4 @@
+/**
+ * ETLで利用するデータベース製品ごとの差異を吸収する機能を提供する。
+ */
+package nablarch.etl.dialect;
@@ -0,0 +1,45 @@
+package nablarch.etl.generator;
+
+import java.util.List;
+
+import nablarch.common.dao.EntityUtil;
+import nablarch.etl.EtlUtil;
+import nablarch.etl.config.DbToDbStepConfig;
+
+/**
+ * バッチ更新で使用する、バインド変数を持つinsert文を生成するクラス。
+ * <p/>
+ * 登録対象のテーブルの全カラムに対して、カラム順にバインド変数を設定したinsert文を生成する。
+ * <pre>
+ * {@code
+ *
+ * 登録対象のテーブル:user
+ *
+ * 生成されるSQL文:insert into user (id, name) values (?,?)
+ * }
+ * </pre>
+ *
+ * @author TIS
+ */
+public class BatchInsertSqlGenerator extends InsertSqlGenerator {
+
+    /**
+     * 登録対象のテーブルのカラム数分のバインド変数を持つvalues句を生成する。
+     *
+     * @param config ステップの設定
+     * @return values句
+     */
+    @Override
+    protected String generateSourceSql(final DbToDbStepConfig config) {
+        final List<String> columns = EtlUtil.getAllColumns(EntityUtil.getTableName(config.getBean()));
+        final StringBuilder values = new StringBuilder(columns.size() * 2 + 8);
+        values.append("values (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i != 0) {
+                values.append(',');
+            }
+            values.append('?');
+        }
+        return values.append(')').toString();
+    }
+}
@@ -35,6 +35,8 @@ public class InsertSqlGenerator extends SqlGeneratorSupport<DbToDbStepConfig> {
 
     /**
      * 一括登録用のINSERT文を生成する。
+     * <p/>
+     * 同じステップの設定に対しては、初回に生成したSQL文を再利用する。
      *
      * @param config ステップの設定
      * @return 生成したINSERT文
@@ -42,6 +44,11 @@ public class InsertSqlGenerator extends SqlGeneratorSupport<DbToDbStepConfig> {
     @Override
     public String generateSql(final DbToDbStepConfig config) {
 
+        final String generatedSql = getGeneratedSql(config);
+        if (generatedSql != null) {
+            return generatedSql;
+        }
+
         final Class<?> clazz = config.getBean();
         verify(clazz);
 
@@ -53,7 +60,7 @@ public class InsertSqlGenerator extends SqlGeneratorSupport<DbToDbStepConfig> {
                 .append(generateInsertColumnList(config))
                 .append(generateSourceSql(config));
 
-        return insertSql.toString();
+        return putGeneratedSql(config, insertSql.toString());
     }
 
     /**
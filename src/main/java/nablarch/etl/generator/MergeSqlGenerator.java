@@ -9,10 +9,19 @@ import nablarch.etl.config.DbToDbStepConfig;
  */
 public abstract class MergeSqlGenerator extends SqlGeneratorSupport<DbToDbStepConfig> {
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 同じステップの設定に対しては、初回に生成したSQL文を再利用する。
+     */
     @Override
     public final String generateSql(final DbToDbStepConfig config) {
+        final String sql = getGeneratedSql(config);
+        if (sql != null) {
+            return sql;
+        }
         verify(config.getBean());
-        return generate(config);
+        return putGeneratedSql(config, generate(config));
     }
 
     /**
@@ -5,6 +5,8 @@ import java.sql.SQLException;
 
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.etl.EtlUtil;
+import nablarch.etl.dialect.EtlDialect;
+import nablarch.etl.dialect.EtlDialectResolver;
 
 /**
  * MERGE文のジェネレータのファクトリクラス。
@@ -19,8 +21,11 @@ import nablarch.etl.EtlUtil;
  * <li>PostgreSQL</li>
  * <li>DB2</li>
  * </ul>
+ * 上記以外のデータベースは、{@link EtlDialect.Feature#MERGE}をサポートする{@link EtlDialect}を
+ * 登録することで使用できる。
  *
  * @author siosio
+ * @see EtlDialectResolver
  */
 public final class MergeSqlGeneratorFactory {
 
@@ -37,17 +42,11 @@ public final class MergeSqlGeneratorFactory {
      * @return MERGE文のジェネレータ
      */
     public static MergeSqlGenerator create(final TransactionManagerConnection connection) {
-        final String url = EtlUtil.getUrl(connection);
-        if (url.startsWith("jdbc:oracle") || url.startsWith("jdbc:db2")) {
-            return new StandardMergeSqlGenerator();
-        } else if (url.startsWith("jdbc:h2")) {
-            return new H2MergeSqlGenerator();
-        } else if (url.startsWith("jdbc:sqlserver")) {
-            return new SqlServerMergeSqlGenerator();
-        } else if (url.startsWith("jdbc:postgresql:")) {
-            return new PostgresMergeSqlGenerator();
-        } else {
-            throw new IllegalStateException("database that can not use merge. database url: " + url);
+        final EtlDialect dialect = EtlDialectResolver.resolve(connection);
+        if (!dialect.supports(EtlDialect.Feature.MERGE)) {
+            throw new IllegalStateException("database that can not use merge. database url: "
+                    + EtlUtil.getUrl(connection));
         }
+        return dialect.createMergeSqlGenerator();
     }
 }
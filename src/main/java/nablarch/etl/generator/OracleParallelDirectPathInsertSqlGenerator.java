@@ -0,0 +1,66 @@
+package nablarch.etl.generator;
+
+import java.util.Locale;
+
+import nablarch.etl.config.DbToDbStepConfig;
+
+/**
+ * Oracleのパラレルダイレクトパスインサートを使用するinsert文を生成するクラス。
+ * <p/>
+ * insert文と移送元のselect文の両方に、{@link DbToDbStepConfig#getParallelDegree()}を並列度とするPARALLELヒントを設定する。
+ * 並列度が設定されていない場合は、並列度を指定しないPARALLELヒントとなる。
+ * 例えば並列度が4の場合、insert into句には{@code APPEND PARALLEL(4)}ヒントを、
+ * select句には{@code PARALLEL(4)}ヒントを設定する。
+ * <p/>
+ * 生成したSQL文をパラレルDMLとして実行するには、セッションでパラレルDMLを有効にする必要がある。
+ *
+ * @author TIS
+ */
+public class OracleParallelDirectPathInsertSqlGenerator extends OracleDirectPathInsertSqlGenerator {
+
+    /**
+     * ダイレクトパスインサートとパラレルDML用のヒントを設定したinsert into句を生成する。
+     *
+     * @param config ステップの設定
+     * @return APPENDヒントとPARALLELヒントを設定したinsert into句
+     */
+    @Override
+    protected String generateInsertIntoClause(final DbToDbStepConfig config) {
+        return "insert /*+ APPEND " + parallelHint(config) + " */ into";
+    }
+
+    /**
+     * PARALLELヒントを設定した移送元のselect文を生成する。
+     * <p/>
+     * select文が既にヒントを持つ場合はPARALLELヒントを追加する。
+     * selectから始まらないSQL文(with句を持つSQL文など)の場合は、そのまま返す。
+     *
+     * @param config ステップの設定
+     * @return PARALLELヒントを設定したselect文
+     */
+    @Override
+    protected String generateSourceSql(final DbToDbStepConfig config) {
+        final String sql = config.getSql().trim();
+        final String lower = sql.toLowerCase(Locale.ENGLISH);
+        if (!lower.startsWith("select")) {
+            return sql;
+        }
+        final String rest = sql.substring("select".length());
+        final String trimmedRest = rest.trim();
+        if (trimmedRest.startsWith("/*+")) {
+            return "select /*+ " + parallelHint(config) + ' ' + trimmedRest.substring("/*+".length()).trim();
+        }
+        return "select /*+ " + parallelHint(config) + " */" + rest;
+    }
+
+    /**
+     * PARALLELヒントを生成する。
+     *
+     * @param config ステップの設定
+     * @return PARALLELヒント
+     */
+    private static String parallelHint(final DbToDbStepConfig config) {
+        final Integer degree = config.getParallelDegree();
+        return degree == null ? "PARALLEL" : "PARALLEL(" + degree + ')';
+    }
+}
@@ -28,6 +28,32 @@ public abstract class SqlGeneratorSupport<T extends StepConfig> {
         }
     }
 
+    /**
+     * 本ジェネレータがステップ向けに生成済みのSQL文を取得する。
+     *
+     * @param config ステップの設定
+     * @return 生成済みのSQL文。生成されていない場合は{@code null}
+     * @see StepConfig#getGeneratedSql(String)
+     */
+    protected String getGeneratedSql(final T config) {
+        return config.getGeneratedSql(getClass().getName());
+    }
+
+    /**
+     * 本ジェネレータがステップ向けに生成したSQL文を保持する。
+     * <p/>
+     * 同じステップの設定に対する2回目以降の生成では、保持したSQL文を再利用する。
+     *
+     * @param config ステップの設定
+     * @param sql 生成したSQL文
+     * @return 生成したSQL文
+     * @see StepConfig#putGeneratedSql(String, String)
+     */
+    protected String putGeneratedSql(final T config, final String sql) {
+        config.putGeneratedSql(getClass().getName(), sql);
+        return sql;
+    }
+
     /**
      * ステップの設定からデータを移送するためのSQL文を生成する。
      *
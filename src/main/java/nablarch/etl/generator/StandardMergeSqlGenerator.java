@@ -24,9 +24,14 @@ public class StandardMergeSqlGenerator extends MergeSqlGenerator {
 
         final Class<?> entityClass = config.getBean();
         final String tableName = EntityUtil.getTableNameWithSchema(entityClass);
-        final StringBuilder mergeSql = new StringBuilder(512);
-
         final List<String> joinColumns = config.getMergeOnColumns();
+
+        final StringBuilder setClause = new StringBuilder(256);
+        final StringBuilder insertColumns = new StringBuilder(256);
+        final StringBuilder insertValues = new StringBuilder(256);
+        makeSetAndInsertClause(entityClass, joinColumns, setClause, insertColumns, insertValues);
+
+        final StringBuilder mergeSql = new StringBuilder(512);
         mergeSql.append("merge into ")
                 .append(tableName)
                 .append(' ')
@@ -40,10 +45,12 @@ public class StandardMergeSqlGenerator extends MergeSqlGenerator {
                 .append(')')
                 .append(" when matched then")
                 .append(" update set ")
-                .append(makeSetClause(entityClass, joinColumns))
+                .append(setClause)
                 .append(" when not matched then insert (")
-                .append(makeInsertClause(entityClass));
-
+                .append(insertColumns)
+                .append(") values (")
+                .append(insertValues)
+                .append(')');
 
         return mergeSql.toString();
     }
@@ -74,64 +81,50 @@ public class StandardMergeSqlGenerator extends MergeSqlGenerator {
     }
 
     /**
-     * INSERT文を構築する。
+     * UPDATEのSET句とINSERTのカラムリスト及びVALUES句を、カラムリストの1回の走査で構築する。
      *
      * @param clazz Entityクラス
-     * @return 構築したINSERT文
+     * @param joinColumns 結合カラム
+     * @param setClause SET句の構築先
+     * @param insertColumns INSERTのカラムリストの構築先
+     * @param insertValues INSERTのVALUES句の構築先
      */
-    private static String makeInsertClause(final Class<?> clazz) {
+    private static void makeSetAndInsertClause(
+            final Class<?> clazz,
+            final List<String> joinColumns,
+            final StringBuilder setClause,
+            final StringBuilder insertColumns,
+            final StringBuilder insertValues) {
         final List<ColumnMeta> columns = EntityUtil.findAllColumns(clazz);
+        final List<ColumnMeta> keys = EntityUtil.findIdColumns(clazz);
 
-        final StringBuilder insert = new StringBuilder(256);
-        final StringBuilder values = new StringBuilder(256);
         final int size = columns.size();
         for (int i = 0; i < size; i++) {
+            final ColumnMeta column = columns.get(i);
+            final String columnName = column.getName();
             if (i != 0) {
-                insert.append(',');
-                values.append(',');
+                insertColumns.append(',');
+                insertValues.append(',');
             }
-            final String columnName = columns.get(i)
-                    .getName();
-            insert.append(columnName);
-
-            values.append(INPUT_TABLE_ALIAS)
+            insertColumns.append(columnName);
+            insertValues.append(INPUT_TABLE_ALIAS)
                     .append('.')
                     .append(columnName);
-        }
-        insert.append(") values (")
-                .append(values)
-                .append(')');
-        return insert.toString();
-    }
 
-    /**
-     * UPDATEのSET句を構築する。
-     *
-     * @param clazz Entityクラス
-     * @param joinColumns 結合カラム
-     * @return 構築したSET句
-     */
-    private static String makeSetClause(final Class<?> clazz, final List<String> joinColumns) {
-        final List<ColumnMeta> columns = EntityUtil.findAllColumns(clazz);
-        final List<ColumnMeta> keys = EntityUtil.findIdColumns(clazz);
-
-        final StringBuilder result = new StringBuilder(256);
-        for (ColumnMeta column : columns) {
             if (keys.contains(column) || isJoinColumn(joinColumns, column)) {
                 continue;
             }
-            if (result.length() != 0) {
-                result.append(", ");
+            if (setClause.length() != 0) {
+                setClause.append(", ");
             }
-            result.append(OUTPUT_TABLE_ALIAS)
+            setClause.append(OUTPUT_TABLE_ALIAS)
                     .append('.')
-                    .append(column.getName())
+                    .append(columnName)
                     .append(" = ")
                     .append(INPUT_TABLE_ALIAS)
                     .append('.')
-                    .append(column.getName());
+                    .append(columnName);
         }
-        return result.toString();
     }
 
     /**
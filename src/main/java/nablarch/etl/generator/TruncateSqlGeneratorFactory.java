@@ -3,11 +3,12 @@ package nablarch.etl.generator;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.util.StringUtil;
 import nablarch.etl.EtlUtil;
+import nablarch.etl.dialect.EtlDialectResolver;
 
 /**
  * TRUNCATE文を生成するジェネレータのファクトリクラス。
  * <p/>
- * データベース接続のURLを元に、TRUNCATE文のジェネレータクラスを生成する。
+ * データベース接続のURLを元に解決した{@link nablarch.etl.dialect.EtlDialect}から、TRUNCATE文のジェネレータクラスを生成する。
  *
  * @author Naoki Yamamoto
  */
@@ -30,6 +31,6 @@ public final class TruncateSqlGeneratorFactory {
         if (StringUtil.isNullOrEmpty(url)) {
             throw new IllegalStateException("failed to get connection url.");
         }
-        return url.startsWith("jdbc:db2") ? new Db2TruncateSqlGenerator() : new TruncateSqlGenerator();
+        return EtlDialectResolver.resolve(url).createTruncateSqlGenerator();
     }
 }
@@ -0,0 +1,109 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.metadata.PropertyDescriptor;
+
+import nablarch.core.validation.ee.Domain;
+import nablarch.core.validation.ee.Required;
+import nablarch.core.validation.ee.ValidatorUtil;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletSqlBean;
+import nablarch.test.support.SystemRepositoryResource;
+
+import org.hamcrest.Matchers;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/**
+ * {@link ConstraintMetaDataWalker}のテスト。
+ */
+public class ConstraintMetaDataWalkerTest {
+
+    @ClassRule
+    public static SystemRepositoryResource resource = new SystemRepositoryResource("nablarch/etl/validation.xml");
+
+    private final Validator validator = ValidatorUtil.getValidator();
+
+    private final ConstraintMetaDataWalker sut = new ConstraintMetaDataWalker(validator);
+
+    /**
+     * 扱える制約ごとに{@link ConstraintMetaDataWalker.Visitor}が呼び出されること。
+     */
+    @Test
+    public void walk() throws Exception {
+        assertThat(walk(ValidationBatchletSqlBean.class, "firstName"),
+                Matchers.containsInAnyOrder("required", "length(0, 5, true)"));
+        assertThat(walk(ValidationBatchletSqlBean.class, "lastName"), Matchers.contains("length(0, 5, false)"));
+        assertThat(walk(WalkerBean.class, "count"), Matchers.containsInAnyOrder("notNull", "max(10)", "min(1)"));
+    }
+
+    /**
+     * 扱えない制約がある場合や、型に合わない制約の場合は{@code false}が返されること。
+     */
+    @Test
+    public void unsupportedConstraint() throws Exception {
+        assertThat("ドメインに扱えない制約がある", walk(WalkerBean.class, "name"), is(nullValue()));
+        assertThat("文字列以外のRequired", walk(WalkerBean.class, "flag"), is(nullValue()));
+    }
+
+    /**
+     * プロパティの制約をたどり、呼び出された{@link ConstraintMetaDataWalker.Visitor}のメソッドを返す。
+     *
+     * @return 呼び出されたメソッド。扱えない制約がある場合は{@code null}
+     */
+    private List<String> walk(final Class<?> bean, final String propertyName) {
+        final PropertyDescriptor property = validator.getConstraintsForClass(bean)
+                                                     .getConstraintsForProperty(propertyName);
+        final List<String> calls = new ArrayList<String>();
+        final boolean result = sut.walk(property.getElementClass(), property.getConstraintDescriptors(),
+                new ConstraintMetaDataWalker.Visitor() {
+                    @Override
+                    public boolean notNull() {
+                        return calls.add("notNull");
+                    }
+
+                    @Override
+                    public boolean required() {
+                        return calls.add("required");
+                    }
+
+                    @Override
+                    public boolean length(final int min, final int max, final boolean allowEmpty) {
+                        return calls.add("length(" + min + ", " + max + ", " + allowEmpty + ')');
+                    }
+
+                    @Override
+                    public boolean max(final long value) {
+                        return calls.add("max(" + value + ')');
+                    }
+
+                    @Override
+                    public boolean min(final long value) {
+                        return calls.add("min(" + value + ')');
+                    }
+                });
+        return result ? calls : null;
+    }
+
+    public static class WalkerBean {
+
+        @NotNull
+        @Max(10)
+        @Min(1)
+        public Integer count;
+
+        @Domain("name")
+        public String name;
+
+        @Required
+        public Boolean flag;
+    }
+}
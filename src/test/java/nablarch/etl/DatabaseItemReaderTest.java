@@ -4,6 +4,15 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
 import javax.persistence.Column;
@@ -11,12 +20,14 @@ import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import nablarch.common.databind.csv.Csv;
 import nablarch.core.db.DbAccessException;
 import nablarch.core.db.connection.ConnectionFactory;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.transaction.TransactionContext;
 import nablarch.etl.config.DbInputStepConfig;
+import nablarch.etl.config.DbToFileStepConfig;
 import nablarch.fw.batch.ee.progress.BasicProgressManager;
 import nablarch.test.support.SystemRepositoryResource;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
@@ -28,10 +39,12 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.NonStrictExpectations;
 
 /**
  * {@link nablarch.etl.DatabaseItemReader}のテストクラス。
@@ -45,6 +58,9 @@ public class DatabaseItemReaderTest {
     @Rule
     public SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mocked
     private JobContext mockJobContext;
 
@@ -263,9 +279,95 @@ public class DatabaseItemReaderTest {
         }
     }
 
+    /**
+     * 異常終了後の再実行で、{@link FileItemWriter}と組み合わせてチェックポイントの次のレコードから出力が再開され、
+     * 出力済みのレコードが重複しないこと。
+     */
+    @Test
+    public void testRestartWithFileItemWriter() throws Exception {
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToFileStepConfig writerConfig = new DbToFileStepConfig();
+        writerConfig.setFileName("output.csv");
+        new NonStrictExpectations() {{
+            mockDbInputStepConfig.getBean();
+            result = TestEntity.class;
+            mockDbInputStepConfig.getSqlId();
+            result = "SELECT_MULTI_RECORDS";
+            mockStepContext.getException();
+            result = new IllegalStateException("failed.");
+            result = null;
+        }};
+
+        VariousDbTestHelper.setUpTable(
+                  TestEntity.create("10001", "abcdefghij", 10000)
+                , TestEntity.create("10002", "cdefghijkl", 20000)
+                , TestEntity.create("10003", "efghijklmn", 30000)
+                , TestEntity.create("10004", "ghijklmnop", 40000)
+                , TestEntity.create("10005", "ijklmnopqr", 50000)
+        );
+        final File outputFileBasePath = temporaryFolder.newFolder();
+
+        // 1チャンク目をコミットした後、2チャンク目の書き込み後に異常終了する
+        final FileItemWriter failedWriter = new FileItemWriter(
+                mockJobContext, mockStepContext, writerConfig, outputFileBasePath);
+        sut.open(null);
+        failedWriter.open(null);
+        failedWriter.writeItems(Arrays.asList(sut.readItem(), sut.readItem()));
+        final Serializable readerCheckpoint = sut.checkpointInfo();
+        final Serializable writerCheckpoint = failedWriter.checkpointInfo();
+        failedWriter.writeItems(Collections.singletonList(sut.readItem()));
+        failedWriter.close();
+        sut.close();
+
+        assertThat("取り出したレコード数がチェックポイントとなること", readerCheckpoint, is((Serializable) 2L));
+
+        // 再実行
+        final DatabaseItemReader restartedReader = new DatabaseItemReader(
+                mockJobContext,
+                mockStepContext,
+                new BasicProgressManager(mockJobContext, mockStepContext),
+                mockDbInputStepConfig);
+        final FileItemWriter restartedWriter = new FileItemWriter(
+                mockJobContext, mockStepContext, writerConfig, outputFileBasePath);
+        restartedReader.open(readerCheckpoint);
+        restartedWriter.open(writerCheckpoint);
+        Object item;
+        while ((item = restartedReader.readItem()) != null) {
+            restartedWriter.writeItems(Collections.singletonList(item));
+        }
+        restartedWriter.close();
+        restartedReader.close();
+
+        assertThat(read(new File(outputFileBasePath, "output.csv")),
+                is("COL1,COL2,COL3\r\n"
+                        + "10005,ijklmnopqr,50000\r\n"
+                        + "10004,ghijklmnop,40000\r\n"
+                        + "10003,efghijklmn,30000\r\n"));
+        assertThat(OnMemoryLogWriter.getMessages("writer.memory").toString(), containsString(
+                "database read was restarted from the checkpoint. sqlId=[SELECT_MULTI_RECORDS], skipped record count=[2]"));
+    }
+
+    private static String read(File file) throws Exception {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final Reader reader = new InputStreamReader(in, "UTF-8");
+            final StringBuilder sb = new StringBuilder();
+            final char[] buffer = new char[1024];
+            int length;
+            while ((length = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, length);
+            }
+            return sb.toString();
+        } finally {
+            in.close();
+        }
+    }
+
     /** テスト用のエンティティ */
     @Entity
     @Table(name="TEST_TABLE")
+    @Csv(type = Csv.CsvType.DEFAULT, headers = {"COL1", "COL2", "COL3"}, properties = {"col1", "col2", "col3"})
     public static class TestEntity {
 
         @Id
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.batch.runtime.context.JobContext;
@@ -20,11 +21,16 @@ import nablarch.core.db.DbAccessException;
 import nablarch.core.db.connection.ConnectionFactory;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.SqlPStatement;
 import nablarch.core.transaction.TransactionContext;
 import nablarch.core.transaction.TransactionFactory;
 import nablarch.etl.config.DbToDbStepConfig;
 import nablarch.etl.config.DbToDbStepConfig.InsertMode;
 import nablarch.etl.config.DbToDbStepConfig.UpdateSize;
+import nablarch.etl.dialect.DefaultEtlDialect;
+import nablarch.etl.dialect.EtlDialect;
+import nablarch.etl.dialect.EtlDialectResolver;
+import nablarch.etl.dialect.OracleEtlDialect;
 import nablarch.fw.batch.ee.progress.BasicProgressManager;
 import nablarch.test.support.SystemRepositoryResource;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
@@ -40,8 +46,12 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.Verifications;
+import mockit.VerificationsInOrder;
 
 /**
  * {@link DeleteInsertBatchlet}のテストクラス。
@@ -95,6 +105,8 @@ public class DeleteInsertBatchletTest {
 
     @After
     public void tearDown() throws Exception {
+        repositoryResource.addComponent("etlDialects", null);
+        Deencapsulation.invoke(EtlDialectResolver.class, "clearCache");
         TransactionContext.removeTransaction();
         connection.rollback();
         connection.terminate();
@@ -282,6 +294,7 @@ public class DeleteInsertBatchletTest {
         final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
         stepConfig.setSqlId("SELECT_ALL");
         stepConfig.setBean(BulkInsertEntity.class);
+        useDirectPathDialect();
         stepConfig.setInsertMode(InsertMode.ORACLE_DIRECT_PATH);
         stepConfig.initialize();
 
@@ -322,6 +335,204 @@ public class DeleteInsertBatchletTest {
         ));
     }
 
+    /**
+     * 別のデータベース接続から取得したデータを、コミット間隔ごとにコミットしながら登録できること。
+     */
+    @Test
+    public void copyFromSourceConnection() throws Exception {
+
+        // -------------------------------------------------- setup work table data
+        VariousDbTestHelper.insert(
+                new WorkTableEntity(1L, 1L, "last1", "first1", "北海道"),
+                new WorkTableEntity(2L, 2L, "last2", "first2", "東京"),
+                new WorkTableEntity(3L, 3L, "last3", "first3", "長野"),
+                new WorkTableEntity(4L, 4L, "last4", "first4", "大阪"),
+                new WorkTableEntity(5L, 5L, "last5", "first5", "福岡"),
+                new WorkTableEntity(6L, 6L, "last6", "first6", "沖縄")
+        );
+
+        // 既存のデータ
+        VariousDbTestHelper.insert(
+                new BulkInsertEntity(3L, "last", "first", "fuga")
+        );
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setSqlId("SELECT_ALL");
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setSourceConnectionFactory("connectionFactory");
+        stepConfig.setCommitInterval(4);
+        stepConfig.setQueueSize(2);
+        stepConfig.setCountSource(true);
+        stepConfig.initialize();
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        // -------------------------------------------------- execute
+        sut.process();
+
+        // -------------------------------------------------- assert
+        final List<BulkInsertEntity> result = VariousDbTestHelper.findAll(BulkInsertEntity.class, "userId");
+        assertThat("delete -> insertで6レコード登録され、コミットされていること", result.size(), is(6));
+
+        int index = 0;
+        String[] address = {"北海道", "東京", "長野", "大阪", "福岡", "沖縄"};
+        for (BulkInsertEntity entity : result) {
+            index++;
+            assertThat(entity.userId, is((long) index));
+            assertThat(entity.lastName, is("last" + index));
+            assertThat(entity.firstName, is("first" + index));
+            assertThat(entity.address, is(address[index - 1]));
+        }
+
+        // -------------------------------------------------- assert log
+        OnMemoryLogWriter.assertLogContains("writer.sql", "values (?,?,?,?)");
+        final List<String> messages = OnMemoryLogWriter.getMessages("writer.progress");
+        assertThat(messages, Matchers.contains(
+                containsString("-INFO- job name: [test-job] step name: [test-step] table name: [bulk_insert_entity] delete count: [1]"),
+                containsString("-INFO- job name: [test-job] step name: [test-step] input count: [6]"),
+                allOf(
+                        containsString("-INFO- job name: [test-job] step name: [test-step]"),
+                        containsString("remaining count: [2]")
+                ),
+                allOf(
+                        containsString("-INFO- job name: [test-job] step name: [test-step]"),
+                        containsString("remaining count: [0]")
+                )
+        ));
+    }
+
+    /**
+     * 別のデータベース接続から移送する場合に、入力元の件数を数えない場合は、登録件数が進捗ログに出力されること。
+     */
+    @Test
+    public void copyFromSourceConnectionWithoutCount() throws Exception {
+
+        // -------------------------------------------------- setup work table data
+        VariousDbTestHelper.insert(
+                new WorkTableEntity(1L, 1L, "last1", "first1", "北海道"),
+                new WorkTableEntity(2L, 2L, "last2", "first2", "東京"),
+                new WorkTableEntity(3L, 3L, "last3", "first3", "長野"),
+                new WorkTableEntity(4L, 4L, "last4", "first4", "大阪"),
+                new WorkTableEntity(5L, 5L, "last5", "first5", "福岡")
+        );
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setSqlId("SELECT_ALL");
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setSourceConnectionFactory("connectionFactory");
+        stepConfig.setCommitInterval(4);
+        stepConfig.setQueueSize(2);
+        stepConfig.initialize();
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        // -------------------------------------------------- execute
+        sut.process();
+
+        // -------------------------------------------------- assert
+        assertThat(VariousDbTestHelper.findAll(BulkInsertEntity.class).size(), is(5));
+
+        final List<String> messages = OnMemoryLogWriter.getMessages("writer.progress");
+        assertThat(messages, Matchers.contains(
+                containsString("-INFO- job name: [test-job] step name: [test-step] table name: [bulk_insert_entity] delete count: [0]"),
+                containsString("-INFO- job name: [test-job] step name: [test-step] insert count: [4]"),
+                containsString("-INFO- job name: [test-job] step name: [test-step] insert count: [5]")
+        ));
+        OnMemoryLogWriter.assertLogContains("writer.sql", "values (?,?,?,?)");
+    }
+
+    /**
+     * 別のデータベース接続から移送する場合に、登録で例外が発生した場合は、
+     * 読み込みスレッドが終了してから例外が送出されること。
+     */
+    @Test
+    public void copyFromSourceConnectionFailed() throws Exception {
+
+        // -------------------------------------------------- setup work table data
+        for (long i = 1; i <= 20; i++) {
+            VariousDbTestHelper.insert(new WorkTableEntity(i, i, "last" + i, "first" + i, "address" + i));
+        }
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setSqlId("SELECT_DUPLICATE_KEY");
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setSourceConnectionFactory("connectionFactory");
+        stepConfig.setCommitInterval(4);
+        stepConfig.setQueueSize(2);
+        stepConfig.initialize();
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        // -------------------------------------------------- execute
+        try {
+            sut.process();
+            fail("一意制約違反で例外が発生するため、ここは通らない");
+        } catch (DbAccessException e) {
+            // 一意制約違反
+        }
+
+        // -------------------------------------------------- assert
+        assertThat("読み込みスレッドが残っていないこと", findReaderThread(), is(nullValue()));
+    }
+
+    /**
+     * 移送元のデータを読み込むスレッドを探す。
+     *
+     * @return 読み込みスレッド。存在しない場合は{@code null}
+     */
+    private static Thread findReaderThread() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && "etl-source-reader".equals(thread.getName())) {
+                return thread;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 別のデータベース接続から移送する場合に、更新サイズが指定されている場合はエラーとなること。
+     */
+    @Test
+    public void testSpecifySourceConnectionFactoryAndUpdateSize() throws Exception {
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setSqlId("dummy");
+        stepConfig.setSourceConnectionFactory("connectionFactory");
+        final UpdateSize size = new UpdateSize();
+        size.setSize(10);
+        size.setBean(WorkTableEntity.class);
+        stepConfig.setUpdateSize(size);
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("sourceConnectionFactory does not support UpdateSize.");
+        sut.process();
+    }
+
     /**
      * Rangeで分割してInsert処理が実行できること
      */
@@ -500,6 +711,7 @@ public class DeleteInsertBatchletTest {
         final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
         stepConfig.setSqlId("SELECT_ALL_WITH_RANGE");
         stepConfig.setBean(ArrayList.class);
+        useDirectPathDialect();
         stepConfig.setInsertMode(InsertMode.ORACLE_DIRECT_PATH);
         
         final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
@@ -521,6 +733,173 @@ public class DeleteInsertBatchletTest {
         assertThat("IDは3", result.get(0).userId, is(3L));
     }
 
+    /**
+     * 接続先のデータベースがダイレクトパスインサートをサポートしていない場合、
+     * クリーニングを行わずに例外が送出されること。
+     */
+    @Test
+    public void unsupportedInsertMode_shouldThrowException() throws Exception {
+        repositoryResource.addComponent("etlDialects", Arrays.asList(new DefaultEtlDialect()));
+        Deencapsulation.invoke(EtlDialectResolver.class, "clearCache");
+
+        VariousDbTestHelper.insert(new BulkInsertEntity(3L, "last", "first", "fuga"));
+
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setSqlId("SELECT_ALL");
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setInsertMode(InsertMode.ORACLE_DIRECT_PATH);
+        stepConfig.initialize();
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        try {
+            sut.process();
+            fail("ここは通過しない");
+        } catch (InvalidEtlConfigException e) {
+            assertThat(e.getMessage(), containsString(
+                    "insert mode is not supported by the database. insert mode = [ORACLE_DIRECT_PATH]"));
+        }
+        connection.commit();
+
+        assertThat("クリーニングされていないこと",
+                VariousDbTestHelper.findAll(BulkInsertEntity.class).size(), is(1));
+    }
+
+    /**
+     * パラレルダイレクトパスインサートの場合、NOLOGGINGへの変更、クリーニングのコミット、パラレルDMLの有効化、
+     * 登録、パラレルDMLの無効化、LOGGINGへの変更の順に実行されること。
+     * <p/>
+     * Oracle固有のalter文はモックのステートメントで実行する。
+     */
+    @Test
+    public void parallelInsert(@Mocked final SqlPStatement alterStatement) throws Exception {
+        // -------------------------------------------------- setup data
+        VariousDbTestHelper.insert(
+                new WorkTableEntity(1L, 1L, "last1", "first1", "北海道"),
+                new WorkTableEntity(2L, 2L, "last2", "first2", "東京")
+        );
+        VariousDbTestHelper.insert(new BulkInsertEntity(3L, "last", "first", "fuga"));
+
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setSqlId("SELECT_ALL");
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setInsertMode(InsertMode.ORACLE_PARALLEL_DIRECT);
+        stepConfig.setNoLogging(true);
+        stepConfig.initialize();
+        useDirectPathDialect();
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        new NonStrictExpectations(connection) {{
+            connection.prepareStatement(withPrefix("alter "));
+            result = alterStatement;
+        }};
+
+        // -------------------------------------------------- execute
+        assertThat(sut.process(), is("SUCCESS"));
+
+        // -------------------------------------------------- assert
+        final List<BulkInsertEntity> result = VariousDbTestHelper.findAll(BulkInsertEntity.class, "userId");
+        assertThat("クリーニング後に2レコード移送されていること", result.size(), is(2));
+        assertThat(result.get(0).userId, is(1L));
+        assertThat(result.get(1).userId, is(2L));
+
+        new VerificationsInOrder() {{
+            connection.prepareStatement("alter table bulk_insert_entity nologging");
+            connection.prepareStatement("delete from bulk_insert_entity");
+            connection.commit();
+            connection.prepareStatement("alter session enable parallel dml");
+            connection.prepareStatement(withPrefix("insert /*+ APPEND PARALLEL */ into"));
+            connection.commit();
+            connection.prepareStatement("alter session disable parallel dml");
+            connection.prepareStatement("alter table bulk_insert_entity logging");
+        }};
+        new Verifications() {{
+            alterStatement.execute();
+            times = 4;
+        }};
+    }
+
+    /**
+     * パラレルダイレクトパスインサートの登録処理に失敗した場合、
+     * ロールバック後にパラレルDMLの無効化とLOGGINGへの変更が実行され、例外が送出されること。
+     */
+    @Test
+    public void parallelInsertFailed(@Mocked final SqlPStatement alterStatement) throws Exception {
+        // -------------------------------------------------- setup data
+        VariousDbTestHelper.insert(
+                new WorkTableEntity(1L, 1L, "last1", "first1", "北海道"),
+                new WorkTableEntity(2L, 2L, "last2", "first2", "東京")
+        );
+
+        final DbToDbStepConfig stepConfig = new DbToDbStepConfig();
+        stepConfig.setSqlId("SELECT_DUPLICATE_KEY");
+        stepConfig.setBean(BulkInsertEntity.class);
+        stepConfig.setInsertMode(InsertMode.ORACLE_PARALLEL_DIRECT);
+        stepConfig.setNoLogging(true);
+        stepConfig.initialize();
+        useDirectPathDialect();
+
+        final DeleteInsertBatchlet sut = new DeleteInsertBatchlet(
+                mockJobContext,
+                mockStepContext,
+                new RangeUpdateHelper(mockJobContext, mockStepContext),
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        new NonStrictExpectations(connection) {{
+            connection.prepareStatement(withPrefix("alter "));
+            result = alterStatement;
+        }};
+
+        // -------------------------------------------------- execute
+        try {
+            sut.process();
+            fail("一意制約違反で例外が発生するため、ここは通らない");
+        } catch (DbAccessException e) {
+            // 一意制約違反
+        }
+
+        // -------------------------------------------------- assert
+        new VerificationsInOrder() {{
+            connection.prepareStatement("alter table bulk_insert_entity nologging");
+            connection.prepareStatement("alter session enable parallel dml");
+            connection.prepareStatement(withPrefix("insert /*+ APPEND PARALLEL */ into"));
+            connection.rollback();
+            connection.prepareStatement("alter session disable parallel dml");
+            connection.prepareStatement("alter table bulk_insert_entity logging");
+        }};
+        new Verifications() {{
+            alterStatement.execute();
+            times = 4;
+        }};
+    }
+
+    /**
+     * 接続先のデータベースに関わらず、ダイレクトパスインサートをサポートするOracleのダイアレクトを使用する。
+     * <p/>
+     * Oracleのヒント句は、Oracle以外のデータベースではコメントとして無視される。
+     */
+    private static void useDirectPathDialect() {
+        repositoryResource.addComponent("etlDialects", Arrays.<EtlDialect>asList(new OracleEtlDialect() {
+            @Override
+            public boolean isTarget(final String url) {
+                return true;
+            }
+        }));
+        Deencapsulation.invoke(EtlDialectResolver.class, "clearCache");
+    }
+
     /**
      * ワークテーブルからデータを抽出するSQL文を生成する。
      */
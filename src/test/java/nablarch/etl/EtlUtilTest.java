@@ -1,6 +1,8 @@
 package nablarch.etl;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.isEmptyString;
 import static org.junit.Assert.*;
@@ -9,19 +11,25 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import mockit.Deencapsulation;
 import mockit.NonStrictExpectations;
 import nablarch.common.dao.DatabaseUtil;
 import nablarch.core.db.connection.ConnectionFactory;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.transaction.TransactionContext;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.etl.config.JobConfig;
+import nablarch.etl.config.StepConfig;
 import nablarch.etl.generator.MergeSqlGeneratorFactory;
 import nablarch.test.support.SystemRepositoryResource;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
@@ -92,6 +100,63 @@ public class EtlUtilTest {
         expected.close();
     }
 
+    /**
+     * {@link SchemaMetaDataCache}が有効な場合、{@link EtlUtil#getAllColumns(String)}の結果がキャッシュされること。
+     */
+    @Test
+    public void getAllColumns_cached() throws Exception {
+        resource.addComponent("nablarch.etl.schemaMetaDataCache.enabled", "true");
+        try {
+            SchemaMetaDataCache.invalidateAll();
+            final List<String> columns = EtlUtil.getAllColumns("etl_util");
+            assertThat("カラム数は3", columns.size(), is(3));
+            assertThat("キャッシュされた結果が返されること",
+                    EtlUtil.getAllColumns("etl_util"), sameInstance(columns));
+
+            SchemaMetaDataCache.invalidate("etl_util");
+            final List<String> reloaded = EtlUtil.getAllColumns("etl_util");
+            assertThat("破棄後は再取得されること", reloaded, not(sameInstance(columns)));
+            assertThat(reloaded, is(columns));
+        } finally {
+            resource.addComponent("nablarch.etl.schemaMetaDataCache.enabled", "false");
+            SchemaMetaDataCache.invalidateAll();
+        }
+    }
+
+    /**
+     * {@link SchemaMetaDataCache}に登録したEntityのカラム情報が、最初のカラム情報の取得時にまとめて取得されること。
+     */
+    @Test
+    public void getAllColumns_prefetchRegisteredEntities() throws Exception {
+        resource.addComponent("nablarch.etl.schemaMetaDataCache.enabled", "true");
+        try {
+            SchemaMetaDataCache.invalidateAll();
+            final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+            stepConfig.setBean(EtlUtilEntity.class);
+            final JobConfig jobConfig = new JobConfig();
+            jobConfig.setSteps(Collections.<String, StepConfig>singletonMap("step", stepConfig));
+            SchemaMetaDataCache.register(jobConfig);
+
+            final Map<String, List<String>> cache = Deencapsulation.getField(SchemaMetaDataCache.class, "COLUMNS");
+            assertThat("登録時にはカラム情報を取得しないこと", cache.isEmpty(), is(true));
+
+            EtlUtil.getAllColumns("etl_util_other");
+
+            final String suffix = '\t' + DatabaseUtil.convertIdentifiers("etl_util");
+            boolean prefetched = false;
+            for (Map.Entry<String, List<String>> entry : cache.entrySet()) {
+                if (entry.getKey().endsWith(suffix)) {
+                    prefetched = true;
+                    assertThat("カラム数は3", entry.getValue().size(), is(3));
+                }
+            }
+            assertThat("登録したEntityのカラム情報が取得されていること", prefetched, is(true));
+        } finally {
+            resource.addComponent("nablarch.etl.schemaMetaDataCache.enabled", "false");
+            SchemaMetaDataCache.invalidateAll();
+        }
+    }
+
     /**
      * {@link EtlUtil#getAllColumns(String)}でデータベース関連の例外が発生するケース
      */
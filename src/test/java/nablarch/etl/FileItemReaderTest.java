@@ -7,12 +7,17 @@ import static org.junit.Assert.fail;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.util.zip.GZIPOutputStream;
 
 import javax.batch.operations.BatchRuntimeException;
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
 
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
 import nablarch.common.databind.csv.Csv;
 import nablarch.core.repository.SystemRepository;
 import nablarch.etl.config.FileToDbStepConfig;
@@ -158,6 +163,256 @@ public class FileItemReaderTest {
         assertThat("3レコードで終わり", sut.readItem(), is(nullValue()));
     }
 
+    /**
+     * 複数のメンバーで構成されたgzip形式のファイルが読み込めることを検証する。
+     */
+    @Test
+    public void readConcatenatedGzipFile() throws Exception {
+
+        // -------------------------------------------------- setup file
+        final File file = new File(temporaryFolder.getRoot(), "dummy.csv.gz");
+        final FileOutputStream out = new FileOutputStream(file);
+        for (String line : new String[] {"1,なまえ1\r\n", "2,なまえ2\r\n"}) {
+            final GZIPOutputStream member = new GZIPOutputStream(out) {
+                @Override
+                public void close() throws IOException {
+                    finish();
+                }
+            };
+            member.write(line.getBytes("utf-8"));
+            member.close();
+        }
+        out.close();
+
+        // -------------------------------------------------- setup objects that is injected
+        final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+        stepConfig.setBean(CsvFile.class);
+        stepConfig.setFileName("dummy.csv.gz");
+
+        final FileItemReader sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+        sut.open(null);
+
+        assertThat(OnMemoryLogWriter.getMessages("writer.progress").get(0), containsString(
+                "-INFO- job name: [test-job] step name: [test-step] input count: [2]"));
+        assertThat(((CsvFile) sut.readItem()).getName(), is("なまえ1"));
+        assertThat(((CsvFile) sut.readItem()).getName(), is("なまえ2"));
+        assertThat("2レコードで終わり", sut.readItem(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 高速な読み込みを行う場合に、ヘッダ行を読み飛ばし、囲み文字や数値型のプロパティを含むファイルが読み込めることを検証する。
+     */
+    @Test
+    public void readFileWithFastParsing() throws Exception {
+
+        // -------------------------------------------------- setup file
+        final File file = new File(temporaryFolder.getRoot(), "dummy");
+        final BufferedWriter br = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "utf-8"));
+        br.write("ユーザID,名前,金額\r\n");
+        br.write("1,\"なまえ,1\",100.5\r\n");
+        br.write("2,\"\"\"なまえ2\"\"\",\r\n");
+        br.write("3,なまえ3,-3\r\n");
+        br.close();
+
+        // -------------------------------------------------- setup objects that is injected
+        final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+        stepConfig.setBean(FastCsvFile.class);
+        stepConfig.setFileName("dummy");
+        stepConfig.setFastParsing(true);
+
+        final FileItemReader sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+        sut.open(null);
+
+        assertThat(OnMemoryLogWriter.getMessages("writer.progress").get(0), containsString(
+                "-INFO- job name: [test-job] step name: [test-step] input count: [3]"));
+
+        FastCsvFile actual = (FastCsvFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(2L));
+        assertThat(actual.getUserId(), is(1L));
+        assertThat(actual.getName(), is("なまえ,1"));
+        assertThat(actual.getAmount(), is(new BigDecimal("100.5")));
+
+        actual = (FastCsvFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(3L));
+        assertThat(actual.getUserId(), is(2L));
+        assertThat(actual.getName(), is("\"なまえ2\""));
+        assertThat(actual.getAmount(), is(nullValue()));
+
+        actual = (FastCsvFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(4L));
+        assertThat(actual.getUserId(), is(3L));
+        assertThat(actual.getName(), is("なまえ3"));
+        assertThat(actual.getAmount(), is(new BigDecimal("-3")));
+
+        assertThat("3レコードで終わり", sut.readItem(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 固定長ファイルを読み込めること。
+     * <p/>
+     * 項目の前後のスペースが除去され、レコードの番号が設定されること。
+     */
+    @Test
+    public void readFixedLengthFile() throws Exception {
+
+        // -------------------------------------------------- setup file
+        writeFixedLengthFile("    1なまえ1   \r\n   20name2     \r\n  300なまえ3   ");
+
+        // -------------------------------------------------- setup objects that is injected
+        final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+        stepConfig.setBean(FixedLengthFile.class);
+        stepConfig.setFileName("dummy");
+
+        final FileItemReader sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+        sut.open(null);
+
+        assertThat(OnMemoryLogWriter.getMessages("writer.progress").get(0), containsString(
+                "-INFO- job name: [test-job] step name: [test-step] input count: [3]"));
+
+        FixedLengthFile actual = (FixedLengthFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(1L));
+        assertThat(actual.getUserId(), is(1L));
+        assertThat(actual.getName(), is("なまえ1"));
+
+        actual = (FixedLengthFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(2L));
+        assertThat(actual.getUserId(), is(20L));
+        assertThat(actual.getName(), is("name2"));
+        assertThat((Long) sut.checkpointInfo(), is(2L));
+
+        actual = (FixedLengthFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(3L));
+        assertThat(actual.getUserId(), is(300L));
+        assertThat(actual.getName(), is("なまえ3"));
+
+        assertThat("3レコードで終わり", sut.readItem(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 固定長ファイルの場合は、レコードの範囲のみを読み込み、チェックポイントの位置から再開できること。
+     */
+    @Test
+    public void readFixedLengthFileWithRangeAndCheckpoint() throws Exception {
+
+        // -------------------------------------------------- setup file
+        writeFixedLengthFile("    1name1     \r\n    2name2     \r\n    3name3     \r\n    4name4     \r\n");
+
+        // -------------------------------------------------- setup objects that is injected
+        final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+        stepConfig.setBean(FixedLengthFile.class);
+        stepConfig.setFileName("dummy");
+
+        FileItemReader sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+        sut.recordFrom = "2";
+        sut.recordTo = "3";
+        sut.open(null);
+
+        assertThat(OnMemoryLogWriter.getMessages("writer.progress").get(0), containsString(
+                "-INFO- job name: [test-job] step name: [test-step] input count: [2]"));
+        assertThat(((FixedLengthFile) sut.readItem()).getUserId(), is(2L));
+        assertThat(((FixedLengthFile) sut.readItem()).getUserId(), is(3L));
+        assertThat("範囲の終わりで終わり", sut.readItem(), is(nullValue()));
+        sut.close();
+
+        // restart from the checkpoint
+        sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+        sut.recordFrom = "2";
+        sut.recordTo = "3";
+        sut.open(2L);
+
+        final FixedLengthFile actual = (FixedLengthFile) sut.readItem();
+        assertThat(actual.getLineNumber(), is(3L));
+        assertThat(actual.getName(), is("name3"));
+        assertThat(sut.readItem(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 固定長ファイルのサイズがレコードの長さと一致しない場合は例外が送出されること。
+     */
+    @Test
+    public void invalidFixedLengthFileSize() throws Exception {
+
+        // -------------------------------------------------- setup file
+        writeFixedLengthFile("    1name1     \r\n    2name2");
+
+        // -------------------------------------------------- setup objects that is injected
+        final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+        stepConfig.setBean(FixedLengthFile.class);
+        stepConfig.setFileName("dummy");
+
+        final FileItemReader sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        expectedException.expect(InvalidDataFormatException.class);
+        expectedException.expectMessage("file size does not match the record length.");
+        sut.open(null);
+    }
+
+    /**
+     * 高速な読み込みを行う場合に、数値型のプロパティに数値以外の値があると例外が送出されること。
+     */
+    @Test
+    public void readInvalidNumberWithFastParsing() throws Exception {
+
+        // -------------------------------------------------- setup file
+        final File file = new File(temporaryFolder.getRoot(), "dummy");
+        final BufferedWriter br = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "utf-8"));
+        br.write("ユーザID,名前,金額\r\n");
+        br.write("1a,なまえ1,100\r\n");
+        br.close();
+
+        // -------------------------------------------------- setup objects that is injected
+        final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+        stepConfig.setBean(FastCsvFile.class);
+        stepConfig.setFileName("dummy");
+        stepConfig.setFastParsing(true);
+
+        final FileItemReader sut = new FileItemReader(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                temporaryFolder.getRoot(),
+                new BasicProgressManager(mockJobContext, mockStepContext));
+        sut.open(null);
+
+        expectedException.expect(InvalidDataFormatException.class);
+        expectedException.expectMessage("invalid number. property name = [userId], value = [1a].");
+        sut.readItem();
+    }
+
     /**
      * クローズを呼び出すことでファイルが閉じられること
      * <p/>
@@ -227,6 +482,13 @@ public class FileItemReaderTest {
         }
     }
 
+    private void writeFixedLengthFile(String data) throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), "dummy");
+        final FileOutputStream out = new FileOutputStream(file);
+        out.write(data.getBytes("windows-31j"));
+        out.close();
+    }
+
     @Csv(
             type = Csv.CsvType.EXCEL,
             properties = {"userId", "name"}
@@ -253,4 +515,90 @@ public class FileItemReaderTest {
             this.name = name;
         }
     }
-}
\ No newline at end of file
+
+    @Csv(
+            type = Csv.CsvType.DEFAULT,
+            headers = {"ユーザID", "名前", "金額"},
+            properties = {"userId", "name", "amount"}
+    )
+    public static class FastCsvFile {
+
+        private Long lineNumber;
+
+        private Long userId;
+
+        private String name;
+
+        private BigDecimal amount;
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    @FixedLengthRecord(length = 15, charset = "windows-31j", lineSeparator = "\r\n")
+    public static class FixedLengthFile {
+
+        private Long lineNumber;
+
+        private Long userId;
+
+        private String name;
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        @FixedLengthField(offset = 1, length = 5)
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        @FixedLengthField(offset = 6, length = 10)
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.Reader;
+import java.io.Serializable;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -166,6 +168,292 @@ public class FileItemWriterTest {
                         + "10003,30000\r\n"));
     }
 
+    /**
+     * バッファのサイズより大きいデータを複数のチャンクに分けて書き込めること。
+     * <p/>
+     * チェックポイントでストレージに同期した場合も、出力内容が変わらないこと。
+     */
+    @Test
+    public void testWriteMultiChunksWithSmallBuffer() throws Exception {
+
+        final File outputFileBasePath = temporaryFolder.newFolder();
+        final File output = new File(outputFileBasePath, "dummy");
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy");
+        stepConfig.setBufferSize(4);
+        stepConfig.setSyncOnCheckpoint(true);
+
+        final FileItemWriter sut = new FileItemWriter(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                outputFileBasePath
+        );
+
+        sut.open(null);
+        sut.writeItems(Arrays.<Object>asList(
+                EtlFileItemWriterBean.create("10001", 10000),
+                EtlFileItemWriterBean.create("10002", 20000)));
+        sut.checkpointInfo();
+        sut.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("10003", 30000)));
+        sut.checkpointInfo();
+        sut.close();
+
+        final String expected = "FIELD-NAME1,FIELD-NAME2\r\n"
+                + "10001,10000\r\n"
+                + "10002,20000\r\n"
+                + "10003,30000\r\n";
+        assertThat("全てのチャンクのデータがファイル出力されること", readFile(output), is(expected));
+        assertThat("書き込んだバイト数がログに出力されること",
+                OnMemoryLogWriter.getMessages("writer.memory").toString(),
+                containsString("written bytes=[" + expected.length() + ']'));
+    }
+
+    /**
+     * 異常終了した場合は一時ファイルが残り、再実行時はチェックポイントの位置から書き込みが再開されること。
+     */
+    @Test
+    public void testRestartFromCheckpoint() throws Exception {
+
+        final File outputFileBasePath = temporaryFolder.newFolder();
+        final File output = new File(outputFileBasePath, "dummy");
+        final File temporary = new File(outputFileBasePath, "dummy.tmp");
+
+        new NonStrictExpectations() {{
+            mockStepContext.getException();
+            result = new IllegalStateException("failed.");
+            result = null;
+        }};
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy");
+
+        final FileItemWriter failed = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+        failed.open(null);
+        failed.writeItems(Arrays.<Object>asList(
+                EtlFileItemWriterBean.create("10001", 10000),
+                EtlFileItemWriterBean.create("10002", 20000)));
+        final Serializable checkpoint = failed.checkpointInfo();
+        // チェックポイント後に書き込んだデータはコミットされていない
+        failed.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("99999", 99999)));
+        failed.close();
+
+        assertThat("異常終了した場合は出力ファイルが作成されないこと", output.exists(), is(false));
+        assertThat("チェックポイントには書き込み済みのバイト数が保持されること",
+                ((FileItemWriter.Checkpoint) checkpoint).getOffset(),
+                is((long) "FIELD-NAME1,FIELD-NAME2\r\n10001,10000\r\n10002,20000\r\n".length()));
+
+        final FileItemWriter restarted = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+        restarted.open(checkpoint);
+        restarted.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("10003", 30000)));
+        restarted.close();
+
+        assertThat("チェックポイント以降のデータが書き込まれること",
+                readFile(output),
+                is("FIELD-NAME1,FIELD-NAME2\r\n"
+                        + "10001,10000\r\n"
+                        + "10002,20000\r\n"
+                        + "10003,30000\r\n"));
+        assertThat("一時ファイルはリネームされていること", temporary.exists(), is(false));
+    }
+
+    /**
+     * 一時ファイルがチェックポイントより短い場合は例外が送出されること。
+     */
+    @Test
+    public void temporaryFileIsShorterThanCheckpoint_shouldThrowException() throws Exception {
+
+        final File outputFileBasePath = temporaryFolder.newFolder();
+
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy");
+        final FileItemWriter sut = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("temporary file is shorter than the checkpoint.");
+        sut.open(new FileItemWriter.Checkpoint(1, 100L, 0L, 100L, Collections.<FileItemWriter.PartSummary>emptyList()));
+    }
+
+    /**
+     * レコード数の上限でファイルが分割され、マニフェストファイルが出力されること。
+     */
+    @Test
+    public void testRollingByRecordCount() throws Exception {
+
+        final File outputFileBasePath = temporaryFolder.newFolder();
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy_%02d.csv");
+        stepConfig.setMaxRecordsPerFile(2L);
+        stepConfig.setManifestFileName("manifest.txt");
+
+        final FileItemWriter sut = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+        sut.open(null);
+        sut.writeItems(Arrays.<Object>asList(
+                EtlFileItemWriterBean.create("10001", 10000),
+                EtlFileItemWriterBean.create("10002", 20000),
+                EtlFileItemWriterBean.create("10003", 30000)));
+        sut.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("10004", 40000)));
+        sut.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("10005", 50000)));
+        sut.close();
+
+        final String part1 = "FIELD-NAME1,FIELD-NAME2\r\n10001,10000\r\n10002,20000\r\n";
+        final String part2 = "FIELD-NAME1,FIELD-NAME2\r\n10003,30000\r\n10004,40000\r\n";
+        final String part3 = "FIELD-NAME1,FIELD-NAME2\r\n10005,50000\r\n";
+        assertThat(readFile(new File(outputFileBasePath, "dummy_01.csv")), is(part1));
+        assertThat(readFile(new File(outputFileBasePath, "dummy_02.csv")), is(part2));
+        assertThat(readFile(new File(outputFileBasePath, "dummy_03.csv")), is(part3));
+        assertThat("分割されたファイルの一時ファイルは残らないこと",
+                new File(outputFileBasePath, "dummy_01.csv.tmp").exists(), is(false));
+
+        assertThat("ファイルごとのレコード数とチェックサムが出力されること",
+                readFile(new File(outputFileBasePath, "manifest.txt")),
+                is("dummy_01.csv,2," + md5(part1) + "\r\n"
+                        + "dummy_02.csv,2," + md5(part2) + "\r\n"
+                        + "dummy_03.csv,1," + md5(part3) + "\r\n"));
+        assertThat("分割して出力したファイル名がログに出力されること",
+                OnMemoryLogWriter.getMessages("writer.memory").toString(),
+                containsString("output directory=[" + outputFileBasePath.getAbsolutePath() + "],"
+                        + " files=[dummy_01.csv, dummy_02.csv, dummy_03.csv], file count=[3]"));
+    }
+
+    /**
+     * バイト数の上限でファイルが分割され、再実行時はチェックポイントの後に切り替えたファイルが出力し直されること。
+     */
+    @Test
+    public void testRollingByBytesAndRestart() throws Exception {
+
+        final File outputFileBasePath = temporaryFolder.newFolder();
+
+        new NonStrictExpectations() {{
+            mockStepContext.getException();
+            result = new IllegalStateException("failed.");
+            result = null;
+        }};
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy_%d.csv");
+        // ヘッダ(25バイト)と2レコード(13バイト)まで
+        stepConfig.setMaxBytesPerFile(51L);
+        stepConfig.setManifestFileName("manifest.txt");
+
+        final FileItemWriter failed = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+        failed.open(null);
+        failed.writeItems(Arrays.<Object>asList(
+                EtlFileItemWriterBean.create("10001", 10000),
+                EtlFileItemWriterBean.create("10002", 20000),
+                EtlFileItemWriterBean.create("10003", 30000)));
+        final Serializable checkpoint = failed.checkpointInfo();
+        assertThat(((FileItemWriter.Checkpoint) checkpoint).getSequence(), is(2));
+        // チェックポイント後に書き込んだデータはコミットされていない
+        failed.writeItems(Arrays.<Object>asList(
+                EtlFileItemWriterBean.create("99991", 99999),
+                EtlFileItemWriterBean.create("99992", 99999)));
+        failed.close();
+        assertThat("チェックポイント後に切り替えたファイルの一時ファイルが作成されていること",
+                new File(outputFileBasePath, "dummy_3.csv.tmp").exists(), is(true));
+
+        final FileItemWriter restarted = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+        restarted.open(checkpoint);
+        assertThat("チェックポイント後に切り替えたファイルの一時ファイルが削除されること",
+                new File(outputFileBasePath, "dummy_3.csv.tmp").exists(), is(false));
+        restarted.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("10004", 40000)));
+        restarted.close();
+
+        final String part1 = "FIELD-NAME1,FIELD-NAME2\r\n10001,10000\r\n10002,20000\r\n";
+        final String part2 = "FIELD-NAME1,FIELD-NAME2\r\n10003,30000\r\n10004,40000\r\n";
+        assertThat(readFile(new File(outputFileBasePath, "dummy_1.csv")), is(part1));
+        assertThat(readFile(new File(outputFileBasePath, "dummy_2.csv")), is(part2));
+        assertThat(new File(outputFileBasePath, "dummy_3.csv").exists(), is(false));
+        assertThat("再実行前に書き込んだデータも含めてチェックサムが計算されること",
+                readFile(new File(outputFileBasePath, "manifest.txt")),
+                is("dummy_1.csv,2," + md5(part1) + "\r\n"
+                        + "dummy_2.csv,2," + md5(part2) + "\r\n"));
+    }
+
+    /**
+     * ファイルを分割する場合に、ファイル名に連番のパターンがない場合は例外が送出されること。
+     */
+    @Test
+    public void rollingFileNameWithoutSequence_shouldThrowException() throws Exception {
+
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy.csv");
+        stepConfig.setMaxRecordsPerFile(100L);
+        final FileItemWriter sut = new FileItemWriter(mockJobContext, mockStepContext, stepConfig,
+                temporaryFolder.getRoot());
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("fileName must contain a sequence number pattern when splitting the output file."
+                + " jobId = [test-job], stepId = [test-step], fileName = [dummy.csv]");
+        sut.open(null);
+    }
+
+    /**
+     * パーティションの場合は、パーティションごとのファイルに出力されること。
+     */
+    @Test
+    public void testWritePartition() throws Exception {
+
+        final File outputFileBasePath = temporaryFolder.newFolder();
+
+        // -------------------------------------------------- setup objects that is injected
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy");
+
+        final FileItemWriter sut = new FileItemWriter(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+        Deencapsulation.setField(sut, "partition", "2");
+
+        sut.open(null);
+        sut.writeItems(Collections.<Object>singletonList(EtlFileItemWriterBean.create("10001", 10000)));
+        sut.close();
+
+        assertThat("結合するファイルの2つ目以降のパーティションにはヘッダが出力されないこと",
+                readFile(new File(outputFileBasePath, "dummy.part002")), is("10001,10000\r\n"));
+        assertThat(new File(outputFileBasePath, "dummy").exists(), is(false));
+        assertThat("パーティションのファイル名がログに出力されること",
+                OnMemoryLogWriter.getMessages("writer.memory").toString(),
+                containsString("files=[dummy.part002], file count=[1]"));
+    }
+
+    /**
+     * バッファのサイズが0以下の場合は例外が送出されること。
+     */
+    @Test
+    public void invalidBufferSize_shouldThrowException() throws Exception {
+
+        final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+        stepConfig.setBean(EtlFileItemWriterBean.class);
+        stepConfig.setFileName("dummy");
+        stepConfig.setBufferSize(0);
+        final FileItemWriter sut = new FileItemWriter(mockJobContext, mockStepContext, stepConfig,
+                temporaryFolder.getRoot());
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage(
+                "bufferSize must be greater than 0. jobId = [test-job], stepId = [test-step], bufferSize = [0]");
+        sut.open(null);
+    }
+
     /**
      * クローズを呼び出すことでファイルが閉じられること
      * <p/>
@@ -238,6 +526,21 @@ public class FileItemWriterTest {
         }
     }
 
+    /**
+     * 文字列のMD5のチェックサムを16進数で取得する。
+     *
+     * @param text 文字列
+     * @return チェックサム
+     */
+    private static String md5(String text) throws Exception {
+        final byte[] digest = MessageDigest.getInstance("MD5").digest(text.getBytes("UTF-8"));
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
     /**
      * テストで出力されたファイルを読み込む。
      *
@@ -0,0 +1,163 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Properties;
+
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.operations.BatchRuntimeException;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.etl.config.FileToDbStepConfig;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+
+/**
+ * {@link FixedLengthPartitionMapper}のテストクラス。
+ */
+public class FixedLengthPartitionMapperTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    private JobContext mockJobContext;
+
+    @Mocked
+    private StepContext mockStepContext;
+
+    private final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+
+    @Before
+    public void setUp() throws Exception {
+        new NonStrictExpectations() {{
+            mockStepContext.getStepName();
+            result = "test-step";
+            mockJobContext.getJobName();
+            result = "test-job";
+        }};
+        stepConfig.setBean(FixedLengthBean.class);
+        stepConfig.setFileName("input.dat");
+    }
+
+    /**
+     * ファイルのレコードが、連続した範囲のパーティションに分割されること。
+     */
+    @Test
+    public void mapPartitions() throws Exception {
+        writeFile("001\n002\n003\n004\n005\n");
+        stepConfig.setPartitions(2);
+
+        final PartitionPlan plan = new FixedLengthPartitionMapper(
+                mockJobContext, mockStepContext, stepConfig, temporaryFolder.getRoot()).mapPartitions();
+
+        assertThat(plan.getPartitions(), is(2));
+        assertThat(plan.getThreads(), is(2));
+        final Properties[] properties = plan.getPartitionProperties();
+        assertPartition(properties[0], "1", "1", "3");
+        assertPartition(properties[1], "2", "4", "5");
+    }
+
+    /**
+     * レコードが存在しない場合は、全てのパーティションが空の範囲となること。
+     */
+    @Test
+    public void mapPartitions_emptyFile() throws Exception {
+        writeFile("");
+        stepConfig.setPartitions(2);
+
+        final PartitionPlan plan = new FixedLengthPartitionMapper(
+                mockJobContext, mockStepContext, stepConfig, temporaryFolder.getRoot()).mapPartitions();
+
+        assertThat(plan.getPartitions(), is(2));
+        for (Properties properties : plan.getPartitionProperties()) {
+            final long from = Long.parseLong(properties.getProperty(FixedLengthPartitionMapper.RECORD_FROM));
+            final long to = Long.parseLong(properties.getProperty(FixedLengthPartitionMapper.RECORD_TO));
+            assertThat("範囲が空であること", from > to, is(true));
+        }
+    }
+
+    /**
+     * パーティションの数が0以下の場合は例外が送出されること。
+     */
+    @Test
+    public void invalidPartitions_shouldThrowException() throws Exception {
+        stepConfig.setPartitions(0);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage(
+                "partitions must be greater than 0. jobId = [test-job], stepId = [test-step], partitions = [0]");
+        new FixedLengthPartitionMapper(mockJobContext, mockStepContext, stepConfig, temporaryFolder.getRoot())
+                .mapPartitions();
+    }
+
+    /**
+     * Beanが固定長ファイルの定義を持たない場合は例外が送出されること。
+     */
+    @Test
+    public void notFixedLengthBean_shouldThrowException() throws Exception {
+        stepConfig.setBean(String.class);
+        stepConfig.setPartitions(2);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("bean must be annotated with FixedLengthRecord.");
+        new FixedLengthPartitionMapper(mockJobContext, mockStepContext, stepConfig, temporaryFolder.getRoot())
+                .mapPartitions();
+    }
+
+    /**
+     * 入力ファイルが存在しない場合は、{@link FileItemReader}と同じメッセージで例外が送出されること。
+     */
+    @Test
+    public void inputFileNotFound_shouldThrowException() throws Exception {
+        stepConfig.setPartitions(2);
+
+        expectedException.expect(BatchRuntimeException.class);
+        expectedException.expectMessage("入力ファイルが存在しません。外部からファイルを受信できているか、"
+                + "ディレクトリやファイルの権限は正しいかを確認してください。入力ファイル=["
+                + new File(temporaryFolder.getRoot(), "input.dat").getAbsolutePath() + ']');
+        new FixedLengthPartitionMapper(mockJobContext, mockStepContext, stepConfig, temporaryFolder.getRoot())
+                .mapPartitions();
+    }
+
+    private void writeFile(String data) throws Exception {
+        final FileOutputStream out = new FileOutputStream(new File(temporaryFolder.getRoot(), "input.dat"));
+        out.write(data.getBytes("utf-8"));
+        out.close();
+    }
+
+    private static void assertPartition(Properties properties, String partition, String from, String to) {
+        assertThat(properties.getProperty(FixedLengthPartitionMapper.PARTITION), is(partition));
+        assertThat(properties.getProperty(FixedLengthPartitionMapper.RECORD_FROM), is(from));
+        assertThat(properties.getProperty(FixedLengthPartitionMapper.RECORD_TO), is(to));
+    }
+
+    @FixedLengthRecord(length = 3, charset = "utf-8", lineSeparator = "\n")
+    public static class FixedLengthBean {
+
+        private String code;
+
+        @FixedLengthField(offset = 1, length = 3)
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+    }
+}
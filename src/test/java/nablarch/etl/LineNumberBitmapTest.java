@@ -0,0 +1,101 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * {@link LineNumberBitmap}のテスト。
+ */
+public class LineNumberBitmapTest {
+
+    /**
+     * 昇順に追加した行番号が連続する範囲ごとにまとめられること。
+     */
+    @Test
+    public void sortedLineNumbers() throws Exception {
+        final LineNumberBitmap sut = new LineNumberBitmap.Builder()
+                .add(1).add(2).add(3)
+                .add(5)
+                .add(10).add(11)
+                .build();
+
+        assertThat(sut.cardinality(), is(6L));
+        assertThat(sut.runCount(), is(3));
+
+        assertThat(sut.contains(0), is(false));
+        assertThat(sut.contains(1), is(true));
+        assertThat(sut.contains(3), is(true));
+        assertThat(sut.contains(4), is(false));
+        assertThat(sut.contains(5), is(true));
+        assertThat(sut.contains(9), is(false));
+        assertThat(sut.contains(11), is(true));
+        assertThat(sut.contains(12), is(false));
+    }
+
+    /**
+     * 昇順でない行番号や重複した行番号を追加した場合でも、正しくまとめられること。
+     */
+    @Test
+    public void unsortedLineNumbers() throws Exception {
+        final LineNumberBitmap sut = new LineNumberBitmap.Builder()
+                .add(10).add(3).add(4).add(11).add(1).add(2).add(3).add(5).add(20)
+                .build();
+
+        assertThat(sut.cardinality(), is(8L));
+        assertThat(sut.runCount(), is(3));
+        assertThat(sut.containsAll(1, 5), is(true));
+        assertThat(sut.containsAll(10, 11), is(true));
+        assertThat(sut.contains(20), is(true));
+        assertThat(sut.contains(6), is(false));
+    }
+
+    /**
+     * 範囲内の全ての行番号が含まれる場合のみ{@code true}となること。
+     */
+    @Test
+    public void containsAll() throws Exception {
+        final LineNumberBitmap sut = new LineNumberBitmap.Builder()
+                .add(11).add(12).add(13).add(14).add(15).add(16).add(17).add(18).add(19).add(20)
+                .add(22)
+                .build();
+
+        assertThat(sut.containsAll(11, 20), is(true));
+        assertThat(sut.containsAll(15, 15), is(true));
+        assertThat(sut.containsAll(10, 20), is(false));
+        assertThat(sut.containsAll(11, 21), is(false));
+        assertThat(sut.containsAll(21, 22), is(false));
+        assertThat(sut.containsAll(22, 22), is(true));
+    }
+
+    /**
+     * 行番号を追加しない場合は、空となること。
+     */
+    @Test
+    public void empty() throws Exception {
+        final LineNumberBitmap sut = new LineNumberBitmap.Builder().build();
+
+        assertThat(sut.cardinality(), is(0L));
+        assertThat(sut.runCount(), is(0));
+        assertThat(sut.contains(1), is(false));
+        assertThat(sut.containsAll(1, 1), is(false));
+    }
+
+    /**
+     * 大量の行番号を追加した場合でも正しくまとめられること。
+     */
+    @Test
+    public void manyLineNumbers() throws Exception {
+        final LineNumberBitmap.Builder builder = new LineNumberBitmap.Builder();
+        for (long i = 1; i <= 1000; i += 2) {
+            builder.add(i);
+        }
+        final LineNumberBitmap sut = builder.build();
+
+        assertThat(sut.cardinality(), is(500L));
+        assertThat(sut.runCount(), is(500));
+        assertThat(sut.contains(999), is(true));
+        assertThat(sut.contains(1000), is(false));
+    }
+}
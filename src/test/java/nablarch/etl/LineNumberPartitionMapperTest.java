@@ -0,0 +1,207 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Properties;
+
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.etl.config.DbToFileStepConfig;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+
+/**
+ * {@link LineNumberPartitionMapper}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class LineNumberPartitionMapperTest {
+
+    @Rule
+    public SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    private JobContext mockJobContext;
+
+    @Mocked
+    private StepContext mockStepContext;
+
+    private final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+
+    @BeforeClass
+    public static void setUpClass() {
+        VariousDbTestHelper.createTable(PartitionEntity.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ConnectionFactory connectionFactory = repositoryResource.getComponentByType(ConnectionFactory.class);
+        final TransactionManagerConnection connection = connectionFactory.getConnection(
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        DbConnectionContext.setConnection(connection);
+
+        new NonStrictExpectations() {{
+            mockStepContext.getStepName();
+            result = "test-step";
+            mockJobContext.getJobName();
+            result = "test-job";
+        }};
+        stepConfig.setBean(PartitionDto.class);
+        stepConfig.setPartitionEntity(PartitionEntity.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+        connection.terminate();
+        DbConnectionContext.removeConnection();
+    }
+
+    /**
+     * LINE_NUMBERの最小値から最大値までが、連続した範囲のパーティションに分割されること。
+     */
+    @Test
+    public void mapPartitions() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                PartitionEntity.create(3L),
+                PartitionEntity.create(5L),
+                PartitionEntity.create(8L),
+                PartitionEntity.create(12L));
+        stepConfig.setPartitions(3);
+
+        final PartitionPlan plan = new LineNumberPartitionMapper(
+                mockJobContext, mockStepContext, stepConfig).mapPartitions();
+
+        assertThat(plan.getPartitions(), is(3));
+        assertThat(plan.getThreads(), is(3));
+        final Properties[] properties = plan.getPartitionProperties();
+        assertPartition(properties[0], "1", "3", "6");
+        assertPartition(properties[1], "2", "7", "10");
+        assertPartition(properties[2], "3", "11", "12");
+    }
+
+    /**
+     * レコードが存在しない場合は、全てのパーティションが空の範囲となること。
+     */
+    @Test
+    public void mapPartitions_emptyTable() throws Exception {
+        VariousDbTestHelper.delete(PartitionEntity.class);
+        stepConfig.setPartitions(2);
+
+        final PartitionPlan plan = new LineNumberPartitionMapper(
+                mockJobContext, mockStepContext, stepConfig).mapPartitions();
+
+        assertThat(plan.getPartitions(), is(2));
+        for (Properties properties : plan.getPartitionProperties()) {
+            final long from = Long.parseLong(properties.getProperty(LineNumberPartitionMapper.LINE_NUMBER_FROM));
+            final long to = Long.parseLong(properties.getProperty(LineNumberPartitionMapper.LINE_NUMBER_TO));
+            assertThat("範囲が空であること", from > to, is(true));
+        }
+    }
+
+    /**
+     * パーティションの数が0以下の場合は例外が送出されること。
+     */
+    @Test
+    public void invalidPartitions_shouldThrowException() throws Exception {
+        stepConfig.setPartitions(0);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage(
+                "partitions must be greater than 0. jobId = [test-job], stepId = [test-step], partitions = [0]");
+        new LineNumberPartitionMapper(mockJobContext, mockStepContext, stepConfig).mapPartitions();
+    }
+
+    /**
+     * LINE_NUMBERの範囲を取得するEntityが設定されていない場合は例外が送出されること。
+     */
+    @Test
+    public void partitionEntityNotSet_shouldThrowException() throws Exception {
+        stepConfig.setPartitions(2);
+        stepConfig.setPartitionEntity(null);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("partitionEntity is required. jobId = [test-job], stepId = [test-step]");
+        new LineNumberPartitionMapper(mockJobContext, mockStepContext, stepConfig).mapPartitions();
+    }
+
+    /**
+     * LINE_NUMBERの範囲を取得するEntityのテーブルが存在しない場合は例外が送出されること。
+     */
+    @Test
+    public void partitionTableNotFound_shouldThrowException() throws Exception {
+        stepConfig.setPartitions(2);
+        stepConfig.setPartitionEntity(NotFoundEntity.class);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage(
+                "partitionEntity must be an entity of the table that has the LINE_NUMBER column."
+                        + " jobId = [test-job], stepId = [test-step],"
+                        + " partitionEntity = [nablarch.etl.LineNumberPartitionMapperTest$NotFoundEntity]");
+        new LineNumberPartitionMapper(mockJobContext, mockStepContext, stepConfig).mapPartitions();
+    }
+
+    private static void assertPartition(Properties properties, String partition, String from, String to) {
+        assertThat(properties.getProperty(LineNumberPartitionMapper.PARTITION), is(partition));
+        assertThat(properties.getProperty(LineNumberPartitionMapper.LINE_NUMBER_FROM), is(from));
+        assertThat(properties.getProperty(LineNumberPartitionMapper.LINE_NUMBER_TO), is(to));
+    }
+
+    @Entity
+    @Table(name = "etl_partition_test")
+    public static class PartitionEntity extends WorkItem {
+
+        private String name;
+
+        @Column(name = "name")
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        private static PartitionEntity create(Long lineNumber) {
+            final PartitionEntity entity = new PartitionEntity();
+            entity.setLineNumber(lineNumber);
+            entity.setName("name" + lineNumber);
+            return entity;
+        }
+    }
+
+    /** テーブルに対応しないBean */
+    public static class PartitionDto {
+
+        public String name;
+    }
+
+    @Entity
+    @Table(name = "etl_partition_not_found")
+    public static class NotFoundEntity extends WorkItem {
+    }
+}
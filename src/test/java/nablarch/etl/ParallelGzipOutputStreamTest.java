@@ -0,0 +1,115 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+/**
+ * {@link ParallelGzipOutputStream}と{@link ConcatenatedGzipInputStream}のテストクラス。
+ */
+public class ParallelGzipOutputStreamTest {
+
+    /**
+     * ブロックごとに圧縮したデータが、書き込んだ順に展開できること。
+     */
+    @Test
+    public void roundTrip() throws Exception {
+        final byte[] data = createData(100000);
+
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final ParallelGzipOutputStream sut = new ParallelGzipOutputStream(compressed, 1000, 4);
+        sut.write(data, 0, 12345);
+        sut.flush();
+        sut.write(data, 12345, data.length - 12345);
+        sut.close();
+
+        assertThat("複数のメンバーを連結したデータが展開できること",
+                readAll(new ConcatenatedGzipInputStream(new ByteArrayInputStream(compressed.toByteArray()), 512)),
+                is(data));
+        assertThat("標準のgzip形式の最初のメンバーとして展開できること",
+                readAll(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))).length > 0,
+                is(true));
+    }
+
+    /**
+     * 何も書き込まずにクローズした場合は、空のgzipデータが出力されること。
+     */
+    @Test
+    public void empty() throws Exception {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(compressed, 1000, 2).close();
+
+        assertThat(readAll(new ConcatenatedGzipInputStream(
+                new ByteArrayInputStream(compressed.toByteArray()), 512)).length, is(0));
+    }
+
+    /**
+     * 最後のメンバーの後のパディングは読み捨てられること。
+     */
+    @Test
+    public void trailingPadding() throws Exception {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final ParallelGzipOutputStream sut = new ParallelGzipOutputStream(compressed, 1000, 2);
+        sut.write("abc".getBytes("UTF-8"));
+        sut.close();
+        compressed.write(new byte[10]);
+
+        assertThat(readAll(new ConcatenatedGzipInputStream(
+                new ByteArrayInputStream(compressed.toByteArray()), 512)), is("abc".getBytes("UTF-8")));
+    }
+
+    /**
+     * CRC32が一致しない場合は例外が送出されること。
+     */
+    @Test(expected = ZipException.class)
+    public void corruptTrailer() throws Exception {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final ParallelGzipOutputStream sut = new ParallelGzipOutputStream(compressed, 1000, 2);
+        sut.write("abc".getBytes("UTF-8"));
+        sut.close();
+        final byte[] bytes = compressed.toByteArray();
+        bytes[bytes.length - 8] ^= 0xFF;
+
+        readAll(new ConcatenatedGzipInputStream(new ByteArrayInputStream(bytes), 512));
+    }
+
+    /**
+     * gzip形式でない場合は例外が送出されること。
+     */
+    @Test(expected = ZipException.class)
+    public void notGzip() throws Exception {
+        new ConcatenatedGzipInputStream(new ByteArrayInputStream("abc".getBytes("UTF-8")), 512);
+    }
+
+    private static byte[] createData(int length) {
+        final byte[] data = new byte[length];
+        final Random random = new Random(0L);
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(4));
+        }
+        return data;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[333];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.etl.config.DbToFileStepConfig;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+
+/**
+ * {@link PartitionedFileReducer}のテストクラス。
+ */
+public class PartitionedFileReducerTest {
+
+    private static final String HEADER = "FIELD-NAME1,FIELD-NAME2\r\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mocked
+    private JobContext mockJobContext;
+
+    @Mocked
+    private StepContext mockStepContext;
+
+    private final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+
+    private File outputFileBasePath;
+
+    @Before
+    public void setUp() throws Exception {
+        new NonStrictExpectations() {{
+            mockStepContext.getStepName();
+            result = "test-step";
+            mockJobContext.getJobName();
+            result = "test-job";
+        }};
+        outputFileBasePath = temporaryFolder.newFolder();
+        stepConfig.setFileName("output.csv");
+        stepConfig.setPartitions(3);
+
+        write("output.csv.part001", HEADER + "1,a\r\n2,b\r\n");
+        write("output.csv.part002", "");
+        write("output.csv.part003", "3,c\r\n");
+    }
+
+    /**
+     * パーティションの順にファイルが結合されること。
+     */
+    @Test
+    public void concatenate() throws Exception {
+        final PartitionedFileReducer sut = new PartitionedFileReducer(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+
+        sut.afterPartitionedStepCompletion(PartitionStatus.COMMIT);
+
+        assertThat(read("output.csv"), is(HEADER + "1,a\r\n2,b\r\n3,c\r\n"));
+        assertThat("パーティションごとのファイルは削除されること",
+                new File(outputFileBasePath, "output.csv.part001").exists(), is(false));
+        assertThat(new File(outputFileBasePath, "output.csv.tmp").exists(), is(false));
+    }
+
+    /**
+     * パーティションごとのファイルを残す設定の場合は、結合されないこと。
+     */
+    @Test
+    public void keepPartitionFiles() throws Exception {
+        stepConfig.setKeepPartitionFiles(true);
+        final PartitionedFileReducer sut = new PartitionedFileReducer(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+
+        sut.afterPartitionedStepCompletion(PartitionStatus.COMMIT);
+
+        assertThat(new File(outputFileBasePath, "output.csv").exists(), is(false));
+        assertThat(read("output.csv.part001"), is(HEADER + "1,a\r\n2,b\r\n"));
+    }
+
+    /**
+     * パーティションがロールバックされた場合は、結合されないこと。
+     */
+    @Test
+    public void rollback() throws Exception {
+        final PartitionedFileReducer sut = new PartitionedFileReducer(
+                mockJobContext, mockStepContext, stepConfig, outputFileBasePath);
+
+        sut.afterPartitionedStepCompletion(PartitionStatus.ROLLBACK);
+
+        assertThat(new File(outputFileBasePath, "output.csv").exists(), is(false));
+        assertThat(new File(outputFileBasePath, "output.csv.part003").exists(), is(true));
+    }
+
+    private void write(String fileName, String text) throws Exception {
+        final FileOutputStream out = new FileOutputStream(new File(outputFileBasePath, fileName));
+        try {
+            out.write(text.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private String read(String fileName) throws Exception {
+        final FileInputStream in = new FileInputStream(new File(outputFileBasePath, fileName));
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
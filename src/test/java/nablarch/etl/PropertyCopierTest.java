@@ -0,0 +1,89 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * {@link PropertyCopier}のテスト。
+ */
+public class PropertyCopierTest {
+
+    /**
+     * 同名のプロパティがコピーされ、型が異なるプロパティは変換されること。
+     */
+    @Test
+    public void createAndCopy() throws Exception {
+        final Src src = new Src();
+        src.setLineNumber(10L);
+        src.setName("name");
+        src.setAge("20");
+        src.setOnlySrc("only");
+
+        final PropertyCopier sut = PropertyCopier.get(Src.class, Dest.class);
+        final Dest dest = (Dest) sut.createAndCopy(src);
+
+        assertThat(dest.getLineNumber(), is(10L));
+        assertThat(dest.getName(), is("name"));
+        assertThat(dest.getAge(), is(20));
+        assertThat("同じクラスの組み合わせでは同じインスタンスが返されること",
+                PropertyCopier.get(Src.class, Dest.class), sameInstance(sut));
+    }
+
+    public static class Src extends WorkItem {
+
+        private String name;
+
+        private String age;
+
+        private String onlySrc;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getAge() {
+            return age;
+        }
+
+        public void setAge(String age) {
+            this.age = age;
+        }
+
+        public String getOnlySrc() {
+            return onlySrc;
+        }
+
+        public void setOnlySrc(String onlySrc) {
+            this.onlySrc = onlySrc;
+        }
+    }
+
+    public static class Dest extends WorkItem {
+
+        private String name;
+
+        private Integer age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+    }
+}
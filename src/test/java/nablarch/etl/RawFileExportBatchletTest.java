@@ -0,0 +1,200 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.etl.config.DbToFileStepConfig;
+import nablarch.fw.batch.ee.progress.BasicProgressManager;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+
+/**
+ * {@link RawFileExportBatchlet}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class RawFileExportBatchletTest {
+
+    @Rule
+    public SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    private JobContext mockJobContext;
+
+    @Mocked
+    private StepContext mockStepContext;
+
+    private final DbToFileStepConfig stepConfig = new DbToFileStepConfig();
+
+    @BeforeClass
+    public static void setUpClass() {
+        VariousDbTestHelper.createTable(RawExportEntity.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ConnectionFactory connectionFactory = repositoryResource.getComponentByType(ConnectionFactory.class);
+        final TransactionManagerConnection connection = connectionFactory.getConnection(
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        DbConnectionContext.setConnection(connection);
+
+        new NonStrictExpectations() {{
+            mockStepContext.getStepName();
+            result = "test-step";
+            mockJobContext.getJobName();
+            result = "test-job";
+        }};
+        stepConfig.setBean(RawExportEntity.class);
+        stepConfig.setSqlId("SELECT_ALL");
+        stepConfig.setFileName("raw.csv");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+        connection.terminate();
+        DbConnectionContext.removeConnection();
+    }
+
+    /**
+     * SELECT文の結果がBeanの定義に従ってCSVファイルに出力されること。
+     */
+    @Test
+    public void testExport() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                RawExportEntity.create(1L, "a,b"),
+                RawExportEntity.create(2L, "x\"y"),
+                RawExportEntity.create(3L, null));
+        final File outputFileBasePath = temporaryFolder.newFolder();
+        stepConfig.setBufferSize(8);
+
+        assertThat(createBatchlet(outputFileBasePath).process(), is("SUCCESS"));
+
+        assertThat(read(new File(outputFileBasePath, "raw.csv")),
+                is("ID,NAME\r\n1,\"a,b\"\r\n2,\"x\"\"y\"\r\n3,\r\n"));
+        assertThat("一時ファイルが残らないこと",
+                new File(outputFileBasePath, "raw.csv" + FileItemWriter.TEMPORARY_FILE_SUFFIX).exists(), is(false));
+    }
+
+    /**
+     * ファイルの分割を設定した場合は例外が送出されること。
+     */
+    @Test
+    public void rolling_shouldThrowException() throws Exception {
+        stepConfig.setMaxRecordsPerFile(10L);
+        stepConfig.setFileName("raw-%03d.csv");
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("raw export does not support maxRecordsPerFile, maxBytesPerFile,"
+                + " manifestFileName and partitions. jobId = [test-job], stepId = [test-step]");
+        createBatchlet(temporaryFolder.newFolder()).process();
+    }
+
+    /**
+     * SELECT文の結果に対応する列がない項目がある場合は、項目を空で出力せずに例外が送出されること。
+     */
+    @Test
+    public void unmatchedProperty_shouldThrowException() throws Exception {
+        VariousDbTestHelper.setUpTable(RawExportEntity.create(1L, "name"));
+        stepConfig.setSqlId("SELECT_ID_ONLY");
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("raw export requires a column of the SELECT result for each property of @Csv."
+                + " jobId = [test-job], stepId = [test-step],"
+                + " bean = [nablarch.etl.RawFileExportBatchletTest$RawExportEntity], unmatched properties = [name]");
+        createBatchlet(temporaryFolder.newFolder()).process();
+    }
+
+    private RawFileExportBatchlet createBatchlet(File outputFileBasePath) {
+        return new RawFileExportBatchlet(mockJobContext, mockStepContext, stepConfig, outputFileBasePath,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+    }
+
+    private static String read(File file) throws Exception {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final Reader reader = new InputStreamReader(in, "UTF-8");
+            final StringBuilder sb = new StringBuilder();
+            final char[] buffer = new char[1024];
+            int length;
+            while ((length = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, length);
+            }
+            return sb.toString();
+        } finally {
+            in.close();
+        }
+    }
+
+    @Entity
+    @Table(name = "etl_raw_export_test")
+    @Csv(type = Csv.CsvType.DEFAULT, headers = {"ID", "NAME"}, properties = {"id", "name"})
+    public static class RawExportEntity {
+
+        private Long id;
+
+        private String name;
+
+        @Id
+        @Column(name = "id", length = 15)
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        @Column(name = "name")
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        private static RawExportEntity create(Long id, String name) {
+            final RawExportEntity entity = new RawExportEntity();
+            entity.setId(id);
+            entity.setName(name);
+            return entity;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * {@link ShiftJisDecoder}のテストクラス。
+ */
+public class ShiftJisDecoderTest {
+
+    /**
+     * Shift_JISとwindows-31jの場合のみ変換表が作成され、文字セットごとに共有されること。
+     */
+    @Test
+    public void of() throws Exception {
+        final ShiftJisDecoder decoder = ShiftJisDecoder.of(Charset.forName("windows-31j"));
+        assertThat(decoder, is(notNullValue()));
+        assertThat(ShiftJisDecoder.of(Charset.forName("MS932")), is(sameInstance(decoder)));
+        assertThat(ShiftJisDecoder.of(Charset.forName("Shift_JIS")), is(notNullValue()));
+        assertThat(ShiftJisDecoder.of(Charset.forName("UTF-8")), is(nullValue()));
+    }
+
+    /**
+     * ASCII文字、半角カナ、全角文字、機種依存文字が、JDKのデコーダと同じ文字に変換されること。
+     */
+    @Test
+    public void decode() throws Exception {
+        assertDecode("windows-31j", "abc 123,\\~");
+        assertDecode("windows-31j", "ｱｲｳｴｵ漢字かな①～∥－");
+        assertDecode("windows-31j", "");
+        assertDecode("Shift_JIS", "abc ｱｲｳ 漢字かな");
+    }
+
+    /**
+     * バッファの途中の項目を変換できること。
+     */
+    @Test
+    public void decodeRange() throws Exception {
+        final Charset charset = Charset.forName("windows-31j");
+        final byte[] bytes = "12なまえ34".getBytes(charset);
+        final char[] chars = new char[bytes.length];
+
+        final int count = ShiftJisDecoder.of(charset).decode(bytes, 2, 6, chars);
+
+        assertThat(new String(chars, 0, count), is("なまえ"));
+    }
+
+    /**
+     * 変換表にないバイト列を含む場合は変換されないこと。
+     */
+    @Test
+    public void unmappedBytes() throws Exception {
+        final ShiftJisDecoder decoder = ShiftJisDecoder.of(Charset.forName("windows-31j"));
+        final char[] chars = new char[4];
+
+        assertThat("2バイト文字の途中で終わる", decoder.decode(new byte[] {'a', (byte) 0x82}, 0, 2, chars), is(-1));
+        assertThat("不正な2バイト目", decoder.decode(new byte[] {(byte) 0x82, 0x20}, 0, 2, chars), is(-1));
+    }
+
+    private static void assertDecode(String charsetName, String expected) throws Exception {
+        final Charset charset = Charset.forName(charsetName);
+        final byte[] bytes = expected.getBytes(charset);
+        final char[] chars = new char[bytes.length];
+
+        final int count = ShiftJisDecoder.of(charset).decode(bytes, 0, bytes.length, chars);
+
+        assertThat(new String(chars, 0, count), is(new String(bytes, charset)));
+    }
+}
@@ -5,6 +5,7 @@ import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.transaction.TransactionContext;
 import nablarch.core.transaction.TransactionFactory;
+import nablarch.etl.ValidationBatchletTest.ValidationControlEntity;
 import nablarch.etl.config.TruncateStepConfig;
 import nablarch.test.support.SystemRepositoryResource;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
@@ -17,6 +18,13 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.VerificationsInOrder;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -27,6 +35,7 @@ import java.util.List;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -38,10 +47,17 @@ public class TableCleaningBatchletTest {
     @ClassRule
     public static SystemRepositoryResource resource = new SystemRepositoryResource("db-default.xml");
 
+    @Mocked
+    private JobContext mockJobContext;
+
+    @Mocked
+    private StepContext mockStepContext;
+
     @BeforeClass
     public static void setUpClass() throws Exception {
         VariousDbTestHelper.createTable(TableCleaningBatchletEntity.class);
         VariousDbTestHelper.createTable(TableCleaningBatchletEntity2.class);
+        VariousDbTestHelper.createTable(ValidationControlEntity.class);
     }
 
     @Before
@@ -53,6 +69,13 @@ public class TableCleaningBatchletTest {
         TransactionContext.setTransaction(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY,
                 transactionFactory.getTransaction(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
         OnMemoryLogWriter.clear();
+
+        new NonStrictExpectations() {{
+            mockJobContext.getJobName();
+            result = "test-job";
+            mockStepContext.getStepName();
+            result = "test-step";
+        }};
     }
 
     @After
@@ -82,7 +105,7 @@ public class TableCleaningBatchletTest {
 
         final TruncateStepConfig truncateStepConfig = new TruncateStepConfig();
         truncateStepConfig.setEntities(Collections.<Class<?>>singletonList(TableCleaningBatchletEntity.class));
-        final TableCleaningBatchlet sut = new TableCleaningBatchlet(truncateStepConfig);
+        final TableCleaningBatchlet sut = new TableCleaningBatchlet(mockJobContext, mockStepContext, truncateStepConfig);
 
         // -------------------------------------------------- execute
         sut.process();
@@ -118,7 +141,7 @@ public class TableCleaningBatchletTest {
         // -------------------------------------------------- setup root config
         final TruncateStepConfig truncateStepConfig = new TruncateStepConfig();
         truncateStepConfig.setEntities(Arrays.asList(TableCleaningBatchletEntity.class, TableCleaningBatchletEntity2.class));
-        final TableCleaningBatchlet sut = new TableCleaningBatchlet(truncateStepConfig);
+        final TableCleaningBatchlet sut = new TableCleaningBatchlet(mockJobContext, mockStepContext, truncateStepConfig);
 
         // -------------------------------------------------- execute
         sut.process();
@@ -146,6 +169,145 @@ public class TableCleaningBatchletTest {
         }
     }
 
+    /**
+     * 多重度を指定した場合、複数テーブルが並列でクリーニングされること。
+     */
+    @Test
+    public void multipleTableInParallel() throws Exception {
+        // -------------------------------------------------- setup data
+        VariousDbTestHelper.setUpTable(
+                new TableCleaningBatchletEntity(1L, "name1"),
+                new TableCleaningBatchletEntity(999L, "name999")
+        );
+        VariousDbTestHelper.setUpTable(
+                new TableCleaningBatchletEntity2(1L, "name1"),
+                new TableCleaningBatchletEntity2(10L, "name10")
+        );
+
+        final TruncateStepConfig truncateStepConfig = new TruncateStepConfig();
+        truncateStepConfig.setEntities(Arrays.asList(TableCleaningBatchletEntity.class, TableCleaningBatchletEntity2.class));
+        truncateStepConfig.setParallelism(2);
+        final TableCleaningBatchlet sut = new TableCleaningBatchlet(mockJobContext, mockStepContext, truncateStepConfig);
+
+        // -------------------------------------------------- execute
+        sut.process();
+
+        // -------------------------------------------------- assert
+        assertThat("テーブルが空になっていること",
+                VariousDbTestHelper.findAll(TableCleaningBatchletEntity.class).size(), is(0));
+        assertThat("テーブルが空になっていること",
+                VariousDbTestHelper.findAll(TableCleaningBatchletEntity2.class).size(), is(0));
+
+        final List<String> progressLogs = OnMemoryLogWriter.getMessages("writer.progress");
+        assertThat(progressLogs.toString(), containsString(
+                "job name: [test-job] step name: [test-step] table name: [table_cleaning_batchlet] result: [truncated]"));
+        assertThat(progressLogs.toString(), containsString(
+                "job name: [test-job] step name: [test-step] table name: [ssd.table_cleaning_batchlet2] result: [truncated]"));
+    }
+
+    /**
+     * 空テーブルのスキップを指定した場合、データが存在しないテーブルはtruncateされないこと。
+     */
+    @Test
+    public void skipEmptyTable() throws Exception {
+        // -------------------------------------------------- setup data
+        VariousDbTestHelper.setUpTable(
+                new TableCleaningBatchletEntity(1L, "name1")
+        );
+        VariousDbTestHelper.delete(TableCleaningBatchletEntity2.class);
+
+        final TruncateStepConfig truncateStepConfig = new TruncateStepConfig();
+        truncateStepConfig.setEntities(Arrays.asList(TableCleaningBatchletEntity.class, TableCleaningBatchletEntity2.class));
+        truncateStepConfig.setSkipEmptyTable(true);
+        final TableCleaningBatchlet sut = new TableCleaningBatchlet(mockJobContext, mockStepContext, truncateStepConfig);
+
+        // -------------------------------------------------- execute
+        sut.process();
+
+        // -------------------------------------------------- assert
+        assertThat("テーブルが空になっていること",
+                VariousDbTestHelper.findAll(TableCleaningBatchletEntity.class).size(), is(0));
+
+        final List<String> progressLogs = OnMemoryLogWriter.getMessages("writer.progress");
+        assertThat(progressLogs.toString(), containsString(
+                "table name: [table_cleaning_batchlet] result: [truncated]"));
+        assertThat(progressLogs.toString(), containsString(
+                "table name: [ssd.table_cleaning_batchlet2] result: [skipped]"));
+
+        for (String sqlLog : OnMemoryLogWriter.getMessages("writer.sql")) {
+            assertThat("空のテーブルにはtruncateが発行されないこと",
+                    sqlLog.matches("(?s).*truncate.+table_cleaning_batchlet2.*"), is(not(true)));
+        }
+    }
+
+    /**
+     * 空テーブルのスキップを指定した場合、データの有無の確認後にロールバックしてからTRUNCATE文が発行されること。
+     */
+    @Test
+    public void skipEmptyTable_rollbackBeforeTruncate() throws Exception {
+        // -------------------------------------------------- setup data
+        VariousDbTestHelper.setUpTable(
+                new TableCleaningBatchletEntity(1L, "name1")
+        );
+
+        final TruncateStepConfig truncateStepConfig = new TruncateStepConfig();
+        truncateStepConfig.setEntities(Collections.<Class<?>>singletonList(TableCleaningBatchletEntity.class));
+        truncateStepConfig.setSkipEmptyTable(true);
+        final TableCleaningBatchlet sut = new TableCleaningBatchlet(mockJobContext, mockStepContext, truncateStepConfig);
+        final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+        new Expectations(connection) {};
+
+        // -------------------------------------------------- execute
+        sut.process();
+
+        // -------------------------------------------------- assert
+        assertThat(VariousDbTestHelper.findAll(TableCleaningBatchletEntity.class).size(), is(0));
+        new VerificationsInOrder() {{
+            connection.prepareStatement("select 1 from table_cleaning_batchlet");
+            connection.rollback();
+            connection.prepareStatement(withMatch("(?i).*truncate.*"));
+            connection.commit();
+        }};
+    }
+
+    /**
+     * 差分バリデーションの管理テーブルが指定された場合、truncate対象のテーブルのバリデーション済みの行番号が削除されること。
+     */
+    @Test
+    public void resetHighWaterMark() throws Exception {
+        // -------------------------------------------------- setup data
+        VariousDbTestHelper.setUpTable(
+                new TableCleaningBatchletEntity(1L, "name1")
+        );
+        VariousDbTestHelper.setUpTable(
+                createControl("table_cleaning_batchlet", 10L),
+                createControl("ssd.table_cleaning_batchlet2", 20L)
+        );
+
+        final TruncateStepConfig truncateStepConfig = new TruncateStepConfig();
+        truncateStepConfig.setEntities(Collections.<Class<?>>singletonList(TableCleaningBatchletEntity.class));
+        truncateStepConfig.setIncrementalControlTable("etl_validation_control");
+        final TableCleaningBatchlet sut = new TableCleaningBatchlet(mockJobContext, mockStepContext, truncateStepConfig);
+
+        // -------------------------------------------------- execute
+        sut.process();
+
+        // -------------------------------------------------- assert
+        assertThat(VariousDbTestHelper.findAll(TableCleaningBatchletEntity.class).size(), is(0));
+
+        final List<ValidationControlEntity> controls = VariousDbTestHelper.findAll(ValidationControlEntity.class);
+        assertThat("truncate対象ではないテーブルの行番号は削除されないこと", controls.size(), is(1));
+        assertThat(controls.get(0).tableName, is("ssd.table_cleaning_batchlet2"));
+        assertThat(controls.get(0).validatedLineNumber, is(20L));
+    }
+
+    private static ValidationControlEntity createControl(final String tableName, final Long validatedLineNumber) {
+        final ValidationControlEntity entity = new ValidationControlEntity();
+        entity.tableName = tableName;
+        entity.validatedLineNumber = validatedLineNumber;
+        return entity;
+    }
+
     @Table(name = "table_cleaning_batchlet")
     @Entity
     public static class TableCleaningBatchletEntity {
@@ -4,6 +4,8 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.batch.runtime.context.JobContext;
@@ -14,6 +16,7 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Size;
 
 import org.hamcrest.Matchers;
 
@@ -24,6 +27,8 @@ import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.transaction.TransactionContext;
 import nablarch.core.transaction.TransactionFactory;
 import nablarch.core.validation.ee.Domain;
+import nablarch.core.validation.ee.Length;
+import nablarch.core.validation.ee.Required;
 import nablarch.etl.config.ValidationStepConfig;
 import nablarch.fw.batch.ee.progress.BasicProgressManager;
 import nablarch.test.support.SystemRepositoryResource;
@@ -42,6 +47,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.rules.TestName;
 import org.junit.runner.RunWith;
 
+import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
 import mockit.Verifications;
@@ -71,6 +77,7 @@ public class ValidationBatchletTest {
     public static void setUpClass() throws Exception {
         VariousDbTestHelper.createTable(ValidationBatchletEntity.class);
         VariousDbTestHelper.createTable(ValidationBatchletErrorEntity.class);
+        VariousDbTestHelper.createTable(ValidationControlEntity.class);
 
         TransactionFactory transactionFactory = resource.getComponent("jdbcTransactionFactory");
         TransactionContext.setTransaction(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY,
@@ -363,6 +370,513 @@ public class ValidationBatchletTest {
         ));
     }
 
+    /**
+     * 並列でバリデーションを行った場合でも、逐次の場合と同じ結果となること。
+     * <p/>
+     * エラーの内容は一時テーブルの取得順にログ出力されること。
+     */
+    @Test
+    public void validation_multiErrorInParallel() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setParallelism(3);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        // -------------------------------------------------- setup input data
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error 1
+                new ValidationBatchletEntity(3L, "う", "ku", "100"),             // error 2
+                new ValidationBatchletEntity(4L, "え", "け", "1"),
+                new ValidationBatchletEntity(5L, "お", "こ", "2")
+        );
+
+        // -------------------------------------------------- execute
+        assertThat("エラーありなので警告あり終了", sut.process(), is("WARNING"));
+
+        // -------------------------------------------------- assert table
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class, "lineNumber");
+        assertThat(errors.size(), is(2));
+        assertThat(errors.get(0).lineNumber, is(2L));
+        assertThat(errors.get(1).lineNumber, is(3L));
+
+        final List<ValidationBatchletEntity> inputs = VariousDbTestHelper.findAll(ValidationBatchletEntity.class,
+                "lineNumber");
+        assertThat("エラーの2レコード削除される", inputs.size(), is(3));
+
+        // -------------------------------------------------- assert log
+        final List<String> logMessages = OnMemoryLogWriter.getMessages("writer.memory");
+        assertThat(logMessages.size(), is(4));
+        assertThat(logMessages.get(0), containsString("line number=[2]"));
+        assertThat(logMessages.get(1), containsString("line number=[3]"));
+        assertThat(logMessages.get(2), containsString("line number=[3]"));
+        assertThat(logMessages.get(3),
+                containsString("-INFO- validation result."
+                        + " bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " line count=[5],"
+                        + " error count=[3]"));
+    }
+
+    /**
+     * 全ての制約がSQLの条件に変換できる場合は、SQLでバリデーションが行われること。
+     */
+    @Test
+    public void validationBySql() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletSqlBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletSqlErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setSqlPushdown(true);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        // -------------------------------------------------- setup input data
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error(Length)
+                new ValidationBatchletEntity(3L, "", "く", "1"),                 // error(Required)
+                new ValidationBatchletEntity(4L, "え", "けけけけけけ", "1"),     // error(Size)
+                new ValidationBatchletEntity(5L, "お", null, "2")
+        );
+
+        // -------------------------------------------------- execute
+        assertThat("エラーありなので警告あり終了", sut.process(), is("WARNING"));
+
+        // -------------------------------------------------- assert table
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class, "lineNumber");
+        assertThat(errors.size(), is(3));
+        assertThat(errors.get(0).lineNumber, is(2L));
+        assertThat(errors.get(1).lineNumber, is(3L));
+        assertThat(errors.get(2).lineNumber, is(4L));
+
+        final List<ValidationBatchletEntity> inputs = VariousDbTestHelper.findAll(ValidationBatchletEntity.class,
+                "lineNumber");
+        assertThat(inputs.size(), is(2));
+        assertThat(inputs.get(0).lineNumber, is(1L));
+        assertThat(inputs.get(1).lineNumber, is(5L));
+
+        // -------------------------------------------------- assert log
+        final List<String> logMessages = OnMemoryLogWriter.getMessages("writer.memory");
+        assertThat(logMessages, Matchers.contains(
+                containsString("-INFO- validation was performed by SQL."
+                        + " bean class=[" + ValidationBatchletSqlBean.class.getName() + "], error line count=[3]"),
+                containsString("-INFO- validation result."
+                        + " bean class=[" + ValidationBatchletSqlBean.class.getName() + "],"
+                        + " line count=[5],"
+                        + " error count=[3]")
+        ));
+    }
+
+    /**
+     * SQLの条件に変換できない制約がある場合は、Javaでバリデーションが行われること。
+     */
+    @Test
+    public void validationBySql_notConvertible() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setSqlPushdown(true);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1")      // error
+        );
+
+        assertThat(sut.process(), is("WARNING"));
+
+        final List<String> logMessages = OnMemoryLogWriter.getMessages("writer.memory");
+        assertThat(logMessages.size(), is(3));
+        assertThat(logMessages.get(0), containsString("-INFO- validation can not be performed by SQL"));
+        assertThat(logMessages.get(1), containsString("-WARN- validation error has occurred."));
+    }
+
+    /**
+     * エラーの行番号を引き継ぐ場合は、ジョブの一時データにエラーの行番号が設定されること。
+     */
+    @Test
+    public void validation_publishErrorLines() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setInvalidFlagColumn("invalid_flag");
+        stepConfig.setPublishErrorLines(true);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        new Expectations() {{
+            mockJobContext.getTransientUserData();
+            result = null;
+        }};
+
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error
+                new ValidationBatchletEntity(3L, "う", "ku", "1"),               // error
+                new ValidationBatchletEntity(4L, "え", "け", "1")
+        );
+
+        assertThat(sut.process(), is("WARNING"));
+
+        new Verifications() {{
+            Object registry;
+            mockJobContext.setTransientUserData(registry = withCapture());
+            assertThat(registry, instanceOf(LineNumberBitmapRegistry.class));
+        }};
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- error line numbers were published. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " error line count=[2], run count=[1]");
+    }
+
+    /**
+     * 分割してバリデーションを行う場合は、範囲ごとに完了した行番号とそれまでのエラー数が保存されること。
+     * 全ての範囲が完了した場合は、保存した行番号がクリアされること。
+     */
+    @Test
+    public void validation_slice() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setSliceSize(2);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        new Expectations() {{
+            mockStepContext.getPersistentUserData();
+            result = null;
+        }};
+
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error
+                new ValidationBatchletEntity(3L, "う", "く", "1"),
+                new ValidationBatchletEntity(4L, "え", "け", "1"),
+                new ValidationBatchletEntity(5L, "お", "ko", "1")                // error
+        );
+
+        assertThat(sut.process(), is("WARNING"));
+
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class, "lineNumber");
+        assertThat(errors.size(), is(2));
+        assertThat(errors.get(0).lineNumber, is(2L));
+        assertThat(errors.get(1).lineNumber, is(5L));
+        assertThat(VariousDbTestHelper.findAll(ValidationBatchletEntity.class).size(), is(3));
+
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- validation result. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " line count=[5], error count=[2]");
+
+        new Verifications() {{
+            final List<Serializable> saved = new ArrayList<Serializable>();
+            mockStepContext.setPersistentUserData(withCapture(saved));
+            assertThat(saved.size(), is(4));
+            assertRestartPoint(saved.get(0), 2L, 1L);
+            assertRestartPoint(saved.get(1), 4L, 1L);
+            assertRestartPoint(saved.get(2), 5L, 2L);
+            assertThat(saved.get(3), is(nullValue()));
+        }};
+    }
+
+    private static void assertRestartPoint(final Serializable actual, final long lineNumber, final long errorCount) {
+        assertThat(actual, instanceOf(ValidationBatchlet.RestartPoint.class));
+        assertThat(Deencapsulation.<Long>getField(actual, "lineNumber"), is(lineNumber));
+        assertThat(Deencapsulation.<Long>getField(actual, "errorCount"), is(errorCount));
+    }
+
+    /**
+     * 分割してバリデーションを行う場合の再実行では、前回の実行で完了した範囲の次から再開されること。
+     * エラーテーブルはクリーニングされず、前回の実行でエラーとなったレコードも一時テーブルから削除されること。
+     */
+    @Test
+    public void validation_sliceRestart() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setSliceSize(2);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        new Expectations() {{
+            mockStepContext.getPersistentUserData();
+            result = new ValidationBatchlet.RestartPoint(2L, 1L);
+        }};
+
+        // 前回の実行で行番号2がエラーとなりエラーテーブルに登録済み(一時テーブルからの削除はステップの最後に行うため残っている)
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error (previous execution)
+                new ValidationBatchletEntity(3L, "う", "く", "1"),
+                new ValidationBatchletEntity(4L, "え", "け", "1")
+        );
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletErrorEntity(2L, "いいいいいい", "き", "1")
+        );
+
+        assertThat("今回の実行でエラーがなくても、前回の実行のエラーが終了ステータスに反映されること",
+                sut.process(), is("WARNING"));
+
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class, "lineNumber");
+        assertThat("前回の実行のエラーレコードが保持されること", errors.size(), is(1));
+        assertThat(errors.get(0).lineNumber, is(2L));
+
+        final List<ValidationBatchletEntity> inputs = VariousDbTestHelper.findAll(
+                ValidationBatchletEntity.class, "lineNumber");
+        assertThat("前回の実行でエラーとなったレコードが一時テーブルから削除されること", inputs.size(), is(3));
+        assertThat(inputs.get(0).lineNumber, is(1L));
+        assertThat(inputs.get(1).lineNumber, is(3L));
+        assertThat(inputs.get(2).lineNumber, is(4L));
+
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- validation was restarted. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " restart line number=[2], previous error count=[1]");
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- validation result. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " line count=[2], error count=[1]");
+    }
+
+    /**
+     * 分割する範囲のサイズが0以下の場合はエラーとなること。
+     */
+    @Test
+    public void invalidSliceSize() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setSliceSize(0);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("sliceSize must be greater than 0.");
+        sut.process();
+    }
+
+    /**
+     * プロパティごとのログ出力数の上限が設定されている場合は、上限を超えたエラーは件数のみが集計されて出力されること。
+     */
+    @Test
+    public void validation_violationLogLimit() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setViolationLogLimit(1);
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // firstName error
+                new ValidationBatchletEntity(3L, "ううううううう", "く", "1"),   // firstName error (suppressed)
+                new ValidationBatchletEntity(4L, "え", "ke", "1")                // lastName error
+        );
+
+        assertThat(sut.process(), is("WARNING"));
+
+        assertThat("エラーレコードは全て移動されること",
+                VariousDbTestHelper.findAll(ValidationBatchletErrorEntity.class).size(), is(3));
+
+        final List<String> logMessages = OnMemoryLogWriter.getMessages("writer.memory");
+        int detailCount = 0;
+        for (String message : logMessages) {
+            if (message.contains("validation error has occurred.")) {
+                detailCount++;
+            }
+        }
+        assertThat("詳細はプロパティごとに1件のみ出力されること", detailCount, is(2));
+        OnMemoryLogWriter.assertLogContains("writer.memory", "line number=[2]");
+
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-WARN- validation error summary. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " property name=[firstName]");
+        OnMemoryLogWriter.assertLogContains("writer.memory", "count=[2]");
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-WARN- validation error summary. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " property name=[lastName]");
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-WARN- validation error summary. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " suppressed count=[1]");
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- validation result. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " line count=[4], error count=[3]");
+    }
+
+    /**
+     * 差分バリデーションの場合は、前回までにバリデーションを行った行より後の行のみがバリデーションされること。
+     * <p/>
+     * 前回までのエラーレコードは保持されること。
+     * 一時テーブルを再作成した場合は、バリデーション済みの行番号を削除しなければエラーとなり、
+     * 削除した場合は全ての行がバリデーションされること。
+     */
+    @Test
+    public void validation_incremental() throws Exception {
+        VariousDbTestHelper.delete(ValidationControlEntity.class);
+
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setIncrementalControlTable("etl_validation_control");
+
+        // -------------------------------------------------- first run
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error
+                new ValidationBatchletEntity(3L, "う", "く", "1")
+        );
+        assertThat(new ValidationBatchlet(mockJobContext, mockStepContext, stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext)).process(), is("WARNING"));
+
+        List<ValidationControlEntity> controls = VariousDbTestHelper.findAll(ValidationControlEntity.class);
+        assertThat(controls.size(), is(1));
+        assertThat(controls.get(0).tableName, is("ssd.etl_validation_test"));
+        assertThat(controls.get(0).validatedLineNumber, is(3L));
+
+        // -------------------------------------------------- second run (appended rows only)
+        VariousDbTestHelper.insert(
+                new ValidationBatchletEntity(4L, "え", "け", "1"),
+                new ValidationBatchletEntity(5L, "お", "ko", "1")                // error
+        );
+        OnMemoryLogWriter.clear();
+        assertThat(new ValidationBatchlet(mockJobContext, mockStepContext, stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext)).process(), is("WARNING"));
+
+        List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class, "lineNumber");
+        assertThat("前回のエラーレコードが保持されること", errors.size(), is(2));
+        assertThat(errors.get(0).lineNumber, is(2L));
+        assertThat(errors.get(1).lineNumber, is(5L));
+
+        List<ValidationBatchletEntity> inputs = VariousDbTestHelper.findAll(ValidationBatchletEntity.class,
+                "lineNumber");
+        assertThat(inputs.size(), is(3));
+        assertThat(inputs.get(2).lineNumber, is(4L));
+
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- validation result. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " line count=[2], error count=[1]");
+        controls = VariousDbTestHelper.findAll(ValidationControlEntity.class);
+        assertThat(controls.get(0).validatedLineNumber, is(5L));
+
+        // -------------------------------------------------- recreated work table without reset
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "か", "さささささささ", "1")     // error
+        );
+        try {
+            new ValidationBatchlet(mockJobContext, mockStepContext, stepConfig,
+                    new BasicProgressManager(mockJobContext, mockStepContext)).process();
+            fail("バリデーション済みの行番号が削除されていないため、ここは通らない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString(
+                    "max line number of the work table is less than the validated line number."));
+            assertThat(e.getMessage(), containsString("validated line number=[5], max line number=[1]"));
+        }
+        DbConnectionContext.getTransactionManagerConnection().rollback();
+
+        // -------------------------------------------------- recreated work table with reset
+        new ValidationHighWaterMark("etl_validation_control", "ssd.etl_validation_test").reset();
+        DbConnectionContext.getTransactionManagerConnection().commit();
+        OnMemoryLogWriter.clear();
+        assertThat(new ValidationBatchlet(mockJobContext, mockStepContext, stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext)).process(), is("WARNING"));
+
+        errors = VariousDbTestHelper.findAll(ValidationBatchletErrorEntity.class);
+        assertThat("前回までのエラーレコードはクリーニングされること", errors.size(), is(1));
+        assertThat(errors.get(0).lineNumber, is(1L));
+        controls = VariousDbTestHelper.findAll(ValidationControlEntity.class);
+        assertThat(controls.get(0).validatedLineNumber, is(1L));
+    }
+
+    /**
+     * エラーを示すフラグのカラムが設定されている場合は、エラーのレコードが削除されずにフラグが設定されること。
+     */
+    @Test
+    public void validation_invalidFlag() throws Exception {
+        final ValidationStepConfig stepConfig = new ValidationStepConfig();
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorTableEntity(ValidationBatchletErrorBean.class);
+        stepConfig.setMode(ValidationStepConfig.Mode.CONTINUE);
+        stepConfig.setInvalidFlagColumn("invalid_flag");
+        final ValidationBatchlet sut = new ValidationBatchlet(
+                mockJobContext,
+                mockStepContext,
+                stepConfig,
+                new BasicProgressManager(mockJobContext, mockStepContext));
+
+        VariousDbTestHelper.setUpTable(
+                new ValidationBatchletEntity(1L, "あ", "か", "1"),
+                new ValidationBatchletEntity(2L, "いいいいいい", "き", "1"),     // error 1
+                new ValidationBatchletEntity(3L, "う", "ku", "100"),             // error 2
+                new ValidationBatchletEntity(4L, "え", "け", "1")
+        );
+
+        assertThat(sut.process(), is("WARNING"));
+
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class);
+        assertThat(errors.size(), is(2));
+
+        final List<ValidationBatchletEntity> inputs = VariousDbTestHelper.findAll(ValidationBatchletEntity.class,
+                "lineNumber");
+        assertThat("レコードは削除されないこと", inputs.size(), is(4));
+        assertThat(inputs.get(0).invalidFlag, is(nullValue()));
+        assertThat(inputs.get(1).invalidFlag, is("1"));
+        assertThat(inputs.get(2).invalidFlag, is("1"));
+        assertThat(inputs.get(3).invalidFlag, is(nullValue()));
+
+        // -------------------------------------------------- assert sql
+        final List<String> sqlLogs = OnMemoryLogWriter.getMessages("writer.sql");
+        boolean updated = false;
+        for (String sqlLog : sqlLogs) {
+            if (sqlLog.contains("[update ")) {
+                assertThat("スキーマを指定したテーブル名が別名で参照されること", sqlLog,
+                        allOf(
+                                containsString("update ssd.etl_validation_test t set invalid_flag = '1'"),
+                                containsString("from ssd.etl_validation_test_error j"),
+                                containsString("j.line_number = t.line_number")
+                        ));
+                updated = true;
+            }
+        }
+        assertThat("フラグを設定するUPDATE文が実行されること", updated, is(true));
+    }
+
     /**
      * 項目間バリデーションでエラーがある場合のテスト。
      * <p/>
@@ -801,6 +1315,53 @@ public class ValidationBatchletTest {
 
     }
 
+    @Entity
+    @Table(name = "etl_validation_test", schema = "ssd")
+    public static class ValidationBatchletSqlBean extends WorkItem {
+
+        private String firstName;
+
+        private String lastName;
+
+        private String age;
+
+        @Required
+        @Length(max = 5)
+        @Column(name = "first_name")
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        @Size(max = 5)
+        @Column(name = "last_name")
+        public String getLastName() {
+            return lastName;
+        }
+
+        public void setLastName(String lastName) {
+            this.lastName = lastName;
+        }
+
+        @Column(name = "age")
+        public String getAge() {
+            return age;
+        }
+
+        public void setAge(String age) {
+            this.age = age;
+        }
+    }
+
+    @Entity
+    @Table(name = "etl_validation_test_error", schema = "ssd")
+    public static class ValidationBatchletSqlErrorBean extends ValidationBatchletSqlBean {
+
+    }
+
     @Entity
     @Table(name = "etl_validation_test", schema = "ssd")
     public static class ValidationBatchletEntity {
@@ -818,6 +1379,9 @@ public class ValidationBatchletTest {
         @Column(name = "age", length = 3)
         public String age;
 
+        @Column(name = "invalid_flag", length = 1)
+        public String invalidFlag;
+
         public ValidationBatchletEntity() {
         }
 
@@ -857,4 +1421,16 @@ public class ValidationBatchletTest {
         }
 
     }
+
+    @Entity
+    @Table(name = "etl_validation_control")
+    public static class ValidationControlEntity {
+
+        @Column(name = "table_name", length = 100)
+        @Id
+        public String tableName;
+
+        @Column(name = "validated_line_number", length = 15)
+        public Long validatedLineNumber;
+    }
 }
@@ -0,0 +1,230 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.transaction.TransactionFactory;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletBean;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletErrorBean;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletErrorEntity;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+import nablarch.test.support.log.app.OnMemoryLogWriter;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+/**
+ * {@link ValidationItemProcessor}のテスト。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class ValidationItemProcessorTest {
+
+    @ClassRule
+    public static SystemRepositoryResource resource = new SystemRepositoryResource("nablarch/etl/validation.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    JobContext mockJobContext;
+
+    @Mocked
+    StepContext mockStepContext;
+
+    ValidationResult validationResult = new ValidationResult();
+
+    FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        VariousDbTestHelper.createTable(ValidationBatchletErrorEntity.class);
+
+        TransactionFactory transactionFactory = resource.getComponent("jdbcTransactionFactory");
+        TransactionContext.setTransaction(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY,
+                transactionFactory.getTransaction(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        TransactionContext.removeTransaction();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ConnectionFactory connectionFactory = resource.getComponentByType(ConnectionFactory.class);
+        final TransactionManagerConnection connection = connectionFactory.getConnection(
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        DbConnectionContext.setConnection(connection);
+
+        OnMemoryLogWriter.clear();
+        VariousDbTestHelper.delete(ValidationBatchletErrorEntity.class);
+
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorEntity(ValidationBatchletErrorBean.class);
+        validationResult.setErrorRecordWriter(
+                new ErrorRecordWriter(ValidationBatchletBean.class, ValidationBatchletErrorBean.class, 1000));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+        DbConnectionContext.removeConnection();
+        connection.terminate();
+
+        OnMemoryLogWriter.clear();
+    }
+
+    /**
+     * エラーがないデータはそのまま返され、エラーのデータは{@code null}が返されて、
+     * チャンクの書き込み前にエラーテーブルに登録されること。
+     */
+    @Test
+    public void process() throws Exception {
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+
+        final ValidationItemProcessor sut = new ValidationItemProcessor(mockStepContext, stepConfig);
+
+        final ValidationBatchletBean valid = createBean(1L, "あ", "か", "1");
+        assertThat(sut.processItem(valid), sameInstance((Object) valid));
+        assertThat(sut.processItem(createBean(2L, "いいいいいい", "き", "1")), is(nullValue()));
+        assertThat(sut.processItem(createBean(3L, "う", "ku", "100")), is(nullValue()));
+        DbConnectionContext.getTransactionManagerConnection().commit();
+        assertThat("チャンクの書き込み前は登録されない",
+                VariousDbTestHelper.findAll(ValidationBatchletErrorEntity.class).size(), is(0));
+
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig)
+                .beforeWrite(Collections.<Object>singletonList(valid));
+        DbConnectionContext.getTransactionManagerConnection().commit();
+
+        assertThat(validationResult.getLineCount(), is(3L));
+        assertThat(validationResult.getErrorCount(), is(3L));
+
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(
+                ValidationBatchletErrorEntity.class, "lineNumber");
+        assertThat(errors.size(), is(2));
+        assertThat(errors.get(0).lineNumber, is(2L));
+        assertThat(errors.get(0).firstName, is("いいいいいい"));
+        assertThat(errors.get(1).lineNumber, is(3L));
+        assertThat(errors.get(1).age, is("100"));
+
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "bean class=[nablarch.etl.ValidationBatchletTest$ValidationBatchletBean], property name=[firstName]");
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "bean class=[nablarch.etl.ValidationBatchletTest$ValidationBatchletBean], property name=[age]");
+    }
+
+    /**
+     * 書き込むデータがないチャンクの場合は、チャンクの終了時にエラーテーブルに登録され、コミットされること。
+     */
+    @Test
+    public void flushAfterChunk() throws Exception {
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+
+        final ValidationItemProcessor sut = new ValidationItemProcessor(mockStepContext, stepConfig);
+        assertThat(sut.processItem(createBean(1L, "いいいいいい", "き", "1")), is(nullValue()));
+
+        final ValidationStepListener listener = new ValidationStepListener(mockJobContext, mockStepContext, stepConfig);
+        listener.beforeChunk();
+        listener.afterChunk();
+
+        final List<ValidationBatchletErrorEntity> errors = VariousDbTestHelper.findAll(ValidationBatchletErrorEntity.class);
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0).lineNumber, is(1L));
+    }
+
+    /**
+     * チャンクでエラーが発生した場合は、登録待ちのエラーのレコードが破棄されること。
+     */
+    @Test
+    public void discardOnChunkError() throws Exception {
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+
+        final ValidationItemProcessor sut = new ValidationItemProcessor(mockStepContext, stepConfig);
+        assertThat(sut.processItem(createBean(1L, "いいいいいい", "き", "1")), is(nullValue()));
+
+        final ValidationStepListener listener = new ValidationStepListener(mockJobContext, mockStepContext, stepConfig);
+        listener.onError(new IllegalStateException("chunk error"));
+        listener.afterChunk();
+        DbConnectionContext.getTransactionManagerConnection().commit();
+
+        assertThat(VariousDbTestHelper.findAll(ValidationBatchletErrorEntity.class).size(), is(0));
+    }
+
+    /**
+     * 許容するエラー数を超えた場合は、{@link EtlJobAbortedException}が送出されること。
+     */
+    @Test
+    public void errorLimitExceeded() throws Exception {
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+        stepConfig.setErrorLimit(1);
+
+        final ValidationItemProcessor sut = new ValidationItemProcessor(mockStepContext, stepConfig);
+        assertThat(sut.processItem(createBean(1L, "いいいいいい", "き", "1")), is(nullValue()));
+
+        expectedException.expect(EtlJobAbortedException.class);
+        expectedException.expectMessage("number of validation errors has exceeded the maximum number of errors.");
+        sut.processItem(createBean(2L, "う", "ku", "1"));
+    }
+
+    /**
+     * {@link ValidationStepListener}が設定されていない場合は例外が送出されること。
+     */
+    @Test
+    public void listenerNotFound() throws Exception {
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = null;
+        }};
+
+        final ValidationItemProcessor sut = new ValidationItemProcessor(mockStepContext, stepConfig);
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("please set ValidationStepListener to the step listener.");
+        sut.processItem(createBean(1L, "あ", "か", "1"));
+    }
+
+    private static ValidationBatchletBean createBean(
+            final Long lineNumber, final String firstName, final String lastName, final String age) {
+        final ValidationBatchletBean bean = new ValidationBatchletBean();
+        bean.setLineNumber(lineNumber);
+        bean.setFirstName(firstName);
+        bean.setLastName(lastName);
+        bean.setAge(age);
+        return bean;
+    }
+}
@@ -0,0 +1,171 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletBean;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletErrorBean;
+import nablarch.etl.config.FileToDbStepConfig;
+import nablarch.etl.config.ValidationStepConfig.Mode;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.log.app.OnMemoryLogWriter;
+
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link ValidationStepListener}のテスト。
+ */
+public class ValidationStepListenerTest {
+
+    @ClassRule
+    public static SystemRepositoryResource resource = new SystemRepositoryResource("nablarch/etl/validation.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    JobContext mockJobContext;
+
+    @Mocked
+    StepContext mockStepContext;
+
+    FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+
+    @Before
+    public void setUp() throws Exception {
+        new Expectations() {{
+            mockJobContext.getJobName();
+            result = "job";
+            minTimes = 0;
+            mockStepContext.getStepName();
+            result = "step";
+            minTimes = 0;
+        }};
+        OnMemoryLogWriter.clear();
+
+        stepConfig.setBean(ValidationBatchletBean.class);
+        stepConfig.setErrorEntity(ValidationBatchletErrorBean.class);
+    }
+
+    /**
+     * ステップの開始時にバリデーション結果が設定されること。
+     */
+    @Test
+    public void beforeStep() throws Exception {
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig).beforeStep();
+
+        new Verifications() {{
+            Object result;
+            mockStepContext.setTransientUserData(result = withCapture());
+            assertThat(result, instanceOf(ValidationResult.class));
+            assertThat(((ValidationResult) result).getErrorRecordWriter(), is(notNullValue()));
+        }};
+    }
+
+    /**
+     * エラーテーブルに一括登録するレコード数が0以下の場合はエラーとなること。
+     */
+    @Test
+    public void beforeStep_invalidErrorInsertBatchSize() throws Exception {
+        stepConfig.setErrorInsertBatchSize(0);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage(
+                "errorInsertBatchSize must be greater than 0. jobId = [job], stepId = [step], errorInsertBatchSize = [0]");
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig).beforeStep();
+    }
+
+    /**
+     * エラーテーブルのEntityが設定されていない場合はエラーとなること。
+     */
+    @Test
+    public void beforeStep_errorEntityIsNull() throws Exception {
+        stepConfig.setErrorEntity(null);
+
+        expectedException.expect(InvalidEtlConfigException.class);
+        expectedException.expectMessage("errorEntity is required.");
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig).beforeStep();
+    }
+
+    /**
+     * エラーがない場合は、結果ログのみ出力されること。
+     */
+    @Test
+    public void afterStep_success() throws Exception {
+        final ValidationResult validationResult = new ValidationResult();
+        validationResult.addLineCount(3);
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig).afterStep();
+
+        OnMemoryLogWriter.assertLogContains("writer.memory",
+                "-INFO- validation result. bean class=[" + ValidationBatchletBean.class.getName() + "],"
+                        + " line count=[3], error count=[0]");
+        assertThat(OnMemoryLogWriter.getMessages("writer.operator").isEmpty(), is(true));
+        new Verifications() {{
+            mockJobContext.setExitStatus(anyString);
+            times = 0;
+        }};
+    }
+
+    /**
+     * 継続モードでエラーがある場合は、終了ステータスが"WARNING"となること。
+     */
+    @Test
+    public void afterStep_continue() throws Exception {
+        final ValidationResult validationResult = new ValidationResult();
+        validationResult.addLineCount(3);
+        validationResult.addErrorCount(2);
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+        stepConfig.setMode(Mode.CONTINUE);
+
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig).afterStep();
+
+        final List<String> operator = OnMemoryLogWriter.getMessages("writer.operator");
+        assertThat(operator, Matchers.contains(
+                containsString("-ERROR- 入力ファイルのバリデーションでエラーが発生しました。入力ファイルが正しいかなどを相手先システムに確認してください。")
+        ));
+        new Verifications() {{
+            mockJobContext.setExitStatus("WARNING");
+        }};
+    }
+
+    /**
+     * アボートモードでエラーがある場合は、{@link EtlJobAbortedException}が送出されること。
+     */
+    @Test
+    public void afterStep_abort() throws Exception {
+        final ValidationResult validationResult = new ValidationResult();
+        validationResult.addLineCount(3);
+        validationResult.addErrorCount(2);
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = validationResult;
+        }};
+
+        expectedException.expect(EtlJobAbortedException.class);
+        expectedException.expectMessage("abort the JOB because there was a validation error."
+                + " bean class=[" + ValidationBatchletBean.class.getName() + "], error count=[2]");
+        new ValidationStepListener(mockJobContext, mockStepContext, stepConfig).afterStep();
+    }
+}
@@ -0,0 +1,104 @@
+package nablarch.etl;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import nablarch.core.validation.ee.ValidatorUtil;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletBean;
+import nablarch.etl.ValidationBatchletTest.ValidationBatchletSqlBean;
+import nablarch.test.support.SystemRepositoryResource;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/**
+ * {@link WorkItemValidator}のテスト。
+ */
+public class WorkItemValidatorTest {
+
+    @ClassRule
+    public static SystemRepositoryResource resource = new SystemRepositoryResource("nablarch/etl/validation.xml");
+
+    /**
+     * 全ての制約が判定処理に変換できる場合に、{@link Validator}と同じエラー内容となること。
+     */
+    @Test
+    public void compiledProperties() throws Exception {
+        final Validator validator = ValidatorUtil.getValidator();
+        final WorkItemValidator sut = WorkItemValidator.compile(validator, ValidationBatchletSqlBean.class);
+
+        assertThat(sut.validate(createSqlBean("あいう", "かき")).isEmpty(), is(true));
+        assertThat(sut.validate(createSqlBean("あいうえお", "かきくけこ")).isEmpty(), is(true));
+        assertThat("サロゲートペアを含む文字列", sut.validate(createSqlBean("𠮷", null)).isEmpty(), is(true));
+
+        assertSameResult(validator, sut, createSqlBean(null, null));
+        assertSameResult(validator, sut, createSqlBean("", "かきくけこさ"));
+        assertSameResult(validator, sut, createSqlBean("あいうえおか", "か"));
+
+        assertThat(toStrings(sut.validate(createSqlBean(null, "かきくけこさ"))),
+                is(toStrings(validator.validate((WorkItem) createSqlBean(null, "かきくけこさ")))));
+        assertThat(sut.validate(createSqlBean(null, "かきくけこさ")).size(), is(2));
+    }
+
+    /**
+     * 判定処理に変換できない制約は、{@link Validator}でバリデーションされること。
+     */
+    @Test
+    public void fallbackProperties() throws Exception {
+        final Validator validator = ValidatorUtil.getValidator();
+        final WorkItemValidator sut = WorkItemValidator.compile(validator, ValidationBatchletBean.class);
+
+        assertThat(sut.validate(createBean("あ", "か", "1")).isEmpty(), is(true));
+        assertSameResult(validator, sut, createBean("あいうえおか", "か", "1"));
+        assertSameResult(validator, sut, createBean("あ", "ka", "1"));
+        assertSameResult(validator, sut, createBean("あ", "か", "100"));
+        assertSameResult(validator, sut, createBean("あいうえお", "かきくけ", "1"));
+    }
+
+    /**
+     * {@link WorkItemValidator#standard(Validator)}の場合は、{@link Validator}の結果がそのまま返されること。
+     */
+    @Test
+    public void standard() throws Exception {
+        final Validator validator = ValidatorUtil.getValidator();
+        final WorkItemValidator sut = WorkItemValidator.standard(validator);
+
+        assertSameResult(validator, sut, createBean("あいうえおか", "ka", "100"));
+    }
+
+    private static void assertSameResult(final Validator validator, final WorkItemValidator sut, final WorkItem item) {
+        assertThat(toStrings(sut.validate(item)), is(toStrings(validator.validate(item))));
+        assertThat(sut.validate(item).isEmpty(), is(false));
+    }
+
+    private static Set<String> toStrings(final Set<? extends ConstraintViolation<?>> violations) {
+        final Set<String> result = new TreeSet<String>();
+        for (ConstraintViolation<?> violation : violations) {
+            result.add(violation.getPropertyPath() + ":" + violation.getMessage());
+        }
+        return result;
+    }
+
+    private static ValidationBatchletSqlBean createSqlBean(final String firstName, final String lastName) {
+        final ValidationBatchletSqlBean bean = new ValidationBatchletSqlBean();
+        bean.setLineNumber(1L);
+        bean.setFirstName(firstName);
+        bean.setLastName(lastName);
+        return bean;
+    }
+
+    private static ValidationBatchletBean createBean(final String firstName, final String lastName, final String age) {
+        final ValidationBatchletBean bean = new ValidationBatchletBean();
+        bean.setLineNumber(1L);
+        bean.setFirstName(firstName);
+        bean.setLastName(lastName);
+        bean.setAge(age);
+        return bean;
+    }
+}
@@ -4,6 +4,7 @@ import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
 import nablarch.core.repository.SystemRepository;
+import nablarch.etl.SchemaMetaDataCache;
 import nablarch.etl.config.app.TestDto;
 import nablarch.etl.config.app.TestDto2;
 import nablarch.etl.config.app.TestDto3;
@@ -14,6 +15,9 @@ import org.junit.Test;
 
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -114,6 +118,43 @@ public class EtlConfigProviderTest {
         assertThat(loader.count, is(1));
     }
 
+    /**
+     * カラム情報のキャッシュが有効な場合でも、設定のロード時にデータベースにアクセスしないこと。
+     */
+    @Test
+    public void testLoadWithoutDatabaseConnection() {
+        repositoryResource.addComponent("etlConfigLoader", new EtlConfigLoader() {
+            @Override
+            public JobConfig load(JobContext context) {
+                final FileToDbStepConfig stepConfig = new FileToDbStepConfig();
+                stepConfig.setBean(CachedEntity.class);
+                final JobConfig jobConfig = new JobConfig();
+                jobConfig.setSteps(Collections.<String, StepConfig>singletonMap("step", stepConfig));
+                return jobConfig;
+            }
+        });
+        repositoryResource.addComponent("nablarch.etl.schemaMetaDataCache.enabled", "true");
+
+        new Expectations() {{
+            mockJobContext.getJobName();
+            result = "jobName";
+            mockStepContext.getStepName();
+            result = "step";
+        }};
+
+        try {
+            final StepConfig actual = EtlConfigProvider.getConfig(mockJobContext, mockStepContext);
+            assertThat(actual, is(notNullValue()));
+        } finally {
+            SchemaMetaDataCache.invalidateAll();
+        }
+    }
+
+    @Entity
+    @Table(name = "cached_entity")
+    public static class CachedEntity {
+    }
+
     public static final class CustomConfigLoader implements EtlConfigLoader {
 
         int count;
@@ -0,0 +1,176 @@
+package nablarch.etl.dialect;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import nablarch.etl.InvalidEtlConfigException;
+import nablarch.etl.config.DbToDbStepConfig.InsertMode;
+import nablarch.etl.generator.Db2TruncateSqlGenerator;
+import nablarch.etl.generator.H2MergeSqlGenerator;
+import nablarch.etl.generator.InsertSqlGenerator;
+import nablarch.etl.generator.OracleDirectPathInsertSqlGenerator;
+import nablarch.etl.generator.OracleParallelDirectPathInsertSqlGenerator;
+import nablarch.etl.generator.PostgresMergeSqlGenerator;
+import nablarch.etl.generator.SqlServerMergeSqlGenerator;
+import nablarch.etl.generator.StandardMergeSqlGenerator;
+import nablarch.test.support.SystemRepositoryResource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * {@link EtlDialectResolver}のテストクラス。
+ */
+public class EtlDialectResolverTest {
+
+    @Rule
+    public SystemRepositoryResource resource = new SystemRepositoryResource("nablarch/etl/config/empty.xml");
+
+    @Before
+    public void setUp() throws Exception {
+        EtlDialectResolver.clearCache();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        EtlDialectResolver.clearCache();
+    }
+
+    /**
+     * URLに対応する本モジュールのダイアレクトが解決されること。
+     */
+    @Test
+    public void resolveBuiltInDialect() throws Exception {
+        final EtlDialect oracle = EtlDialectResolver.resolve("jdbc:oracle:thin:@localhost:1521/xe");
+        assertThat(oracle.supports(EtlDialect.Feature.DIRECT_PATH_INSERT), is(true));
+        assertThat(oracle.createMergeSqlGenerator(), instanceOf(StandardMergeSqlGenerator.class));
+        assertThat(oracle.createInsertSqlGenerator(InsertMode.ORACLE_DIRECT_PATH),
+                instanceOf(OracleDirectPathInsertSqlGenerator.class));
+
+        final EtlDialect db2 = EtlDialectResolver.resolve("jdbc:db2://localhost:50000/sample");
+        assertThat(db2.createMergeSqlGenerator(), instanceOf(StandardMergeSqlGenerator.class));
+        assertThat(db2.createTruncateSqlGenerator(), instanceOf(Db2TruncateSqlGenerator.class));
+
+        assertThat(EtlDialectResolver.resolve("jdbc:h2:mem:test").createMergeSqlGenerator(),
+                instanceOf(H2MergeSqlGenerator.class));
+        assertThat(EtlDialectResolver.resolve("jdbc:sqlserver://localhost:1433").createMergeSqlGenerator(),
+                instanceOf(SqlServerMergeSqlGenerator.class));
+        assertThat(EtlDialectResolver.resolve("JDBC:POSTGRESQL://localhost:5432/postgres").createMergeSqlGenerator(),
+                instanceOf(PostgresMergeSqlGenerator.class));
+    }
+
+    /**
+     * INSERTモードに必要な機能をサポートするダイアレクトのみ、INSERT文のジェネレータを生成できること。
+     */
+    @Test
+    public void createInsertSqlGenerator() throws Exception {
+        final EtlDialect oracle = EtlDialectResolver.resolve("jdbc:oracle:thin:@localhost:1521/xe");
+        assertThat(oracle.createInsertSqlGenerator(InsertMode.NORMAL), instanceOf(InsertSqlGenerator.class));
+        assertThat(oracle.createInsertSqlGenerator(InsertMode.ORACLE_PARALLEL_DIRECT),
+                instanceOf(OracleParallelDirectPathInsertSqlGenerator.class));
+
+        final EtlDialect h2 = EtlDialectResolver.resolve("jdbc:h2:mem:test");
+        assertThat(h2.createInsertSqlGenerator(InsertMode.NORMAL), instanceOf(InsertSqlGenerator.class));
+        for (InsertMode mode : new InsertMode[] {InsertMode.ORACLE_DIRECT_PATH, InsertMode.ORACLE_PARALLEL_DIRECT}) {
+            try {
+                h2.createInsertSqlGenerator(mode);
+                fail("サポートしていないINSERTモードは例外となること");
+            } catch (InvalidEtlConfigException e) {
+                assertThat(e.getMessage(), is("insert mode is not supported by the database. insert mode = ["
+                        + mode + "], dialect = [" + H2EtlDialect.class.getName() + ']'));
+            }
+        }
+    }
+
+    /**
+     * 対象となるダイアレクトが存在しない場合は、デフォルトのダイアレクトとなること。
+     */
+    @Test
+    public void resolveDefaultDialect() throws Exception {
+        final EtlDialect dialect = EtlDialectResolver.resolve("jdbc:mysql://localhost:3306/test");
+        assertThat(dialect, instanceOf(DefaultEtlDialect.class));
+        assertThat(dialect.supports(EtlDialect.Feature.MERGE), is(false));
+    }
+
+    /**
+     * リポジトリに登録したダイアレクトが優先して解決され、URLごとにキャッシュされること。
+     */
+    @Test
+    public void resolveCustomDialect() throws Exception {
+        final EtlDialect custom = new DefaultEtlDialect() {
+            @Override
+            public boolean isTarget(final String url) {
+                return url.startsWith("jdbc:h2");
+            }
+        };
+        resource.addComponent("etlDialects", Arrays.asList(custom));
+
+        final EtlDialect dialect = EtlDialectResolver.resolve("jdbc:h2:mem:test");
+        assertThat(dialect, sameInstance(custom));
+
+        resource.addComponent("etlDialects", null);
+        assertThat("解決済みのダイアレクトが再利用されること",
+                EtlDialectResolver.resolve("jdbc:h2:mem:test"), sameInstance(custom));
+    }
+
+    /**
+     * ダイアレクトに応じた結合によるDELETE文が生成され、カラムがテーブルの別名で修飾されること。
+     */
+    @Test
+    public void buildJoinDeleteSql() throws Exception {
+        assertThat(EtlDialectResolver.resolve("jdbc:h2:mem:test").buildJoinDeleteSql("work", "err", "line_number"),
+                is("delete from work t where exists (select 1 from err j where j.line_number = t.line_number)"));
+        assertThat(EtlDialectResolver.resolve("jdbc:postgresql://localhost/db")
+                                     .buildJoinDeleteSql("work", "err", "line_number"),
+                is("delete from work t using err j where t.line_number = j.line_number"));
+        assertThat(EtlDialectResolver.resolve("jdbc:sqlserver://localhost")
+                                     .buildJoinDeleteSql("work", "err", "line_number"),
+                is("delete t from work t inner join err j on t.line_number = j.line_number"));
+    }
+
+    /**
+     * スキーマで修飾されたテーブル名の場合も、カラムはテーブルの別名で修飾されること。
+     */
+    @Test
+    public void buildJoinDeleteSqlWithSchema() throws Exception {
+        assertThat(EtlDialectResolver.resolve("jdbc:h2:mem:test")
+                                     .buildJoinDeleteSql("etl.work", "etl.err", "line_number"),
+                is("delete from etl.work t where exists (select 1 from etl.err j where j.line_number = t.line_number)"));
+    }
+
+    /**
+     * ダイアレクトに応じた結合によるUPDATE文が生成され、カラムがテーブルの別名で修飾されること。
+     */
+    @Test
+    public void buildJoinUpdateSql() throws Exception {
+        assertThat(EtlDialectResolver.resolve("jdbc:h2:mem:test")
+                                     .buildJoinUpdateSql("work", "err", "line_number", "invalid_flag = '1'"),
+                is("update work t set invalid_flag = '1'"
+                        + " where exists (select 1 from err j where j.line_number = t.line_number)"));
+        assertThat(EtlDialectResolver.resolve("jdbc:postgresql://localhost/db")
+                                     .buildJoinUpdateSql("work", "err", "line_number", "invalid_flag = '1'"),
+                is("update work t set invalid_flag = '1'"
+                        + " where exists (select 1 from err j where j.line_number = t.line_number)"));
+        assertThat(EtlDialectResolver.resolve("jdbc:sqlserver://localhost")
+                                     .buildJoinUpdateSql("work", "err", "line_number", "invalid_flag = '1'"),
+                is("update t set invalid_flag = '1' from work t inner join err j on t.line_number = j.line_number"));
+    }
+
+    /**
+     * スキーマで修飾されたテーブル名の場合も、UPDATE文のカラムはテーブルの別名で修飾されること。
+     */
+    @Test
+    public void buildJoinUpdateSqlWithSchema() throws Exception {
+        assertThat(EtlDialectResolver.resolve("jdbc:h2:mem:test")
+                                     .buildJoinUpdateSql("etl.work", "etl.err", "line_number", "invalid_flag = '1'"),
+                is("update etl.work t set invalid_flag = '1'"
+                        + " where exists (select 1 from etl.err j where j.line_number = t.line_number)"));
+    }
+}
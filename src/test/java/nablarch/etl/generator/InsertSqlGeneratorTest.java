@@ -7,6 +7,7 @@ import java.util.Map;
 
 import nablarch.core.util.StringUtil;
 import nablarch.etl.InvalidEtlConfigException;
+import nablarch.etl.SchemaMetaDataCache;
 import nablarch.etl.config.DbToDbStepConfig;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
 
@@ -47,6 +48,33 @@ public class InsertSqlGeneratorTest extends InsertSqlGeneratorTestSupport {
                         + ") " + inputResource));
     }
 
+    /**
+     * 同じステップの設定に対しては、初回に生成したSQL文が再利用されること。
+     */
+    @Test
+    public void generatedSqlIsReused() throws Exception {
+
+        final DbToDbStepConfig config = new DbToDbStepConfig() {
+            {
+                setBean(EtlInsertGenEntity.class);
+            }
+            @Override
+            public String getSql() {
+                return "select id, name1, name2 from input_table";
+            }
+        };
+
+        final String first = sut.generateSql(config);
+        assertThat("生成済みのSQL文が返されること", sut.generateSql(config), sameInstance(first));
+
+        config.putGeneratedSql(InsertSqlGenerator.class.getName(), "insert into dummy select * from dummy_input");
+        assertThat("保持しているSQL文が返されること", sut.generateSql(config),
+                is("insert into dummy select * from dummy_input"));
+
+        SchemaMetaDataCache.invalidate("etl_insert_gen");
+        assertThat("カラム情報のキャッシュを破棄すると再生成されること", sut.generateSql(config), is(first));
+    }
+
     /**
      * 非Entityクラスはエラーとなること。
      */
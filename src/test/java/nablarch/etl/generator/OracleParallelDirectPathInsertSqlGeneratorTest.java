@@ -0,0 +1,65 @@
+package nablarch.etl.generator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import nablarch.core.util.StringUtil;
+import nablarch.etl.config.DbToDbStepConfig;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link OracleParallelDirectPathInsertSqlGenerator}のテスト。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class OracleParallelDirectPathInsertSqlGeneratorTest extends InsertSqlGeneratorTestSupport {
+
+    private final OracleParallelDirectPathInsertSqlGenerator sut = new OracleParallelDirectPathInsertSqlGenerator();
+
+    /**
+     * insert文とselect文に並列度を指定したPARALLELヒントが設定されること。
+     */
+    @Test
+    public void generateInsertSql() throws Exception {
+
+        final DbToDbStepConfig config = createConfig("select id, name1, name2 from input_table");
+        config.setParallelDegree(4);
+
+        final String result = sut.generateSql(config);
+
+        assertThat(result, is("insert /*+ APPEND PARALLEL(4) */ into etl_insert_gen("
+                + StringUtil.join(",", getColumnNames("etl_insert_gen"))
+                + ") select /*+ PARALLEL(4) */ id, name1, name2 from input_table"));
+    }
+
+    /**
+     * 並列度が指定されていない場合は、並列度なしのPARALLELヒントとなり、
+     * select文の既存のヒントにPARALLELヒントが追加されること。
+     */
+    @Test
+    public void generateInsertSql_withoutDegree() throws Exception {
+
+        final DbToDbStepConfig config = createConfig("SELECT /*+ FULL(input_table) */ id, name1, name2 from input_table");
+
+        final String result = sut.generateSql(config);
+
+        assertThat(result, is("insert /*+ APPEND PARALLEL */ into etl_insert_gen("
+                + StringUtil.join(",", getColumnNames("etl_insert_gen"))
+                + ") select /*+ PARALLEL FULL(input_table) */ id, name1, name2 from input_table"));
+    }
+
+    private static DbToDbStepConfig createConfig(final String sql) {
+        return new DbToDbStepConfig() {
+            {
+                setBean(EtlInsertGenEntity.class);
+            }
+
+            @Override
+            public String getSql() {
+                return sql;
+            }
+        };
+    }
+}
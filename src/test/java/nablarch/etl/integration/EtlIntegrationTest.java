@@ -4,6 +4,8 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeThat;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -368,6 +370,89 @@ public class EtlIntegrationTest {
         ));
     }
 
+    /**
+     * {@link nablarch.etl.ValidationItemProcessor}でバリデーションしながらファイル→DBの処理ができること。
+     * <p/>
+     * 最後のチャンクが全てエラーのデータ(ライタが呼び出されないチャンク)の場合も、エラーテーブルへの登録がコミットされること。
+     */
+    @Test
+    public void executeFileToDbWithValidationItemProcessor() throws Exception {
+
+        // setup input file(2件ずつのチャンクで、2チャンク目は全てエラー)
+        fileResource.createInputFile("inputfile1.csv",
+                                     "ユーザID,名前\r\n",
+                                     "1,なまえ1\r\n",
+                                     "2,なまえ2\r\n",
+                                     "a,なまえ3\r\n",
+                                     "b,なまえ4\r\n");
+
+        // execute job
+        final JobExecution execution = EtlIntegrationTest.startJob("etl-integration-test-validation-chunk");
+        assertThat(execution.getBatchStatus(), is(BatchStatus.COMPLETED));
+        assertThat(execution.getExitStatus(), is("WARNING"));
+
+        final List<InputFile1WorkTable> works = VariousDbTestHelper.findAll(InputFile1WorkTable.class, "lineNumber");
+        assertThat("エラー以外のデータがワークテーブルに登録される", works.size(), is(2));
+        assertThat(works.get(0).getUserId(), is("1"));
+        assertThat(works.get(1).getUserId(), is("2"));
+
+        final List<InputFile1ErrorEntity> errors = VariousDbTestHelper.findAll(InputFile1ErrorEntity.class, "lineNumber");
+        assertThat("全てエラーのチャンクのデータもエラーテーブルにコミットされる", errors.size(), is(2));
+        assertThat(errors.get(0).getUserId(), is("a"));
+        assertThat(errors.get(1).getUserId(), is("b"));
+    }
+
+    /**
+     * パーティションに分割したDB→ファイルの処理ができること。
+     * <p/>
+     * パーティションのスレッドでデータベース接続とトランザクションが使用でき(アイテムライタのリスナーによるコミットを含む)、
+     * パーティションごとのファイルがLINE_NUMBERの順に結合されること。
+     */
+    @Test
+    public void executePartitionedDbToFile() throws Exception {
+
+        // setup table
+        VariousDbTestHelper.setUpTable(
+                new InputFile1WorkTable(1L, "1", "なまえ1"),
+                new InputFile1WorkTable(2L, "2", "なまえ2"),
+                new InputFile1WorkTable(3L, "3", "なまえ3"),
+                new InputFile1WorkTable(4L, "4", "なまえ4"),
+                new InputFile1WorkTable(5L, "5", "なまえ5"),
+                new InputFile1WorkTable(6L, "6", "なまえ6"),
+                new InputFile1WorkTable(7L, "7", "なまえ7"));
+
+        // execute job
+        final JobExecution execution = EtlIntegrationTest.startJob("etl-integration-test-partitioned-db2file");
+        assertThat(execution.getBatchStatus(), is(BatchStatus.COMPLETED));
+
+        // assert output file
+        final File outputFile = new File("testdata/output/outputfile1.csv");
+        assertThat(readFile(outputFile), is("行番号,ユーザID,名前\r\n"
+                + "1,1,なまえ1\r\n"
+                + "2,2,なまえ2\r\n"
+                + "3,3,なまえ3\r\n"
+                + "4,4,なまえ4\r\n"
+                + "5,5,なまえ5\r\n"
+                + "6,6,なまえ6\r\n"
+                + "7,7,なまえ7\r\n"));
+        assertThat("パーティションごとのファイルは削除される",
+                new File("testdata/output/outputfile1.csv.part001").exists(), is(false));
+    }
+
+    private static String readFile(final File file) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                offset += in.read(bytes, offset, bytes.length - offset);
+            }
+            return new String(bytes, "utf-8");
+        } finally {
+            in.close();
+        }
+    }
+
     private void assertOutputTable1(final List<HashMap<String, String>> expectedRowsOrderByUserId) {
 
         final List<OutputTable1Entity> result = VariousDbTestHelper.findAll(OutputTable1Entity.class, "userId");
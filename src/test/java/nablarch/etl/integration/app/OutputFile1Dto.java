@@ -0,0 +1,41 @@
+package nablarch.etl.integration.app;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.Csv.CsvType;
+
+/**
+ * 出力ファイル1のBean。
+ */
+@Csv(type = CsvType.DEFAULT, headers = {"行番号", "ユーザID", "名前"}, properties = {"lineNumber", "userId", "name"})
+public class OutputFile1Dto {
+
+    public Long lineNumber;
+
+    public String userId;
+
+    public String name;
+
+    public Long getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(Long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,5 @@
+SELECT_ALL=
+select id, name from etl_raw_export_test order by id
+
+SELECT_ID_ONLY=
+select id from etl_raw_export_test order by id
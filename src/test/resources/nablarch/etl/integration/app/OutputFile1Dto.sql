@@ -0,0 +1,11 @@
+SELECT_INPUT_FILE1_PARTITION=
+SELECT
+  line_number,
+  user_id,
+  name
+FROM
+  input_file1_table
+WHERE
+  line_number BETWEEN :lineNumberFrom AND :lineNumberTo
+ORDER BY
+  line_number